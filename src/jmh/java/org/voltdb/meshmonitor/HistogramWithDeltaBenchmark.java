@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SynchronizedHistogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording a value on the receive thread, while a reader takes the histogram every now and then as the
+ * console and Prometheus do. The baseline records into two synchronized histograms, the way values were recorded
+ * before {@link HistogramWithDelta} moved to a recorder.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistogramWithDeltaBenchmark {
+
+    private static final long PING_INTERVAL = TimeUnit.MILLISECONDS.toMicros(5);
+
+    @Param({"false", "true"})
+    private boolean compact;
+
+    private HistogramWithDelta histogram;
+    private SynchronizedHistogram cumulative;
+    private SynchronizedHistogram delta;
+    private long value;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConsoleLogger logger = new ConsoleLogger(new PrintWriter(new StringWriter()), false);
+        HistogramConfig config = compact ? HistogramConfig.compact() : HistogramConfig.DEFAULT;
+        histogram = config.newHistogramWithDelta(logger, "ping", TimeUnit.MICROSECONDS);
+
+        cumulative = compact
+                ? new SynchronizedHistogram(HistogramConfig.DEFAULT_SIGNIFICANT_DIGITS)
+                : new SynchronizedHistogram(config.highestTrackableValue(TimeUnit.MICROSECONDS), HistogramConfig.DEFAULT_SIGNIFICANT_DIGITS);
+        delta = cumulative.copy();
+    }
+
+    @Benchmark
+    @Group("recorder")
+    @GroupThreads(1)
+    public void record() {
+        histogram.recordValueWithExpectedInterval(nextValue(), PING_INTERVAL);
+    }
+
+    @Benchmark
+    @Group("recorder")
+    @GroupThreads(1)
+    public long read() throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(10);
+        return histogram.takeDeltaHistogram(Histogram::getTotalCount);
+    }
+
+    @Benchmark
+    @Group("baseline")
+    @GroupThreads(1)
+    public void recordTwice() {
+        long value = nextValue();
+        cumulative.recordValueWithExpectedInterval(value, PING_INTERVAL);
+        delta.recordValueWithExpectedInterval(value, PING_INTERVAL);
+    }
+
+    @Benchmark
+    @Group("baseline")
+    @GroupThreads(1)
+    public long readBaseline() throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(10);
+        long count = delta.getTotalCount();
+        delta.reset();
+        return count;
+    }
+
+    // A few hundred microseconds, around the ping interval so that coordinated omission correction adds nothing
+    private long nextValue() {
+        value = (value + 7) & 1023;
+        return PING_INTERVAL - 512 + value;
+    }
+}
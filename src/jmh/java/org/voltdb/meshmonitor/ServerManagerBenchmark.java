@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention on the {@link ServerManager} registry of a 1000 node mesh. Mimics the production mix: every send thread
+ * lists connections, every received membership list is checked with {@link ServerManager#hasConnection}, metrics
+ * scrapes list monitors and, rarely, a peer disconnects and reconnects.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServerManagerBenchmark {
+
+    private static final Duration PING_INTERVAL = Duration.ofMillis(5);
+
+    @Param({"1000"})
+    private int peers;
+
+    private ServerManager serverManager;
+    private InetSocketAddress[] remoteIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConsoleLogger logger = new ConsoleLogger(new PrintWriter(new StringWriter()), false);
+        serverManager = new ServerManager(logger, IdleMonitor::new, PING_INTERVAL, ServerManagerConfig.DEFAULT);
+
+        remoteIds = new InetSocketAddress[peers];
+        for (int i = 0; i < peers; i++) {
+            remoteIds[i] = new InetSocketAddress("10.0." + (i / 256) + "." + (i % 256), 12222);
+            serverManager.createNewMonitorIfNotAlreadyPresent(null, null, remoteIds[i]);
+        }
+    }
+
+    @Benchmark
+    @Group("registry")
+    @GroupThreads(4)
+    public boolean hasConnection() {
+        return serverManager.hasConnection(randomPeer());
+    }
+
+    @Benchmark
+    @Group("registry")
+    @GroupThreads(2)
+    public List<InetSocketAddress> getConnections() {
+        return serverManager.getConnections();
+    }
+
+    @Benchmark
+    @Group("registry")
+    @GroupThreads(1)
+    public int getMonitors() {
+        return serverManager.getMonitors().size();
+    }
+
+    @Benchmark
+    @Group("registry")
+    @GroupThreads(1)
+    public boolean reconnect() {
+        InetSocketAddress remoteId = randomPeer();
+        serverManager.removeConnection(serverManager.getMonitor(remoteId));
+        return serverManager.createNewMonitorIfNotAlreadyPresent(null, null, remoteId);
+    }
+
+    private InetSocketAddress randomPeer() {
+        return remoteIds[ThreadLocalRandom.current().nextInt(remoteIds.length)];
+    }
+
+    /**
+     * Monitor that is always running but has no threads or connection behind it.
+     */
+    private static final class IdleMonitor extends Monitor {
+
+        IdleMonitor(ConsoleLogger logger,
+                    MeshMonitor meshMonitor,
+                    MeshMonitorTimings timings,
+                    Duration pingInterval,
+                    SocketChannel channel,
+                    InetSocketAddress remoteId) {
+            super(logger, meshMonitor, timings, pingInterval, channel, remoteId, MonitorConfig.DEFAULT);
+        }
+
+        @Override
+        public void start() {
+            isRunning = true;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.serdes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Cost of encoding and decoding a single frame of every type, as done for every ping on the send and receive threads.
+ * Frames carry no addresses, the common case once membership has been advertised. Run with {@code -prof gc} to see
+ * that none of them allocate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FrameCodecBenchmark {
+
+    @Param({"0", "1400"})
+    private int payloadBytes;
+
+    private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(PacketSerializer.MAX_PAYLOAD_BYTES + 4096);
+    private final ByteBuffer noAddresses = ByteBuffer.allocateDirect(0);
+    private final FrameReader reader = new FrameReader();
+    private final ConnectionBuffers buffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+    private final Consumer<List<InetSocketAddress>> membershipConsumer = list -> {
+    };
+
+    private ByteBuffer payload;
+    private ByteBuffer legacyPing;
+    private ByteBuffer paddedPing;
+    private ByteBuffer echo;
+    private int sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        payload = ByteBuffer.allocateDirect(payloadBytes);
+
+        legacyPing = encoded(buffer -> PacketSerializer.writePing(buffer, 42L, noAddresses.duplicate()));
+        paddedPing = encoded(buffer -> PacketSerializer.writePing(buffer, 7, 42L, noAddresses.duplicate(), payload.duplicate()));
+        echo = encoded(buffer -> PacketSerializer.writeEcho(buffer, 1L, 2L, 3L));
+    }
+
+    @Benchmark
+    public int encodePaddedPing() {
+        sendBuffer.clear();
+        noAddresses.rewind();
+        payload.rewind();
+        PacketSerializer.writePing(sendBuffer, sequence++, 42L, noAddresses, payload);
+        return sendBuffer.position();
+    }
+
+    @Benchmark
+    public long decodePaddedPing() throws IOException {
+        paddedPing.rewind();
+        FrameReader frame = reader.wrap(paddedPing);
+        PacketSerializer.readMembership(frame.membership(), buffers, membershipConsumer);
+        paddedPing.limit(paddedPing.capacity());
+
+        return frame.sequence() + frame.payloadSize() + frame.timestamp();
+    }
+
+    @Benchmark
+    public long decodeLegacyPing() throws IOException {
+        legacyPing.rewind();
+        FrameReader frame = reader.wrap(legacyPing);
+        PacketSerializer.readMembership(frame.membership(), buffers, membershipConsumer);
+
+        return frame.timestamp();
+    }
+
+    @Benchmark
+    public long decodeEcho() throws IOException {
+        echo.rewind();
+        FrameReader frame = reader.wrap(echo);
+
+        return frame.timestamp() + frame.echoReceiveTimestamp() + frame.echoTransmitTimestamp();
+    }
+
+    /**
+     * Encodes a frame and returns its body, without the length prefix, the way it is handed to {@link FrameReader}.
+     */
+    private static ByteBuffer encoded(Consumer<ByteBuffer> writer) {
+        ByteBuffer frame = ByteBuffer.allocateDirect(PacketSerializer.MAX_PAYLOAD_BYTES + 4096);
+        writer.accept(frame);
+        frame.flip();
+        frame.position(Integer.BYTES);
+
+        return frame.slice();
+    }
+}
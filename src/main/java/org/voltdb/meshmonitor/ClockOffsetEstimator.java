@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+/**
+ * Estimates offset of the clock of a peer relative to ours, and its drift, from echoed pings the way NTP does.
+ * <p>
+ * Every echo carries four timestamps: when we sent the ping ({@code t1}), when the peer received it ({@code t2}),
+ * when the peer sent the echo ({@code t3}) and when we received the echo ({@code t4}). Assuming symmetric paths,
+ * the offset is {@code ((t2 - t1) + (t3 - t4)) / 2} and the network delay is {@code (t4 - t1) - (t3 - t2)}.
+ * Queueing makes paths asymmetric, so like the NTP clock filter only the sample with the lowest delay among
+ * the most recent {@link #FILTER_SIZE} is trusted. Drift is the change of that offset over at least
+ * the drift interval, smoothed across intervals.
+ * <p>
+ * Samples are added by a single thread, the one receiving from the peer. Estimates can be read by any thread.
+ */
+public final class ClockOffsetEstimator {
+
+    static final int FILTER_SIZE = 8;
+    private static final double DRIFT_SMOOTHING = 0.25;
+
+    private final long driftInterval;
+
+    private final long[] offsets = new long[FILTER_SIZE];
+    private final long[] delays = new long[FILTER_SIZE];
+    private int next;
+    private int filled;
+
+    private boolean hasDriftAnchor;
+    private long driftAnchorTime;
+    private long driftAnchorOffset;
+
+    private volatile boolean hasEstimate;
+    private volatile long offset;
+    private volatile boolean hasDrift;
+    private volatile double drift;
+
+    /**
+     * @param driftInterval shortest time over which drift is measured, in the unit of the timestamps
+     */
+    public ClockOffsetEstimator(long driftInterval) {
+        this.driftInterval = driftInterval;
+    }
+
+    /**
+     * Adds sample of an echoed ping, all timestamps in the same unit. Samples with negative delay, caused by
+     * a clock being stepped in between, are dropped.
+     */
+    public void sample(long originTime, long receiveTime, long transmitTime, long now) {
+        long delay = (now - originTime) - (transmitTime - receiveTime);
+        if (delay < 0) {
+            return;
+        }
+
+        int slot = next;
+        next = (next + 1) % FILTER_SIZE;
+        filled = Math.min(filled + 1, FILTER_SIZE);
+        offsets[slot] = ((receiveTime - originTime) + (transmitTime - now)) / 2;
+        delays[slot] = delay;
+
+        // From the newest sample back, so that the newest wins among samples with equal delay
+        int best = slot;
+        for (int age = 1; age < filled; age++) {
+            int i = (slot - age + FILTER_SIZE) % FILTER_SIZE;
+            if (delays[i] < delays[best]) {
+                best = i;
+            }
+        }
+
+        long filtered = offsets[best];
+        offset = filtered;
+        hasEstimate = true;
+
+        updateDrift(now, filtered);
+    }
+
+    private void updateDrift(long now, long filtered) {
+        if (!hasDriftAnchor) {
+            hasDriftAnchor = true;
+            driftAnchorTime = now;
+            driftAnchorOffset = filtered;
+            return;
+        }
+
+        long elapsed = now - driftAnchorTime;
+        if (elapsed < driftInterval) {
+            return;
+        }
+
+        double measured = (filtered - driftAnchorOffset) / (double) elapsed;
+        drift = hasDrift ? drift + DRIFT_SMOOTHING * (measured - drift) : measured;
+        hasDrift = true;
+
+        driftAnchorTime = now;
+        driftAnchorOffset = filtered;
+    }
+
+    public boolean hasEstimate() {
+        return hasEstimate;
+    }
+
+    /**
+     * Time of the peer clock minus time of our clock. Positive when the peer clock is ahead.
+     */
+    public long offset() {
+        return offset;
+    }
+
+    public boolean hasDrift() {
+        return hasDrift;
+    }
+
+    /**
+     * Change of {@link #offset()} per unit of time, so a dimensionless ratio. Positive when the peer clock runs faster.
+     */
+    public double drift() {
+        return drift;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
+
+/**
+ * Time as seen by the monitors. Intervals are measured with the monotonic {@link System#nanoTime()}, the wall clock is
+ * only needed for timestamps exchanged with other hosts.
+ * <p>
+ * Wall clock time is derived from the monotonic time elapsed since an anchor, a reading of the wall clock taken at
+ * most once a {@link #REANCHOR_INTERVAL_NANOS}. That keeps the precision of {@link Instant} without allocating one
+ * on every ping and still follows the clock as NTP slews it. Every reading is checked against
+ * {@link System#currentTimeMillis()}, when the two disagree by more than {@link #STEP_THRESHOLD_NANOS} the wall clock
+ * was stepped. The anchor is then taken again and {@link #clockStepped(long)} is called once for the step.
+ * <p>
+ * Safe to use from multiple threads. All monitors use the {@link #shared()} instance, so a step is noticed and
+ * reported once rather than by every monitor that reads the clock after it.
+ */
+public class ClockSource {
+
+    static final long STEP_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    static final long REANCHOR_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Clock systemClock = Clock.systemUTC();
+    private final AtomicReference<Anchor> anchor = new AtomicReference<>();
+    private final AtomicLong steps = new AtomicLong();
+    private volatile LongConsumer stepListener = stepNanos -> {
+    };
+
+    /**
+     * Clock shared by all monitors in this process.
+     */
+    public static ClockSource shared() {
+        return Shared.INSTANCE;
+    }
+
+    public long nanoTime() {
+        return systemNanoTime();
+    }
+
+    /**
+     * Wall clock time in nanoseconds since the epoch at the given {@link #nanoTime()}.
+     */
+    public long wallClockNanos(long nanoTime) {
+        Anchor current = anchor.get();
+        if (current == null) {
+            anchor.compareAndSet(null, new Anchor(nanoTime, systemEpochNanos()));
+            current = anchor.get();
+        }
+
+        long elapsed = nanoTime - current.nanoTime;
+        long wallClockNanos = current.wallClockNanos + elapsed;
+
+        long step = TimeUnit.MILLISECONDS.toNanos(systemCurrentTimeMillis()) - wallClockNanos;
+        if (Math.abs(step) > STEP_THRESHOLD_NANOS) {
+            Anchor stepped = new Anchor(nanoTime, systemEpochNanos());
+            if (anchor.compareAndSet(current, stepped)) {
+                steps.incrementAndGet();
+                clockStepped(stepped.wallClockNanos - wallClockNanos);
+                return stepped.wallClockNanos;
+            }
+
+            // Another thread noticed the step first
+            return anchor.get().wallClockNanos(nanoTime);
+        }
+
+        if (elapsed > REANCHOR_INTERVAL_NANOS) {
+            anchor.compareAndSet(current, new Anchor(nanoTime, systemEpochNanos()));
+        }
+
+        return wallClockNanos;
+    }
+
+    /**
+     * Number of steps of the wall clock detected so far.
+     */
+    public long steps() {
+        return steps.get();
+    }
+
+    /**
+     * Sets the listener {@link #clockStepped(long)} passes steps to, replacing the previous one.
+     */
+    public void setStepListener(LongConsumer stepListener) {
+        this.stepListener = stepListener;
+    }
+
+    /**
+     * Called once for every detected step of the wall clock, with its size. Positive when the clock jumped forward.
+     */
+    protected void clockStepped(long stepNanos) {
+        stepListener.accept(stepNanos);
+    }
+
+    protected long systemNanoTime() {
+        return System.nanoTime();
+    }
+
+    protected long systemCurrentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    protected long systemEpochNanos() {
+        Instant instant = systemClock.instant();
+        return TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano();
+    }
+
+    private static final class Shared {
+
+        private static final ClockSource INSTANCE = new ClockSource();
+    }
+
+    private static final class Anchor {
+
+        private final long nanoTime;
+        private final long wallClockNanos;
+
+        Anchor(long nanoTime, long wallClockNanos) {
+            this.nanoTime = nanoTime;
+            this.wallClockNanos = wallClockNanos;
+        }
+
+        long wallClockNanos(long nanoTime) {
+            return wallClockNanos + (nanoTime - this.nanoTime);
+        }
+    }
+}
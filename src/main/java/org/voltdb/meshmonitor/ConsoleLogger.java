@@ -73,13 +73,19 @@ public class ConsoleLogger {
     }
 
     public void debug(InetSocketAddress socketAddress, String format, Object... args) {
-        String hostAddress = socketAddress.getAddress().getHostAddress();
-
         if (enableDebugLogging) {
+            String hostAddress = socketAddress.getAddress().getHostAddress();
             log(hostAddress, LogLevel.INFO, String.format(format, args));
         }
     }
 
+    /**
+     * Lets hot paths skip building debug arguments altogether.
+     */
+    public boolean isDebugEnabled() {
+        return enableDebugLogging;
+    }
+
     public void warn(InetSocketAddress socketAddress, String message, Object... args) {
         String hostAddress = socketAddress.getAddress().getHostAddress();
         log(hostAddress, LogLevel.WARN, message, args);
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.voltdb.meshmonitor.serdes.FrameReader;
+import org.voltdb.meshmonitor.serdes.PacketSerializer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link Monitor} that does not own any threads. Its channel is switched to non-blocking mode and both sending
+ * and receiving of pings is driven by a shared {@link MonitorEventLoop}. All methods except {@link #start()}
+ * are invoked on the event loop thread.
+ */
+public class EventLoopMonitor extends Monitor {
+
+    private final MonitorEventLoop eventLoop;
+
+    private final ByteBuffer headerBuffer = buffers.headerBuffer();
+    private final ByteBuffer sendBuffer = buffers.sendBuffer();
+    private ByteBuffer bodyBuffer;
+    private final FrameReader frameReader = new FrameReader();
+    private final Consumer<List<InetSocketAddress>> membershipConsumer = this::onNewNodesInMesh;
+
+    private final PingSchedule pingSchedule;
+
+    private SelectionKey selectionKey;
+    private long lastSendTime;
+    private long lastReceiveTime;
+
+    /**
+     * @param config options of the monitor, its thread type and ping pacer are not used
+     */
+    public EventLoopMonitor(MonitorEventLoop eventLoop,
+                            ConsoleLogger logger,
+                            MeshMonitor meshMonitor,
+                            MeshMonitorTimings timings,
+                            Duration pingInterval,
+                            SocketChannel channel,
+                            InetSocketAddress remoteId,
+                            MonitorConfig config) {
+        super(logger, meshMonitor, timings, pingInterval, channel, remoteId, config);
+        this.eventLoop = eventLoop;
+        this.pingSchedule = new PingSchedule(pingInterval.toNanos()) {
+            @Override
+            protected void onPingDue(long deadline, long missedDeadlines) {
+                sendPing(missedDeadlines);
+            }
+        };
+    }
+
+    @Override
+    public void start() {
+        isRunning = true;
+        eventLoop.register(this);
+    }
+
+    void register(Selector selector) throws IOException {
+        channel.configureBlocking(false);
+        selectionKey = channel.register(selector, SelectionKey.OP_READ, this);
+
+        lastSendTime = monotonicTime(clock.nanoTime());
+        lastReceiveTime = lastSendTime;
+    }
+
+    PingSchedule pingSchedule() {
+        return pingSchedule;
+    }
+
+    /**
+     * If the previous ping has not been fully written yet this one is skipped and counted as a missed deadline.
+     * The delay will also be visible in the jitter histogram once sending resumes.
+     */
+    private void sendPing(long missedDeadlines) {
+        if (sendBuffer.hasRemaining()) {
+            logger.debug(remoteId, "Previous ping still not sent, skipping");
+            timings.pingDeadlinesMissed(missedDeadlines + 1);
+            return;
+        }
+
+        timings.pingDeadlinesMissed(missedDeadlines);
+        try {
+            long nanoTime = clock.nanoTime();
+            long timestamp = monotonicTime(nanoTime);
+            sendBuffer.clear();
+            ByteBuffer payload = buffers.nextPayload();
+            if (peerPadsPings()) {
+                PacketSerializer.writePing(sendBuffer, nextSequence(), toWireTimestamp(wallClockTime(nanoTime)), membershipToAdvertise(), payload);
+            } else if (peerSequencesPings()) {
+                PacketSerializer.writePing(sendBuffer, nextSequence(), toWireTimestamp(wallClockTime(nanoTime)), membershipToAdvertise());
+            } else {
+                PacketSerializer.writePing(sendBuffer, toWireTimestamp(wallClockTime(nanoTime)), membershipToAdvertise());
+            }
+            sendBuffer.flip();
+
+            channel.write(sendBuffer);
+            if (sendBuffer.hasRemaining()) {
+                selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+
+            pingSent(timestamp, lastSendTime);
+            lastSendTime = timestamp;
+        } catch (IOException e) {
+            disconnected(e);
+        }
+    }
+
+    /**
+     * Queues the echo behind whatever is still waiting to be written. If the send buffer is too full the echo
+     * is dropped, the connection is backed up anyway.
+     */
+    private void sendEcho(long wireTimestamp, long receiveTimestamp) throws IOException {
+        if (sendBuffer.hasRemaining()) {
+            sendBuffer.compact();
+        } else {
+            sendBuffer.clear();
+        }
+
+        if (sendBuffer.remaining() >= PacketSerializer.ECHO_FRAME_SIZE) {
+            PacketSerializer.writeEcho(sendBuffer, wireTimestamp, receiveTimestamp, toWireTimestamp(currentTime()));
+        }
+        sendBuffer.flip();
+
+        channel.write(sendBuffer);
+        if (sendBuffer.hasRemaining()) {
+            selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    void onWritable() throws IOException {
+        channel.write(sendBuffer);
+        if (!sendBuffer.hasRemaining()) {
+            selectionKey.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    void onReadable() throws IOException {
+        while (true) {
+            if (bodyBuffer == null) {
+                readOrThrow(headerBuffer);
+                if (headerBuffer.hasRemaining()) {
+                    return;
+                }
+
+                headerBuffer.flip();
+                bodyBuffer = buffers.bodyBuffer(PacketSerializer.validFrameSize(headerBuffer.getInt()));
+                headerBuffer.clear();
+            }
+
+            readOrThrow(bodyBuffer);
+            if (bodyBuffer.hasRemaining()) {
+                return;
+            }
+
+            bodyBuffer.flip();
+            FrameReader frame = frameReader.wrap(bodyBuffer);
+            bodyBuffer = null;
+
+            if (!frame.isPing()) {
+                otherFrameReceived(frame);
+                continue;
+            }
+            int payloadSize = pingHeaderReceived(frame);
+
+            long wireTimestamp = frame.timestamp();
+            PacketSerializer.readMembership(frame.membership(), buffers, membershipConsumer);
+            long nanoTime = clock.nanoTime();
+            long now = monotonicTime(nanoTime);
+            long wallClockNow = wallClockTime(nanoTime);
+            if (peerEchoes()) {
+                sendEcho(wireTimestamp, toWireTimestamp(wallClockNow));
+            }
+            sampleReceived(frame, fromWireTimestamp(wireTimestamp), wallClockNow, nanoTime);
+
+            pingReceived(now, lastReceiveTime, wallClockNow, fromWireTimestamp(wireTimestamp), payloadSize);
+            lastReceiveTime = now;
+        }
+    }
+
+    @Override
+    protected void disconnected(IOException e) {
+        if (!isRunning) {
+            return;
+        }
+
+        isRunning = false;
+        meshMonitor.onMonitorStopped(this);
+        eventLoop.cancel(pingSchedule);
+        if (selectionKey != null) {
+            selectionKey.cancel();
+        }
+
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+
+        eventLoop.execute(() -> notifyDisconnected(e));
+    }
+
+    private void onNewNodesInMesh(List<InetSocketAddress> newIpList) {
+        eventLoop.execute(() -> meshMonitor.onNewNodeInMesh(remoteId, newIpList));
+    }
+
+    private void readOrThrow(ByteBuffer buffer) throws IOException {
+        if (channel.read(buffer) < 0) {
+            throw new EOFException("Connection closed by remote host");
+        }
+    }
+}
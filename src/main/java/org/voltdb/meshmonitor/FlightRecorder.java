@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the most recent raw samples of received pings of all peers in a ring of fixed size records in a memory-mapped
+ * file, so that the exact order and timing of arrivals around an incident can be examined after the fact, which
+ * histograms cannot tell.
+ * <p>
+ * Receive threads of all peers write to the ring without locking, each claims the next record with a single atomic
+ * increment and writes it in place. Writes go to the page cache of the kernel, which keeps them when the process
+ * crashes or is killed, only a crash of the host loses what was not written back yet. Every record carries its
+ * position in the ring and a checksum, so records that were being written when the process died, or are being written
+ * while the file is read, are recognized and skipped. The file is reopened by the next run, which carries on after
+ * the newest record, so history of the previous run is overwritten only as the ring turns over.
+ * <p>
+ * All peers share the ring. They ping at the same rate, so the ring holds about the same stretch of time for each.
+ */
+public class FlightRecorder {
+
+    public static final int RECORD_BYTES = 64;
+    public static final int HEADER_BYTES = 64;
+    public static final int MAX_SAMPLES = (Integer.MAX_VALUE - HEADER_BYTES) / RECORD_BYTES;
+
+    private static final long MAGIC = 0x4d4d_464c_4947_4854L; // "MMFLIGHT"
+    private static final int VERSION = 1;
+
+    // Header
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 8;
+    private static final int RECORD_BYTES_OFFSET = 12;
+    private static final int CAPACITY_OFFSET = 16;
+    private static final int NANOS_PER_UNIT_OFFSET = 24;
+
+    // Record
+    private static final int INDEX_OFFSET = 0;
+    private static final int SEND_TIMESTAMP_OFFSET = 8;
+    private static final int RECEIVE_TIMESTAMP_OFFSET = 16;
+    private static final int WRITE_STALL_OFFSET = 24;
+    private static final int SEQUENCE_OFFSET = 32;
+    private static final int LANE_AND_PORT_OFFSET = 36;
+    private static final int ADDRESS_OFFSET = 40;
+    private static final int CHECKSUM_OFFSET = 56;
+
+    private static final long MIX = 0x9e37_79b9_7f4a_7c15L;
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final TimeUnit unit;
+    private final AtomicLong lastIndex;
+
+    private FlightRecorder(ByteBuffer buffer, int capacity, TimeUnit unit, long lastIndex) {
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.unit = unit;
+        this.lastIndex = new AtomicLong(lastIndex);
+    }
+
+    /**
+     * Opens the ring in the file, creating it if needed. A file of another size or unit is started over.
+     *
+     * @param capacity number of samples the ring holds, at most {@link #MAX_SAMPLES}
+     * @param unit     unit of timestamps and stalls recorded
+     */
+    public static FlightRecorder open(Path file, int capacity, TimeUnit unit) throws IOException {
+        long size = HEADER_BYTES + (long) capacity * RECORD_BYTES;
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            boolean matches = raf.length() == size && headerMatches(raf, capacity, unit);
+            if (!matches) {
+                raf.setLength(0);
+                raf.setLength(size);
+            }
+
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (!matches) {
+                buffer.putLong(MAGIC_OFFSET, MAGIC);
+                buffer.putInt(VERSION_OFFSET, VERSION);
+                buffer.putInt(RECORD_BYTES_OFFSET, RECORD_BYTES);
+                buffer.putLong(CAPACITY_OFFSET, capacity);
+                buffer.putLong(NANOS_PER_UNIT_OFFSET, unit.toNanos(1));
+            }
+
+            return new FlightRecorder(buffer, capacity, unit, newestIndex(buffer, capacity));
+        }
+    }
+
+    /**
+     * Opens a ring written by another process, or left behind by one, for reading only.
+     */
+    public static FlightRecorder openForReading(Path file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            if (raf.length() < HEADER_BYTES) {
+                throw new IOException(file + " is not a flight recorder file");
+            }
+
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            long capacity = buffer.getLong(CAPACITY_OFFSET);
+            if (buffer.getLong(MAGIC_OFFSET) != MAGIC
+                || buffer.getInt(VERSION_OFFSET) != VERSION
+                || buffer.getInt(RECORD_BYTES_OFFSET) != RECORD_BYTES
+                || HEADER_BYTES + capacity * RECORD_BYTES != raf.length()) {
+                throw new IOException(file + " is not a flight recorder file of version " + VERSION);
+            }
+
+            TimeUnit unit = unitOf(buffer.getLong(NANOS_PER_UNIT_OFFSET));
+            return new FlightRecorder(buffer, (int) capacity, unit, newestIndex(buffer, (int) capacity));
+        }
+    }
+
+    private static boolean headerMatches(RandomAccessFile raf, int capacity, TimeUnit unit) throws IOException {
+        raf.seek(0);
+        return raf.readLong() == MAGIC
+               && raf.readInt() == VERSION
+               && raf.readInt() == RECORD_BYTES
+               && raf.readLong() == capacity
+               && raf.readLong() == unit.toNanos(1);
+    }
+
+    private static TimeUnit unitOf(long nanosPerUnit) throws IOException {
+        for (TimeUnit unit : TimeUnit.values()) {
+            if (unit.toNanos(1) == nanosPerUnit) {
+                return unit;
+            }
+        }
+        throw new IOException("Unknown unit of " + nanosPerUnit + "ns");
+    }
+
+    private static long newestIndex(ByteBuffer buffer, int capacity) {
+        long newest = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            int offset = offsetOf(slot);
+            if (isValid(buffer, offset, slot, capacity)) {
+                newest = Math.max(newest, buffer.getLong(offset + INDEX_OFFSET));
+            }
+        }
+        return newest;
+    }
+
+    /**
+     * Returns a writer of samples of a connection to the peer, which encodes the address once.
+     */
+    public Peer peer(InetSocketAddress remoteId, int lane) {
+        return new Peer(remoteId, lane);
+    }
+
+    public TimeUnit unit() {
+        return unit;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Writes samples of one connection, from its receive thread.
+     */
+    public final class Peer {
+
+        private final int laneAndPort;
+        private final long addressHigh;
+        private final long addressLow;
+
+        private Peer(InetSocketAddress remoteId, int lane) {
+            this.laneAndPort = lane << 16 | remoteId.getPort();
+
+            ByteBuffer address = ByteBuffer.wrap(toIpv6(remoteId.getAddress()));
+            this.addressHigh = address.getLong();
+            this.addressLow = address.getLong();
+        }
+
+        /**
+         * @param sequence         sequence number of the ping, -1 if the peer does not send them
+         * @param sendTimestamp    wall clock time of the peer the ping was sent at
+         * @param receiveTimestamp wall clock time the ping was received at
+         * @param writeStall       time the receive thread was held up writing the echo of the ping
+         */
+        public void record(int sequence, long sendTimestamp, long receiveTimestamp, long writeStall) {
+            long index = lastIndex.incrementAndGet();
+            int offset = offsetOf((int) ((index - 1) % capacity));
+            long sequenceAndPeer = (long) sequence << 32 | (laneAndPort & 0xffff_ffffL);
+
+            buffer.putLong(offset + SEND_TIMESTAMP_OFFSET, sendTimestamp);
+            buffer.putLong(offset + RECEIVE_TIMESTAMP_OFFSET, receiveTimestamp);
+            buffer.putLong(offset + WRITE_STALL_OFFSET, writeStall);
+            buffer.putLong(offset + SEQUENCE_OFFSET, sequenceAndPeer);
+            buffer.putLong(offset + ADDRESS_OFFSET, addressHigh);
+            buffer.putLong(offset + ADDRESS_OFFSET + 8, addressLow);
+            buffer.putLong(offset + INDEX_OFFSET, index);
+            buffer.putLong(offset + CHECKSUM_OFFSET, checksum(
+                    index, sendTimestamp, receiveTimestamp, writeStall, sequenceAndPeer, addressHigh, addressLow));
+        }
+    }
+
+    /**
+     * Returns valid samples received between the given times, in the order they were written.
+     */
+    public List<Sample> read(long fromReceiveTimestamp, long toReceiveTimestamp) {
+        List<Sample> samples = new ArrayList<>();
+        for (int slot = 0; slot < capacity; slot++) {
+            int offset = offsetOf(slot);
+            if (!isValid(buffer, offset, slot, capacity)) {
+                continue;
+            }
+
+            long receiveTimestamp = buffer.getLong(offset + RECEIVE_TIMESTAMP_OFFSET);
+            if (receiveTimestamp >= fromReceiveTimestamp && receiveTimestamp <= toReceiveTimestamp) {
+                samples.add(sampleAt(offset));
+            }
+        }
+
+        samples.sort(Comparator.comparingLong(Sample::index));
+        return samples;
+    }
+
+    private Sample sampleAt(int offset) {
+        int laneAndPort = buffer.getInt(offset + LANE_AND_PORT_OFFSET);
+        byte[] address = new byte[16];
+        for (int i = 0; i < address.length; i++) {
+            address[i] = buffer.get(offset + ADDRESS_OFFSET + i);
+        }
+
+        InetSocketAddress remoteId;
+        try {
+            remoteId = new InetSocketAddress(InetAddress.getByAddress(address), laneAndPort & 0xffff);
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e); // Never thrown for 16 bytes
+        }
+
+        return new Sample(
+                buffer.getLong(offset + INDEX_OFFSET),
+                remoteId,
+                laneAndPort >>> 16,
+                buffer.getInt(offset + SEQUENCE_OFFSET),
+                buffer.getLong(offset + SEND_TIMESTAMP_OFFSET),
+                buffer.getLong(offset + RECEIVE_TIMESTAMP_OFFSET),
+                buffer.getLong(offset + WRITE_STALL_OFFSET));
+    }
+
+    private static boolean isValid(ByteBuffer buffer, int offset, int slot, int capacity) {
+        long index = buffer.getLong(offset + INDEX_OFFSET);
+        if (index <= 0 || (index - 1) % capacity != slot) {
+            return false;
+        }
+
+        return buffer.getLong(offset + CHECKSUM_OFFSET) == checksum(
+                index,
+                buffer.getLong(offset + SEND_TIMESTAMP_OFFSET),
+                buffer.getLong(offset + RECEIVE_TIMESTAMP_OFFSET),
+                buffer.getLong(offset + WRITE_STALL_OFFSET),
+                buffer.getLong(offset + SEQUENCE_OFFSET),
+                buffer.getLong(offset + ADDRESS_OFFSET),
+                buffer.getLong(offset + ADDRESS_OFFSET + 8));
+    }
+
+    // Written out rather than over varargs, which would allocate for every sample
+    private static long checksum(long index, long sendTimestamp, long receiveTimestamp, long writeStall,
+                                 long sequenceAndPeer, long addressHigh, long addressLow) {
+        long hash = mix(0, index);
+        hash = mix(hash, sendTimestamp);
+        hash = mix(hash, receiveTimestamp);
+        hash = mix(hash, writeStall);
+        hash = mix(hash, sequenceAndPeer);
+        hash = mix(hash, addressHigh);
+        return mix(hash, addressLow);
+    }
+
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * MIX;
+        return hash ^ hash >>> 29;
+    }
+
+    private static int offsetOf(int slot) {
+        return HEADER_BYTES + slot * RECORD_BYTES;
+    }
+
+    private static byte[] toIpv6(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 16) {
+            return bytes;
+        }
+
+        // IPv4-mapped, decoded back to the IPv4 address by InetAddress.getByAddress
+        byte[] mapped = new byte[16];
+        mapped[10] = (byte) 0xff;
+        mapped[11] = (byte) 0xff;
+        System.arraycopy(bytes, 0, mapped, 12, 4);
+        return mapped;
+    }
+
+    /**
+     * Raw sample of a received ping, timestamps and stall in the unit of the recorder.
+     */
+    public static final class Sample {
+
+        private final long index;
+        private final InetSocketAddress remoteId;
+        private final int lane;
+        private final int sequence;
+        private final long sendTimestamp;
+        private final long receiveTimestamp;
+        private final long writeStall;
+
+        Sample(long index, InetSocketAddress remoteId, int lane, int sequence, long sendTimestamp, long receiveTimestamp, long writeStall) {
+            this.index = index;
+            this.remoteId = remoteId;
+            this.lane = lane;
+            this.sequence = sequence;
+            this.sendTimestamp = sendTimestamp;
+            this.receiveTimestamp = receiveTimestamp;
+            this.writeStall = writeStall;
+        }
+
+        public long index() {
+            return index;
+        }
+
+        public InetSocketAddress remoteId() {
+            return remoteId;
+        }
+
+        public int lane() {
+            return lane;
+        }
+
+        public int sequence() {
+            return sequence;
+        }
+
+        public long sendTimestamp() {
+            return sendTimestamp;
+        }
+
+        public long receiveTimestamp() {
+            return receiveTimestamp;
+        }
+
+        public long writeStall() {
+            return writeStall;
+        }
+    }
+}
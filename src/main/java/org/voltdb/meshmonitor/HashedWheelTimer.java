@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+/**
+ * Hashed timing wheel keyed by absolute {@link System#nanoTime()} deadlines.
+ * <p>
+ * A deadline is rounded up to the next tick, so timeouts never expire early and expire at most one tick late
+ * (plus however late {@link #advance(long)} is called). Timeouts are intrusive list nodes, so scheduling and
+ * expiring does not allocate. This class is not thread safe - it is meant to be owned by a single thread.
+ * An expiring timeout may reschedule or cancel itself from {@link Timeout#expired(HashedWheelTimer, long)}
+ * but must not cancel other timeouts.
+ */
+public class HashedWheelTimer {
+
+    public abstract static class Timeout {
+
+        private static final int NOT_SCHEDULED = -1;
+
+        private long deadline;
+        private long remainingRounds;
+        private int bucket = NOT_SCHEDULED;
+        private Timeout next;
+        private Timeout previous;
+
+        public long deadline() {
+            return deadline;
+        }
+
+        public boolean isScheduled() {
+            return bucket != NOT_SCHEDULED;
+        }
+
+        protected abstract void expired(HashedWheelTimer timer, long now);
+    }
+
+    private final long startTime;
+    private final long tickDuration;
+    private final Timeout[] buckets;
+    private final int mask;
+
+    private long nextTick;
+
+    public HashedWheelTimer(long startTime, long tickDuration, int wheelSize) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive: " + tickDuration);
+        }
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+
+        this.startTime = startTime;
+        this.tickDuration = tickDuration;
+        this.buckets = new Timeout[wheelSize];
+        this.mask = wheelSize - 1;
+    }
+
+    public void schedule(Timeout timeout, long deadline) {
+        cancel(timeout);
+
+        long tick = nextTick;
+        long sinceStart = deadline - startTime;
+        if (sinceStart > 0) {
+            tick = Math.max(tick, (sinceStart + tickDuration - 1) / tickDuration);
+        }
+
+        timeout.deadline = deadline;
+        timeout.remainingRounds = (tick - nextTick) / buckets.length;
+        addToBucket(timeout, (int) (tick & mask));
+    }
+
+    public void cancel(Timeout timeout) {
+        if (!timeout.isScheduled()) {
+            return;
+        }
+
+        if (timeout.previous != null) {
+            timeout.previous.next = timeout.next;
+        } else {
+            buckets[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.previous = timeout.previous;
+        }
+
+        timeout.next = null;
+        timeout.previous = null;
+        timeout.bucket = Timeout.NOT_SCHEDULED;
+    }
+
+    /**
+     * Processes all ticks that have started at or before {@code now}, expiring timeouts that are due.
+     */
+    public void advance(long now) {
+        while (now - tickTime(nextTick) >= 0) {
+            int bucket = (int) (nextTick & mask);
+            nextTick++;
+
+            Timeout timeout = buckets[bucket];
+            buckets[bucket] = null;
+
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.next = null;
+                timeout.previous = null;
+                timeout.bucket = Timeout.NOT_SCHEDULED;
+
+                if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                    addToBucket(timeout, bucket);
+                } else {
+                    timeout.expired(this, now);
+                }
+
+                timeout = next;
+            }
+        }
+    }
+
+    /**
+     * Returns time of the next tick that has any timeouts in it. If the wheel is empty this is one full
+     * rotation ahead, so callers can use it directly as a wakeup time.
+     */
+    public long nextExpiryTime() {
+        for (int i = 0; i < buckets.length; i++) {
+            long tick = nextTick + i;
+            if (buckets[(int) (tick & mask)] != null) {
+                return tickTime(tick);
+            }
+        }
+
+        return tickTime(nextTick + buckets.length);
+    }
+
+    private long tickTime(long tick) {
+        return startTime + tick * tickDuration;
+    }
+
+    private void addToBucket(Timeout timeout, int bucket) {
+        Timeout head = buckets[bucket];
+        timeout.next = head;
+        if (head != null) {
+            head.previous = timeout;
+        }
+
+        buckets[bucket] = timeout;
+        timeout.bucket = bucket;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.PackedHistogram;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Range and precision of the histograms of every peer. Every peer records ping, jitter, timestamp delta, one-way
+ * delay, round trip and, with UDP probing enabled, UDP round trip, each into four histograms, the cumulative and the
+ * delta views and the two intervals a {@link HistogramWithDelta} swaps between, so on large meshes they add up.
+ * <p>
+ * By default histograms allocate counts for the whole range up front, about 225KiB each for 24 hours in microseconds
+ * with 3 significant digits. Compact histograms start small, only grow to cover the largest value recorded, which
+ * on a healthy network is a few milliseconds, and pack counts into as few bytes as they need. Values are recorded and
+ * reported exactly the same way, with the same precision, compact histograms only trade some CPU for memory.
+ * Precision is what costs the most, every significant digit multiplies the size of a histogram by about 8.
+ */
+public final class HistogramConfig {
+
+    public static final Duration DEFAULT_RANGE = Duration.ofHours(24);
+    public static final int DEFAULT_SIGNIFICANT_DIGITS = MeshMonitorTimings.NUMBER_OF_SIGNIFICANT_VALUE_DIGITS;
+    public static final int MAX_SIGNIFICANT_DIGITS = 5;
+
+    public static final HistogramConfig DEFAULT = new HistogramConfig(DEFAULT_RANGE, DEFAULT_SIGNIFICANT_DIGITS, false);
+
+    private final Duration range;
+    private final int significantDigits;
+    private final boolean compact;
+
+    /**
+     * @param range             highest value histograms track, larger values are logged and dropped
+     * @param significantDigits precision of recorded values, between 1 and {@link #MAX_SIGNIFICANT_DIGITS}
+     * @param compact           whether histograms grow as values are recorded instead of covering the range up front
+     */
+    public HistogramConfig(Duration range, int significantDigits, boolean compact) {
+        this.range = range;
+        this.significantDigits = significantDigits;
+        this.compact = compact;
+    }
+
+    public static HistogramConfig compact() {
+        return new HistogramConfig(DEFAULT_RANGE, DEFAULT_SIGNIFICANT_DIGITS, true);
+    }
+
+    public long highestTrackableValue(TimeUnit unit) {
+        return unit.convert(range.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public int significantDigits() {
+        return significantDigits;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    public Histogram newHistogram(TimeUnit unit) {
+        if (compact) {
+            return new PackedHistogram(significantDigits);
+        }
+
+        return new Histogram(highestTrackableValue(unit), significantDigits);
+    }
+
+    public HistogramWithDelta newHistogramWithDelta(ConsoleLogger logger, String title, TimeUnit unit) {
+        return new HistogramWithDelta(logger, title, newHistogram(unit), highestTrackableValue(unit));
+    }
+}
@@ -8,56 +8,142 @@
 package org.voltdb.meshmonitor;
 
 import org.HdrHistogram.Histogram;
-import org.HdrHistogram.SynchronizedHistogram;
 import picocli.CommandLine;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 public class HistogramLogger {
 
+    private static final List<Function<MeshMonitorTimings, HistogramWithDelta>> COLUMNS = Arrays.asList(
+            MeshMonitorTimings::pingHistogram,
+            MeshMonitorTimings::jitterHistogram,
+            MeshMonitorTimings::timestampDeltaHistogram,
+            MeshMonitorTimings::roundTripHistogram);
+
     private final ConsoleLogger consoleLogger;
+    private final SlidingWindow window;
 
     public HistogramLogger(ConsoleLogger consoleLogger) {
+        this(consoleLogger, null);
+    }
+
+    /**
+     * @param window sliding window to print percentiles over, or null to print values recorded since the previous
+     *               report
+     */
+    public HistogramLogger(ConsoleLogger consoleLogger, SlidingWindow window) {
         this.consoleLogger = consoleLogger;
+        this.window = window;
     }
 
     public void printResults(Monitor monitor, long minHiccupSize) {
         MeshMonitorTimings currentTimings = monitor.getTimings();
         InetSocketAddress remoteId = monitor.getRemoteId();
 
-        String ping = printAndReset(currentTimings.pingHistogram(), minHiccupSize);
-        String jitter = printAndReset(currentTimings.jitterHistogram(), minHiccupSize);
-        String timestampDiff = printAndReset(currentTimings.timestampDeltaHistogram(), minHiccupSize);
+        TimeUnit unit = currentTimings.unit();
+        String ping = printAndReset(currentTimings.pingHistogram(), unit, minHiccupSize);
+        String jitter = printAndReset(currentTimings.jitterHistogram(), unit, minHiccupSize);
+        String timestampDiff = printAndReset(currentTimings.timestampDeltaHistogram(), unit, minHiccupSize);
+        String roundTrip = printAndReset(currentTimings.roundTripHistogram(), unit, minHiccupSize);
 
-        consoleLogger.log(remoteId, ping + "|" + jitter + "|" + timestampDiff);
+        consoleLogger.log(remoteId, ping + "|" + jitter + "|" + timestampDiff + "|" + roundTrip);
     }
 
-    private String printAndReset(HistogramWithDelta histogram, long minHiccupSize) {
-        SynchronizedHistogram deltaHistogram = histogram.getDeltaHistogram();
-        String receive = format(deltaHistogram, minHiccupSize);
-        deltaHistogram.reset();
+    /**
+     * Prints a row of all lanes of the peer merged together, followed by a row per lane. Lanes take different paths
+     * through the network, so a lane that stands out points at a single bad link.
+     *
+     * @param lanes additional lanes of the peer, see {@link ServerManager#getLanes(InetSocketAddress)}
+     */
+    public void printResults(Monitor monitor, List<Monitor> lanes, long minHiccupSize) {
+        if (lanes.isEmpty()) {
+            printResults(monitor, minHiccupSize);
+            return;
+        }
+
+        List<Monitor> allLanes = new ArrayList<>(lanes.size() + 1);
+        allLanes.add(monitor);
+        allLanes.addAll(lanes);
+
+        TimeUnit unit = monitor.getTimings().unit();
+        StringBuilder merged = new StringBuilder();
+        List<StringBuilder> rows = new ArrayList<>(allLanes.size());
+        for (int i = 0; i < allLanes.size(); i++) {
+            rows.add(new StringBuilder());
+        }
+
+        for (Function<MeshMonitorTimings, HistogramWithDelta> column : COLUMNS) {
+            Histogram mergedHistogram = null;
+            for (int i = 0; i < allLanes.size(); i++) {
+                Histogram deltaHistogram = take(column.apply(allLanes.get(i).getTimings()), Histogram::copy);
+                appendColumn(rows.get(i), format(deltaHistogram, unit, minHiccupSize));
+
+                if (mergedHistogram == null) {
+                    mergedHistogram = deltaHistogram;
+                } else {
+                    mergedHistogram.add(deltaHistogram);
+                }
+            }
 
-        return receive;
+            appendColumn(merged, format(mergedHistogram, unit, minHiccupSize));
+        }
+
+        consoleLogger.log(monitor.getRemoteId(), merged + " all lanes");
+        for (int i = 0; i < allLanes.size(); i++) {
+            consoleLogger.log(monitor.getRemoteId(), rows.get(i) + " lane " + allLanes.get(i).getLane());
+        }
     }
 
-    private String format(Histogram deltaHistogram, long minHiccupSizeMicroseconds) {
+    private static void appendColumn(StringBuilder row, String column) {
+        if (row.length() > 0) {
+            row.append("|");
+        }
+        row.append(column);
+    }
+
+    private String printAndReset(HistogramWithDelta histogram, TimeUnit unit, long minHiccupSize) {
+        return take(histogram, deltaHistogram -> format(deltaHistogram, unit, minHiccupSize));
+    }
+
+    private <T> T take(HistogramWithDelta histogram, Function<Histogram, T> function) {
+        if (window == null) {
+            return histogram.takeDeltaHistogram(function);
+        }
+
+        return histogram.getWindowHistogram(window, function);
+    }
+
+    private String format(Histogram deltaHistogram, TimeUnit unit, long minHiccupSizeMicroseconds) {
         double minHiccupSize = minHiccupSizeMicroseconds / 1000.0;
-        String max = getFormatWithColours(deltaHistogram.getMaxValue() / 1000.0, minHiccupSize);
-        String mean = getFormatWithColours(deltaHistogram.getMean() / 1000.0, minHiccupSize);
-        String p99 = getFormatWithColours(deltaHistogram.getValueAtPercentile(99.0) / 1000.0, minHiccupSize);
-        String p999 = getFormatWithColours(deltaHistogram.getValueAtPercentile(99.9) / 1000.0, minHiccupSize);
-        String p9999 = getFormatWithColours(deltaHistogram.getValueAtPercentile(99.99) / 1000.0, minHiccupSize);
+        double perMillisecond = unit.convert(1, TimeUnit.MILLISECONDS);
+        boolean subMicrosecond = unit.toNanos(1) < TimeUnit.MICROSECONDS.toNanos(1);
+
+        String max = getFormatWithColours(deltaHistogram.getMaxValue() / perMillisecond, minHiccupSize, subMicrosecond);
+        String mean = getFormatWithColours(deltaHistogram.getMean() / perMillisecond, minHiccupSize, subMicrosecond);
+        String p99 = getFormatWithColours(deltaHistogram.getValueAtPercentile(99.0) / perMillisecond, minHiccupSize, subMicrosecond);
+        String p999 = getFormatWithColours(deltaHistogram.getValueAtPercentile(99.9) / perMillisecond, minHiccupSize, subMicrosecond);
+        String p9999 = getFormatWithColours(deltaHistogram.getValueAtPercentile(99.99) / perMillisecond, minHiccupSize, subMicrosecond);
 
         return max + " " + mean + " " + p99 + " " + p999 + " " + p9999;
     }
 
-    private String getFormatWithColours(double value, double minHiccupSize) {
+    /**
+     * High resolution timings print values below 10ms with microsecond precision, still fitting the same column width.
+     */
+    private String getFormatWithColours(double value, double minHiccupSize, boolean highResolution) {
         if (value > 999.9) {
             String formatted = String.format("%4.1fs", value / 1000.0);
             return CommandLine.Help.Ansi.AUTO.string("@|bold,red " + formatted + "|@");
         }
 
-        String formatted = String.format("%5.1f", value);
+        String formatted = highResolution && value < 9.9995
+                ? String.format("%5.3f", value)
+                : String.format("%5.1f", value);
         if (value > minHiccupSize) {
             return CommandLine.Help.Ansi.AUTO.string("@|bold,yellow " + formatted + "|@");
         }
@@ -76,8 +162,12 @@ public class HistogramLogger {
         String receive = "----------ping-(ms)----------";
         String delta = "---------jitter-(ms)---------";
         String send = "----timestamp-diff-(ms)------";
+        String roundTrip = "-------round-trip-(ms)-------";
 
-        consoleLogger.log(receive + " " + delta + " " + send);
-        consoleLogger.log(singleHistogramHeader + "|" + singleHistogramHeader + "|" + singleHistogramHeader);
+        if (window != null) {
+            consoleLogger.log("Percentiles over the last %s", window);
+        }
+        consoleLogger.log(receive + " " + delta + " " + send + " " + roundTrip);
+        consoleLogger.log(singleHistogramHeader + "|" + singleHistogramHeader + "|" + singleHistogramHeader + "|" + singleHistogramHeader);
     }
 }
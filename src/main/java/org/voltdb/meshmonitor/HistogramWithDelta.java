@@ -7,47 +7,205 @@
  */
 package org.voltdb.meshmonitor;
 
-import org.HdrHistogram.SynchronizedHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.PackedHistogram;
+import org.HdrHistogram.SingleWriterRecorder;
 
 import java.util.function.Consumer;
+import java.util.function.Function;
 
+/**
+ * Records values into a {@link SingleWriterRecorder} and serves three views of them: the cumulative histogram of
+ * everything recorded since startup, reported to Prometheus, the delta histogram of everything recorded since the
+ * console last printed it and, unless created without, the {@link SlidingWindows} of the last 15 minutes.
+ * <p>
+ * Recording is wait-free, a single histogram update without any lock. Readers swap out the interval recorded so far
+ * and add it to both views, so they never block the thread recording, nor see a histogram being modified. Every
+ * histogram is recorded into by a single thread, the send or the receive thread of a connection, which is what
+ * {@link SingleWriterRecorder} requires. Reads may come from any thread.
+ */
 public class HistogramWithDelta {
 
     private final ConsoleLogger logger;
     private final String title;
+    private final long highestTrackableValue;
+
+    private final SingleWriterRecorder recorder;
+    private final Histogram histogram;
+    private final Histogram deltaHistogram;
+    private final SlidingWindows windows;
+
+    // Last interval swapped out of the recorder, handed back to it to record the next one
+    private Histogram intervalHistogram;
 
-    private final SynchronizedHistogram histogram;
-    private final SynchronizedHistogram deltaHistogram;
+    // Values since the interval log last took them, created on its first take, see IntervalLogWriter
+    private Histogram logHistogram;
 
-    public HistogramWithDelta(ConsoleLogger logger, String title, SynchronizedHistogram histogram) {
+    /**
+     * @param template empty histogram whose range and precision to record with, see {@link HistogramConfig#newHistogram}
+     */
+    public HistogramWithDelta(ConsoleLogger logger, String title, Histogram template) {
+        this(logger, title, template, template.getHighestTrackableValue());
+    }
+
+    /**
+     * @param highestTrackableValue values above it are dropped, needed for auto-resizing histograms that track
+     *                              any value, see {@link HistogramConfig#isCompact()}
+     */
+    public HistogramWithDelta(ConsoleLogger logger, String title, Histogram template, long highestTrackableValue) {
+        this(logger, title, template, highestTrackableValue, true);
+    }
+
+    private HistogramWithDelta(ConsoleLogger logger, String title, Histogram template, long highestTrackableValue, boolean withWindows) {
         this.logger = logger;
         this.title = title;
+        this.highestTrackableValue = highestTrackableValue;
 
-        this.histogram = histogram.copy();
-        this.deltaHistogram = histogram.copy();
+        // Intervals only grow to cover the largest value recorded, the range is enforced when recording
+        this.recorder = new SingleWriterRecorder(
+                template.getNumberOfSignificantValueDigits(),
+                template instanceof PackedHistogram);
+        this.histogram = template.copy();
+        this.deltaHistogram = template.copy();
+        this.windows = withWindows ? new SlidingWindows(template.getNumberOfSignificantValueDigits()) : null;
     }
 
     public void recordValueWithExpectedInterval(long value, long expectedIntervalBetweenValueSamples) {
-        if (value > histogram.getHighestTrackableValue() || value < 0) {
+        if (value > highestTrackableValue || value < 0) {
             logger.log("ERROR: Record for %s histogram exceeds maximum tracked value %d", title, value);
         } else {
-            histogram.recordValueWithExpectedInterval(value, expectedIntervalBetweenValueSamples);
-            deltaHistogram.recordValueWithExpectedInterval(value, expectedIntervalBetweenValueSamples);
+            recorder.recordValueWithExpectedInterval(value, expectedIntervalBetweenValueSamples);
         }
     }
 
-    public void getCumulativeHistogram(Consumer<SynchronizedHistogram> consumer) {
-        synchronized (histogram) {
-            consumer.accept(histogram);
+    public void recordValue(long value) {
+        if (value > highestTrackableValue || value < 0) {
+            logger.log("ERROR: Record for %s histogram exceeds maximum tracked value %d", title, value);
+        } else {
+            recorder.recordValue(value);
+        }
+    }
+
+    /**
+     * Passes the histogram of all values recorded so far to the consumer, which must not keep it.
+     */
+    public synchronized void getCumulativeHistogram(Consumer<Histogram> consumer) {
+        sampleInterval(System.nanoTime());
+        consumer.accept(histogram);
+    }
+
+    /**
+     * Applies the function to the histogram of values recorded since the previous call, which it must not keep, and
+     * starts a new one.
+     */
+    public synchronized <T> T takeDeltaHistogram(Function<Histogram, T> function) {
+        sampleInterval(System.nanoTime());
+        T result = function.apply(deltaHistogram);
+        deltaHistogram.reset();
+
+        return result;
+    }
+
+    /**
+     * Returns a new histogram of values recorded since the previous call, or since startup on the first call.
+     * Independent of {@link #takeDeltaHistogram(Function)}, so the interval log and the console do not take values
+     * from each other. Values are accumulated in a packed histogram, which holds only the distinct values of an
+     * interval.
+     */
+    public synchronized Histogram takeLogHistogram() {
+        sampleInterval(System.nanoTime());
+        if (logHistogram == null) {
+            logHistogram = new PackedHistogram(histogram.getNumberOfSignificantValueDigits());
+            logHistogram.add(histogram);
+        }
+
+        Histogram taken = logHistogram.copy();
+        logHistogram.reset();
+
+        return taken;
+    }
+
+    /**
+     * Applies the function to a new histogram of values recorded within the window, empty for histograms created
+     * without windows.
+     */
+    public <T> T getWindowHistogram(SlidingWindow window, Function<Histogram, T> function) {
+        return getWindowHistogram(window, System.nanoTime(), function);
+    }
+
+    synchronized <T> T getWindowHistogram(SlidingWindow window, long now, Function<Histogram, T> function) {
+        sampleInterval(now);
+
+        Histogram windowHistogram = new Histogram(histogram.getNumberOfSignificantValueDigits());
+        if (windows != null) {
+            windows.addTo(windowHistogram, window, now);
         }
+
+        return function.apply(windowHistogram);
+    }
+
+    /**
+     * Moves values recorded so far into all views. Called periodically, so that values are attributed to the right
+     * slot of the sliding windows even when nothing reads them.
+     */
+    public void sample() {
+        sample(System.nanoTime());
+    }
+
+    synchronized void sample(long now) {
+        sampleInterval(now);
     }
 
     // @VisibleForTesting
-    SynchronizedHistogram getCumulativeHistogram() {
+    synchronized Histogram getCumulativeHistogram() {
+        sampleInterval(System.nanoTime());
         return histogram;
     }
 
-    public SynchronizedHistogram getDeltaHistogram() {
+    // @VisibleForTesting
+    synchronized Histogram getDeltaHistogram() {
+        sampleInterval(System.nanoTime());
         return deltaHistogram;
     }
+
+    private void sampleInterval(long now) {
+        intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+        histogram.add(intervalHistogram);
+        deltaHistogram.add(intervalHistogram);
+        if (logHistogram != null) {
+            logHistogram.add(intervalHistogram);
+        }
+        if (windows != null) {
+            windows.add(intervalHistogram, now);
+        }
+    }
+
+    /**
+     * Returns a new empty histogram with the same range and precision, reported under another title, without sliding
+     * windows.
+     */
+    public synchronized HistogramWithDelta emptyCopy(String title) {
+        Histogram empty = histogram.copy();
+        empty.reset();
+        return new HistogramWithDelta(logger, title, empty, highestTrackableValue, false);
+    }
+
+    /**
+     * Memory taken by all views and the two intervals the recorder swaps between, which for auto-resizing
+     * histograms and sliding windows depends on the values recorded.
+     */
+    public synchronized long getEstimatedFootprintInBytes() {
+        sampleInterval(System.nanoTime());
+        long footprint = histogram.getEstimatedFootprintInBytes()
+                         + deltaHistogram.getEstimatedFootprintInBytes()
+                         + 2L * intervalHistogram.getEstimatedFootprintInBytes();
+        if (windows != null) {
+            footprint += windows.getEstimatedFootprintInBytes();
+        }
+        if (logHistogram != null) {
+            footprint += logHistogram.getEstimatedFootprintInBytes();
+        }
+
+        return footprint;
+    }
 }
@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Appends histograms of every peer to files in the standard HdrHistogram interval log format, once every report
+ * interval, so that history survives restarts and can be analyzed offline with HdrHistogram tools. Every histogram is
+ * compressed and base64 encoded on a line of its own, tagged with the peer and the metric, see {@link #tag}.
+ * <p>
+ * Intervals are collected on the collecting thread and handed over in batches through a bounded queue to a thread
+ * of their own, which writes them through a buffer and flushes once per batch. Neither the ping path nor the
+ * collecting thread ever touches the disk. When the disk cannot keep up, batches are dropped and counted rather than
+ * queued without bound. Batches still queued on {@link #close()} are written before it returns.
+ * <p>
+ * A new file is started once the current one reaches its maximum size or age. Files are named after the node and the
+ * time they were started, so they sort chronologically, and the oldest files of the node are deleted once all of them
+ * together exceed the retention limit.
+ */
+public class IntervalLogWriter {
+
+    public static final String FILE_PREFIX = "meshmonitor-";
+    public static final String FILE_SUFFIX = ".hlog";
+    public static final String NODE_COMMENT = "[Node: %s]";
+
+    /**
+     * Metrics logged for every peer, with the name they are tagged with.
+     */
+    public static final List<String> METRICS = Collections.unmodifiableList(Arrays.asList(
+            "receive", "send", "delta", "one_way", "rtt", "udp_rtt"));
+
+    private static final List<Function<MeshMonitorTimings, HistogramWithDelta>> HISTOGRAMS = Arrays.asList(
+            MeshMonitorTimings::pingHistogram,
+            MeshMonitorTimings::jitterHistogram,
+            MeshMonitorTimings::timestampDeltaHistogram,
+            MeshMonitorTimings::oneWayDelayHistogram,
+            MeshMonitorTimings::roundTripHistogram,
+            MeshMonitorTimings::udpRoundTripHistogram);
+
+    private static final int QUEUE_CAPACITY = 16;
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final ConsoleLogger logger;
+    private final Path directory;
+    private final InetSocketAddress nodeAddress;
+    private final String node;
+    private final double maxValueUnitRatio;
+    private final long maxFileBytes;
+    private final long maxFileAgeMillis;
+    private final long maxTotalBytes;
+
+    private final BlockingQueue<List<Histogram>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong droppedBatches = new AtomicLong();
+
+    // Used by the writer thread only
+    private PrintStream output;
+    private HistogramLogWriter writer;
+    private Path currentFile;
+    private long currentFileStartMillis;
+
+    private volatile boolean isRunning;
+    private Thread thread;
+
+    /**
+     * @param node             address of this node, written into every file and its name
+     * @param unit             unit of recorded values, reported maxima are in seconds
+     * @param maxFileBytes     size after which a new file is started
+     * @param maxFileAgeMillis age after which a new file is started
+     * @param maxTotalBytes    size of all files of the node after which the oldest are deleted
+     */
+    public IntervalLogWriter(ConsoleLogger logger,
+                             Path directory,
+                             InetSocketAddress node,
+                             TimeUnit unit,
+                             long maxFileBytes,
+                             long maxFileAgeMillis,
+                             long maxTotalBytes) {
+        this.logger = logger;
+        this.directory = directory;
+        this.nodeAddress = node;
+        this.node = node.getHostString() + ":" + node.getPort();
+        this.maxValueUnitRatio = unit.convert(1, TimeUnit.SECONDS);
+        this.maxFileBytes = maxFileBytes;
+        this.maxFileAgeMillis = maxFileAgeMillis;
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        isRunning = true;
+
+        thread = new Thread(this::writeLoop, "interval log writer");
+        thread.setDaemon(true);
+        thread.setUncaughtExceptionHandler((t, e) -> System.err.printf("[%s] %s%n", t.getName(), e));
+        thread.start();
+
+        logger.log("Logging histograms to %s", directory);
+    }
+
+    /**
+     * Stops the writer thread once it has written every queued batch and waits for it.
+     */
+    public void close() {
+        isRunning = false;
+        if (thread == null) {
+            return;
+        }
+
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Takes histograms of the monitor recorded since the previous call, skipping empty ones, and adds them to the
+     * batch, tagged and stamped with the interval.
+     */
+    public static void collect(List<Histogram> batch, Monitor monitor, long startMillis, long endMillis) {
+        MeshMonitorTimings timings = monitor.getTimings();
+        for (int i = 0; i < HISTOGRAMS.size(); i++) {
+            HistogramWithDelta histogramWithDelta = HISTOGRAMS.get(i).apply(timings);
+            if (histogramWithDelta == null) {
+                // UDP round trip without --udp
+                continue;
+            }
+
+            Histogram histogram = histogramWithDelta.takeLogHistogram();
+            if (histogram.getTotalCount() > 0) {
+                histogram.setTag(tag(monitor.getRemoteId(), monitor.getLane(), METRICS.get(i)));
+                histogram.setStartTimeStamp(startMillis);
+                histogram.setEndTimeStamp(endMillis);
+                batch.add(histogram);
+            }
+        }
+    }
+
+    /**
+     * Tag of a histogram, {@code host:port/metric} for the first lane of a peer and {@code host:port/metric/lane} for
+     * the others. Tags of the log format cannot contain commas or whitespace, neither can addresses.
+     */
+    public static String tag(InetSocketAddress remoteId, int lane, String metric) {
+        String tag = remoteId.getHostString() + ":" + remoteId.getPort() + "/" + metric;
+        return lane == 0 ? tag : tag + "/" + lane;
+    }
+
+    /**
+     * Queues a batch for writing, never blocks.
+     *
+     * @return false if the batch was dropped because the writer falls behind
+     */
+    public boolean offer(List<Histogram> batch) {
+        if (queue.offer(batch)) {
+            return true;
+        }
+
+        long dropped = droppedBatches.incrementAndGet();
+        logger.warn(nodeAddress, "Interval log cannot keep up with the disk, dropped %d intervals so far", dropped);
+        return false;
+    }
+
+    public long droppedBatches() {
+        return droppedBatches.get();
+    }
+
+    private void writeLoop() {
+        try {
+            while (isRunning) {
+                List<Histogram> batch = queue.poll(1, TimeUnit.SECONDS);
+                if (batch != null) {
+                    writeOrLog(batch);
+                }
+            }
+
+            // Batches queued before close
+            List<Histogram> batch;
+            while ((batch = queue.poll()) != null) {
+                writeOrLog(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeFile();
+        }
+    }
+
+    private void writeOrLog(List<Histogram> batch) {
+        try {
+            write(batch, System.currentTimeMillis());
+        } catch (IOException e) {
+            logger.error(nodeAddress, "Unable to write interval log. %s", e.getMessage());
+            closeFile();
+        }
+    }
+
+    // Called by the writer thread only
+    void write(List<Histogram> batch, long now) throws IOException {
+        if (output == null || now - currentFileStartMillis >= maxFileAgeMillis || Files.size(currentFile) >= maxFileBytes) {
+            closeFile();
+            openFile(now);
+            deleteOldestFiles();
+        }
+
+        for (Histogram histogram : batch) {
+            writer.outputIntervalHistogram(
+                    (histogram.getStartTimeStamp() - writer.getBaseTime()) / 1000.0,
+                    (histogram.getEndTimeStamp() - writer.getBaseTime()) / 1000.0,
+                    histogram,
+                    maxValueUnitRatio);
+        }
+
+        output.flush();
+        if (output.checkError()) {
+            throw new IOException("Write to " + currentFile + " failed");
+        }
+    }
+
+    private void openFile(long now) throws IOException {
+        SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd'T'HHmmss.SSS'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        String name = FILE_PREFIX + node.replace(':', '_') + "-" + format.format(new Date(now)) + FILE_SUFFIX;
+
+        currentFile = directory.resolve(name);
+        currentFileStartMillis = now;
+        output = new PrintStream(
+                new BufferedOutputStream(
+                        Files.newOutputStream(currentFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                        BUFFER_BYTES),
+                false,
+                "US-ASCII");
+
+        writer = new HistogramLogWriter(output);
+        writer.outputLogFormatVersion();
+        writer.outputComment(String.format(NODE_COMMENT, node));
+        writer.outputComment("[Max value unit ratio: " + maxValueUnitRatio + "]");
+        writer.outputStartTime(now);
+        writer.setBaseTime(now);
+        writer.outputBaseTime(now);
+        writer.outputLegend();
+    }
+
+    private void closeFile() {
+        if (output != null) {
+            output.close();
+            output = null;
+            writer = null;
+        }
+    }
+
+    /**
+     * Deletes the oldest files of this node, never the current one, until all of them fit into the retention limit.
+     */
+    private void deleteOldestFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        String prefix = FILE_PREFIX + node.replace(':', '_') + "-";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + FILE_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        Collections.sort(files);
+
+        long totalBytes = 0;
+        for (Path file : files) {
+            totalBytes += Files.size(file);
+        }
+
+        for (Path file : files) {
+            if (totalBytes <= maxTotalBytes || file.equals(currentFile)) {
+                break;
+            }
+
+            totalBytes -= Files.size(file);
+            Files.delete(file);
+            logger.debug(nodeAddress, "Deleted interval log %s", file);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.voltdb.meshmonitor.serdes.MembershipPayload;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which connections the sending side of a single connection includes in its next ping.
+ * <p>
+ * Connections are advertised in the first ping, whenever the membership version changes and once per refresh
+ * interval, so that nodes that could not be reached the first time are retried. Pings in between carry no
+ * connections at all. If the connections do not fit into a single ping frame they are split across consecutive
+ * pings, which is counted in {@link MeshMonitorTimings#membershipSplits()}.
+ * <p>
+ * Connections are taken from the {@link MembershipPayload} shared by all connections, so nothing is encoded here.
+ * Not thread safe, used by the sending side of a connection only.
+ */
+final class MembershipAdvertiser {
+
+    static final long REFRESH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final MeshMonitor meshMonitor;
+    private final MeshMonitorTimings timings;
+    private final int maxAddressBytes;
+    private final long refreshIntervalNanos;
+
+    private long advertisedVersion = -1;
+    private long nextRefreshTime;
+    private MembershipPayload advertised = MembershipPayload.EMPTY;
+    private ByteBuffer view = advertised.view();
+    private int chunkStart;
+    private int nextIndex;
+
+    MembershipAdvertiser(MeshMonitor meshMonitor, MeshMonitorTimings timings, int maxAddressBytes, long refreshIntervalNanos) {
+        this.meshMonitor = meshMonitor;
+        this.timings = timings;
+        this.maxAddressBytes = maxAddressBytes;
+        this.refreshIntervalNanos = refreshIntervalNanos;
+    }
+
+    /**
+     * Returns encoded connections to include in the ping sent at {@code now}, in {@link ClockSource#nanoTime()} units.
+     * The returned buffer is reused by the next call. The version is read before the connections, so a change
+     * racing with this call is picked up by the next ping.
+     */
+    ByteBuffer nextPing(long now) {
+        chunkStart = nextIndex;
+        if (nextIndex >= advertised.size()) {
+            long version = meshMonitor.getMembershipVersion();
+            if (version == advertisedVersion && now - nextRefreshTime < 0) {
+                return advertised.select(view, nextIndex, nextIndex);
+            }
+
+            advertisedVersion = version;
+            nextRefreshTime = now + refreshIntervalNanos;
+
+            MembershipPayload membership = meshMonitor.getMembership();
+            if (membership != advertised) {
+                advertised = membership;
+                view = membership.view();
+            }
+
+            chunkStart = 0;
+        }
+
+        nextIndex = advertised.chunkEnd(chunkStart, maxAddressBytes);
+        if (chunkStart == 0 && nextIndex < advertised.size()) {
+            timings.membershipSplit();
+        }
+
+        return advertised.select(view, chunkStart, nextIndex);
+    }
+
+    /**
+     * Connections returned by the last call to {@link #nextPing(long)}.
+     */
+    List<InetSocketAddress> lastAdvertised() {
+        return advertised.connections().subList(chunkStart, nextIndex);
+    }
+}
@@ -7,7 +7,9 @@
  */
 package org.voltdb.meshmonitor;
 
+import org.HdrHistogram.Histogram;
 import org.voltdb.meshmonitor.serdes.IpPortSerializer;
+import org.voltdb.meshmonitor.serdes.MembershipPayload;
 import org.voltdb.meshmonitor.serdes.PacketSerializer;
 
 import java.io.IOException;
@@ -16,7 +18,10 @@ import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -25,14 +30,14 @@ public class MeshMonitor {
 
     public static final int PROGRAM_ERROR_RESULT = 1;
     public static final int PROGRAM_SUCCESS_RESULT = 0;
+    public static final int MAX_LANES = 64;
 
-    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
-            runnable -> {
-                Thread thread = new Thread(runnable);
-                thread.setUncaughtExceptionHandler((t, e) -> System.err.printf("[%s] %s", t.getName(), e.getMessage()));
-
-                return thread;
-            });
+    // Connects block for as long as the peer takes to answer, so they have a thread of their own
+    private static final ScheduledExecutorService SCHEDULER = newScheduler("meshmonitor connect");
+    // Window sampling and reports, never delayed by a connect
+    private static final ScheduledExecutorService REPORTER = newScheduler("meshmonitor report");
+    // Interval log collection takes every histogram of every peer, which should not delay window sampling
+    private static final ScheduledExecutorService INTERVAL_LOGGER = newScheduler("meshmonitor interval log");
 
     private final ConsoleLogger consoleLogger;
     private final ServerManager serverManager;
@@ -41,24 +46,32 @@ public class MeshMonitor {
     private final List<InetSocketAddress> permanentNodesToConnectTo;
     private final int reportIntervalSeconds;
     private final long minHiccupSizeMicroseconds;
+    private final int lanes;
+    private final SlidingWindow consoleWindow;
+    private final IntervalLogWriter intervalLog;
+    // Disconnected monitors whose last interval is logged with the next batch
+    private final Queue<Monitor> removedMonitors = new ConcurrentLinkedQueue<>();
 
     public MeshMonitor(
             ConsoleLogger consoleLogger,
             ServerManager serverManager,
             InetSocketAddress bindAddress,
             List<InetSocketAddress> permanentNodesToConnectTo,
-            int reportIntervalSeconds,
-            int minHiccupSizeMilliseconds) {
+            MeshMonitorConfig config) {
         this.consoleLogger = consoleLogger;
         this.serverManager = serverManager;
         this.bindAddress = bindAddress;
         this.permanentNodesToConnectTo = permanentNodesToConnectTo;
-        this.reportIntervalSeconds = reportIntervalSeconds;
-        this.minHiccupSizeMicroseconds = TimeUnit.MILLISECONDS.toMicros(minHiccupSizeMilliseconds);
+        this.reportIntervalSeconds = config.reportIntervalSeconds();
+        this.minHiccupSizeMicroseconds = TimeUnit.MILLISECONDS.toMicros(config.minHiccupSizeMilliseconds());
+        this.lanes = config.lanes();
+        this.consoleWindow = config.consoleWindow();
+        this.intervalLog = config.intervalLog();
     }
 
     public int start(boolean printStatistics) {
         consoleLogger.log("Starting meshmonitor. Binding to address " + bindAddress);
+        ClockSource.shared().setStepListener(this::clockStepped);
         ServerSocketChannel serverSocketChannel;
 
         try {
@@ -76,10 +89,19 @@ public class MeshMonitor {
             connectToWithReconnection(connectAddress);
         }
 
+        if (lanes > 1) {
+            scheduleLaneReconnection();
+        }
+
+        scheduleWindowSampling();
         if (printStatistics) {
             scheduleStatisticsPrinting();
         }
 
+        if (intervalLog != null) {
+            scheduleIntervalLogging();
+        }
+
         try {
             while (serverSocketChannel.isOpen()) {
                 SocketChannel socketChannel = serverSocketChannel.accept();
@@ -94,15 +116,52 @@ public class MeshMonitor {
     }
 
     private void scheduleStatisticsPrinting() {
-        SCHEDULER.scheduleAtFixedRate(() -> {
+        REPORTER.scheduleAtFixedRate(() -> {
             try {
                 List<Monitor> monitors = serverManager.getMonitors();
                 consoleLogger.log("Connected to %d servers", monitors.size());
 
                 if (!monitors.isEmpty()) {
-                    HistogramLogger printer = new HistogramLogger(consoleLogger);
+                    HistogramLogger printer = new HistogramLogger(consoleLogger, consoleWindow);
                     printer.printHeader();
-                    monitors.forEach(monitor -> printer.printResults(monitor, minHiccupSizeMicroseconds));
+                    monitors.forEach(monitor -> printer.printResults(
+                            monitor,
+                            serverManager.getLanes(monitor.getRemoteId()),
+                            minHiccupSizeMicroseconds));
+                    printPacingCpuUsage(monitors);
+                }
+            } catch (Exception e) {
+                consoleLogger.log("Internal error. %s", e.getMessage());
+            }
+        }, reportIntervalSeconds, reportIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Takes the histograms of every peer and lane on a thread of its own, at the same cadence as the console, and
+     * hands them over to the writer thread. Peers and lanes that disconnected since are taken one last time, so
+     * nothing they recorded before they went away is lost.
+     */
+    private void scheduleIntervalLogging() {
+        long[] lastMillis = {System.currentTimeMillis()};
+        INTERVAL_LOGGER.scheduleAtFixedRate(() -> {
+            try {
+                long now = System.currentTimeMillis();
+                List<Histogram> batch = new ArrayList<>();
+                for (Monitor monitor : serverManager.getMonitors()) {
+                    IntervalLogWriter.collect(batch, monitor, lastMillis[0], now);
+                    for (Monitor lane : serverManager.getLanes(monitor.getRemoteId())) {
+                        IntervalLogWriter.collect(batch, lane, lastMillis[0], now);
+                    }
+                }
+
+                Monitor removed;
+                while ((removed = removedMonitors.poll()) != null) {
+                    IntervalLogWriter.collect(batch, removed, lastMillis[0], now);
+                }
+                lastMillis[0] = now;
+
+                if (!batch.isEmpty()) {
+                    intervalLog.offer(batch);
                 }
             } catch (Exception e) {
                 consoleLogger.log("Internal error. %s", e.getMessage());
@@ -110,6 +169,41 @@ public class MeshMonitor {
         }, reportIntervalSeconds, reportIntervalSeconds, TimeUnit.SECONDS);
     }
 
+    /**
+     * Values are attributed to a slot of the sliding windows when they are moved out of the recorder, which has to
+     * happen a few times a slot whether or not the console or Prometheus read them.
+     */
+    private void scheduleWindowSampling() {
+        long interval = SlidingWindows.SAMPLE_INTERVAL_NANOS;
+        REPORTER.scheduleAtFixedRate(() -> {
+            for (Monitor monitor : serverManager.getMonitors()) {
+                monitor.getTimings().sampleWindows();
+                for (Monitor lane : serverManager.getLanes(monitor.getRemoteId())) {
+                    lane.getTimings().sampleWindows();
+                }
+            }
+        }, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Wall clock was stepped, by NTP for example. Intervals are measured on the monotonic clock so histograms are
+     * not affected, apart from timestamps exchanged with remote hosts until their clock offsets are estimated again.
+     */
+    private void clockStepped(long stepNanos) {
+        consoleLogger.log("Wall clock stepped by %+.3fms", stepNanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private void printPacingCpuUsage(List<Monitor> monitors) {
+        long spinNanos = monitors.stream()
+                .mapToLong(monitor -> monitor.getTimings().takePacingSpinNanosSinceLastReport())
+                .sum();
+
+        if (spinNanos > 0) {
+            double cores = (double) spinNanos / TimeUnit.SECONDS.toNanos(reportIntervalSeconds);
+            consoleLogger.log("Precision pacing busy-waited for %.1f%% of a CPU core", cores * 100.0);
+        }
+    }
+
     public void connectToWithReconnection(InetSocketAddress connectAddress) {
         SCHEDULER.scheduleAtFixedRate(
                 () -> connectToIfNotConnected(connectAddress),
@@ -125,7 +219,9 @@ public class MeshMonitor {
             consoleLogger.log(remoteId, "Connected");
             PacketSerializer.writeHelloMessage(channel, bindAddress);
             consoleLogger.log(remoteId, "Handshake sent");
-            if (!serverManager.createNewMonitorIfNotAlreadyPresent(channel, this, remoteId)) {
+            if (serverManager.createNewMonitorIfNotAlreadyPresent(channel, this, remoteId)) {
+                connectLanesLater(remoteId);
+            } else {
                 channel.close();
                 consoleLogger.debug(remoteId, "Connection already established");
             }
@@ -134,6 +230,54 @@ public class MeshMonitor {
         }
     }
 
+    /**
+     * Lanes are opened by the connect thread, so neither the accept loop nor receive threads wait for connects.
+     * Lanes that fail or disconnect are opened again every report interval.
+     */
+    private void scheduleLaneReconnection() {
+        SCHEDULER.scheduleAtFixedRate(() -> {
+            for (InetSocketAddress remoteId : serverManager.getConnections()) {
+                connectLanesIfNotConnected(remoteId);
+            }
+        }, reportIntervalSeconds, reportIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private void connectLanesLater(InetSocketAddress remoteId) {
+        if (lanes > 1) {
+            SCHEDULER.execute(() -> connectLanesIfNotConnected(remoteId));
+        }
+    }
+
+    private void connectLanesIfNotConnected(InetSocketAddress remoteId) {
+        for (int lane = 1; lane < lanes && serverManager.hasConnection(remoteId); lane++) {
+            if (!serverManager.hasLane(remoteId, lane)) {
+                connectLane(remoteId, lane);
+            }
+        }
+    }
+
+    /**
+     * Every lane is a connection of its own, from its own ephemeral source port. The peer is the same as on lane 0,
+     * so the lane starts out with the capabilities lane 0 already learned rather than learning them again.
+     */
+    private void connectLane(InetSocketAddress remoteId, int lane) {
+        try {
+            SocketChannel channel = SocketChannel.open(remoteId);
+            PacketSerializer.writeHelloMessage(channel, bindAddress, lane);
+
+            Monitor monitor = serverManager.getMonitor(remoteId);
+            int capabilities = monitor == null ? 0 : monitor.getPeerCapabilities();
+            if (serverManager.createLaneMonitorIfNotAlreadyPresent(channel, this, remoteId, lane, capabilities)) {
+                consoleLogger.log(remoteId, "Connected lane %d from port %d", lane, ((InetSocketAddress) channel.getLocalAddress()).getPort());
+            } else {
+                channel.close();
+                consoleLogger.debug(remoteId, "Lane %d already established", lane);
+            }
+        } catch (IOException e) {
+            consoleLogger.error(remoteId, "Unable to connect lane %d. %s. Retrying", lane, e.getMessage());
+        }
+    }
+
     public void connectToIfNotConnected(InetSocketAddress remoteId) {
         if (bindAddress.equals(remoteId) || serverManager.hasConnection(remoteId)) {
             return;
@@ -148,29 +292,95 @@ public class MeshMonitor {
 
         ByteBuffer buffer = PacketSerializer.readPacketFully(socketChannel);
         InetSocketAddress remoteAddress = IpPortSerializer.deserializeSingleIp(buffer);
+        int capabilities = PacketSerializer.readHelloCapabilities(buffer);
+        int lane = PacketSerializer.readHelloLane(buffer);
+        int version = PacketSerializer.readHelloVersion(buffer);
+        consoleLogger.debug(remoteAddress, "Protocol version %d, capabilities %d, lane %d", version, capabilities, lane);
 
-        if (!serverManager.createNewMonitorIfNotAlreadyPresent(socketChannel, this, remoteAddress)) {
+        if (lane > 0) {
+            if (!serverManager.createLaneMonitorIfNotAlreadyPresent(socketChannel, this, remoteAddress, lane, capabilities)) {
+                consoleLogger.log(socketChannel.getRemoteAddress(), "Closing connection - lane %d already connected", lane);
+                socketChannel.close();
+            }
+        } else if (serverManager.createNewMonitorIfNotAlreadyPresent(socketChannel, this, remoteAddress, capabilities)) {
+            connectLanesLater(remoteAddress);
+        } else {
             consoleLogger.log(socketChannel.getRemoteAddress(), "Closing connection - node already connected");
             socketChannel.close();
         }
     }
 
     public void onNewNodeInMesh(InetSocketAddress origin, List<InetSocketAddress> newIpList) {
-        consoleLogger.debug(origin, "Received IP list: %s", newIpList);
-        newIpList.forEach(this::connectToIfNotConnected);
+        if (consoleLogger.isDebugEnabled()) {
+            consoleLogger.debug(origin, "Received IP list: %s", newIpList);
+        }
+
+        for (int i = 0; i < newIpList.size(); i++) {
+            connectToIfNotConnected(newIpList.get(i));
+        }
     }
 
     public List<InetSocketAddress> getConnections() {
         return serverManager.getConnections();
     }
 
-    public void onDisconnect(InetSocketAddress remoteId, IOException e) {
+    public MembershipPayload getMembership() {
+        return serverManager.getMembership();
+    }
+
+    public long getMembershipVersion() {
+        return serverManager.getMembershipVersion();
+    }
+
+    /**
+     * Called by the I/O thread of a monitor as soon as it stops, see {@link ServerManager#monitorStopped(Monitor)}.
+     * Must not block.
+     */
+    public void onMonitorStopped(Monitor monitor) {
+        serverManager.monitorStopped(monitor);
+    }
+
+    /**
+     * Called once a monitor of lane 0 disconnected. Its peer may already be connected again, so only this monitor is
+     * removed, never a replacement.
+     */
+    public void onDisconnect(Monitor monitor, IOException e) {
+        InetSocketAddress remoteId = monitor.getRemoteId();
         if (serverManager.hasConnection(remoteId)) {
             consoleLogger.log(remoteId, "Disconnected duplicated connection");
         } else {
             consoleLogger.error(remoteId, e.getMessage());
         }
 
-        serverManager.removeConnection(remoteId);
+        serverManager.removeConnection(monitor);
+        logLastInterval(monitor);
+    }
+
+    public void onLaneDisconnect(Monitor monitor, IOException e) {
+        InetSocketAddress remoteId = monitor.getRemoteId();
+        int lane = monitor.getLane();
+        if (serverManager.hasLane(remoteId, lane)) {
+            consoleLogger.log(remoteId, "Disconnected duplicated lane %d", lane);
+        } else {
+            consoleLogger.error(remoteId, "Lane %d: %s", lane, e.getMessage());
+        }
+
+        serverManager.removeLane(monitor);
+        logLastInterval(monitor);
+    }
+
+    private void logLastInterval(Monitor monitor) {
+        if (intervalLog != null) {
+            removedMonitors.add(monitor);
+        }
+    }
+
+    private static ScheduledExecutorService newScheduler(String name) {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setUncaughtExceptionHandler((t, e) -> System.err.printf("[%s] %s%n", t.getName(), e));
+
+            return thread;
+        });
     }
 }
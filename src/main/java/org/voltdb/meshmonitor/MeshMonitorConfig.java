@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+/**
+ * Options of a {@link MeshMonitor}, with the defaults of the command line. Immutable, every {@code with} method
+ * returns a copy with one option changed.
+ */
+public final class MeshMonitorConfig {
+
+    public static final MeshMonitorConfig DEFAULT = new MeshMonitorConfig(10, 20, 1, null, null);
+
+    private final int reportIntervalSeconds;
+    private final int minHiccupSizeMilliseconds;
+    private final int lanes;
+    private final SlidingWindow consoleWindow;
+    private final IntervalLogWriter intervalLog;
+
+    private MeshMonitorConfig(int reportIntervalSeconds,
+                              int minHiccupSizeMilliseconds,
+                              int lanes,
+                              SlidingWindow consoleWindow,
+                              IntervalLogWriter intervalLog) {
+        this.reportIntervalSeconds = reportIntervalSeconds;
+        this.minHiccupSizeMilliseconds = minHiccupSizeMilliseconds;
+        this.lanes = lanes;
+        this.consoleWindow = consoleWindow;
+        this.intervalLog = intervalLog;
+    }
+
+    /**
+     * @param reportIntervalSeconds interval of console reports and interval logs, and of reconnects
+     */
+    public MeshMonitorConfig withReportIntervalSeconds(int reportIntervalSeconds) {
+        return new MeshMonitorConfig(reportIntervalSeconds, minHiccupSizeMilliseconds, lanes, consoleWindow, intervalLog);
+    }
+
+    /**
+     * @param minHiccupSizeMilliseconds threshold above which the console highlights latencies
+     */
+    public MeshMonitorConfig withMinHiccupSizeMilliseconds(int minHiccupSizeMilliseconds) {
+        return new MeshMonitorConfig(reportIntervalSeconds, minHiccupSizeMilliseconds, lanes, consoleWindow, intervalLog);
+    }
+
+    /**
+     * @param lanes number of connections opened to every peer. Switches with ECMP hash every connection, by its ports,
+     *              onto one of the equal cost paths, so with enough lanes every path between two nodes is measured.
+     */
+    public MeshMonitorConfig withLanes(int lanes) {
+        return new MeshMonitorConfig(reportIntervalSeconds, minHiccupSizeMilliseconds, lanes, consoleWindow, intervalLog);
+    }
+
+    /**
+     * @param consoleWindow sliding window the console reports percentiles over, or null to report values recorded
+     *                      since the previous report
+     */
+    public MeshMonitorConfig withConsoleWindow(SlidingWindow consoleWindow) {
+        return new MeshMonitorConfig(reportIntervalSeconds, minHiccupSizeMilliseconds, lanes, consoleWindow, intervalLog);
+    }
+
+    /**
+     * @param intervalLog started writer the histograms of every peer are logged to every report interval, or null
+     */
+    public MeshMonitorConfig withIntervalLog(IntervalLogWriter intervalLog) {
+        return new MeshMonitorConfig(reportIntervalSeconds, minHiccupSizeMilliseconds, lanes, consoleWindow, intervalLog);
+    }
+
+    public int reportIntervalSeconds() {
+        return reportIntervalSeconds;
+    }
+
+    public int minHiccupSizeMilliseconds() {
+        return minHiccupSizeMilliseconds;
+    }
+
+    public int lanes() {
+        return lanes;
+    }
+
+    public SlidingWindow consoleWindow() {
+        return consoleWindow;
+    }
+
+    public IntervalLogWriter intervalLog() {
+        return intervalLog;
+    }
+}
@@ -7,53 +7,360 @@
  */
 package org.voltdb.meshmonitor;
 
-import org.HdrHistogram.SynchronizedHistogram;
+import org.voltdb.meshmonitor.procfs.TcpSocketStats;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public final class MeshMonitorTimings {
 
     public static final int NUMBER_OF_SIGNIFICANT_VALUE_DIGITS = 3;
     public static final long HIGHEST_TRACKABLE_VALUE = 24 * 60 * 60 * 1000 * 1000L;
+    public static final long CLOCK_DRIFT_INTERVAL_SECONDS = 10;
+    // Payloads of other sizes are not tracked separately, a peer cycling through many sizes would use a lot of memory
+    public static final int MAX_PAYLOAD_SIZES = 16;
 
+    private final TimeUnit unit;
     private final HistogramWithDelta pingHistogram;
     private final HistogramWithDelta jitterHistogram;
     private final HistogramWithDelta timestampDeltaHistogram;
+    private final HistogramWithDelta oneWayDelayHistogram;
+    private final HistogramWithDelta roundTripHistogram;
+    // Null unless UDP probing is enabled, it would take as much memory as any other histogram
+    private final HistogramWithDelta udpRoundTripHistogram;
+    private final Map<Integer, HistogramWithDelta> payloadDeltaHistograms = new ConcurrentSkipListMap<>();
+    private final ClockOffsetEstimator clockOffset;
+    private final AtomicLong missedPingDeadlines = new AtomicLong();
+    private final AtomicLong membershipSplits = new AtomicLong();
+    private final AtomicLong pingsSent = new AtomicLong();
+    private final AtomicLong pingsReceived = new AtomicLong();
+    private final AtomicLong pingsLate = new AtomicLong();
+    private final AtomicLong pingGaps = new AtomicLong();
+    private final AtomicLong pingsReordered = new AtomicLong();
+    private final AtomicLong oneWayDelaysBelowZero = new AtomicLong();
+    private final AtomicLong udpProbesSent = new AtomicLong();
+    private final AtomicLong udpRepliesReceived = new AtomicLong();
+    private final AtomicLong udpProbesLost = new AtomicLong();
+    private final AtomicLong udpRepliesReordered = new AtomicLong();
+    private final AtomicLong pacingSpinNanos = new AtomicLong();
+    private final AtomicLong pacingSpinNanosSinceLastReport = new AtomicLong();
+    private volatile TcpSocketStats tcpSocketStats;
+    private volatile long hostRetransmittedSegments = -1;
 
-    public MeshMonitorTimings(
+    /**
+     * @param unit                  unit of all values recorded in the histograms
+     * @param udpRoundTripHistogram histogram of UDP probes, null if UDP probing is disabled
+     */
+    private MeshMonitorTimings(
+            TimeUnit unit,
             HistogramWithDelta pingHistogram,
             HistogramWithDelta jitterHistogram,
-            HistogramWithDelta timestampDeltaHistogram) {
+            HistogramWithDelta timestampDeltaHistogram,
+            HistogramWithDelta oneWayDelayHistogram,
+            HistogramWithDelta roundTripHistogram,
+            HistogramWithDelta udpRoundTripHistogram) {
+        this.unit = unit;
         this.pingHistogram = pingHistogram;
         this.jitterHistogram = jitterHistogram;
         this.timestampDeltaHistogram = timestampDeltaHistogram;
+        this.oneWayDelayHistogram = oneWayDelayHistogram;
+        this.roundTripHistogram = roundTripHistogram;
+        this.udpRoundTripHistogram = udpRoundTripHistogram;
+        this.clockOffset = new ClockOffsetEstimator(unit.convert(CLOCK_DRIFT_INTERVAL_SECONDS, TimeUnit.SECONDS));
     }
 
-    public void pingReceived(long now, long lastReceiveTime, long timestampFromRemoteHost, long pingInterval) {
+    /**
+     * @param now                     monotonic time the ping was received at
+     * @param lastReceiveTime         monotonic time the previous ping was received at
+     * @param wallClockNow            wall clock time the ping was received at
+     * @param timestampFromRemoteHost wall clock time of the remote host the ping was sent at
+     */
+    public void pingReceived(long now, long lastReceiveTime, long wallClockNow, long timestampFromRemoteHost, long pingInterval) {
+        pingReceived(now, lastReceiveTime, wallClockNow, timestampFromRemoteHost, pingInterval, 0);
+    }
+
+    /**
+     * Same as {@link #pingReceived(long, long, long, long, long)} for padded pings, whose timestamp delta is also
+     * recorded in a histogram of their payload size, see {@link #payloadDeltaHistograms()}.
+     *
+     * @param payloadSize size of the payload of a padded ping, zero if not padded
+     */
+    public void pingReceived(long now, long lastReceiveTime, long wallClockNow, long timestampFromRemoteHost, long pingInterval, int payloadSize) {
         long valueToRecord = now - lastReceiveTime;
         pingHistogram.recordValueWithExpectedInterval(valueToRecord, pingInterval);
 
-        // Abs because clocks can be slightly out of sync...
-        valueToRecord = Math.abs(now - timestampFromRemoteHost);
+        pingsReceived.incrementAndGet();
+        if (valueToRecord < pingInterval / 2) {
+            // Pings are sent an interval apart, this one was stuck behind the previous
+            pingsLate.incrementAndGet();
+        }
+
+        // Abs because clocks can be slightly out of sync
+        valueToRecord = Math.abs(wallClockNow - timestampFromRemoteHost);
         timestampDeltaHistogram.recordValueWithExpectedInterval(valueToRecord, pingInterval);
+
+        if (clockOffset.hasEstimate()) {
+            // One-way delay, with the remote timestamp translated to our clock. Below zero it is just the error
+            // of the offset estimate, counted rather than recorded as a delay that never happened.
+            long oneWayDelay = wallClockNow - (timestampFromRemoteHost - clockOffset.offset());
+            if (oneWayDelay >= 0) {
+                oneWayDelayHistogram.recordValueWithExpectedInterval(oneWayDelay, pingInterval);
+            } else {
+                oneWayDelaysBelowZero.incrementAndGet();
+            }
+        }
+
+        if (payloadSize > 0) {
+            HistogramWithDelta payloadDeltaHistogram = payloadDeltaHistogram(payloadSize);
+            if (payloadDeltaHistogram != null) {
+                payloadDeltaHistogram.recordValueWithExpectedInterval(valueToRecord, pingInterval);
+            }
+        }
+    }
+
+    // Called by the receiving thread only
+    private HistogramWithDelta payloadDeltaHistogram(int payloadSize) {
+        HistogramWithDelta histogram = payloadDeltaHistograms.get(payloadSize);
+        if (histogram == null && payloadDeltaHistograms.size() < MAX_PAYLOAD_SIZES) {
+            histogram = timestampDeltaHistogram.emptyCopy("timestamp delta " + payloadSize + " bytes");
+            payloadDeltaHistograms.put(payloadSize, histogram);
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Records echo of our own ping. Origin and now are times of our clock, receive and transmit times are those
+     * of the peer that echoed it. Round trip time excludes the time the peer held the ping and feeds the
+     * {@link ClockOffsetEstimator}. Negative values, caused by a clock being stepped in between, are dropped.
+     */
+    public void echoReceived(long originTime, long receiveTime, long transmitTime, long now) {
+        long roundTripTime = (now - originTime) - Math.max(0, transmitTime - receiveTime);
+        if (roundTripTime >= 0) {
+            roundTripHistogram.recordValue(roundTripTime);
+        }
+
+        clockOffset.sample(originTime, receiveTime, transmitTime, now);
+    }
+
+    /**
+     * Pings whose one-way delay came out below zero, because the clock offset estimate was off by more than the delay.
+     */
+    public long oneWayDelaysBelowZero() {
+        return oneWayDelaysBelowZero.get();
     }
 
     public void trackWakeupJitter(long observedInterval, long expectedInterval) {
         jitterHistogram.recordValueWithExpectedInterval(observedInterval, expectedInterval);
     }
 
-    private static SynchronizedHistogram defaultHistogram() {
-        return new SynchronizedHistogram(HIGHEST_TRACKABLE_VALUE, NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+    public void udpProbeSent() {
+        udpProbesSent.incrementAndGet();
+    }
+
+    public long udpProbesSent() {
+        return udpProbesSent.get();
+    }
+
+    /**
+     * Records reply to a UDP probe. Round trip time is measured on our monotonic clock. Probes whose replies were
+     * skipped by this one, judging by sequence numbers, are counted as lost, see {@link PingSequenceTracker}.
+     */
+    public void udpReplyReceived(long roundTripTime, int gaps) {
+        udpRepliesReceived.incrementAndGet();
+        if (gaps == PingSequenceTracker.REORDERED) {
+            udpRepliesReordered.incrementAndGet();
+        } else if (gaps > 0) {
+            udpProbesLost.addAndGet(gaps);
+        }
+
+        if (udpRoundTripHistogram != null) {
+            udpRoundTripHistogram.recordValue(roundTripTime);
+        }
+    }
+
+    public long udpRepliesReceived() {
+        return udpRepliesReceived.get();
+    }
+
+    public long udpProbesLost() {
+        return udpProbesLost.get();
+    }
+
+    public long udpRepliesReordered() {
+        return udpRepliesReordered.get();
+    }
+
+    /**
+     * Records latest readings of the kernel, taken by a background sampler.
+     *
+     * @param socket                    state of the socket connected to the peer, null if it was not found
+     * @param hostRetransmittedSegments segments retransmitted by all connections of the host, -1 if unknown
+     */
+    public void tcpHealthSampled(TcpSocketStats socket, long hostRetransmittedSegments) {
+        this.tcpSocketStats = socket;
+        this.hostRetransmittedSegments = hostRetransmittedSegments;
+    }
+
+    /**
+     * Returns latest state of the socket connected to the peer, or null if it was never sampled.
+     */
+    public TcpSocketStats tcpSocketStats() {
+        return tcpSocketStats;
+    }
+
+    public long hostRetransmittedSegments() {
+        return hostRetransmittedSegments;
+    }
+
+    public void pingSent() {
+        pingsSent.incrementAndGet();
+    }
+
+    public long pingsSent() {
+        return pingsSent.get();
+    }
+
+    public long pingsReceived() {
+        return pingsReceived.get();
+    }
+
+    /**
+     * Pings that arrived less than half a ping interval after the previous one, delivered in a burst after a stall.
+     */
+    public long pingsLate() {
+        return pingsLate.get();
+    }
+
+    /**
+     * Records sequence numbers skipped by a received ping, see {@link PingSequenceTracker}.
+     */
+    public void pingGaps(long count) {
+        if (count > 0) {
+            pingGaps.addAndGet(count);
+        }
     }
 
-    public static MeshMonitorTimings createDefault(ConsoleLogger logger) {
+    public long pingGaps() {
+        return pingGaps.get();
+    }
+
+    public void pingReordered() {
+        pingsReordered.incrementAndGet();
+    }
+
+    public long pingsReordered() {
+        return pingsReordered.get();
+    }
+
+    public void pingDeadlinesMissed(long count) {
+        if (count > 0) {
+            missedPingDeadlines.addAndGet(count);
+        }
+    }
+
+    public long missedPingDeadlines() {
+        return missedPingDeadlines.get();
+    }
+
+    /**
+     * Records that advertised connections did not fit into a single ping and were split across several.
+     */
+    public void membershipSplit() {
+        membershipSplits.incrementAndGet();
+    }
+
+    public long membershipSplits() {
+        return membershipSplits.get();
+    }
+
+    /**
+     * Records time the send thread spent busy-waiting for a ping deadline.
+     */
+    public void pacingSpun(long nanos) {
+        if (nanos > 0) {
+            pacingSpinNanos.addAndGet(nanos);
+            pacingSpinNanosSinceLastReport.addAndGet(nanos);
+        }
+    }
+
+    public long pacingSpinNanos() {
+        return pacingSpinNanos.get();
+    }
+
+    /**
+     * Returns busy-wait time since the previous call, used for console reports.
+     */
+    public long takePacingSpinNanosSinceLastReport() {
+        return pacingSpinNanosSinceLastReport.getAndSet(0);
+    }
+
+    public TimeUnit unit() {
+        return unit;
+    }
+
+    /**
+     * Highest trackable value covering the same 24 hours as {@link #HIGHEST_TRACKABLE_VALUE} in the given unit.
+     */
+    public static long highestTrackableValue(TimeUnit unit) {
+        return unit.convert(HIGHEST_TRACKABLE_VALUE, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Creates the timings of a connection in the unit and with the histograms of the config. The histogram of UDP
+     * probes is only allocated if UDP probing is enabled.
+     */
+    public static MeshMonitorTimings create(ConsoleLogger logger, ServerManagerConfig config) {
+        TimeUnit unit = config.timingsUnit();
+        HistogramConfig histogramConfig = config.histogramConfig();
         return new MeshMonitorTimings(
-                new HistogramWithDelta(logger, "ping", defaultHistogram()),
-                new HistogramWithDelta(logger, "jitter", defaultHistogram()),
-                new HistogramWithDelta(logger, "timestamp delta", defaultHistogram())
+                unit,
+                histogramConfig.newHistogramWithDelta(logger, "ping", unit),
+                histogramConfig.newHistogramWithDelta(logger, "jitter", unit),
+                histogramConfig.newHistogramWithDelta(logger, "timestamp delta", unit),
+                histogramConfig.newHistogramWithDelta(logger, "one way delay", unit),
+                histogramConfig.newHistogramWithDelta(logger, "round trip", unit),
+                config.isUdp() ? histogramConfig.newHistogramWithDelta(logger, "udp round trip", unit) : null
         );
     }
 
+    /**
+     * Moves values recorded so far into the sliding windows of all histograms, see {@link HistogramWithDelta#sample()}.
+     */
+    public void sampleWindows() {
+        pingHistogram.sample();
+        jitterHistogram.sample();
+        timestampDeltaHistogram.sample();
+        oneWayDelayHistogram.sample();
+        roundTripHistogram.sample();
+        if (udpRoundTripHistogram != null) {
+            udpRoundTripHistogram.sample();
+        }
+    }
+
+    /**
+     * Memory taken by all histograms of the peer, see {@link HistogramConfig}.
+     */
+    public long getEstimatedFootprintInBytes() {
+        long footprint = pingHistogram.getEstimatedFootprintInBytes()
+                         + jitterHistogram.getEstimatedFootprintInBytes()
+                         + timestampDeltaHistogram.getEstimatedFootprintInBytes()
+                         + oneWayDelayHistogram.getEstimatedFootprintInBytes()
+                         + roundTripHistogram.getEstimatedFootprintInBytes();
+        if (udpRoundTripHistogram != null) {
+            footprint += udpRoundTripHistogram.getEstimatedFootprintInBytes();
+        }
+        for (HistogramWithDelta payloadDeltaHistogram : payloadDeltaHistograms.values()) {
+            footprint += payloadDeltaHistogram.getEstimatedFootprintInBytes();
+        }
+
+        return footprint;
+    }
+
     public HistogramWithDelta pingHistogram() {
         return pingHistogram;
     }
@@ -66,27 +373,66 @@ public final class MeshMonitorTimings {
         return timestampDeltaHistogram;
     }
 
+    /**
+     * One-way delays of pings, recorded only once the offset of the peer's clock is estimated, see
+     * {@link ClockOffsetEstimator}.
+     */
+    public HistogramWithDelta oneWayDelayHistogram() {
+        return oneWayDelayHistogram;
+    }
+
+    public HistogramWithDelta roundTripHistogram() {
+        return roundTripHistogram;
+    }
+
+    /**
+     * Round trip times of UDP probes, null if UDP probing is disabled. Only read it once
+     * {@link #udpProbesSent()} is above zero.
+     */
+    public HistogramWithDelta udpRoundTripHistogram() {
+        return udpRoundTripHistogram;
+    }
+
+    /**
+     * Timestamp deltas of padded pings by size of their payload, in ascending order of sizes.
+     */
+    public Map<Integer, HistogramWithDelta> payloadDeltaHistograms() {
+        return Collections.unmodifiableMap(payloadDeltaHistograms);
+    }
+
+    public ClockOffsetEstimator clockOffset() {
+        return clockOffset;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == this) return true;
         if (obj == null || obj.getClass() != this.getClass())
             return false;
         MeshMonitorTimings that = (MeshMonitorTimings) obj;
-        return Objects.equals(this.pingHistogram, that.pingHistogram) &&
+        return this.unit == that.unit &&
+               Objects.equals(this.pingHistogram, that.pingHistogram) &&
                Objects.equals(this.jitterHistogram, that.jitterHistogram) &&
-               Objects.equals(this.timestampDeltaHistogram, that.timestampDeltaHistogram);
+               Objects.equals(this.timestampDeltaHistogram, that.timestampDeltaHistogram) &&
+               Objects.equals(this.oneWayDelayHistogram, that.oneWayDelayHistogram) &&
+               Objects.equals(this.roundTripHistogram, that.roundTripHistogram) &&
+               Objects.equals(this.udpRoundTripHistogram, that.udpRoundTripHistogram);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(pingHistogram, jitterHistogram, timestampDeltaHistogram);
+        return Objects.hash(unit, pingHistogram, jitterHistogram, timestampDeltaHistogram, oneWayDelayHistogram, roundTripHistogram, udpRoundTripHistogram);
     }
 
     @Override
     public String toString() {
         return "MeshMonitorTimings[" +
+               "unit=" + unit + ", " +
                "pingHistogram=" + pingHistogram + ", " +
                "jitterHistogram=" + jitterHistogram + ", " +
-               "timestampDeltaHistogram=" + timestampDeltaHistogram + ']';
+               "timestampDeltaHistogram=" + timestampDeltaHistogram + ", " +
+               "oneWayDelayHistogram=" + oneWayDelayHistogram + ", " +
+               "roundTripHistogram=" + roundTripHistogram + ", " +
+               "udpRoundTripHistogram=" + udpRoundTripHistogram + ']';
     }
 }
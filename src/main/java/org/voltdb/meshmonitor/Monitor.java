@@ -7,52 +7,75 @@
  */
 package org.voltdb.meshmonitor;
 
+import org.voltdb.meshmonitor.serdes.ConnectionBuffers;
+import org.voltdb.meshmonitor.serdes.FrameReader;
 import org.voltdb.meshmonitor.serdes.PacketSerializer;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
-import java.time.Clock;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 public class Monitor {
 
-    private final Clock systemClock = Clock.systemUTC();
-    private final ConsoleLogger logger;
-    private final MeshMonitor meshMonitor;
+    protected final ConsoleLogger logger;
+    protected final MeshMonitor meshMonitor;
 
-    private final InetSocketAddress remoteId;
-    private final SocketChannel channel;
+    protected final InetSocketAddress remoteId;
+    protected final SocketChannel channel;
 
-    private final MeshMonitorTimings timings;
-    private final Duration pingInterval;
+    protected final MeshMonitorTimings timings;
+    protected final Duration pingInterval;
+    private final MonitorConfig config;
+    protected final ConnectionBuffers buffers;
+    private final MembershipAdvertiser membershipAdvertiser;
+    protected final ClockSource clock;
 
-    private volatile boolean isRunning;
+    // Serializes frames written by the send thread (pings) and the receive thread (echoes)
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile int peerCapabilities;
+    private volatile int lane;
+    private volatile FlightRecorder.Peer flightRecorder;
+    private final PingSequenceTracker sequenceTracker;
+    private int nextSequence;
+
+    protected volatile boolean isRunning;
 
     public Monitor(ConsoleLogger logger,
                    MeshMonitor meshMonitor,
                    MeshMonitorTimings timings,
                    Duration pingInterval,
                    SocketChannel channel,
-                   InetSocketAddress remoteId) {
+                   InetSocketAddress remoteId,
+                   MonitorConfig config) {
         this.logger = logger;
         this.meshMonitor = meshMonitor;
         this.timings = timings;
         this.pingInterval = pingInterval;
         this.channel = channel;
         this.remoteId = remoteId;
+        this.config = config;
+        this.buffers = new ConnectionBuffers(config.maxFrameSize(), config.payloadSizes());
+        this.membershipAdvertiser = new MembershipAdvertiser(
+                meshMonitor,
+                timings,
+                config.maxFrameSize() - ConnectionBuffers.PING_HEADER_SIZE,
+                MembershipAdvertiser.REFRESH_INTERVAL_NANOS);
+        this.sequenceTracker = new PingSequenceTracker();
+        this.clock = ClockSource.shared();
     }
 
     public void start() {
         isRunning = true;
 
-        SendThread sendThread = new SendThread(channel);
-        sendThread.start();
-        ReceiveThread receiveThread = new ReceiveThread(channel);
-        receiveThread.start();
+        String threadNamePrefix = channel.socket().getRemoteSocketAddress().toString();
+        config.threadType().newThread(threadNamePrefix + " send thread", new SendLoop()).start();
+        config.threadType().newThread(threadNamePrefix + " receive thread", new ReceiveLoop()).start();
     }
 
     public MeshMonitorTimings getTimings() {
@@ -67,77 +90,311 @@ public class Monitor {
         return remoteId;
     }
 
-    private class ReceiveThread extends Thread {
-        public ReceiveThread(SocketChannel sc) {
-            super(sc.socket().getRemoteSocketAddress() + " receive thread");
-        }
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Lane of the connection, 0 for the connection that carries membership of the mesh and 1 and up for additional
+     * connections to the same peer, see {@link ServerManager#createLaneMonitorIfNotAlreadyPresent}. Set before start.
+     */
+    public void setLane(int lane) {
+        this.lane = lane;
+    }
+
+    public int getLane() {
+        return lane;
+    }
+
+    /**
+     * Records raw samples of every ping received into the flight recorder, see {@link FlightRecorder}. Set before start.
+     */
+    public void setFlightRecorder(FlightRecorder.Peer flightRecorder) {
+        this.flightRecorder = flightRecorder;
+    }
+
+    /**
+     * Records capabilities the peer announced in its hello message or demonstrated by sending frames.
+     * See {@link PacketSerializer#CAPABILITY_ECHO}.
+     */
+    public void addPeerCapabilities(int capabilities) {
+        peerCapabilities |= capabilities;
+    }
+
+    /**
+     * Capabilities of the peer known so far, see {@link #addPeerCapabilities(int)}.
+     */
+    public int getPeerCapabilities() {
+        return peerCapabilities;
+    }
+
+    protected boolean peerEchoes() {
+        return (peerCapabilities & PacketSerializer.CAPABILITY_ECHO) != 0;
+    }
+
+    protected boolean peerSequencesPings() {
+        return (peerCapabilities & PacketSerializer.CAPABILITY_SEQUENCE) != 0;
+    }
+
+    /**
+     * Peers that understand padded pings are always sent padded pings, with an empty payload if we do not pad,
+     * so that they learn we understand them too.
+     */
+    protected boolean peerPadsPings() {
+        return (peerCapabilities & PacketSerializer.CAPABILITY_PADDING) != 0;
+    }
+
+    /**
+     * Sequence number of the next ping sent, used by the sending thread only.
+     */
+    protected int nextSequence() {
+        return nextSequence++;
+    }
+
+    private class ReceiveLoop implements Runnable {
+
+        private final FrameReader frameReader = new FrameReader();
+        private final Consumer<List<InetSocketAddress>> membershipConsumer = list -> meshMonitor.onNewNodeInMesh(remoteId, list);
 
         @Override
         public void run() {
             try {
-                long lastRecvTime = currentTimeMicroseconds();
+                long lastRecvTime = monotonicTime(clock.nanoTime());
                 while (isRunning) {
-                    long timestampFromRemoteHost = receiveTimestamp();
-                    long now = currentTimeMicroseconds();
+                    FrameReader frame = frameReader.wrap(PacketSerializer.receiveFrame(channel, buffers));
+                    if (!frame.isPing()) {
+                        otherFrameReceived(frame);
+                        continue;
+                    }
+                    int payloadSize = pingHeaderReceived(frame);
 
-                    logger.debug(remoteId, "Received ping, timings: %d", now - lastRecvTime);
-                    timings.pingReceived(now, lastRecvTime, timestampFromRemoteHost, TimeUnit.NANOSECONDS.toMicros(pingInterval.toNanos()));
+                    long wireTimestamp = frame.timestamp();
+                    PacketSerializer.readMembership(frame.membership(), buffers, membershipConsumer);
+                    long nanoTime = clock.nanoTime();
+                    long now = monotonicTime(nanoTime);
+                    long wallClockNow = wallClockTime(nanoTime);
+                    if (peerEchoes()) {
+                        sendEcho(wireTimestamp, toWireTimestamp(wallClockNow));
+                    }
+                    sampleReceived(frame, fromWireTimestamp(wireTimestamp), wallClockNow, nanoTime);
+
+                    pingReceived(now, lastRecvTime, wallClockNow, fromWireTimestamp(wireTimestamp), payloadSize);
                     lastRecvTime = now;
                 }
             } catch (IOException e) {
-                isRunning = false;
-                meshMonitor.onDisconnect(remoteId, e);
+                disconnected(e);
             }
         }
 
-        private long receiveTimestamp() throws IOException {
-            return PacketSerializer.receiveTimestamp(channel, list -> meshMonitor.onNewNodeInMesh(remoteId, list));
+        private void sendEcho(long wireTimestamp, long receiveTimestamp) throws IOException {
+            writeLock.lock();
+            try {
+                PacketSerializer.sendEcho(channel, buffers, wireTimestamp, receiveTimestamp, toWireTimestamp(currentTime()));
+            } finally {
+                writeLock.unlock();
+            }
         }
     }
 
-    private class SendThread extends Thread {
-        public SendThread(SocketChannel sc) {
-            super(sc.socket().getRemoteSocketAddress() + " send thread");
-        }
+    private class SendLoop implements Runnable {
 
         @Override
         public void run() {
-            long lastRunTime = currentTimeMicroseconds();
+            PingPacer.Pacing pacing = config.pingPacer().start(pingInterval, timings);
+
+            long lastRunTime = monotonicTime(clock.nanoTime());
             try {
                 while (isRunning) {
-                    sleepUninterruptibly();
+                    if (!pacing.awaitPing()) {
+                        continue;
+                    }
 
-                    long now = currentTimeMicroseconds();
-                    sendPing(now);
+                    long nanoTime = clock.nanoTime();
+                    long now = monotonicTime(nanoTime);
+                    writeLock.lock();
+                    try {
+                        long timestamp = toWireTimestamp(wallClockTime(nanoTime));
+                        ByteBuffer payload = buffers.nextPayload();
+                        if (peerPadsPings()) {
+                            PacketSerializer.sendPing(channel, buffers, nextSequence(), timestamp, membershipToAdvertise(), payload);
+                        } else if (peerSequencesPings()) {
+                            PacketSerializer.sendPing(channel, buffers, nextSequence(), timestamp, membershipToAdvertise());
+                        } else {
+                            PacketSerializer.sendPing(channel, buffers, timestamp, membershipToAdvertise());
+                        }
+                    } finally {
+                        writeLock.unlock();
+                    }
 
-                    timings.trackWakeupJitter(now - lastRunTime, TimeUnit.NANOSECONDS.toMicros(pingInterval.toNanos()));
+                    pingSent(now, lastRunTime);
                     lastRunTime = now;
                 }
             } catch (IOException e) {
-                isRunning = false;
-                meshMonitor.onDisconnect(remoteId, e);
+                disconnected(e);
+            } finally {
+                pacing.stop();
             }
         }
+    }
 
-        private void sendPing(long now) throws IOException {
-            List<InetSocketAddress> connectedServers = meshMonitor.getConnections();
-            logger.debug(remoteId, "Sending IP list: %s", connectedServers);
-            PacketSerializer.sendPing(channel, now, connectedServers);
+    /**
+     * Returns encoded connections to include in the next ping, most pings carry none. See {@link MembershipAdvertiser}.
+     */
+    protected ByteBuffer membershipToAdvertise() {
+        ByteBuffer membership = membershipAdvertiser.nextPing(clock.nanoTime());
+        if (logger.isDebugEnabled() && membership.hasRemaining()) {
+            logger.debug(remoteId, "Sending IP list: %s", membershipAdvertiser.lastAdvertised());
         }
+        return membership;
+    }
 
-        private void sleepUninterruptibly() {
-            try {
-                Thread.sleep(pingInterval.toMillis());
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+    protected void pingSent(long now, long lastSendTime) {
+        timings.pingSent();
+        timings.trackWakeupJitter(now - lastSendTime, expectedInterval());
+    }
+
+    /**
+     * @param now                     monotonic time the ping was received at
+     * @param lastReceiveTime         monotonic time the previous ping was received at
+     * @param wallClockNow            wall clock time the ping was received at
+     * @param timestampFromRemoteHost wall clock time of the remote host the ping was sent at
+     * @param payloadSize             size of the payload of a padded ping, zero if not padded
+     */
+    protected void pingReceived(long now, long lastReceiveTime, long wallClockNow, long timestampFromRemoteHost, int payloadSize) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(remoteId, "Received ping, timings: %d", now - lastReceiveTime);
+        }
+        timings.pingReceived(now, lastReceiveTime, wallClockNow, timestampFromRemoteHost, expectedInterval(), payloadSize);
+    }
+
+    /**
+     * Records a raw sample of a received ping into the flight recorder, if there is one. Write stall is the time from
+     * receiving the ping to having written its echo, which grows when the send buffer of the socket is full, zero for
+     * peers that do not echo.
+     *
+     * @param receiveNanoTime {@link ClockSource#nanoTime()} the ping was received at
+     */
+    protected void sampleReceived(FrameReader frame, long timestampFromRemoteHost, long wallClockNow, long receiveNanoTime) {
+        FlightRecorder.Peer recorder = flightRecorder;
+        if (recorder != null) {
+            long writeStall = peerEchoes() ? monotonicTime(clock.nanoTime() - receiveNanoTime) : 0;
+            recorder.record(
+                    frame.isSequenced() ? frame.sequence() : -1,
+                    timestampFromRemoteHost,
+                    wallClockNow,
+                    writeStall);
+        }
+    }
+
+    /**
+     * Consumes what sequenced and padded pings carry in front of a regular ping body and returns size of the payload,
+     * zero if the ping is not padded. A peer sending padded pings understands them too, see {@link #peerPadsPings()}.
+     */
+    protected int pingHeaderReceived(FrameReader frame) {
+        if (!frame.isSequenced()) {
+            return 0;
+        }
+
+        sequenceReceived(frame.sequence());
+        if (!frame.isPadded()) {
+            return 0;
+        }
+
+        addPeerCapabilities(PacketSerializer.CAPABILITY_PADDING);
+        return frame.payloadSize();
+    }
+
+    /**
+     * Handles frames other than pings. Frames of types introduced by newer nodes are skipped, a node only sends them
+     * to peers that advertise they understand them, so they are not expected here in the first place.
+     */
+    protected void otherFrameReceived(FrameReader frame) {
+        if (frame.isEcho()) {
+            echoReceived(frame);
+        } else if (logger.isDebugEnabled()) {
+            logger.debug(remoteId, "Skipping frame of unknown type %d", frame.type());
+        }
+    }
+
+    /**
+     * Accounts for gaps and reordering of sequenced pings. A peer sending them understands them too, so this is also
+     * how the connecting side learns that it should send them.
+     */
+    protected void sequenceReceived(int sequence) {
+        addPeerCapabilities(PacketSerializer.CAPABILITY_SEQUENCE);
+
+        int gaps = sequenceTracker.received(sequence);
+        if (gaps == PingSequenceTracker.REORDERED) {
+            timings.pingReordered();
+        } else {
+            timings.pingGaps(gaps);
         }
     }
 
-    private long currentTimeMicroseconds() {
-        Instant instant = systemClock.instant();
-        long seconds = TimeUnit.SECONDS.toNanos(instant.getEpochSecond());
+    /**
+     * Records round trip time and clock offset from our own ping echoed back by the peer. A peer sending echoes
+     * understands them too, so this is also how the connecting side learns that it should echo back.
+     */
+    protected void echoReceived(FrameReader echo) {
+        addPeerCapabilities(PacketSerializer.CAPABILITY_ECHO);
+        timings.echoReceived(
+                fromWireTimestamp(echo.timestamp()),
+                fromWireTimestamp(echo.echoReceiveTimestamp()),
+                fromWireTimestamp(echo.echoTransmitTimestamp()),
+                currentTime());
+    }
+
+    protected void disconnected(IOException e) {
+        isRunning = false;
+        meshMonitor.onMonitorStopped(this);
+        notifyDisconnected(e);
+    }
+
+    protected void notifyDisconnected(IOException e) {
+        if (lane == 0) {
+            meshMonitor.onDisconnect(this, e);
+        } else {
+            meshMonitor.onLaneDisconnect(this, e);
+        }
+    }
+
+    /**
+     * Ping interval in the unit of {@link MeshMonitorTimings#unit()}.
+     */
+    protected long expectedInterval() {
+        return timings.unit().convert(pingInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Monotonic time, for measuring intervals, in the unit of {@link MeshMonitorTimings#unit()}.
+     */
+    protected long monotonicTime(long nanoTime) {
+        return timings.unit().convert(nanoTime, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Wall clock time at the given {@link ClockSource#nanoTime()}, in the unit of {@link MeshMonitorTimings#unit()}.
+     * Only for timestamps exchanged with the remote host.
+     */
+    protected long wallClockTime(long nanoTime) {
+        return timings.unit().convert(clock.wallClockNanos(nanoTime), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Wall clock time now, see {@link #wallClockTime(long)}.
+     */
+    protected long currentTime() {
+        return wallClockTime(clock.nanoTime());
+    }
+
+    /**
+     * Timestamps on the wire are always in microseconds so that nodes using different timing units can talk to each other.
+     */
+    protected long toWireTimestamp(long time) {
+        return timings.unit().toMicros(time);
+    }
 
-        return TimeUnit.NANOSECONDS.toMicros(seconds + instant.getNano());
+    protected long fromWireTimestamp(long timestamp) {
+        return timings.unit().convert(timestamp, TimeUnit.MICROSECONDS);
     }
 }
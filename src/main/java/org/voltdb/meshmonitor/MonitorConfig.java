@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.voltdb.meshmonitor.serdes.ConnectionBuffers;
+
+/**
+ * Options every {@link Monitor} of the process is created with, on top of what identifies its connection. Immutable,
+ * every {@code with} method returns a copy with one option changed.
+ */
+public final class MonitorConfig {
+
+    public static final MonitorConfig DEFAULT = new MonitorConfig(
+            ThreadType.PLATFORM,
+            null,
+            ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE,
+            new int[0]);
+
+    private final ThreadType threadType;
+    private final PingPacer pingPacer;
+    private final int maxFrameSize;
+    private final int[] payloadSizes;
+
+    private MonitorConfig(ThreadType threadType, PingPacer pingPacer, int maxFrameSize, int[] payloadSizes) {
+        this.threadType = threadType;
+        this.pingPacer = pingPacer;
+        this.maxFrameSize = maxFrameSize;
+        this.payloadSizes = payloadSizes;
+    }
+
+    /**
+     * @param threadType type of the send and receive threads of every connection. Ignored by {@link EventLoopMonitor}
+     */
+    public MonitorConfig withThreadType(ThreadType threadType) {
+        return new MonitorConfig(threadType, pingPacer, maxFrameSize, payloadSizes);
+    }
+
+    /**
+     * @param pingPacer paces pings of every connection, null for the shared {@link PingScheduler}.
+     *                  Ignored by {@link EventLoopMonitor}, whose pings are driven by the event loop
+     */
+    public MonitorConfig withPingPacer(PingPacer pingPacer) {
+        return new MonitorConfig(threadType, pingPacer, maxFrameSize, payloadSizes);
+    }
+
+    /**
+     * @param maxFrameSize size of the largest ping, connections that do not fit are split across pings
+     */
+    public MonitorConfig withMaxFrameSize(int maxFrameSize) {
+        return new MonitorConfig(threadType, pingPacer, maxFrameSize, payloadSizes);
+    }
+
+    /**
+     * @param payloadSizes sizes of payloads pings are padded with in turn, on top of the max frame size.
+     *                     Empty if pings are not padded
+     */
+    public MonitorConfig withPayloadSizes(int[] payloadSizes) {
+        return new MonitorConfig(threadType, pingPacer, maxFrameSize, payloadSizes.clone());
+    }
+
+    public ThreadType threadType() {
+        return threadType;
+    }
+
+    public PingPacer pingPacer() {
+        return pingPacer == null ? PingScheduler.shared() : pingPacer;
+    }
+
+    public int maxFrameSize() {
+        return maxFrameSize;
+    }
+
+    public int[] payloadSizes() {
+        return payloadSizes.clone();
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives every {@link EventLoopMonitor} from a single thread. Peer channels are registered with one selector in
+ * non-blocking mode and the same thread sends pings when they become due, so the number of threads does not grow
+ * with the size of the mesh. Ping deadlines are kept in a {@link HashedWheelTimer} owned by the loop and are phase
+ * staggered across the ping interval.
+ * <p>
+ * Callbacks into {@link MeshMonitor} may block (e.g. while connecting to a newly discovered node), so they are handed
+ * over to a separate single thread and never run on the event loop itself.
+ */
+public class MonitorEventLoop {
+
+    private final ConsoleLogger logger;
+    private final Selector selector;
+    private final Thread thread;
+    private final ExecutorService callbackExecutor;
+
+    private final Queue<EventLoopMonitor> registrations = new ConcurrentLinkedQueue<>();
+    private final HashedWheelTimer timer;
+    private final StaggeredPhases phases;
+
+    private volatile boolean isRunning;
+
+    public MonitorEventLoop(ConsoleLogger logger) throws IOException {
+        this.logger = logger;
+        this.selector = Selector.open();
+
+        long now = System.nanoTime();
+        this.timer = new HashedWheelTimer(now, PingScheduler.TICK_DURATION_NANOS, PingScheduler.WHEEL_SIZE);
+        this.phases = new StaggeredPhases(now);
+        this.thread = newDaemonThread(this::run, "event loop");
+        this.callbackExecutor = Executors.newSingleThreadExecutor(runnable -> newDaemonThread(runnable, "event loop callbacks"));
+    }
+
+    public void start() {
+        isRunning = true;
+        thread.start();
+    }
+
+    /**
+     * Stops the loop. Monitors still registered are disconnected by the loop thread on its way out, and their
+     * callbacks run before the callback thread ends.
+     */
+    public void close() {
+        isRunning = false;
+        if (thread.getState() == Thread.State.NEW) {
+            callbackExecutor.shutdown();
+            return;
+        }
+
+        selector.wakeup();
+    }
+
+    void register(EventLoopMonitor monitor) {
+        registrations.add(monitor);
+        selector.wakeup();
+    }
+
+    void execute(Runnable callback) {
+        callbackExecutor.execute(callback);
+    }
+
+    private void run() {
+        try {
+            while (isRunning) {
+                registerPendingMonitors();
+
+                long timeoutMillis = toSelectTimeoutMillis(timer.nextExpiryTime() - System.nanoTime());
+                if (timeoutMillis > 0) {
+                    selector.select(timeoutMillis);
+                } else {
+                    selector.selectNow();
+                }
+
+                processSelectedKeys();
+                timer.advance(System.nanoTime());
+            }
+        } catch (IOException e) {
+            logger.fatalError("Event loop terminated", e);
+        } finally {
+            disconnectAll();
+        }
+    }
+
+    private void disconnectAll() {
+        try {
+            IOException terminated = new IOException("Event loop terminated");
+            for (SelectionKey key : new ArrayList<>(selector.keys())) {
+                ((EventLoopMonitor) key.attachment()).disconnected(terminated);
+            }
+
+            EventLoopMonitor monitor;
+            while ((monitor = registrations.poll()) != null) {
+                monitor.disconnected(terminated);
+            }
+
+            selector.close();
+        } catch (IOException e) {
+            logger.log("Error closing event loop. %s", e.getMessage());
+        } finally {
+            // Only now, disconnects above hand their callbacks over to this executor
+            callbackExecutor.shutdown();
+        }
+    }
+
+    private void registerPendingMonitors() {
+        EventLoopMonitor monitor;
+        while ((monitor = registrations.poll()) != null) {
+            try {
+                monitor.register(selector);
+
+                PingSchedule pingSchedule = monitor.pingSchedule();
+                timer.schedule(pingSchedule, phases.nextFirstDeadline(System.nanoTime(), pingSchedule.interval()));
+            } catch (IOException e) {
+                monitor.disconnected(e);
+            }
+        }
+    }
+
+    void cancel(PingSchedule pingSchedule) {
+        timer.cancel(pingSchedule);
+    }
+
+    private void processSelectedKeys() {
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+            SelectionKey key = iterator.next();
+            iterator.remove();
+
+            EventLoopMonitor monitor = (EventLoopMonitor) key.attachment();
+            try {
+                if (key.isWritable()) {
+                    monitor.onWritable();
+                }
+                if (key.isReadable()) {
+                    monitor.onReadable();
+                }
+            } catch (IOException e) {
+                monitor.disconnected(e);
+            } catch (CancelledKeyException e) {
+                monitor.disconnected(new IOException("Connection closed", e));
+            }
+        }
+    }
+
+    private static long toSelectTimeoutMillis(long timeoutNanos) {
+        if (timeoutNanos <= 0) {
+            return 0;
+        }
+
+        // Round up, selecting with a timeout of zero would block indefinitely
+        return TimeUnit.NANOSECONDS.toMillis(timeoutNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+    }
+
+    private static Thread newDaemonThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.setUncaughtExceptionHandler((t, e) -> System.err.printf("[%s] %s%n", t.getName(), e));
+
+        return thread;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import java.time.Duration;
+
+/**
+ * Decides when the send thread of a thread based {@link Monitor} sends its next ping.
+ */
+public interface PingPacer {
+
+    /**
+     * Called on the send thread before the first ping is sent.
+     */
+    Pacing start(Duration pingInterval, MeshMonitorTimings timings);
+
+    interface Pacing {
+
+        /**
+         * Blocks the send thread until a ping is due. Returns true if a ping should be sent now, false if it's
+         * time to check whether the monitor is still running.
+         */
+        boolean awaitPing();
+
+        /**
+         * Called on the send thread once it stops sending pings.
+         */
+        void stop();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+/**
+ * Periodic ping deadline of a single connection. Deadlines are absolute - each one is exactly one interval
+ * after the previous one regardless of how long sending took or how late the timer fired, so the schedule
+ * does not drift. If firing was delayed past following deadlines (e.g. the process was stalled) those
+ * deadlines are skipped and reported as missed rather than fired in a burst or silently pushed back.
+ */
+public abstract class PingSchedule extends HashedWheelTimer.Timeout {
+
+    private final long interval;
+
+    protected PingSchedule(long intervalNanos) {
+        this.interval = intervalNanos;
+    }
+
+    public long interval() {
+        return interval;
+    }
+
+    @Override
+    protected final void expired(HashedWheelTimer timer, long now) {
+        long deadline = deadline();
+        long missedDeadlines = missedDeadlines(deadline, now, interval);
+
+        timer.schedule(this, deadline + (missedDeadlines + 1) * interval);
+        onPingDue(deadline, missedDeadlines);
+    }
+
+    /**
+     * Returns how many deadlines following {@code deadline} have already passed at {@code now}.
+     */
+    static long missedDeadlines(long deadline, long now, long interval) {
+        long nextDeadline = deadline + interval;
+        if (now - nextDeadline < 0) {
+            return 0;
+        }
+
+        return (now - nextDeadline) / interval + 1;
+    }
+
+    /**
+     * Invoked on the timer thread when a ping is due.
+     *
+     * @param deadline        time at which the ping was due, in {@link System#nanoTime()} units
+     * @param missedDeadlines number of deadlines since the previous one that were skipped because the timer fired too late
+     */
+    protected abstract void onPingDue(long deadline, long missedDeadlines);
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single thread that fires {@link PingSchedule}s of all thread based monitors from one shared
+ * {@link HashedWheelTimer}. New schedules are phase staggered across the ping interval.
+ * <p>
+ * Schedules may be added and cancelled from any thread, their callbacks run on the scheduler thread
+ * and must not block. Additions and cancellations are applied in the order they were made, through a single
+ * queue, so a schedule cancelled right after it was added is never left behind in the timer.
+ */
+public class PingScheduler implements PingPacer {
+
+    static final long TICK_DURATION_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    static final int WHEEL_SIZE = 1024;
+
+    private static final long MAX_PING_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final class Shared {
+        private static final PingScheduler INSTANCE = new PingScheduler();
+
+        static {
+            INSTANCE.start();
+        }
+    }
+
+    private final Queue<Runnable> pendingChanges = new ConcurrentLinkedQueue<>();
+
+    private final HashedWheelTimer timer;
+    private final StaggeredPhases phases;
+    private final Thread thread;
+
+    PingScheduler() {
+        long now = System.nanoTime();
+        this.timer = new HashedWheelTimer(now, TICK_DURATION_NANOS, WHEEL_SIZE);
+        this.phases = new StaggeredPhases(now);
+
+        this.thread = new Thread(this::run, "ping scheduler");
+        thread.setDaemon(true);
+        thread.setUncaughtExceptionHandler((t, e) -> System.err.printf("[%s] %s%n", t.getName(), e));
+    }
+
+    /**
+     * Scheduler shared by all monitors in this process, started on first use.
+     */
+    public static PingScheduler shared() {
+        return Shared.INSTANCE;
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    @Override
+    public Pacing start(Duration pingInterval, MeshMonitorTimings timings) {
+        PingTrigger trigger = new PingTrigger(Thread.currentThread(), pingInterval, timings);
+        schedule(trigger);
+
+        return trigger;
+    }
+
+    public void schedule(PingSchedule schedule) {
+        pendingChanges.add(() -> timer.schedule(schedule, phases.nextFirstDeadline(System.nanoTime(), schedule.interval())));
+        LockSupport.unpark(thread);
+    }
+
+    public void cancel(PingSchedule schedule) {
+        pendingChanges.add(() -> timer.cancel(schedule));
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        while (true) {
+            processPendingChanges();
+
+            long now = System.nanoTime();
+            timer.advance(now);
+
+            long wakeupTime = timer.nextExpiryTime();
+            if (pendingChanges.isEmpty()) {
+                LockSupport.parkNanos(this, wakeupTime - System.nanoTime());
+            }
+        }
+    }
+
+    void processPendingChanges() {
+        Runnable change;
+        while ((change = pendingChanges.poll()) != null) {
+            change.run();
+        }
+    }
+
+    /**
+     * Wakes up a send thread when a ping is due. If the send thread is still busy with the previous ping when
+     * the next one becomes due, that deadline is counted as missed.
+     */
+    private final class PingTrigger extends PingSchedule implements Pacing {
+
+        private final AtomicBoolean pingDue = new AtomicBoolean();
+        private final Thread sendThread;
+        private final MeshMonitorTimings timings;
+
+        PingTrigger(Thread sendThread, Duration pingInterval, MeshMonitorTimings timings) {
+            super(pingInterval.toNanos());
+            this.sendThread = sendThread;
+            this.timings = timings;
+        }
+
+        @Override
+        protected void onPingDue(long deadline, long missedDeadlines) {
+            if (pingDue.getAndSet(true)) {
+                missedDeadlines++;
+            }
+
+            timings.pingDeadlinesMissed(missedDeadlines);
+            LockSupport.unpark(sendThread);
+        }
+
+        @Override
+        public boolean awaitPing() {
+            if (!pingDue.getAndSet(false)) {
+                LockSupport.parkNanos(this, MAX_PING_WAIT_NANOS);
+                return pingDue.getAndSet(false);
+            }
+
+            return true;
+        }
+
+        @Override
+        public void stop() {
+            cancel(this);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+/**
+ * Follows sequence numbers of pings, or UDP probe replies, received from a peer. A sequence number that skips ahead
+ * counts the numbers in between as gaps, one at or below the highest seen so far counts as reordered. Sequence numbers
+ * wrap around, they are compared by their difference.
+ * <p>
+ * Used by a single receiving thread only.
+ */
+final class PingSequenceTracker {
+
+    static final int REORDERED = -1;
+
+    private boolean started;
+    private int highest;
+
+    /**
+     * Returns number of sequence numbers skipped since the highest one seen so far, or {@link #REORDERED}.
+     */
+    int received(int sequence) {
+        if (!started) {
+            started = true;
+            highest = sequence;
+            return 0;
+        }
+
+        int distance = sequence - highest;
+        if (distance > 0) {
+            highest = sequence;
+            return distance - 1;
+        }
+
+        return REORDERED;
+    }
+}
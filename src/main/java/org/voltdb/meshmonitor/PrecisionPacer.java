@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces each send thread on its own, for sub-millisecond ping intervals the shared {@link PingScheduler}
+ * cannot resolve. The send thread parks until shortly before the deadline and busy-waits the rest of the way.
+ * The spin threshold is calibrated from how late {@link LockSupport#parkNanos(long)} wakes up on this machine,
+ * so the park itself practically never overshoots the deadline.
+ * <p>
+ * Spinning burns CPU on every send thread. Time spent spinning is recorded in {@link MeshMonitorTimings} so the
+ * cost can be reported.
+ */
+public class PrecisionPacer implements PingPacer {
+
+    private static final long MAX_PING_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    static final long MIN_SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    static final long MAX_SPIN_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final int CALIBRATION_SAMPLES = 200;
+    private static final long CALIBRATION_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final double CALIBRATION_PERCENTILE = 0.99;
+
+    private final long spinThresholdNanos;
+    private final StaggeredPhases phases;
+
+    PrecisionPacer(long spinThresholdNanos) {
+        this.spinThresholdNanos = spinThresholdNanos;
+        this.phases = new StaggeredPhases(System.nanoTime());
+    }
+
+    /**
+     * Measures park overshoot on the calling thread and creates a pacer that spins for its 99th percentile.
+     * Takes a few tens of milliseconds.
+     */
+    public static PrecisionPacer calibrate() {
+        long[] overshoots = new long[CALIBRATION_SAMPLES];
+        for (int i = 0; i < overshoots.length; i++) {
+            long start = System.nanoTime();
+            LockSupport.parkNanos(CALIBRATION_PARK_NANOS);
+            overshoots[i] = System.nanoTime() - start - CALIBRATION_PARK_NANOS;
+        }
+
+        Arrays.sort(overshoots);
+        long overshoot = overshoots[(int) (overshoots.length * CALIBRATION_PERCENTILE)];
+
+        return new PrecisionPacer(Math.max(MIN_SPIN_NANOS, Math.min(MAX_SPIN_NANOS, overshoot)));
+    }
+
+    public long spinThresholdNanos() {
+        return spinThresholdNanos;
+    }
+
+    /**
+     * Upper bound of the fraction of a CPU core a single send thread spends spinning at the given ping interval.
+     */
+    public double expectedCpuShare(Duration pingInterval) {
+        return Math.min(1.0, (double) spinThresholdNanos / pingInterval.toNanos());
+    }
+
+    @Override
+    public Pacing start(Duration pingInterval, MeshMonitorTimings timings) {
+        long interval = pingInterval.toNanos();
+
+        long firstDeadline;
+        synchronized (phases) {
+            firstDeadline = phases.nextFirstDeadline(System.nanoTime(), interval);
+        }
+
+        return new SpinningPacing(firstDeadline, interval, timings);
+    }
+
+    private final class SpinningPacing implements Pacing {
+
+        private final long interval;
+        private final MeshMonitorTimings timings;
+        private long deadline;
+
+        SpinningPacing(long firstDeadline, long interval, MeshMonitorTimings timings) {
+            this.deadline = firstDeadline;
+            this.interval = interval;
+            this.timings = timings;
+        }
+
+        @Override
+        public boolean awaitPing() {
+            long remaining = deadline - System.nanoTime();
+            if (remaining > spinThresholdNanos) {
+                LockSupport.parkNanos(this, Math.min(remaining - spinThresholdNanos, MAX_PING_WAIT_NANOS));
+                if (deadline - System.nanoTime() > spinThresholdNanos) {
+                    return false;
+                }
+            }
+
+            long spinStart = System.nanoTime();
+            long now = spinStart;
+            while (deadline - now > 0) {
+                now = System.nanoTime();
+            }
+            timings.pacingSpun(now - spinStart);
+
+            long missedDeadlines = PingSchedule.missedDeadlines(deadline, now, interval);
+            timings.pingDeadlinesMissed(missedDeadlines);
+            deadline += (missedDeadlines + 1) * interval;
+
+            return true;
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+}
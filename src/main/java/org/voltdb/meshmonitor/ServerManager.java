@@ -7,61 +7,278 @@
  */
 package org.voltdb.meshmonitor;
 
+import org.voltdb.meshmonitor.serdes.MembershipPayload;
+import org.voltdb.meshmonitor.serdes.PeerAddressTable;
+
 import java.net.InetSocketAddress;
 import java.nio.channels.SocketChannel;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Registry of monitors of all connected peers.
+ * <p>
+ * Readers are the send and receive threads of every connection, the accept loop and metrics scrapes, so none of them
+ * take a lock. Lookups by peer go to a concurrent map and listings return immutable snapshots that are replaced
+ * whenever a connection is added, stops or is removed. Only these changes are synchronized.
+ * <p>
+ * Every peer has one connection, its lane 0, that makes it a member of the mesh. Additional lanes to the same peer
+ * only measure the network and are kept apart from it, they never show up in {@link #getMonitors()}.
+ */
 public class ServerManager {
 
     private final ConsoleLogger consoleLogger;
     private final MonitorFactory monitorFactory;
     private final Duration pingInterval;
+    private final ServerManagerConfig config;
+    private final FlightRecorder flightRecorder;
 
-    private final List<Monitor> monitors = new ArrayList<>();
+    private final ConcurrentHashMap<InetSocketAddress, Monitor> monitorsById = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<InetSocketAddress, Map<Integer, Monitor>> lanesById = new ConcurrentHashMap<>();
+    private final AtomicLong membershipVersion = new AtomicLong();
 
-    public ServerManager(ConsoleLogger consoleLogger, MonitorFactory monitorFactory, Duration pingInterval) {
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyList());
+
+    public ServerManager(ConsoleLogger consoleLogger,
+                         MonitorFactory monitorFactory,
+                         Duration pingInterval,
+                         ServerManagerConfig config) {
         this.consoleLogger = consoleLogger;
         this.monitorFactory = monitorFactory;
         this.pingInterval = pingInterval;
+        this.config = config;
+        this.flightRecorder = config.flightRecorder();
+    }
+
+    /**
+     * Returns running monitors. Monitors that stop are taken out right away, see {@link #monitorStopped(Monitor)}.
+     */
+    public List<Monitor> getMonitors() {
+        return snapshot.monitors;
+    }
+
+    /**
+     * Returns remote ids of running monitors, see {@link #getMonitors()}.
+     */
+    public List<InetSocketAddress> getConnections() {
+        return snapshot.connections;
     }
 
-    public synchronized List<Monitor> getMonitors() {
-        return monitors.stream()
-                .filter(Monitor::isRunning)
-                .collect(Collectors.toList());
+    /**
+     * Returns connections of {@link #getConnections()} encoded for pings. It is encoded only when a connection is added,
+     * stops or is removed and shared by all monitors.
+     */
+    public MembershipPayload getMembership() {
+        return snapshot.membership;
     }
 
-    public synchronized List<InetSocketAddress> getConnections() {
-        return monitors.stream()
-                .filter(Monitor::isRunning)
-                .map(Monitor::getRemoteId)
-                .collect(Collectors.toList());
+    public boolean createNewMonitorIfNotAlreadyPresent(SocketChannel channel, MeshMonitor meshMonitor, InetSocketAddress remoteId) {
+        return createNewMonitorIfNotAlreadyPresent(channel, meshMonitor, remoteId, 0);
     }
 
-    public synchronized boolean createNewMonitorIfNotAlreadyPresent(SocketChannel channel, MeshMonitor meshMonitor, InetSocketAddress remoteId) {
+    /**
+     * @param peerCapabilities capabilities the peer announced in its hello message, if any
+     */
+    public synchronized boolean createNewMonitorIfNotAlreadyPresent(SocketChannel channel, MeshMonitor meshMonitor, InetSocketAddress remoteId, int peerCapabilities) {
         if (!hasConnection(remoteId)) {
-            MeshMonitorTimings timings = MeshMonitorTimings.createDefault(consoleLogger);
+            // Monitors hold canonical addresses, so addresses decoded from pings match them by identity
+            remoteId = PeerAddressTable.shared().intern(remoteId);
+            MeshMonitorTimings timings = MeshMonitorTimings.create(consoleLogger, config);
 
             Monitor monitor = monitorFactory.newMonitor(consoleLogger, meshMonitor, timings, pingInterval, channel, remoteId);
+            monitor.addPeerCapabilities(peerCapabilities);
+            if (flightRecorder != null) {
+                monitor.setFlightRecorder(flightRecorder.peer(remoteId, 0));
+            }
             monitor.start();
-            monitors.add(monitor);
+
+            // Replaces a monitor of the same peer that has stopped but was not removed yet
+            Monitor stopped = monitorsById.put(remoteId, monitor);
+            List<Monitor> updated = new ArrayList<>(snapshot.monitors);
+            if (stopped != null) {
+                updated.remove(stopped);
+            }
+            // Stopping is reported once this returns, unless it already has stopped
+            if (monitor.isRunning()) {
+                updated.add(monitor);
+            }
+            publish(updated);
+
             return true;
         }
 
         return false;
     }
 
-    public synchronized boolean removeConnection(InetSocketAddress remoteId) {
-        return monitors.removeIf(monitor -> monitor.getRemoteId().equals(remoteId));
+    /**
+     * Takes a monitor out of the listings as soon as it stops, before its disconnect is handled and the connection
+     * is removed, which may be queued behind other work. Monitors that are not listed, such as lanes, are ignored.
+     */
+    public synchronized void monitorStopped(Monitor monitor) {
+        if (snapshot.monitors.contains(monitor)) {
+            List<Monitor> updated = new ArrayList<>(snapshot.monitors);
+            updated.remove(monitor);
+            publish(updated);
+        }
+    }
+
+    /**
+     * Removes the monitor of a peer, unless it was already replaced by a new connection to the same peer, see
+     * {@link #createNewMonitorIfNotAlreadyPresent}. Disconnects are handled late, so they must not remove the
+     * replacement.
+     *
+     * @return whether the monitor was removed
+     */
+    public synchronized boolean removeConnection(Monitor monitor) {
+        if (!monitorsById.remove(monitor.getRemoteId(), monitor)) {
+            return false;
+        }
+
+        if (snapshot.monitors.contains(monitor)) {
+            List<Monitor> updated = new ArrayList<>(snapshot.monitors);
+            updated.remove(monitor);
+            publish(updated);
+        }
+
+        return true;
+    }
+
+    /**
+     * Registers an additional connection to a peer, unless the lane is already connected. Monitors of lanes have their
+     * own timings.
+     *
+     * @param lane lane of the connection, 1 and up
+     */
+    public synchronized boolean createLaneMonitorIfNotAlreadyPresent(SocketChannel channel,
+                                                                     MeshMonitor meshMonitor,
+                                                                     InetSocketAddress remoteId,
+                                                                     int lane,
+                                                                     int peerCapabilities) {
+        if (hasLane(remoteId, lane)) {
+            return false;
+        }
+
+        remoteId = PeerAddressTable.shared().intern(remoteId);
+        MeshMonitorTimings timings = MeshMonitorTimings.create(consoleLogger, config);
+
+        Monitor monitor = monitorFactory.newMonitor(consoleLogger, meshMonitor, timings, pingInterval, channel, remoteId);
+        monitor.addPeerCapabilities(peerCapabilities);
+        monitor.setLane(lane);
+        if (flightRecorder != null) {
+            monitor.setFlightRecorder(flightRecorder.peer(remoteId, lane));
+        }
+        monitor.start();
+
+        // Replaces a monitor of the same lane that has stopped but was not removed yet
+        Map<Integer, Monitor> updated = new TreeMap<>(lanesById.getOrDefault(remoteId, Collections.emptyMap()));
+        updated.put(lane, monitor);
+        lanesById.put(remoteId, Collections.unmodifiableMap(updated));
+
+        return true;
+    }
+
+    /**
+     * Removes the monitor of a lane, unless it was already replaced, see {@link #removeConnection(Monitor)}.
+     *
+     * @return whether the monitor was removed
+     */
+    public synchronized boolean removeLane(Monitor monitor) {
+        InetSocketAddress remoteId = monitor.getRemoteId();
+        Map<Integer, Monitor> lanes = lanesById.get(remoteId);
+        if (lanes == null || lanes.get(monitor.getLane()) != monitor) {
+            return false;
+        }
+
+        Map<Integer, Monitor> updated = new TreeMap<>(lanes);
+        updated.remove(monitor.getLane());
+        if (updated.isEmpty()) {
+            lanesById.remove(remoteId);
+        } else {
+            lanesById.put(remoteId, Collections.unmodifiableMap(updated));
+        }
+
+        return true;
+    }
+
+    public boolean hasLane(InetSocketAddress remoteId, int lane) {
+        Map<Integer, Monitor> lanes = lanesById.get(remoteId);
+        if (lanes == null) {
+            return false;
+        }
+
+        Monitor monitor = lanes.get(lane);
+        return monitor != null && monitor.isRunning();
+    }
+
+    /**
+     * Returns running monitors of additional lanes to the peer, ordered by lane. Empty for peers with a single connection.
+     */
+    public List<Monitor> getLanes(InetSocketAddress remoteId) {
+        Map<Integer, Monitor> lanes = lanesById.get(remoteId);
+        if (lanes == null) {
+            return Collections.emptyList();
+        }
+
+        List<Monitor> running = new ArrayList<>(lanes.size());
+        for (Monitor monitor : lanes.values()) {
+            if (monitor.isRunning()) {
+                running.add(monitor);
+            }
+        }
+
+        return running;
+    }
+
+    /**
+     * Version of the set of connections returned by {@link #getConnections()}, incremented whenever
+     * a connection is added or removed.
+     */
+    public long getMembershipVersion() {
+        return membershipVersion.get();
+    }
+
+    /**
+     * Returns running monitor of the peer, or null.
+     */
+    public Monitor getMonitor(InetSocketAddress remoteId) {
+        Monitor monitor = monitorsById.get(remoteId);
+        return monitor != null && monitor.isRunning() ? monitor : null;
+    }
+
+    public boolean hasConnection(InetSocketAddress remoteId) {
+        Monitor monitor = monitorsById.get(remoteId);
+        return monitor != null && monitor.isRunning();
     }
 
-    public synchronized boolean hasConnection(InetSocketAddress remoteId) {
-        return monitors.stream()
-                .filter(Monitor::isRunning)
-                .map(Monitor::getRemoteId)
-                .anyMatch(socketAddress -> socketAddress.equals(remoteId));
+    private void publish(List<Monitor> updated) {
+        snapshot = new Snapshot(updated);
+        membershipVersion.incrementAndGet();
+    }
+
+    /**
+     * Immutable copy of the running monitors, in the order connections were established.
+     */
+    private static final class Snapshot {
+
+        private final List<Monitor> monitors;
+        private final List<InetSocketAddress> connections;
+        private final MembershipPayload membership;
+
+        Snapshot(List<Monitor> monitors) {
+            List<InetSocketAddress> remoteIds = new ArrayList<>(monitors.size());
+            for (Monitor monitor : monitors) {
+                remoteIds.add(monitor.getRemoteId());
+            }
+
+            this.monitors = Collections.unmodifiableList(monitors);
+            this.connections = Collections.unmodifiableList(remoteIds);
+            this.membership = MembershipPayload.encode(remoteIds);
+        }
     }
 }
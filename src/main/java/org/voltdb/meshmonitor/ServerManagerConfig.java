@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Options of a {@link ServerManager} and of the timings it creates for every connection. Immutable, every
+ * {@code with} method returns a copy with one option changed.
+ */
+public final class ServerManagerConfig {
+
+    public static final ServerManagerConfig DEFAULT = new ServerManagerConfig(
+            TimeUnit.MICROSECONDS,
+            HistogramConfig.DEFAULT,
+            null,
+            false);
+
+    private final TimeUnit timingsUnit;
+    private final HistogramConfig histogramConfig;
+    private final FlightRecorder flightRecorder;
+    private final boolean udp;
+
+    private ServerManagerConfig(TimeUnit timingsUnit, HistogramConfig histogramConfig, FlightRecorder flightRecorder, boolean udp) {
+        this.timingsUnit = timingsUnit;
+        this.histogramConfig = histogramConfig;
+        this.flightRecorder = flightRecorder;
+        this.udp = udp;
+    }
+
+    /**
+     * @param timingsUnit unit values are recorded in, nanoseconds in precision mode
+     */
+    public ServerManagerConfig withTimingsUnit(TimeUnit timingsUnit) {
+        return new ServerManagerConfig(timingsUnit, histogramConfig, flightRecorder, udp);
+    }
+
+    public ServerManagerConfig withHistogramConfig(HistogramConfig histogramConfig) {
+        return new ServerManagerConfig(timingsUnit, histogramConfig, flightRecorder, udp);
+    }
+
+    /**
+     * @param flightRecorder recorder of raw samples of all connections, null to not record them
+     */
+    public ServerManagerConfig withFlightRecorder(FlightRecorder flightRecorder) {
+        return new ServerManagerConfig(timingsUnit, histogramConfig, flightRecorder, udp);
+    }
+
+    /**
+     * @param udp whether peers are probed over UDP, see {@link UdpProber}
+     */
+    public ServerManagerConfig withUdp(boolean udp) {
+        return new ServerManagerConfig(timingsUnit, histogramConfig, flightRecorder, udp);
+    }
+
+    public TimeUnit timingsUnit() {
+        return timingsUnit;
+    }
+
+    public HistogramConfig histogramConfig() {
+        return histogramConfig;
+    }
+
+    public FlightRecorder flightRecorder() {
+        return flightRecorder;
+    }
+
+    public boolean isUdp() {
+        return udp;
+    }
+}
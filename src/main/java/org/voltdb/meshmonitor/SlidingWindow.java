@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recent period over which percentiles of a peer are reported, see {@link SlidingWindows}.
+ */
+public enum SlidingWindow {
+
+    ONE_MINUTE("1m", 1),
+    FIVE_MINUTES("5m", 5),
+    FIFTEEN_MINUTES("15m", 15);
+
+    private final String label;
+    private final long nanos;
+
+    SlidingWindow(String label, int minutes) {
+        this.label = label;
+        this.nanos = TimeUnit.MINUTES.toNanos(minutes);
+    }
+
+    public long nanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.PackedHistogram;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ring of histograms of the last 15 minutes of a single metric, one per {@link #SLOT_NANOS}, merged on demand into
+ * the histogram of a {@link SlidingWindow}. A window covers the slot in progress and as many complete slots before it
+ * as fit into the window, so it reports the last 1, 5 or 15 minutes plus up to 30 seconds.
+ * <p>
+ * Memory is bounded by the {@link #SLOTS} slots, allocated as values arrive and reused as the ring turns over. Slots
+ * are packed histograms, which take a few hundred bytes for the handful of distinct values a healthy network
+ * produces in 30 seconds, and at most the size of an ordinary histogram covering the largest value recorded.
+ * <p>
+ * Values are added as intervals swapped out of a recorder and attributed to the slot in progress when they are added,
+ * so intervals have to be taken more often than once a slot, see {@link #SAMPLE_INTERVAL_NANOS}.
+ * <p>
+ * Not thread safe, guarded by the owning {@link HistogramWithDelta}.
+ */
+final class SlidingWindows {
+
+    static final long SLOT_NANOS = TimeUnit.SECONDS.toNanos(30);
+    static final long SAMPLE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    static final int SLOTS = (int) (SlidingWindow.FIFTEEN_MINUTES.nanos() / SLOT_NANOS) + 1;
+
+    private final int significantDigits;
+    private final PackedHistogram[] slots = new PackedHistogram[SLOTS];
+    private final long[] slotNumbers = new long[SLOTS];
+
+    SlidingWindows(int significantDigits) {
+        this.significantDigits = significantDigits;
+        Arrays.fill(slotNumbers, Long.MIN_VALUE);
+    }
+
+    /**
+     * Adds values recorded since the previous call to the slot in progress.
+     *
+     * @param now monotonic time in nanoseconds
+     */
+    void add(Histogram interval, long now) {
+        if (interval.getTotalCount() == 0) {
+            return;
+        }
+
+        long slotNumber = Math.floorDiv(now, SLOT_NANOS);
+        int index = (int) Math.floorMod(slotNumber, (long) SLOTS);
+        PackedHistogram slot = slots[index];
+        if (slot == null) {
+            slot = new PackedHistogram(significantDigits);
+            slots[index] = slot;
+        } else if (slotNumbers[index] != slotNumber) {
+            slot.reset();
+        }
+
+        slotNumbers[index] = slotNumber;
+        slot.add(interval);
+    }
+
+    /**
+     * Adds values of all slots of the window ending now to the target.
+     */
+    void addTo(Histogram target, SlidingWindow window, long now) {
+        long current = Math.floorDiv(now, SLOT_NANOS);
+        long first = current - window.nanos() / SLOT_NANOS;
+        for (long slotNumber = first; slotNumber <= current; slotNumber++) {
+            int index = (int) Math.floorMod(slotNumber, (long) SLOTS);
+            if (slotNumbers[index] == slotNumber) {
+                target.add(slots[index]);
+            }
+        }
+    }
+
+    long getEstimatedFootprintInBytes() {
+        long footprint = 0;
+        for (PackedHistogram slot : slots) {
+            if (slot != null) {
+                footprint += slot.getEstimatedFootprintInBytes();
+            }
+        }
+
+        return footprint;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+/**
+ * Spreads ping deadlines of consecutive connections across the ping interval so that senders do not
+ * line up and burst together.
+ * <p>
+ * Phases follow the golden ratio sequence: each new phase falls into the largest gap left by the previous
+ * ones, so they stay evenly spread for any number of connections without reassigning existing ones
+ * when the mesh grows.
+ */
+final class StaggeredPhases {
+
+    private static final double GOLDEN_RATIO_CONJUGATE = 0.6180339887498949;
+
+    private final long epoch;
+    private double position;
+
+    StaggeredPhases(long epoch) {
+        this.epoch = epoch;
+    }
+
+    /**
+     * Returns first deadline after {@code now} for a new connection, in {@link System#nanoTime()} units.
+     */
+    long nextFirstDeadline(long now, long interval) {
+        position = (position + GOLDEN_RATIO_CONJUGATE) % 1.0;
+        long phase = (long) (position * interval);
+
+        long sinceEpoch = now - epoch;
+        long periods = sinceEpoch > 0 ? sinceEpoch / interval + 1 : 0;
+        return epoch + periods * interval + phase;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.voltdb.meshmonitor.procfs.ProcNetSnmp;
+import org.voltdb.meshmonitor.procfs.ProcNetTcp;
+import org.voltdb.meshmonitor.procfs.TcpSocketStats;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Periodically reads the kernel's view of every connection of the mesh on Linux, so that a spike in ping times can be
+ * matched with TCP retransmissions. Readings of {@code /proc/net/tcp}, {@code /proc/net/tcp6} and
+ * {@code /proc/net/snmp} are attached to the timings of each monitor, see
+ * {@link MeshMonitorTimings#tcpHealthSampled(TcpSocketStats, long)}.
+ * <p>
+ * Runs on its own thread, reading socket tables of a busy host takes far longer than a ping interval.
+ */
+public class TcpHealthSampler {
+
+    public static final Path PROC_NET = Paths.get("/proc/net");
+
+    private final ConsoleLogger logger;
+    private final ServerManager serverManager;
+    private final long intervalMillis;
+    private final Path procNet;
+    private final ByteOrder byteOrder;
+
+    private volatile boolean isRunning;
+
+    public TcpHealthSampler(ConsoleLogger logger, ServerManager serverManager, Duration interval) {
+        this(logger, serverManager, interval, PROC_NET, ByteOrder.nativeOrder());
+    }
+
+    /**
+     * @param procNet   directory with the socket tables
+     * @param byteOrder byte order addresses in the socket tables are printed in, that of the host
+     */
+    TcpHealthSampler(ConsoleLogger logger, ServerManager serverManager, Duration interval, Path procNet, ByteOrder byteOrder) {
+        this.logger = logger;
+        this.serverManager = serverManager;
+        this.intervalMillis = Math.max(1, interval.toMillis());
+        this.procNet = procNet;
+        this.byteOrder = byteOrder;
+    }
+
+    /**
+     * False on systems without Linux socket tables.
+     */
+    public boolean isSupported() {
+        return Files.isReadable(procNet.resolve("tcp")) || Files.isReadable(procNet.resolve("tcp6"));
+    }
+
+    public void start() {
+        isRunning = true;
+
+        Thread thread = new Thread(this::sampleLoop, "tcp health sampler");
+        thread.setDaemon(true);
+        thread.start();
+
+        logger.log("Sampling TCP health from %s every %dms", procNet, intervalMillis);
+    }
+
+    public void close() {
+        isRunning = false;
+    }
+
+    private void sampleLoop() {
+        boolean failing = false;
+        while (isRunning) {
+            try {
+                sample();
+                failing = false;
+            } catch (IOException | RuntimeException e) {
+                // Once per streak of failures, not every interval
+                if (!failing) {
+                    logger.log("Unable to sample TCP health. %s", e.getMessage());
+                }
+                failing = true;
+            }
+
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    void sample() throws IOException {
+        // Lanes are connections of their own, each with a socket of its own
+        List<Monitor> monitors = new ArrayList<>(serverManager.getMonitors());
+        for (Monitor monitor : serverManager.getMonitors()) {
+            monitors.addAll(serverManager.getLanes(monitor.getRemoteId()));
+        }
+
+        Map<String, Monitor> monitorsBySocket = new HashMap<>();
+        for (int i = 0; i < monitors.size(); i++) {
+            Monitor monitor = monitors.get(i);
+            for (String key : socketKeys(monitor)) {
+                monitorsBySocket.put(key, monitor);
+            }
+        }
+
+        Map<Monitor, TcpSocketStats> sampled = new IdentityHashMap<>();
+        readTable("tcp", monitorsBySocket, sampled);
+        readTable("tcp6", monitorsBySocket, sampled);
+        long hostRetransmittedSegments = readHostRetransmittedSegments();
+
+        for (int i = 0; i < monitors.size(); i++) {
+            Monitor monitor = monitors.get(i);
+            monitor.getTimings().tcpHealthSampled(sampled.get(monitor), hostRetransmittedSegments);
+        }
+    }
+
+    private List<String> socketKeys(Monitor monitor) {
+        SocketChannel channel = monitor.getChannel();
+        if (channel == null) {
+            return Collections.emptyList();
+        }
+
+        try {
+            SocketAddress local = channel.getLocalAddress();
+            SocketAddress remote = channel.getRemoteAddress();
+            if (local instanceof InetSocketAddress && remote instanceof InetSocketAddress) {
+                return ProcNetTcp.keys((InetSocketAddress) local, (InetSocketAddress) remote, byteOrder);
+            }
+        } catch (IOException e) {
+            // Closed, the monitor is about to be removed
+        }
+
+        return Collections.emptyList();
+    }
+
+    private void readTable(String name, Map<String, Monitor> monitorsBySocket, Map<Monitor, TcpSocketStats> sampled) throws IOException {
+        Path table = procNet.resolve(name);
+        if (monitorsBySocket.isEmpty() || !Files.isReadable(table)) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(table, StandardCharsets.US_ASCII)) {
+            ProcNetTcp.read(reader, monitorsBySocket, sampled::put);
+        }
+    }
+
+    private long readHostRetransmittedSegments() throws IOException {
+        Path snmp = procNet.resolve("snmp");
+        if (!Files.isReadable(snmp)) {
+            return -1;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(snmp, StandardCharsets.US_ASCII)) {
+            return ProcNetSnmp.retransmittedSegments(reader);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+/**
+ * Kind of threads that run {@link Monitor} send and receive loops.
+ */
+public enum ThreadType {
+
+    PLATFORM("platform") {
+        @Override
+        public Thread newThread(String name, Runnable task) {
+            return new Thread(task, name);
+        }
+    },
+
+    /**
+     * Requires Java 21 or newer, see {@link VirtualThreads#isSupported()}.
+     */
+    VIRTUAL("virtual") {
+        @Override
+        public Thread newThread(String name, Runnable task) {
+            return VirtualThreads.newThread(name, task);
+        }
+    };
+
+    private final String optionValue;
+
+    ThreadType(String optionValue) {
+        this.optionValue = optionValue;
+    }
+
+    public abstract Thread newThread(String name, Runnable task);
+
+    @Override
+    public String toString() {
+        return optionValue;
+    }
+}
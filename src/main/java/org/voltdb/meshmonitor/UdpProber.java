@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.voltdb.meshmonitor.serdes.PacketSerializer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Probes every node of the mesh over UDP, next to the TCP connection. A dropped packet on the TCP connection is
+ * retransmitted and holds up everything behind it, which looks like a latency spike. A dropped UDP probe is simply
+ * lost, so comparing the two tells packet loss apart from queueing delay.
+ * <p>
+ * Probes are sent every ping interval from a datagram channel bound to the same address and port as the mesh, to
+ * the address every peer advertises in the mesh. Peers reply to probes from nodes they are connected to, copying the
+ * sequence number and timestamp. The timestamp is our own monotonic time, so round trip time does not depend on any
+ * wall clock. Probes whose replies never arrive are counted as lost once a later reply arrives. Peers that do not
+ * probe over UDP never reply, and are not counted as losing anything.
+ * <p>
+ * Uses two threads, one sending probes to all peers and one receiving probes and replies.
+ */
+public class UdpProber {
+
+    private final ConsoleLogger logger;
+    private final ServerManager serverManager;
+    private final InetSocketAddress bindAddress;
+    private final long intervalNanos;
+
+    private final Map<InetSocketAddress, PeerProbes> peers = new ConcurrentHashMap<>();
+    private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(PacketSerializer.UDP_PROBE_SIZE);
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(PacketSerializer.UDP_PROBE_SIZE + 1);
+
+    private DatagramChannel channel;
+    private volatile boolean isRunning;
+
+    public UdpProber(ConsoleLogger logger, ServerManager serverManager, InetSocketAddress bindAddress, Duration interval) {
+        this.logger = logger;
+        this.serverManager = serverManager;
+        this.bindAddress = bindAddress;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    public void start() throws IOException {
+        channel = DatagramChannel.open();
+        channel.bind(bindAddress);
+        isRunning = true;
+
+        newDaemonThread(this::sendLoop, "udp send thread").start();
+        newDaemonThread(this::receiveLoop, "udp receive thread").start();
+
+        logger.log("Probing over UDP from %s", bindAddress);
+    }
+
+    public void close() {
+        isRunning = false;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void sendLoop() {
+        long deadline = System.nanoTime();
+        while (isRunning) {
+            deadline += intervalNanos;
+            long now = parkUntil(deadline);
+            if (now - deadline > intervalNanos) {
+                // Stalled for longer than an interval, do not try to catch up
+                deadline = now;
+            }
+
+            List<Monitor> monitors = serverManager.getMonitors();
+            for (int i = 0; i < monitors.size(); i++) {
+                probe(monitors.get(i));
+            }
+            if (peers.size() > monitors.size()) {
+                peers.keySet().removeIf(remoteId -> !serverManager.hasConnection(remoteId));
+            }
+        }
+    }
+
+    private void probe(Monitor monitor) {
+        InetSocketAddress remoteId = monitor.getRemoteId();
+        PeerProbes probes = peers.computeIfAbsent(remoteId, id -> new PeerProbes());
+
+        sendBuffer.clear();
+        PacketSerializer.writeProbe(sendBuffer, PacketSerializer.UDP_PROBE, probes.nextSequence++, System.nanoTime());
+        sendBuffer.flip();
+
+        try {
+            channel.send(sendBuffer, remoteId);
+            monitor.getTimings().udpProbeSent();
+        } catch (ClosedChannelException e) {
+            isRunning = false;
+        } catch (IOException e) {
+            logger.debug(remoteId, "Unable to send UDP probe. %s", e.getMessage());
+        }
+    }
+
+    private void receiveLoop() {
+        while (isRunning) {
+            try {
+                receiveBuffer.clear();
+                SocketAddress source = channel.receive(receiveBuffer);
+                long now = System.nanoTime();
+                receiveBuffer.flip();
+
+                if (source instanceof InetSocketAddress) {
+                    received((InetSocketAddress) source, now);
+                }
+            } catch (ClosedChannelException e) {
+                isRunning = false;
+            } catch (IOException e) {
+                logger.debug(bindAddress, "Error receiving UDP probe. %s", e.getMessage());
+            }
+        }
+    }
+
+    private void received(InetSocketAddress source, long now) throws IOException {
+        byte type = PacketSerializer.probeType(receiveBuffer);
+        if (type == PacketSerializer.UDP_PROBE) {
+            // Only nodes of the mesh are answered, anyone else could use us to flood a third party
+            if (serverManager.hasConnection(source)) {
+                receiveBuffer.put(receiveBuffer.position(), PacketSerializer.UDP_PROBE_REPLY);
+                channel.send(receiveBuffer, source);
+            }
+        } else if (type == PacketSerializer.UDP_PROBE_REPLY) {
+            Monitor monitor = serverManager.getMonitor(source);
+            PeerProbes probes = peers.get(source);
+            if (monitor != null && probes != null) {
+                MeshMonitorTimings timings = monitor.getTimings();
+                long roundTripTime = now - PacketSerializer.probeTimestamp(receiveBuffer);
+                timings.udpReplyReceived(
+                        timings.unit().convert(roundTripTime, TimeUnit.NANOSECONDS),
+                        probes.replies.received(PacketSerializer.probeSequence(receiveBuffer)));
+            }
+        }
+    }
+
+    private static long parkUntil(long deadline) {
+        long now = System.nanoTime();
+        while (now < deadline) {
+            LockSupport.parkNanos(deadline - now);
+            now = System.nanoTime();
+        }
+
+        return now;
+    }
+
+    private static Thread newDaemonThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.setUncaughtExceptionHandler((t, e) -> System.err.printf("[%s] %s%n", t.getName(), e));
+
+        return thread;
+    }
+
+    /**
+     * Probing state of a single peer. The sequence number is used by the send thread only, replies by the receive thread only.
+     */
+    private static final class PeerProbes {
+
+        private final PingSequenceTracker replies = new PingSequenceTracker();
+        private int nextSequence;
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+/**
+ * Virtual thread support for Java versions that lack it. The jar is built as a multi-release jar and
+ * Java 21+ runtimes load the implementation from {@code src/main/java21} instead of this class.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return false;
+    }
+
+    public static Thread newThread(String name, Runnable task) {
+        throw new UnsupportedOperationException("Virtual threads require Java 21 or newer");
+    }
+}
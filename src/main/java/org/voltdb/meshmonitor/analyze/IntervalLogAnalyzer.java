@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.analyze;
+
+import org.HdrHistogram.EncodableHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.HdrHistogram.HistogramLogReader;
+import org.voltdb.meshmonitor.ConsoleLogger;
+import org.voltdb.meshmonitor.IntervalLogWriter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads interval logs written by {@link IntervalLogWriter} on any number of nodes and merges one metric of all of
+ * them into a {@link MeshReport}.
+ * <p>
+ * Files are decoded in parallel, one file per thread, and streamed an interval at a time, so memory does not depend on
+ * how much data there is. Every file is reduced to a report of its own, a histogram per link and the worst links of
+ * every bucket, which is merged into the result once the file is done.
+ */
+public class IntervalLogAnalyzer {
+
+    private static final Pattern NODE_COMMENT = Pattern.compile("^#\\[Node: (\\S+)]$");
+    private static final Pattern UNIT_RATIO_COMMENT = Pattern.compile("^#\\[Max value unit ratio: (\\S+)]$");
+
+    // Files written before the unit was recorded, or by nodes without --precision
+    private static final double MICROSECONDS_PER_SECOND = TimeUnit.SECONDS.toMicros(1);
+
+    private final ConsoleLogger logger;
+    private final String metric;
+    private final int parallelism;
+
+    /**
+     * @param metric      name of the metric to analyze, one of {@link IntervalLogWriter#METRICS}
+     * @param parallelism number of files decoded at the same time
+     */
+    public IntervalLogAnalyzer(ConsoleLogger logger, String metric, int parallelism) {
+        this.logger = logger;
+        this.metric = metric;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns all interval logs in the directory and its subdirectories.
+     */
+    public static List<Path> findLogs(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .filter(file -> file.getFileName().toString().endsWith(IntervalLogWriter.FILE_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    public MeshReport analyze(List<Path> files, MeshReport report) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "interval log reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            CompletionService<MeshReport> partials = new ExecutorCompletionService<>(executor);
+            for (Path file : files) {
+                partials.submit(() -> read(file, report.emptyCopy()));
+            }
+
+            // Merged as soon as they are done, so only reports of files being read are held in memory
+            for (int i = 0; i < files.size(); i++) {
+                report.merge(partials.take().get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading interval logs", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return report;
+    }
+
+    MeshReport read(Path file, MeshReport report) {
+        try {
+            String node = null;
+            double unitRatio = MICROSECONDS_PER_SECOND;
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+                String line;
+                while ((line = reader.readLine()) != null && line.startsWith("#")) {
+                    Matcher nodeMatcher = NODE_COMMENT.matcher(line);
+                    Matcher unitMatcher = UNIT_RATIO_COMMENT.matcher(line);
+                    if (nodeMatcher.matches()) {
+                        node = nodeMatcher.group(1);
+                    } else if (unitMatcher.matches()) {
+                        unitRatio = Double.parseDouble(unitMatcher.group(1));
+                    }
+                }
+            }
+
+            if (node == null) {
+                logger.log("Skipping %s, it does not name the node it was recorded on", file);
+                return report;
+            }
+
+            readIntervals(file, node, unitRatio, report);
+            report.fileRead();
+
+            return report;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readIntervals(Path file, String node, double unitRatio, MeshReport report) throws IOException {
+        HistogramLogReader reader = new HistogramLogReader(file.toFile());
+        try {
+            EncodableHistogram encoded;
+            while ((encoded = nextInterval(reader, file)) != null) {
+                // Tags are peer/metric or peer/metric/lane, see IntervalLogWriter.tag
+                String[] tag = encoded.getTag() == null ? new String[0] : encoded.getTag().split("/");
+                if (tag.length < 2 || !tag[1].equals(metric) || !(encoded instanceof Histogram)) {
+                    continue;
+                }
+
+                report.add(
+                        new Link(node, tag[0]),
+                        inMicroseconds((Histogram) encoded, unitRatio),
+                        encoded.getStartTimeStamp(),
+                        encoded.getEndTimeStamp());
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * A node killed while writing leaves a truncated last line, which ends the file rather than the analysis.
+     */
+    private EncodableHistogram nextInterval(HistogramLogReader reader, Path file) {
+        try {
+            return reader.nextIntervalHistogram();
+        } catch (RuntimeException e) {
+            logger.log("Skipping the rest of %s, it is truncated or corrupt. %s", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private static Histogram inMicroseconds(Histogram histogram, double unitRatio) {
+        if (unitRatio == MICROSECONDS_PER_SECOND) {
+            return histogram;
+        }
+
+        double factor = MICROSECONDS_PER_SECOND / unitRatio;
+        Histogram converted = new Histogram(histogram.getNumberOfSignificantValueDigits());
+        for (HistogramIterationValue value : histogram.recordedValues()) {
+            converted.recordValueWithCount(
+                    Math.round(value.getValueIteratedTo() * factor),
+                    value.getCountAtValueIteratedTo());
+        }
+
+        return converted;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.analyze;
+
+import java.util.Objects;
+
+/**
+ * Connection between a node, which recorded the values, and one of its peers, all lanes together.
+ */
+final class Link {
+
+    private final String node;
+    private final String peer;
+
+    Link(String node, String peer) {
+        this.node = node;
+        this.peer = peer;
+    }
+
+    String node() {
+        return node;
+    }
+
+    String peer() {
+        return peer;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Link link = (Link) o;
+        return node.equals(link.node) && peer.equals(link.peer);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(node, peer);
+    }
+
+    @Override
+    public String toString() {
+        return node + " -> " + peer;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.analyze;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.PackedHistogram;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Values of one metric of every link in the mesh, in microseconds, and the worst links of every time bucket.
+ * <p>
+ * Memory depends on the size of the mesh and the number of buckets, not on the amount of data: every link is a
+ * single packed histogram of all its values and every bucket holds only its few worst links.
+ */
+public class MeshReport {
+
+    private final double percentile;
+    private final long bucketMillis;
+    private final int worstLinksPerBucket;
+    private final int significantDigits;
+
+    private final Map<Link, Histogram> links = new HashMap<>();
+    private final SortedMap<Long, WorstLinks> timeline = new TreeMap<>();
+
+    private int files;
+    private long intervals;
+    private long startMillis = Long.MAX_VALUE;
+    private long endMillis = Long.MIN_VALUE;
+
+    /**
+     * @param percentile          percentile links are compared by, e.g. 99.9
+     * @param bucketMillis        length of a bucket of the timeline
+     * @param worstLinksPerBucket number of links kept for every bucket of the timeline
+     * @param significantDigits   precision of the histograms of every link
+     */
+    public MeshReport(double percentile, long bucketMillis, int worstLinksPerBucket, int significantDigits) {
+        this.percentile = percentile;
+        this.bucketMillis = bucketMillis;
+        this.worstLinksPerBucket = worstLinksPerBucket;
+        this.significantDigits = significantDigits;
+    }
+
+    MeshReport emptyCopy() {
+        return new MeshReport(percentile, bucketMillis, worstLinksPerBucket, significantDigits);
+    }
+
+    /**
+     * Adds an interval histogram of a link, in microseconds, recorded between the given times.
+     */
+    void add(Link link, Histogram interval, long intervalStartMillis, long intervalEndMillis) {
+        links.computeIfAbsent(link, l -> new PackedHistogram(significantDigits)).add(interval);
+
+        long bucket = Math.floorDiv(intervalEndMillis, bucketMillis) * bucketMillis;
+        timeline.computeIfAbsent(bucket, b -> new WorstLinks(worstLinksPerBucket))
+                .offer(link, interval.getValueAtPercentile(percentile));
+
+        intervals++;
+        startMillis = Math.min(startMillis, intervalStartMillis);
+        endMillis = Math.max(endMillis, intervalEndMillis);
+    }
+
+    void fileRead() {
+        files++;
+    }
+
+    void merge(MeshReport other) {
+        other.links.forEach((link, histogram) -> links.merge(link, histogram, (mine, theirs) -> {
+            mine.add(theirs);
+            return mine;
+        }));
+        other.timeline.forEach((bucket, worst) -> timeline.merge(bucket, worst, (mine, theirs) -> {
+            mine.merge(theirs);
+            return mine;
+        }));
+
+        files += other.files;
+        intervals += other.intervals;
+        startMillis = Math.min(startMillis, other.startMillis);
+        endMillis = Math.max(endMillis, other.endMillis);
+    }
+
+    /**
+     * Returns all nodes that recorded values or were recorded by others, sorted by address.
+     */
+    public List<String> nodes() {
+        SortedSet<String> nodes = new TreeSet<>();
+        for (Link link : links.keySet()) {
+            nodes.add(link.node());
+            nodes.add(link.peer());
+        }
+        return new ArrayList<>(nodes);
+    }
+
+    /**
+     * Returns all values of the link, or null if the node recorded none for the peer.
+     */
+    public Histogram link(String node, String peer) {
+        return links.get(new Link(node, peer));
+    }
+
+    SortedMap<Long, WorstLinks> timeline() {
+        return timeline;
+    }
+
+    public double percentile() {
+        return percentile;
+    }
+
+    public long bucketMillis() {
+        return bucketMillis;
+    }
+
+    public int files() {
+        return files;
+    }
+
+    public long intervals() {
+        return intervals;
+    }
+
+    public long startMillis() {
+        return startMillis;
+    }
+
+    public long endMillis() {
+        return endMillis;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.analyze;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prints a {@link MeshReport} as a matrix of every link, the node that recorded the values in rows and its peers in
+ * columns, followed by the worst links of every bucket of time. Nodes are numbered in the matrix and the timeline, so
+ * that large meshes still fit on a screen, the legend maps numbers to addresses. Values are in milliseconds.
+ * <p>
+ * The same data can be written to CSV files, {@value #LINKS_CSV} with several percentiles of every link and
+ * {@value #TIMELINE_CSV} with the worst links of every bucket.
+ */
+public class MeshReportPrinter {
+
+    public static final String LINKS_CSV = "links.csv";
+    public static final String TIMELINE_CSV = "timeline.csv";
+
+    private static final double[] CSV_PERCENTILES = {50.0, 90.0, 99.0, 99.9, 99.99, 100.0};
+
+    private final MeshReport report;
+    private final String metric;
+    private final List<String> nodes;
+    private final Map<String, Integer> numbers = new HashMap<>();
+
+    public MeshReportPrinter(MeshReport report, String metric) {
+        this.report = report;
+        this.metric = metric;
+        this.nodes = report.nodes();
+        for (int i = 0; i < nodes.size(); i++) {
+            numbers.put(nodes.get(i), i + 1);
+        }
+    }
+
+    public void print(PrintWriter out) {
+        if (report.intervals() == 0) {
+            out.printf("No intervals of %s found in %d files%n", metric, report.files());
+            out.flush();
+            return;
+        }
+
+        out.printf("Read %d intervals of %s from %d files, %s to %s%n",
+                report.intervals(),
+                metric,
+                report.files(),
+                Instant.ofEpochMilli(report.startMillis()),
+                Instant.ofEpochMilli(report.endMillis()));
+
+        out.println();
+        out.println("Nodes:");
+        for (int i = 0; i < nodes.size(); i++) {
+            out.printf("%5d  %s%n", i + 1, nodes.get(i));
+        }
+
+        out.println();
+        printMatrix(out);
+        out.println();
+        printTimeline(out);
+        out.flush();
+    }
+
+    private void printMatrix(PrintWriter out) {
+        out.printf("p%s of %s by node (rows) and peer (columns), ms:%n", percentile(), metric);
+
+        out.print("     ");
+        for (int i = 0; i < nodes.size(); i++) {
+            out.printf(" %9d", i + 1);
+        }
+        out.println();
+
+        for (int row = 0; row < nodes.size(); row++) {
+            out.printf("%5d", row + 1);
+            for (String peer : nodes) {
+                Histogram link = report.link(nodes.get(row), peer);
+                if (link == null || link.getTotalCount() == 0) {
+                    out.printf(" %9s", "-");
+                } else {
+                    out.printf(" %9s", millis(link.getValueAtPercentile(report.percentile())));
+                }
+            }
+            out.println();
+        }
+    }
+
+    private void printTimeline(PrintWriter out) {
+        long bucketMillis = report.bucketMillis();
+        String every = bucketMillis % 1000 == 0 ? bucketMillis / 1000 + "s" : bucketMillis + "ms";
+        out.printf("Worst links by p%s of %s every %s, ms:%n", percentile(), metric, every);
+
+        for (Map.Entry<Long, WorstLinks> bucket : report.timeline().entrySet()) {
+            StringBuilder line = new StringBuilder(Instant.ofEpochMilli(bucket.getKey()).toString());
+            for (WorstLinks.Entry entry : bucket.getValue().sorted()) {
+                line.append(String.format("  %d->%d %s",
+                        numbers.get(entry.link().node()),
+                        numbers.get(entry.link().peer()),
+                        millis(entry.value())));
+            }
+            out.println(line);
+        }
+    }
+
+    /**
+     * Writes {@value #LINKS_CSV} and {@value #TIMELINE_CSV} to the directory, creating it if needed.
+     */
+    public void writeCsv(Path directory) throws IOException {
+        Files.createDirectories(directory);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(LINKS_CSV), StandardCharsets.UTF_8)) {
+            writer.write("node,peer,metric,count,p50_ms,p90_ms,p99_ms,p99.9_ms,p99.99_ms,max_ms\n");
+            for (String node : nodes) {
+                for (String peer : nodes) {
+                    Histogram link = report.link(node, peer);
+                    if (link == null || link.getTotalCount() == 0) {
+                        continue;
+                    }
+
+                    writer.write(node + "," + peer + "," + metric + "," + link.getTotalCount());
+                    for (double percentile : CSV_PERCENTILES) {
+                        writer.write("," + millis(link.getValueAtPercentile(percentile)));
+                    }
+                    writer.write("\n");
+                }
+            }
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(TIMELINE_CSV), StandardCharsets.UTF_8)) {
+            writer.write("bucket_start,rank,node,peer,metric,percentile,value_ms\n");
+            for (Map.Entry<Long, WorstLinks> bucket : report.timeline().entrySet()) {
+                int rank = 1;
+                for (WorstLinks.Entry entry : bucket.getValue().sorted()) {
+                    writer.write(Instant.ofEpochMilli(bucket.getKey()) + "," + rank++ + "," +
+                                 entry.link().node() + "," + entry.link().peer() + "," + metric + "," +
+                                 percentile() + "," + millis(entry.value()) + "\n");
+                }
+            }
+        }
+    }
+
+    private String percentile() {
+        return String.format(Locale.ROOT, "%s", report.percentile()).replaceAll("\\.0$", "");
+    }
+
+    private static String millis(long microseconds) {
+        return String.format(Locale.ROOT, "%.3f", microseconds / 1000.0);
+    }
+}
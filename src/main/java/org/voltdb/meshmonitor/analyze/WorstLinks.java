@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.analyze;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The few links with the highest value within a time bucket, each with the highest value it was offered. Holds at
+ * most {@code capacity} links however many are offered, which keeps the timeline of weeks of data small.
+ */
+final class WorstLinks {
+
+    static final class Entry {
+
+        private final Link link;
+        private long value;
+
+        private Entry(Link link, long value) {
+            this.link = link;
+            this.value = value;
+        }
+
+        Link link() {
+            return link;
+        }
+
+        long value() {
+            return value;
+        }
+    }
+
+    private final int capacity;
+    private final List<Entry> entries;
+
+    WorstLinks(int capacity) {
+        this.capacity = capacity;
+        this.entries = new ArrayList<>(capacity);
+    }
+
+    /**
+     * A link that was dropped only ever had lower values than all links kept, so its highest value is always right
+     * when it comes back.
+     */
+    void offer(Link link, long value) {
+        Entry lowest = null;
+        for (Entry entry : entries) {
+            if (entry.link.equals(link)) {
+                entry.value = Math.max(entry.value, value);
+                return;
+            }
+            if (lowest == null || entry.value < lowest.value) {
+                lowest = entry;
+            }
+        }
+
+        if (entries.size() < capacity) {
+            entries.add(new Entry(link, value));
+        } else if (lowest != null && value > lowest.value) {
+            entries.set(entries.indexOf(lowest), new Entry(link, value));
+        }
+    }
+
+    void merge(WorstLinks other) {
+        for (Entry entry : other.entries) {
+            offer(entry.link, entry.value);
+        }
+    }
+
+    /**
+     * Returns the links kept, the worst first.
+     */
+    List<Entry> sorted() {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparingLong(Entry::value).reversed());
+        return sorted;
+    }
+}
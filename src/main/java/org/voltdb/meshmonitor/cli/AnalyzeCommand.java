@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.cli;
+
+import org.voltdb.meshmonitor.ConsoleLogger;
+import org.voltdb.meshmonitor.HistogramConfig;
+import org.voltdb.meshmonitor.IntervalLogWriter;
+import org.voltdb.meshmonitor.MeshMonitor;
+import org.voltdb.meshmonitor.analyze.IntervalLogAnalyzer;
+import org.voltdb.meshmonitor.analyze.MeshReport;
+import org.voltdb.meshmonitor.analyze.MeshReportPrinter;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+@CommandLine.Command(
+        name = "analyze",
+        sortOptions = false,
+        headerHeading = "Usage:%n%n",
+        synopsisHeading = "%n",
+        descriptionHeading = "%nDescription:%n%n",
+        parameterListHeading = "%nParameters:%n",
+        optionListHeading = "%nOptions:%n",
+        header = "Analyzes interval logs recorded by many nodes.",
+        description = "Reads interval logs written with --interval-log on any number of nodes and prints the worst " +
+                      "percentile of every link in the mesh, as a matrix of nodes and peers, followed by the worst " +
+                      "links over time. Logs are streamed, so weeks of data of large meshes take little memory.")
+public class AnalyzeCommand implements Callable<Integer> {
+
+    @CommandLine.Option(
+            names = {"-h", "--help"},
+            usageHelp = true,
+            description = "Display help")
+    boolean usageHelpRequested;
+
+    @CommandLine.Option(
+            names = {"--metric"},
+            description = "Metric to analyze: receive, send, delta, one_way, rtt or udp_rtt. Default is ${DEFAULT-VALUE}",
+            defaultValue = "rtt")
+    private String metric;
+
+    @CommandLine.Option(
+            names = {"--percentile"},
+            description = "Percentile links are compared by. Default is ${DEFAULT-VALUE}",
+            defaultValue = "99.9")
+    private double percentile;
+
+    @CommandLine.Option(
+            names = {"--bucket"},
+            description = "Length of a step of the timeline of the worst links, e.g. 60s. Default is ${DEFAULT-VALUE}",
+            defaultValue = "60s",
+            converter = DurationConverter.class)
+    private Duration bucket;
+
+    @CommandLine.Option(
+            names = {"--worst"},
+            description = "Number of links shown for every step of the timeline. Default is ${DEFAULT-VALUE}",
+            defaultValue = "5")
+    private int worstLinks;
+
+    @CommandLine.Option(
+            names = {"--csv"},
+            description = "Directory to also write " + MeshReportPrinter.LINKS_CSV + " and " +
+                          MeshReportPrinter.TIMELINE_CSV + " to")
+    private Path csvDirectory;
+
+    @CommandLine.Option(
+            names = {"--parallelism"},
+            description = "Number of files read at the same time. Default is the number of processors")
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    @CommandLine.Parameters(
+            index = "0",
+            description = "Directory with interval logs of any number of nodes, searched recursively")
+    private Path directory;
+
+    @CommandLine.Spec
+    CommandLine.Model.CommandSpec spec;
+
+    @Override
+    public Integer call() {
+        validateOptions();
+
+        ConsoleLogger consoleLogger = new ConsoleLogger(spec.commandLine().getOut(), false);
+        try {
+            List<Path> files = IntervalLogAnalyzer.findLogs(directory);
+            MeshReport report = new IntervalLogAnalyzer(consoleLogger, metric, parallelism).analyze(
+                    files,
+                    new MeshReport(percentile, bucket.toMillis(), worstLinks, HistogramConfig.DEFAULT_SIGNIFICANT_DIGITS));
+
+            MeshReportPrinter printer = new MeshReportPrinter(report, metric);
+            printer.print(spec.commandLine().getOut());
+            if (csvDirectory != null) {
+                printer.writeCsv(csvDirectory);
+            }
+        } catch (IOException e) {
+            consoleLogger.fatalError("Error analyzing interval logs", e);
+            return MeshMonitor.PROGRAM_ERROR_RESULT;
+        }
+
+        return MeshMonitor.PROGRAM_SUCCESS_RESULT;
+    }
+
+    private void validateOptions() {
+        if (!Files.isDirectory(directory)) {
+            throw new CommandLine.ParameterException(spec.commandLine(), String.format(
+                    "Invalid argument: %s is not a directory.%n", directory));
+        }
+
+        if (!IntervalLogWriter.METRICS.contains(metric)) {
+            throw new CommandLine.ParameterException(spec.commandLine(), String.format(
+                    "Invalid argument: Metric must be one of %s.%n",
+                    String.join(", ", IntervalLogWriter.METRICS)));
+        }
+
+        if (percentile <= 0 || percentile > 100) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid argument: Percentile must be greater than 0 and at most 100.\n");
+        }
+
+        if (bucket.compareTo(Duration.ofSeconds(1)) < 0) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid argument: Bucket must be at least 1s.\n");
+        }
+
+        if (worstLinks < 1) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid argument: Number of worst links must be greater than zero.\n");
+        }
+
+        if (parallelism < 1) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid argument: Parallelism must be greater than zero.\n");
+        }
+    }
+}
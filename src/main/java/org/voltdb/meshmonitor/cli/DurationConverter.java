@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.cli;
+
+import picocli.CommandLine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts durations such as {@code 250us}, {@code 5ms} or {@code 1s}. Numbers without a unit are milliseconds
+ * so that existing command lines keep working.
+ */
+public class DurationConverter implements CommandLine.ITypeConverter<Duration> {
+
+    private static final Pattern DURATION = Pattern.compile("(\\d+)\\s*(ns|us|µs|ms|s)?");
+
+    @Override
+    public Duration convert(String value) {
+        Matcher matcher = DURATION.matcher(value.trim());
+        if (!matcher.matches()) {
+            throw new CommandLine.TypeConversionException(
+                    "Invalid duration '" + value + "', expected a whole number with an optional unit: ns, us, ms or s");
+        }
+
+        long amount = Long.parseLong(matcher.group(1));
+        return Duration.ofNanos(unitOf(matcher.group(2)).toNanos(amount));
+    }
+
+    private static TimeUnit unitOf(String unit) {
+        if (unit == null) {
+            return TimeUnit.MILLISECONDS;
+        }
+
+        switch (unit) {
+            case "ns":
+                return TimeUnit.NANOSECONDS;
+            case "us":
+            case "µs":
+                return TimeUnit.MICROSECONDS;
+            case "s":
+                return TimeUnit.SECONDS;
+            default:
+                return TimeUnit.MILLISECONDS;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.cli;
+
+import picocli.CommandLine;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Converts option values to enum constants using their {@link Object#toString()} representation
+ * so that options can accept lower-case, hyphenated values.
+ */
+abstract class EnumOptionConverter<T extends Enum<T>> implements CommandLine.ITypeConverter<T> {
+
+    private final Class<T> enumType;
+    private final String optionDescription;
+
+    EnumOptionConverter(Class<T> enumType, String optionDescription) {
+        this.enumType = enumType;
+        this.optionDescription = optionDescription;
+    }
+
+    @Override
+    public T convert(String value) {
+        T[] constants = enumType.getEnumConstants();
+        for (T constant : constants) {
+            if (constant.toString().equalsIgnoreCase(value)) {
+                return constant;
+            }
+        }
+
+        String validValues = Arrays.stream(constants)
+                .map(T::toString)
+                .collect(Collectors.joining(", "));
+        throw new CommandLine.TypeConversionException(
+                "Invalid " + optionDescription + " '" + value + "', expected one of: " + validValues);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.cli;
+
+import org.voltdb.meshmonitor.ConsoleLogger;
+import org.voltdb.meshmonitor.FlightRecorder;
+import org.voltdb.meshmonitor.MeshMonitor;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+@CommandLine.Command(
+        name = "flight-dump",
+        sortOptions = false,
+        headerHeading = "Usage:%n%n",
+        synopsisHeading = "%n",
+        descriptionHeading = "%nDescription:%n%n",
+        parameterListHeading = "%nParameters:%n",
+        optionListHeading = "%nOptions:%n",
+        header = "Prints raw ping samples kept by the flight recorder around a point in time.",
+        description = "Reads the file written with --flight-recorder, also while meshmonitor is running or after it " +
+                      "crashed, and prints every ping received within the window around the given time, in the " +
+                      "order they arrived.")
+public class FlightDumpCommand implements Callable<Integer> {
+
+    private static final String LINE_FORMAT = "%-27s %-22s %4s %10s %10s %10s %10s%n";
+
+    @CommandLine.Option(
+            names = {"-h", "--help"},
+            usageHelp = true,
+            description = "Display help")
+    boolean usageHelpRequested;
+
+    @CommandLine.Option(
+            names = {"--at"},
+            required = true,
+            description = "Time of the incident, as an ISO-8601 instant, e.g. 2024-05-01T12:00:00Z, or in milliseconds since the epoch")
+    private String at;
+
+    @CommandLine.Option(
+            names = {"--window"},
+            description = "Time before and after --at to print samples of, e.g. 500ms. Default is ${DEFAULT-VALUE}",
+            defaultValue = "5s",
+            converter = DurationConverter.class)
+    private Duration window;
+
+    @CommandLine.Option(
+            names = {"--peer"},
+            description = "Print samples of this peer only, e.g. 192.168.0.1",
+            converter = InetSocketAddressConverter.class)
+    private InetSocketAddress peer;
+
+    @CommandLine.Parameters(
+            index = "0",
+            description = "Flight recorder file")
+    private Path file;
+
+    @CommandLine.Spec
+    CommandLine.Model.CommandSpec spec;
+
+    @Override
+    public Integer call() {
+        Instant instant = validateOptions();
+
+        PrintWriter out = spec.commandLine().getOut();
+        try {
+            FlightRecorder recorder = FlightRecorder.openForReading(file);
+            TimeUnit unit = recorder.unit();
+            long center = unit.convert(instant.getEpochSecond(), TimeUnit.SECONDS) +
+                          unit.convert(instant.getNano(), TimeUnit.NANOSECONDS);
+            long halfWindow = unit.convert(window.toNanos(), TimeUnit.NANOSECONDS);
+
+            List<FlightRecorder.Sample> samples = recorder.read(center - halfWindow, center + halfWindow);
+            print(out, samples, unit);
+        } catch (IOException e) {
+            new ConsoleLogger(out, false).fatalError("Error reading flight recorder", e);
+            return MeshMonitor.PROGRAM_ERROR_RESULT;
+        }
+
+        out.flush();
+        return MeshMonitor.PROGRAM_SUCCESS_RESULT;
+    }
+
+    private void print(PrintWriter out, List<FlightRecorder.Sample> samples, TimeUnit unit) {
+        out.printf(LINE_FORMAT, "received", "peer", "lane", "sequence", "delta_ms", "gap_ms", "stall_ms");
+
+        // Gaps are between pings of the same connection
+        Map<String, Long> lastReceived = new HashMap<>();
+        int printed = 0;
+        for (FlightRecorder.Sample sample : samples) {
+            if (peer != null && !isPeer(sample.remoteId())) {
+                continue;
+            }
+
+            String peerId = sample.remoteId().getAddress().getHostAddress() + ":" + sample.remoteId().getPort();
+            Long previous = lastReceived.put(peerId + "/" + sample.lane(), sample.receiveTimestamp());
+
+            out.printf(LINE_FORMAT,
+                    toInstant(sample.receiveTimestamp(), unit),
+                    peerId,
+                    sample.lane(),
+                    sample.sequence() < 0 ? "-" : Integer.toString(sample.sequence()),
+                    millis(sample.receiveTimestamp() - sample.sendTimestamp(), unit),
+                    previous == null ? "-" : millis(sample.receiveTimestamp() - previous, unit),
+                    millis(sample.writeStall(), unit));
+            printed++;
+        }
+
+        out.printf("Samples: %d%n", printed);
+    }
+
+    private boolean isPeer(InetSocketAddress remoteId) {
+        return remoteId.getPort() == peer.getPort() && remoteId.getAddress().equals(peer.getAddress());
+    }
+
+    private static Instant toInstant(long timestamp, TimeUnit unit) {
+        long nanos = unit.toNanos(timestamp);
+        return Instant.ofEpochSecond(TimeUnit.NANOSECONDS.toSeconds(nanos), nanos % TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static String millis(long value, TimeUnit unit) {
+        return String.format("%.3f", unit.toNanos(value) / 1_000_000.0);
+    }
+
+    private Instant validateOptions() {
+        if (!Files.isRegularFile(file)) {
+            throw new CommandLine.ParameterException(spec.commandLine(), String.format(
+                    "Invalid argument: %s is not a file.%n", file));
+        }
+
+        if (window.isZero()) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid argument: Window must be greater than zero.\n");
+        }
+
+        if (peer != null && peer.isUnresolved()) {
+            throw new CommandLine.ParameterException(spec.commandLine(), String.format(
+                    "Invalid argument: Unknown peer %s.%n", peer.getHostString()));
+        }
+
+        try {
+            return at.chars().allMatch(Character::isDigit)
+                    ? Instant.ofEpochMilli(Long.parseLong(at))
+                    : Instant.parse(at);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new CommandLine.ParameterException(spec.commandLine(), String.format(
+                    "Invalid argument: Time %s is neither an ISO-8601 instant nor milliseconds since the epoch.%n", at));
+        }
+    }
+}
@@ -8,19 +8,40 @@
 package org.voltdb.meshmonitor.cli;
 
 import org.voltdb.meshmonitor.ConsoleLogger;
+import org.voltdb.meshmonitor.EventLoopMonitor;
 import org.voltdb.meshmonitor.GitPropertiesVersionProvider;
+import org.voltdb.meshmonitor.HistogramConfig;
+import org.voltdb.meshmonitor.FlightRecorder;
+import org.voltdb.meshmonitor.IntervalLogWriter;
 import org.voltdb.meshmonitor.MeshMonitor;
+import org.voltdb.meshmonitor.MeshMonitorConfig;
 import org.voltdb.meshmonitor.Monitor;
+import org.voltdb.meshmonitor.MonitorConfig;
+import org.voltdb.meshmonitor.MonitorEventLoop;
+import org.voltdb.meshmonitor.MonitorFactory;
+import org.voltdb.meshmonitor.PingPacer;
+import org.voltdb.meshmonitor.PingScheduler;
+import org.voltdb.meshmonitor.PrecisionPacer;
 import org.voltdb.meshmonitor.ServerManager;
+import org.voltdb.meshmonitor.ServerManagerConfig;
+import org.voltdb.meshmonitor.SlidingWindow;
+import org.voltdb.meshmonitor.TcpHealthSampler;
+import org.voltdb.meshmonitor.ThreadType;
+import org.voltdb.meshmonitor.UdpProber;
+import org.voltdb.meshmonitor.VirtualThreads;
 import org.voltdb.meshmonitor.metrics.SimplePrometheusMetricsServer;
+import org.voltdb.meshmonitor.serdes.ConnectionBuffers;
+import org.voltdb.meshmonitor.serdes.PacketSerializer;
 import picocli.CommandLine;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 @CommandLine.Command(
         name = "meshmonitor",
@@ -31,6 +52,7 @@ import java.util.concurrent.Callable;
         parameterListHeading = "%nParameters:%n",
         optionListHeading = "%nOptions:%n",
         versionProvider = GitPropertiesVersionProvider.class,
+        subcommands = {AnalyzeCommand.class, FlightDumpCommand.class},
         header = "Detects network jitter and reports on it.",
         description = "Tool for monitoring network issues such as network delays " +
                       "and instability, mysterious timeouts, hangs, and scheduling " +
@@ -39,6 +61,10 @@ import java.util.concurrent.Callable;
                       "obvious network event.")
 public class MeshMonitorCommand implements Callable<Integer> {
 
+    // Fits the ping header and several IPv6 addresses
+    private static final int MIN_MAX_FRAME_SIZE = 64;
+    private static final long BYTES_PER_MIB = 1024 * 1024;
+
     @CommandLine.Option(
             names = {"-v", "--version"},
             versionHelp = true,
@@ -59,9 +85,19 @@ public class MeshMonitorCommand implements Callable<Integer> {
 
     @CommandLine.Option(
             names = {"-p", "--ping"},
-            description = "Ping interval in milliseconds",
-            defaultValue = "5")
-    private int pingIntervalMilliseconds;
+            description = "Ping interval, e.g. 5ms or 250us. Plain numbers are milliseconds. " +
+                          "Intervals below 1ms require --precision. Default is ${DEFAULT-VALUE}",
+            defaultValue = "5",
+            converter = DurationConverter.class)
+    private Duration pingInterval;
+
+    @CommandLine.Option(
+            names = {"--precision"},
+            description = "Pace pings with a calibrated busy-wait and record timings with nanosecond resolution. " +
+                          "Costs CPU on every send thread, the cost is printed at startup and with every report. " +
+                          "Only supported by the 'threads' engine",
+            defaultValue = "false")
+    private boolean precision;
 
     @CommandLine.Option(
             names = {"-i", "--interval"},
@@ -81,6 +117,13 @@ public class MeshMonitorCommand implements Callable<Integer> {
             description = "Do not print histograms to console.")
     private boolean quiet;
 
+    @CommandLine.Option(
+            names = {"--console-window"},
+            description = "Print percentiles over the last '1m', '5m' or '15m' to the console instead of those since " +
+                          "the previous report. Prometheus always reports all three windows",
+            converter = SlidingWindowConverter.class)
+    private SlidingWindow consoleWindow;
+
     @CommandLine.Option(
             names = {"-m", "--metrics-bind"},
             description = "Bind address for metrics server in format [host][:port]. Default is 12223 for all interfaces",
@@ -94,6 +137,122 @@ public class MeshMonitorCommand implements Callable<Integer> {
             defaultValue = "false")
     private boolean disableMetrics;
 
+    @CommandLine.Option(
+            names = {"--engine"},
+            description = "How connections are serviced: 'threads' uses a send and a receive thread per node, " +
+                          "'event-loop' multiplexes all nodes on a single thread. Default is ${DEFAULT-VALUE}",
+            defaultValue = "threads",
+            converter = MonitorEngineConverter.class)
+    private MonitorEngine engine;
+
+    @CommandLine.Option(
+            names = {"--threads"},
+            description = "Type of threads used by the 'threads' engine: 'platform' or 'virtual'. " +
+                          "Virtual threads require Java 21 or newer. Default is ${DEFAULT-VALUE}",
+            defaultValue = "platform",
+            converter = ThreadTypeConverter.class)
+    private ThreadType threadType;
+
+    @CommandLine.Option(
+            names = {"--max-frame-size"},
+            description = "Largest ping sent, in bytes. Connections that do not fit into a single ping are advertised " +
+                          "over several consecutive pings. Default is ${DEFAULT-VALUE}",
+            defaultValue = "" + ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE)
+    private int maxFrameSize;
+
+    @CommandLine.Option(
+            names = {"--payload-bytes"},
+            split = ",",
+            description = "Pad pings with this many bytes, up to " + PacketSerializer.MAX_PAYLOAD_BYTES + ", so they " +
+                          "are as large as real traffic. Several comma separated sizes are used in turn and reported " +
+                          "in separate histograms. Only nodes that run a version supporting it are sent padded pings")
+    private int[] payloadSizes = new int[0];
+
+    @CommandLine.Option(
+            names = {"--lanes"},
+            description = "Number of connections to open to every node, up to " + MeshMonitor.MAX_LANES + ". Every " +
+                          "connection uses its own source port, so switches with ECMP spread them over the equal " +
+                          "cost paths. Every lane is reported on its own and all lanes together",
+            defaultValue = "1")
+    private int lanes;
+
+    @CommandLine.Option(
+            names = {"--udp"},
+            description = "Also probe every node over UDP, on the same address and port as the mesh. Tells packet loss " +
+                          "apart from delays caused by TCP retransmissions. Nodes only answer probes of nodes that " +
+                          "use this option too",
+            defaultValue = "false")
+    private boolean udp;
+
+    @CommandLine.Option(
+            names = {"--tcp-stats-interval"},
+            description = "How often queues and retransmissions of every connection are read from /proc/net on Linux, " +
+                          "e.g. 500ms or 2s. 0 disables. Default is ${DEFAULT-VALUE}",
+            defaultValue = "1s",
+            converter = DurationConverter.class)
+    private Duration tcpStatsInterval;
+
+    @CommandLine.Option(
+            names = {"--compact-histograms"},
+            description = "Grow histograms as values are recorded instead of allocating counts for the whole range up " +
+                          "front. Takes a fraction of the memory on large meshes, reported values stay the same",
+            defaultValue = "false")
+    private boolean compactHistograms;
+
+    @CommandLine.Option(
+            names = {"--histogram-digits"},
+            description = "Number of significant digits of recorded values, 1 to " + HistogramConfig.MAX_SIGNIFICANT_DIGITS +
+                          ". Every digit makes histograms about 8 times larger. Default is ${DEFAULT-VALUE}",
+            defaultValue = "3")
+    private int histogramDigits;
+
+    @CommandLine.Option(
+            names = {"--histogram-range"},
+            description = "Highest value histograms track, e.g. 60s. Larger values are dropped. Default is ${DEFAULT-VALUE}",
+            defaultValue = "86400s",
+            converter = DurationConverter.class)
+    private Duration histogramRange;
+
+    @CommandLine.Option(
+            names = {"--interval-log"},
+            description = "Directory to append histograms of every node to, every report interval, in the " +
+                          "HdrHistogram interval log format. Files survive restarts and can be read with " +
+                          "HdrHistogram tools")
+    private Path intervalLogDirectory;
+
+    @CommandLine.Option(
+            names = {"--interval-log-file-mib"},
+            description = "Size of an interval log file after which a new one is started, in MiB. Default is ${DEFAULT-VALUE}",
+            defaultValue = "64")
+    private long intervalLogFileMib;
+
+    @CommandLine.Option(
+            names = {"--interval-log-rotate"},
+            description = "Age of an interval log file after which a new one is started, e.g. 3600s. Default is ${DEFAULT-VALUE}",
+            defaultValue = "3600s",
+            converter = DurationConverter.class)
+    private Duration intervalLogRotate;
+
+    @CommandLine.Option(
+            names = {"--interval-log-retention-mib"},
+            description = "Size of all interval log files of this node after which the oldest are deleted, in MiB. " +
+                          "Default is ${DEFAULT-VALUE}",
+            defaultValue = "1024")
+    private long intervalLogRetentionMib;
+
+    @CommandLine.Option(
+            names = {"--flight-recorder"},
+            description = "File to keep raw samples of the most recent pings of all peers in. It survives a crash " +
+                          "of the process and is read with the flight-dump command")
+    private Path flightRecorderFile;
+
+    @CommandLine.Option(
+            names = {"--flight-recorder-samples"},
+            description = "Number of samples the flight recorder keeps, " + FlightRecorder.RECORD_BYTES +
+                          " bytes each. Default is ${DEFAULT-VALUE}",
+            defaultValue = "1048576")
+    private int flightRecorderSamples;
+
     @CommandLine.Option(
             names = {"-x", "--debug"},
             description = "Enable debug logging",
@@ -134,15 +293,68 @@ public class MeshMonitorCommand implements Callable<Integer> {
         );
 
         ConsoleLogger consoleLogger = new ConsoleLogger(spec.commandLine().getOut(), enableDebugLogging);
-        ServerManager serverManager = new ServerManager(consoleLogger, Monitor::new, Duration.ofMillis(pingIntervalMilliseconds));
+
+        MonitorFactory monitorFactory;
+        try {
+            monitorFactory = createMonitorFactory(consoleLogger);
+        } catch (IOException e) {
+            consoleLogger.fatalError("Error starting event loop", e);
+            return MeshMonitor.PROGRAM_ERROR_RESULT;
+        }
+
+        TimeUnit unit = precision ? TimeUnit.NANOSECONDS : TimeUnit.MICROSECONDS;
+
+        FlightRecorder flightRecorder = null;
+        if (flightRecorderFile != null) {
+            try {
+                flightRecorder = FlightRecorder.open(flightRecorderFile, flightRecorderSamples, unit);
+            } catch (IOException e) {
+                consoleLogger.fatalError("Error opening flight recorder", e);
+                return MeshMonitor.PROGRAM_ERROR_RESULT;
+            }
+        }
+
+        ServerManager serverManager = new ServerManager(
+                consoleLogger,
+                monitorFactory,
+                pingInterval,
+                ServerManagerConfig.DEFAULT
+                        .withTimingsUnit(unit)
+                        .withHistogramConfig(new HistogramConfig(histogramRange, histogramDigits, compactHistograms))
+                        .withFlightRecorder(flightRecorder)
+                        .withUdp(udp));
+
+        IntervalLogWriter intervalLog = null;
+        if (intervalLogDirectory != null) {
+            try {
+                intervalLog = new IntervalLogWriter(
+                        consoleLogger,
+                        intervalLogDirectory,
+                        bindAddress,
+                        unit,
+                        intervalLogFileMib * BYTES_PER_MIB,
+                        intervalLogRotate.toMillis(),
+                        intervalLogRetentionMib * BYTES_PER_MIB);
+                intervalLog.start();
+                // Writes intervals still queued when meshmonitor is stopped
+                Runtime.getRuntime().addShutdownHook(new Thread(intervalLog::close, "interval log shutdown"));
+            } catch (IOException e) {
+                consoleLogger.fatalError("Error creating interval log directory", e);
+                return MeshMonitor.PROGRAM_ERROR_RESULT;
+            }
+        }
 
         MeshMonitor meshMonitor = new MeshMonitor(
                 consoleLogger,
                 serverManager,
                 bindAddress,
                 servers,
-                reportIntervalSeconds,
-                minHiccupSizeMilliseconds);
+                MeshMonitorConfig.DEFAULT
+                        .withReportIntervalSeconds(reportIntervalSeconds)
+                        .withMinHiccupSizeMilliseconds(minHiccupSizeMilliseconds)
+                        .withLanes(lanes)
+                        .withConsoleWindow(consoleWindow)
+                        .withIntervalLog(intervalLog));
 
         if (!disableMetrics) {
             try {
@@ -159,9 +371,65 @@ public class MeshMonitorCommand implements Callable<Integer> {
             }
         }
 
+        if (udp) {
+            try {
+                new UdpProber(consoleLogger, serverManager, bindAddress, pingInterval).start();
+            } catch (IOException e) {
+                consoleLogger.fatalError("Error starting UDP probes", e);
+                return MeshMonitor.PROGRAM_ERROR_RESULT;
+            }
+        }
+
+        if (!tcpStatsInterval.isZero()) {
+            TcpHealthSampler sampler = new TcpHealthSampler(consoleLogger, serverManager, tcpStatsInterval);
+            if (sampler.isSupported()) {
+                sampler.start();
+            }
+        }
+
         return meshMonitor.start(!quiet);
     }
 
+    private MonitorFactory createMonitorFactory(ConsoleLogger consoleLogger) throws IOException {
+        if (engine == MonitorEngine.EVENT_LOOP) {
+            MonitorEventLoop eventLoop = new MonitorEventLoop(consoleLogger);
+            eventLoop.start();
+
+            MonitorConfig config = MonitorConfig.DEFAULT
+                    .withMaxFrameSize(maxFrameSize)
+                    .withPayloadSizes(payloadSizes);
+            return (logger, meshMonitor, timings, pingInterval, channel, remoteId) ->
+                    new EventLoopMonitor(eventLoop, logger, meshMonitor, timings, pingInterval, channel, remoteId, config);
+        }
+
+        ThreadType monitorThreadType = threadType;
+        if (threadType == ThreadType.VIRTUAL && !VirtualThreads.isSupported()) {
+            consoleLogger.log("Virtual threads require Java 21 or newer, falling back to platform threads");
+            monitorThreadType = ThreadType.PLATFORM;
+        }
+
+        PingPacer pingPacer = precision ? createPrecisionPacer(consoleLogger) : PingScheduler.shared();
+
+        MonitorConfig config = MonitorConfig.DEFAULT
+                .withThreadType(monitorThreadType)
+                .withPingPacer(pingPacer)
+                .withMaxFrameSize(maxFrameSize)
+                .withPayloadSizes(payloadSizes);
+        return (logger, meshMonitor, timings, pingInterval, channel, remoteId) ->
+                new Monitor(logger, meshMonitor, timings, pingInterval, channel, remoteId, config);
+    }
+
+    private PrecisionPacer createPrecisionPacer(ConsoleLogger consoleLogger) {
+        PrecisionPacer pacer = PrecisionPacer.calibrate();
+        consoleLogger.log(
+                "Precision mode: busy-waiting up to %dus before each ping, " +
+                "expect up to %.1f%% of a CPU core per connected node",
+                TimeUnit.NANOSECONDS.toMicros(pacer.spinThresholdNanos()),
+                pacer.expectedCpuShare(pingInterval) * 100.0);
+
+        return pacer;
+    }
+
     private void validateOptions() {
         if (reportIntervalSeconds < 1) {
             throw new CommandLine.ParameterException(spec.commandLine(), "Invalid argument: Reporting interval must be greater than zero.\n");
@@ -170,5 +438,68 @@ public class MeshMonitorCommand implements Callable<Integer> {
         if (minHiccupSizeMilliseconds < 1) {
             throw new CommandLine.ParameterException(spec.commandLine(), "Invalid argument: Minimum latency to report should be greater than zero.\n");
         }
+
+        if (maxFrameSize < MIN_MAX_FRAME_SIZE || maxFrameSize > PacketSerializer.MAX_PING_FRAME_SIZE) {
+            throw new CommandLine.ParameterException(spec.commandLine(), String.format(
+                    "Invalid argument: Maximum frame size must be between %d and %d bytes.%n",
+                    MIN_MAX_FRAME_SIZE,
+                    PacketSerializer.MAX_PING_FRAME_SIZE));
+        }
+
+        for (int payloadSize : payloadSizes) {
+            if (payloadSize < 1 || payloadSize > PacketSerializer.MAX_PAYLOAD_BYTES) {
+                throw new CommandLine.ParameterException(spec.commandLine(), String.format(
+                        "Invalid argument: Payload size must be between 1 and %d bytes.%n",
+                        PacketSerializer.MAX_PAYLOAD_BYTES));
+            }
+
+            if (maxFrameSize + payloadSize > PacketSerializer.MAX_PING_FRAME_SIZE) {
+                throw new CommandLine.ParameterException(spec.commandLine(), String.format(
+                        "Invalid argument: Maximum frame size and payload size must add up to at most %d bytes.%n",
+                        PacketSerializer.MAX_PING_FRAME_SIZE));
+            }
+        }
+
+        if (lanes < 1 || lanes > MeshMonitor.MAX_LANES) {
+            throw new CommandLine.ParameterException(spec.commandLine(), String.format(
+                    "Invalid argument: Number of lanes must be between 1 and %d.%n",
+                    MeshMonitor.MAX_LANES));
+        }
+
+        if (histogramDigits < 1 || histogramDigits > HistogramConfig.MAX_SIGNIFICANT_DIGITS) {
+            throw new CommandLine.ParameterException(spec.commandLine(), String.format(
+                    "Invalid argument: Number of significant digits must be between 1 and %d.%n",
+                    HistogramConfig.MAX_SIGNIFICANT_DIGITS));
+        }
+
+        if (histogramRange.compareTo(Duration.ofSeconds(1)) < 0) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid argument: Histogram range must be at least 1s.\n");
+        }
+
+        if (intervalLogFileMib < 1 || intervalLogRetentionMib < intervalLogFileMib) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid argument: Interval log file size must be at least 1MiB and at most the retention size.\n");
+        }
+
+        if (intervalLogRotate.compareTo(Duration.ofSeconds(1)) < 0) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid argument: Interval log rotation must be at least 1s.\n");
+        }
+
+        if (flightRecorderSamples < 1 || flightRecorderSamples > FlightRecorder.MAX_SAMPLES) {
+            throw new CommandLine.ParameterException(spec.commandLine(), String.format(
+                    "Invalid argument: Number of flight recorder samples must be between 1 and %d.%n",
+                    FlightRecorder.MAX_SAMPLES));
+        }
+
+        if (pingInterval.isZero()) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid argument: Ping interval must be greater than zero.\n");
+        }
+
+        if (!precision && pingInterval.compareTo(Duration.ofMillis(1)) < 0) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid argument: Ping intervals below 1ms require --precision.\n");
+        }
+
+        if (precision && engine == MonitorEngine.EVENT_LOOP) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid argument: --precision is not supported by the event-loop engine.\n");
+        }
     }
 }
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.cli;
+
+public enum MonitorEngine {
+
+    /**
+     * Dedicated send and receive thread for every node in the mesh.
+     */
+    THREADS("threads"),
+
+    /**
+     * Single selector thread multiplexing connections to all nodes in the mesh.
+     */
+    EVENT_LOOP("event-loop");
+
+    private final String optionValue;
+
+    MonitorEngine(String optionValue) {
+        this.optionValue = optionValue;
+    }
+
+    @Override
+    public String toString() {
+        return optionValue;
+    }
+}
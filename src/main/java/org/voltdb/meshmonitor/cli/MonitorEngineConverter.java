@@ -0,0 +1,15 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.cli;
+
+public class MonitorEngineConverter extends EnumOptionConverter<MonitorEngine> {
+
+    public MonitorEngineConverter() {
+        super(MonitorEngine.class, "engine");
+    }
+}
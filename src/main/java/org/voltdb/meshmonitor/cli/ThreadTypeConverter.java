@@ -0,0 +1,17 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.cli;
+
+import org.voltdb.meshmonitor.ThreadType;
+
+public class ThreadTypeConverter extends EnumOptionConverter<ThreadType> {
+
+    public ThreadTypeConverter() {
+        super(ThreadType.class, "thread type");
+    }
+}
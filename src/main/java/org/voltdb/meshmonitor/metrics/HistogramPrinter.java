@@ -9,11 +9,13 @@ package org.voltdb.meshmonitor.metrics;
 
 import java.net.InetSocketAddress;
 import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.HdrHistogram.Histogram;
 import org.HdrHistogram.HistogramIterationValue;
 
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -49,6 +51,8 @@ public class HistogramPrinter {
             inf
     };
 
+    private static final double[] SUMMARY_QUANTILES = new double[]{0.5, 0.9, 0.99, 0.999, 0.9999, 1.0};
+
     private final String hostNameLabel;
 
     public HistogramPrinter(String hostName) {
@@ -56,11 +60,40 @@ public class HistogramPrinter {
     }
 
     public void printHistogram(StringBuilder output, Histogram histogram, InetSocketAddress remoteId, String metricName) {
-        String remoteHostNameLabel = String.format(
-                        "remote_host_name=\"%s\",",
-                        remoteId.getHostName())
-                .replace('.', '_');
+        printHistogram(output, histogram, MICROSECONDS, remoteId, metricName);
+    }
+
+    /**
+     * Bucket boundaries are the same whatever the unit of the histogram. The sum is always reported in microseconds.
+     */
+    public void printHistogram(StringBuilder output,
+                               Histogram histogram,
+                               TimeUnit unit,
+                               InetSocketAddress remoteId,
+                               String metricName) {
+        printHistogramWithLabels(output, histogram, unit, remoteHostNameLabel(remoteId), metricName);
+    }
+
+    /**
+     * Same as {@link #printHistogram(StringBuilder, Histogram, TimeUnit, InetSocketAddress, String)} with one more
+     * label, for metrics with several histograms per remote host.
+     */
+    public void printHistogram(StringBuilder output,
+                               Histogram histogram,
+                               TimeUnit unit,
+                               InetSocketAddress remoteId,
+                               String labelName,
+                               Object labelValue,
+                               String metricName) {
+        String labels = remoteHostNameLabel(remoteId) + labelName + "=\"" + labelValue + "\",";
+        printHistogramWithLabels(output, histogram, unit, labels, metricName);
+    }
 
+    private void printHistogramWithLabels(StringBuilder output,
+                                          Histogram histogram,
+                                          TimeUnit unit,
+                                          String remoteHostNameLabel,
+                                          String metricName) {
         output.append("# TYPE meshmonitor_")
                 .append(metricName)
                 .append(" histogram\n");
@@ -69,7 +102,7 @@ public class HistogramPrinter {
         long bucketStart = 0L;
         for (int i = 0; i < BUCKETS_MICROSECONDS.length - 1; i++) {
             long start = bucketStart;
-            long end = histogram.highestEquivalentValue(BUCKETS_MICROSECONDS[i]);
+            long end = histogram.highestEquivalentValue(unit.convert(BUCKETS_MICROSECONDS[i], MICROSECONDS));
 
             long value = histogram.getCountBetweenValues(start, end);
             runningCount += value;
@@ -79,18 +112,99 @@ public class HistogramPrinter {
         }
 
         int lastElementIndex = BUCKETS_MICROSECONDS.length - 1;
-        long end = histogram.highestEquivalentValue(BUCKETS_MICROSECONDS[lastElementIndex]);
-        long start = histogram.highestEquivalentValue(BUCKETS_MICROSECONDS[lastElementIndex - 1]) + 1;
+        long end = histogram.highestEquivalentValue(unit.convert(BUCKETS_MICROSECONDS[lastElementIndex], MICROSECONDS));
+        long start = histogram.highestEquivalentValue(unit.convert(BUCKETS_MICROSECONDS[lastElementIndex - 1], MICROSECONDS)) + 1;
         long value = histogram.getCountBetweenValues(start, end);
         runningCount += value;
 
+        printBucket(output, remoteHostNameLabel, metricName, "+Inf", runningCount);
+        printSum(output, remoteHostNameLabel, metricName, unit.toMicros(sumOfAllValues(histogram)));
+        printCount(output, remoteHostNameLabel, metricName, runningCount);
+    }
+
+    /**
+     * Prints percentiles of the histogram as a summary, in seconds, with quantile 1 being the maximum. Used for
+     * histograms of a recent window, whose buckets cannot be subtracted like those of cumulative histograms. As for
+     * histograms, the sum is reported in microseconds.
+     */
+    public void printSummary(StringBuilder output,
+                             Histogram histogram,
+                             TimeUnit unit,
+                             InetSocketAddress remoteId,
+                             String labelName,
+                             Object labelValue,
+                             String metricName) {
+        String labels = remoteHostNameLabel(remoteId) + labelName + "=\"" + labelValue + "\",";
+        double perSecond = unit.convert(1, SECONDS);
+
+        output.append("# TYPE meshmonitor_")
+                .append(metricName)
+                .append(" summary\n");
+
+        for (double quantile : SUMMARY_QUANTILES) {
+            long value = quantile < 1.0 ? histogram.getValueAtPercentile(quantile * 100.0) : histogram.getMaxValue();
+            output.append("meshmonitor_")
+                    .append(metricName)
+                    .append("{")
+                    .append(hostNameLabel)
+                    .append(labels)
+                    .append("quantile=\"")
+                    .append(quantile)
+                    .append("\"} ")
+                    .append(String.format("%f", value / perSecond))
+                    .append('\n');
+        }
+
+        printSum(output, labels, metricName, unit.toMicros(sumOfAllValues(histogram)));
+        printCount(output, labels, metricName, histogram.getTotalCount());
+    }
+
+    private static long sumOfAllValues(Histogram histogram) {
         AtomicLong sumOfAllValues = new AtomicLong();
         Iterator<HistogramIterationValue> iterator = histogram.recordedValues().iterator();
         iterator.forEachRemaining(v -> sumOfAllValues.set(v.getTotalValueToThisValue()));
 
-        printBucket(output, remoteHostNameLabel, metricName, "+Inf", runningCount);
-        printSum(output, remoteHostNameLabel, metricName, sumOfAllValues.longValue());
-        printCount(output, remoteHostNameLabel, metricName, runningCount);
+        return sumOfAllValues.longValue();
+    }
+
+    public void printCounter(StringBuilder output, long value, InetSocketAddress remoteId, String metricName) {
+        printCounter(output, Long.toString(value), remoteId, metricName);
+    }
+
+    public void printCounter(StringBuilder output, double value, InetSocketAddress remoteId, String metricName) {
+        printCounter(output, String.format("%f", value), remoteId, metricName);
+    }
+
+    public void printGauge(StringBuilder output, double value, InetSocketAddress remoteId, String metricName) {
+        printMetric(output, String.format("%f", value), remoteId, metricName, "gauge");
+    }
+
+    private void printCounter(StringBuilder output, String value, InetSocketAddress remoteId, String metricName) {
+        printMetric(output, value, remoteId, metricName, "counter");
+    }
+
+    private void printMetric(StringBuilder output, String value, InetSocketAddress remoteId, String metricName, String type) {
+        output.append("# TYPE meshmonitor_")
+                .append(metricName)
+                .append(" ")
+                .append(type)
+                .append("\n");
+
+        output.append("meshmonitor_")
+                .append(metricName)
+                .append("{")
+                .append(hostNameLabel)
+                .append(remoteHostNameLabel(remoteId))
+                .append("} ")
+                .append(value)
+                .append('\n');
+    }
+
+    private static String remoteHostNameLabel(InetSocketAddress remoteId) {
+        return String.format(
+                        "remote_host_name=\"%s\",",
+                        remoteId.getHostName())
+                .replace('.', '_');
     }
 
     private void printSum(StringBuilder output, String remoteHostNameLabel, String metricName, long value) {
@@ -52,7 +52,10 @@ class MetricsHttpHandler implements HttpHandler {
     private void handleGetRequest(HttpExchange httpExchange) throws IOException {
         try (OutputStream outputStream = httpExchange.getResponseBody()) {
             StringBuilder output = new StringBuilder();
-            serverManager.getMonitors().forEach(monitor -> monitorStatsPrinter.print(output, monitor));
+            serverManager.getMonitors().forEach(monitor -> {
+                monitorStatsPrinter.print(output, monitor);
+                monitorStatsPrinter.printLanes(output, monitor, serverManager.getLanes(monitor.getRemoteId()));
+            });
             String prometheusResponse = output.toString();
 
             // Set Content-Type header (required by Prometheus)
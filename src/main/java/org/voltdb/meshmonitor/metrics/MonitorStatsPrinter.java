@@ -7,10 +7,17 @@
  */
 package org.voltdb.meshmonitor.metrics;
 
+import org.voltdb.meshmonitor.ClockOffsetEstimator;
+import org.voltdb.meshmonitor.ClockSource;
+import org.voltdb.meshmonitor.HistogramWithDelta;
 import org.voltdb.meshmonitor.MeshMonitorTimings;
 import org.voltdb.meshmonitor.Monitor;
+import org.voltdb.meshmonitor.SlidingWindow;
+import org.voltdb.meshmonitor.procfs.TcpSocketStats;
 
 import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class MonitorStatsPrinter {
 
@@ -23,10 +30,12 @@ public class MonitorStatsPrinter {
     public void print(StringBuilder output, Monitor monitor) {
         MeshMonitorTimings timings = monitor.getTimings();
         InetSocketAddress remoteId = monitor.getRemoteId();
+        TimeUnit unit = timings.unit();
 
         timings.pingHistogram().getCumulativeHistogram(histogram ->
                 histogramPrinter.printHistogram(output,
                         histogram,
+                        unit,
                         remoteId,
                         "receive_seconds")
         );
@@ -34,15 +43,264 @@ public class MonitorStatsPrinter {
         timings.timestampDeltaHistogram().getCumulativeHistogram(histogram ->
                 histogramPrinter.printHistogram(output,
                         histogram,
+                        unit,
                         remoteId,
                         "delta_seconds")
         );
 
+        timings.payloadDeltaHistograms().forEach((payloadSize, payloadDeltaHistogram) ->
+                payloadDeltaHistogram.getCumulativeHistogram(histogram ->
+                        histogramPrinter.printHistogram(output,
+                                histogram,
+                                unit,
+                                remoteId,
+                                "payload_bytes",
+                                payloadSize,
+                                "payload_delta_seconds")
+                )
+        );
+
         timings.jitterHistogram().getCumulativeHistogram(histogram -> {
             histogramPrinter.printHistogram(output,
                     histogram,
+                    unit,
                     remoteId,
                     "send_seconds");
         });
+
+        timings.roundTripHistogram().getCumulativeHistogram(histogram ->
+                histogramPrinter.printHistogram(output,
+                        histogram,
+                        unit,
+                        remoteId,
+                        "rtt_seconds")
+        );
+
+        if (timings.clockOffset().hasEstimate()) {
+            timings.oneWayDelayHistogram().getCumulativeHistogram(histogram ->
+                    histogramPrinter.printHistogram(output,
+                            histogram,
+                            unit,
+                            remoteId,
+                            "one_way_delay_seconds")
+            );
+
+            histogramPrinter.printCounter(output,
+                    timings.oneWayDelaysBelowZero(),
+                    remoteId,
+                    "one_way_delays_below_zero_total");
+        }
+
+        if (timings.udpProbesSent() > 0) {
+            printUdpProbes(output, timings, remoteId);
+        }
+
+        for (SlidingWindow window : SlidingWindow.values()) {
+            printWindow(output, timings, remoteId, window);
+        }
+
+        ClockOffsetEstimator clockOffset = timings.clockOffset();
+        if (clockOffset.hasEstimate()) {
+            histogramPrinter.printGauge(output,
+                    clockOffset.offset() / (double) unit.convert(1, TimeUnit.SECONDS),
+                    remoteId,
+                    "clock_offset_seconds");
+        }
+
+        if (clockOffset.hasDrift()) {
+            histogramPrinter.printGauge(output,
+                    clockOffset.drift() * 1_000_000,
+                    remoteId,
+                    "clock_drift_ppm");
+        }
+
+        TcpSocketStats tcpSocketStats = timings.tcpSocketStats();
+        if (tcpSocketStats != null) {
+            printTcpSocketStats(output, tcpSocketStats, remoteId);
+        }
+
+        if (timings.hostRetransmittedSegments() >= 0) {
+            histogramPrinter.printCounter(output,
+                    timings.hostRetransmittedSegments(),
+                    remoteId,
+                    "tcp_host_retransmitted_segments_total");
+        }
+
+        histogramPrinter.printCounter(output,
+                timings.pingsSent(),
+                remoteId,
+                "pings_sent_total");
+
+        histogramPrinter.printCounter(output,
+                timings.pingsReceived(),
+                remoteId,
+                "pings_received_total");
+
+        histogramPrinter.printCounter(output,
+                timings.pingsLate(),
+                remoteId,
+                "pings_late_total");
+
+        histogramPrinter.printCounter(output,
+                timings.pingGaps(),
+                remoteId,
+                "ping_gaps_total");
+
+        histogramPrinter.printCounter(output,
+                timings.pingsReordered(),
+                remoteId,
+                "pings_reordered_total");
+
+        histogramPrinter.printCounter(output,
+                timings.missedPingDeadlines(),
+                remoteId,
+                "missed_ping_deadlines_total");
+
+        histogramPrinter.printCounter(output,
+                ClockSource.shared().steps(),
+                remoteId,
+                "clock_steps_total");
+
+        histogramPrinter.printCounter(output,
+                timings.membershipSplits(),
+                remoteId,
+                "membership_split_total");
+
+        histogramPrinter.printCounter(output,
+                timings.pacingSpinNanos() / (double) TimeUnit.SECONDS.toNanos(1),
+                remoteId,
+                "pacing_spin_seconds_total");
+    }
+
+    /**
+     * Prints histograms of every lane of the peer, including lane 0 reported by {@link #print(StringBuilder, Monitor)},
+     * labelled with the lane. Nothing is printed for peers with a single lane. Summing over the lane label gives
+     * the view of the peer across all lanes.
+     */
+    public void printLanes(StringBuilder output, Monitor monitor, List<Monitor> lanes) {
+        if (lanes.isEmpty()) {
+            return;
+        }
+
+        printLane(output, monitor);
+        for (Monitor lane : lanes) {
+            printLane(output, lane);
+        }
+    }
+
+    private void printLane(StringBuilder output, Monitor monitor) {
+        MeshMonitorTimings timings = monitor.getTimings();
+        InetSocketAddress remoteId = monitor.getRemoteId();
+        int lane = monitor.getLane();
+
+        timings.pingHistogram().getCumulativeHistogram(histogram ->
+                histogramPrinter.printHistogram(output,
+                        histogram,
+                        timings.unit(),
+                        remoteId,
+                        "lane",
+                        lane,
+                        "lane_receive_seconds")
+        );
+
+        timings.timestampDeltaHistogram().getCumulativeHistogram(histogram ->
+                histogramPrinter.printHistogram(output,
+                        histogram,
+                        timings.unit(),
+                        remoteId,
+                        "lane",
+                        lane,
+                        "lane_delta_seconds")
+        );
+
+        timings.roundTripHistogram().getCumulativeHistogram(histogram ->
+                histogramPrinter.printHistogram(output,
+                        histogram,
+                        timings.unit(),
+                        remoteId,
+                        "lane",
+                        lane,
+                        "lane_rtt_seconds")
+        );
+    }
+
+    /**
+     * Prints percentiles over a recent window as summaries labelled with the window, see {@link SlidingWindow}.
+     */
+    private void printWindow(StringBuilder output, MeshMonitorTimings timings, InetSocketAddress remoteId, SlidingWindow window) {
+        printWindowSummary(output, timings.pingHistogram(), timings.unit(), remoteId, window, "receive_window_seconds");
+        printWindowSummary(output, timings.timestampDeltaHistogram(), timings.unit(), remoteId, window, "delta_window_seconds");
+        printWindowSummary(output, timings.jitterHistogram(), timings.unit(), remoteId, window, "send_window_seconds");
+        printWindowSummary(output, timings.roundTripHistogram(), timings.unit(), remoteId, window, "rtt_window_seconds");
+        if (timings.clockOffset().hasEstimate()) {
+            printWindowSummary(output, timings.oneWayDelayHistogram(), timings.unit(), remoteId, window, "one_way_delay_window_seconds");
+        }
+        if (timings.udpProbesSent() > 0) {
+            printWindowSummary(output, timings.udpRoundTripHistogram(), timings.unit(), remoteId, window, "udp_rtt_window_seconds");
+        }
+    }
+
+    private void printWindowSummary(StringBuilder output,
+                                    HistogramWithDelta histogramWithDelta,
+                                    TimeUnit unit,
+                                    InetSocketAddress remoteId,
+                                    SlidingWindow window,
+                                    String metricName) {
+        histogramWithDelta.getWindowHistogram(window, histogram -> {
+            histogramPrinter.printSummary(output, histogram, unit, remoteId, "window", window, metricName);
+            return null;
+        });
+    }
+
+    private void printTcpSocketStats(StringBuilder output, TcpSocketStats stats, InetSocketAddress remoteId) {
+        histogramPrinter.printGauge(output,
+                stats.sendQueueBytes(),
+                remoteId,
+                "tcp_send_queue_bytes");
+
+        histogramPrinter.printGauge(output,
+                stats.receiveQueueBytes(),
+                remoteId,
+                "tcp_receive_queue_bytes");
+
+        histogramPrinter.printGauge(output,
+                stats.isRetransmitting() ? 1 : 0,
+                remoteId,
+                "tcp_retransmitting");
+
+        histogramPrinter.printGauge(output,
+                stats.retransmits(),
+                remoteId,
+                "tcp_unrecovered_retransmits");
+    }
+
+    private void printUdpProbes(StringBuilder output, MeshMonitorTimings timings, InetSocketAddress remoteId) {
+        timings.udpRoundTripHistogram().getCumulativeHistogram(histogram ->
+                histogramPrinter.printHistogram(output,
+                        histogram,
+                        timings.unit(),
+                        remoteId,
+                        "udp_rtt_seconds")
+        );
+
+        histogramPrinter.printCounter(output,
+                timings.udpProbesSent(),
+                remoteId,
+                "udp_probes_sent_total");
+
+        histogramPrinter.printCounter(output,
+                timings.udpRepliesReceived(),
+                remoteId,
+                "udp_replies_received_total");
+
+        histogramPrinter.printCounter(output,
+                timings.udpProbesLost(),
+                remoteId,
+                "udp_probes_lost_total");
+
+        histogramPrinter.printCounter(output,
+                timings.udpRepliesReordered(),
+                remoteId,
+                "udp_replies_reordered_total");
     }
 }
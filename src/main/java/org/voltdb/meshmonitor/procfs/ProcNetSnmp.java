@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.procfs;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads host wide TCP counters of {@code /proc/net/snmp}. Every protocol has a line with names of its counters
+ * followed by a line with their values:
+ * <pre>
+ * Tcp: RtoAlgorithm RtoMin RtoMax MaxConn ActiveOpens PassiveOpens AttemptFails EstabResets CurrEstab InSegs OutSegs RetransSegs ...
+ * Tcp: 1 200 120000 -1 2571 1031 3 25 12 8311447 8925870 1337 ...
+ * </pre>
+ */
+public final class ProcNetSnmp {
+
+    private static final String TCP_PREFIX = "Tcp:";
+
+    private ProcNetSnmp() {
+    }
+
+    /**
+     * Returns segments retransmitted by all connections of the host since boot, or -1 when not found.
+     */
+    public static long retransmittedSegments(BufferedReader snmp) throws IOException {
+        return tcpCounter(snmp, "RetransSegs");
+    }
+
+    private static long tcpCounter(BufferedReader snmp, String name) throws IOException {
+        String line;
+        while ((line = snmp.readLine()) != null) {
+            if (!line.startsWith(TCP_PREFIX)) {
+                continue;
+            }
+
+            String values = snmp.readLine();
+            if (values == null || !values.startsWith(TCP_PREFIX)) {
+                return -1;
+            }
+
+            String[] names = line.split("\\s+");
+            String[] numbers = values.split("\\s+");
+            for (int i = 1; i < names.length && i < numbers.length; i++) {
+                if (names[i].equals(name)) {
+                    return Long.parseLong(numbers[i]);
+                }
+            }
+
+            return -1;
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.procfs;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads socket tables of {@code /proc/net/tcp} and {@code /proc/net/tcp6}. Every line describes one socket:
+ * <pre>
+ *   sl  local_address rem_address   st tx_queue rx_queue tr tm-&gt;when retrnsmt   uid  timeout inode
+ *    0: 0100007F:1F90 0100007F:D4C2 01 00000000:00000000 00:00000000 00000000  1000        0 4215 ...
+ * </pre>
+ * Addresses are printed as 32-bit words in the byte order of the host and ports in network byte order, all in hex.
+ * Rather than decoding every address of a table that can hold many thousands of sockets, the sockets of interest
+ * are encoded the way the kernel prints them, see {@link #keys(InetSocketAddress, InetSocketAddress, ByteOrder)},
+ * and only lines with these keys are decoded.
+ */
+public final class ProcNetTcp {
+
+    private static final int STATE_TIME_WAIT = 0x06;
+
+    private ProcNetTcp() {
+    }
+
+    /**
+     * Keys of a connection as they appear in socket tables, local and remote address separated by a space.
+     * Connections to IPv4 addresses are listed in {@code tcp6} with IPv4-mapped addresses when the socket is dual
+     * stack, which is the default in Java, so they have two keys.
+     */
+    public static List<String> keys(InetSocketAddress local, InetSocketAddress remote, ByteOrder byteOrder) {
+        List<String> keys = new ArrayList<>(2);
+        InetAddress localAddress = local.getAddress();
+        InetAddress remoteAddress = remote.getAddress();
+        if (localAddress instanceof Inet4Address && remoteAddress instanceof Inet4Address) {
+            keys.add(key(localAddress.getAddress(), local.getPort(), remoteAddress.getAddress(), remote.getPort(), byteOrder));
+        }
+
+        keys.add(key(ipv6(localAddress), local.getPort(), ipv6(remoteAddress), remote.getPort(), byteOrder));
+        return keys;
+    }
+
+    /**
+     * Passes every socket of the table whose key is in {@code sockets} to the consumer, with the value it maps to.
+     * Sockets in TIME_WAIT are skipped, they belong to an earlier connection between the same ports.
+     */
+    public static <T> void read(BufferedReader table, Map<String, T> sockets, BiConsumer<T, TcpSocketStats> consumer) throws IOException {
+        String line = table.readLine(); // header
+        while ((line = table.readLine()) != null) {
+            String[] fields = line.trim().split("\\s+");
+            if (fields.length < 7) {
+                continue;
+            }
+
+            T socket = sockets.get(fields[1] + " " + fields[2]);
+            if (socket == null) {
+                continue;
+            }
+
+            int state = Integer.parseInt(fields[3], 16);
+            if (state == STATE_TIME_WAIT) {
+                continue;
+            }
+
+            consumer.accept(socket, new TcpSocketStats(
+                    state,
+                    Long.parseLong(before(fields[4]), 16),
+                    Long.parseLong(after(fields[4]), 16),
+                    Integer.parseInt(before(fields[5]), 16),
+                    Integer.parseInt(fields[6], 16)));
+        }
+    }
+
+    private static String key(byte[] localAddress, int localPort, byte[] remoteAddress, int remotePort, ByteOrder byteOrder) {
+        StringBuilder key = new StringBuilder(2 * (localAddress.length * 2 + 5) + 1);
+        appendAddress(key, localAddress, localPort, byteOrder);
+        key.append(' ');
+        appendAddress(key, remoteAddress, remotePort, byteOrder);
+        return key.toString();
+    }
+
+    private static void appendAddress(StringBuilder key, byte[] address, int port, ByteOrder byteOrder) {
+        for (int word = 0; word < address.length; word += 4) {
+            for (int i = 0; i < 4; i++) {
+                int index = byteOrder == ByteOrder.LITTLE_ENDIAN ? word + 3 - i : word + i;
+                key.append(String.format("%02X", address[index] & 0xFF));
+            }
+        }
+
+        key.append(String.format(":%04X", port));
+    }
+
+    private static byte[] ipv6(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 16) {
+            return bytes;
+        }
+
+        byte[] mapped = new byte[16];
+        mapped[10] = (byte) 0xFF;
+        mapped[11] = (byte) 0xFF;
+        System.arraycopy(bytes, 0, mapped, 12, 4);
+        return mapped;
+    }
+
+    private static String before(String pair) {
+        return pair.substring(0, pair.indexOf(':'));
+    }
+
+    private static String after(String pair) {
+        return pair.substring(pair.indexOf(':') + 1);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.procfs;
+
+/**
+ * State of a single TCP socket as reported by the kernel in {@code /proc/net/tcp} and {@code /proc/net/tcp6}.
+ */
+public final class TcpSocketStats {
+
+    public static final int TIMER_NONE = 0;
+    public static final int TIMER_RETRANSMIT = 1;
+    public static final int TIMER_KEEPALIVE = 2;
+    public static final int TIMER_TIME_WAIT = 3;
+    public static final int TIMER_ZERO_WINDOW_PROBE = 4;
+
+    private final int state;
+    private final long sendQueueBytes;
+    private final long receiveQueueBytes;
+    private final int timer;
+    private final int retransmits;
+
+    public TcpSocketStats(int state, long sendQueueBytes, long receiveQueueBytes, int timer, int retransmits) {
+        this.state = state;
+        this.sendQueueBytes = sendQueueBytes;
+        this.receiveQueueBytes = receiveQueueBytes;
+        this.timer = timer;
+        this.retransmits = retransmits;
+    }
+
+    /**
+     * Kernel TCP state, {@code 1} for established connections.
+     */
+    public int state() {
+        return state;
+    }
+
+    /**
+     * Bytes written but not yet acknowledged by the peer.
+     */
+    public long sendQueueBytes() {
+        return sendQueueBytes;
+    }
+
+    /**
+     * Bytes received but not yet read by meshmonitor.
+     */
+    public long receiveQueueBytes() {
+        return receiveQueueBytes;
+    }
+
+    /**
+     * Pending timer, one of the {@code TIMER_} constants.
+     */
+    public int timer() {
+        return timer;
+    }
+
+    /**
+     * True when the kernel waits for an acknowledgement that is overdue, so it is about to retransmit or probe.
+     */
+    public boolean isRetransmitting() {
+        return timer == TIMER_RETRANSMIT && retransmits > 0 || timer == TIMER_ZERO_WINDOW_PROBE;
+    }
+
+    /**
+     * Retransmission timeouts in a row that are not recovered yet, zero on a healthy connection.
+     */
+    public int retransmits() {
+        return retransmits;
+    }
+
+    @Override
+    public String toString() {
+        return "TcpSocketStats{" +
+               "state=" + state +
+               ", sendQueueBytes=" + sendQueueBytes +
+               ", receiveQueueBytes=" + receiveQueueBytes +
+               ", timer=" + timer +
+               ", retransmits=" + retransmits +
+               '}';
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.serdes;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reusable direct buffers of a single connection, so that sending and receiving pings does not allocate in
+ * steady state.
+ * <p>
+ * Monitors send servers already encoded in a shared {@link MembershipPayload}. The receive side remembers the bytes
+ * of the list received in the previous ping, so a list repeated in every ping by older senders is not decoded again.
+ * <p>
+ * Send and receive halves may be used by two different threads, but each half by one thread only.
+ */
+public final class ConnectionBuffers {
+
+    public static final int DEFAULT_MAX_FRAME_SIZE = 4096;
+    // Large enough for padded pings
+    public static final int PING_HEADER_SIZE = PacketSerializer.PADDED_PING_HEADER_SIZE;
+    private static final int INITIAL_RECEIVE_BUFFER_SIZE = 1024;
+
+    // Payload of padded pings, never written to so it stays all zeros. Views of it are shared by all connections
+    private static final ByteBuffer ZEROS = ByteBuffer.allocateDirect(PacketSerializer.MAX_PAYLOAD_BYTES).asReadOnlyBuffer();
+
+    private final ByteBuffer sendBuffer;
+    private final int[] payloadSizes;
+    private final ByteBuffer payload = ZEROS.duplicate();
+    private int nextPayloadSize;
+
+    private final ByteBuffer echoBuffer = ByteBuffer.allocateDirect(PacketSerializer.ECHO_FRAME_SIZE);
+    private final ByteBuffer headerBuffer = ByteBuffer.allocateDirect(Integer.BYTES);
+    private ByteBuffer bodyBuffer = ByteBuffer.allocateDirect(INITIAL_RECEIVE_BUFFER_SIZE);
+    private ByteBuffer receivedServersBytes = ByteBuffer.allocateDirect(INITIAL_RECEIVE_BUFFER_SIZE);
+
+    /**
+     * @param maxFrameSize size of the largest ping this connection sends, including its length prefix, but without payload
+     * @param payloadSizes sizes of payloads of padded pings, used in turn. Empty if pings are not padded
+     */
+    public ConnectionBuffers(int maxFrameSize, int[] payloadSizes) {
+        int largestPayload = 0;
+        for (int payloadSize : payloadSizes) {
+            largestPayload = Math.max(largestPayload, payloadSize);
+        }
+
+        this.sendBuffer = ByteBuffer.allocateDirect(maxFrameSize + largestPayload);
+        this.payloadSizes = payloadSizes.clone();
+
+        sendBuffer.limit(0);
+        receivedServersBytes.limit(0);
+        payload.limit(0);
+    }
+
+    /**
+     * Returns the payload of the next padded ping, cycling through the configured sizes, or an empty buffer if
+     * pings are not padded.
+     */
+    public ByteBuffer nextPayload() {
+        payload.clear();
+        if (payloadSizes.length == 0) {
+            payload.limit(0);
+            return payload;
+        }
+
+        payload.limit(payloadSizes[nextPayloadSize]);
+        nextPayloadSize = (nextPayloadSize + 1) % payloadSizes.length;
+        return payload;
+    }
+
+    /**
+     * Buffer holding the frame being sent. It starts empty, so {@link ByteBuffer#hasRemaining()} tells whether
+     * a previous frame is still being written.
+     */
+    public ByteBuffer sendBuffer() {
+        return sendBuffer;
+    }
+
+    /**
+     * Buffer holding the echo frame being sent by the receiving side of the connection.
+     */
+    public ByteBuffer echoBuffer() {
+        return echoBuffer;
+    }
+
+    /**
+     * Buffer for the length prefix of the frame being received.
+     */
+    public ByteBuffer headerBuffer() {
+        return headerBuffer;
+    }
+
+    /**
+     * Returns the receive buffer cleared and limited to {@code frameSize}. It only grows when a frame
+     * larger than any seen before arrives.
+     */
+    public ByteBuffer bodyBuffer(int frameSize) {
+        if (bodyBuffer.capacity() < frameSize) {
+            bodyBuffer = ByteBuffer.allocateDirect(frameSize);
+        }
+
+        bodyBuffer.clear();
+        bodyBuffer.limit(frameSize);
+        return bodyBuffer;
+    }
+
+    /**
+     * Decodes the addresses remaining in {@code body} and returns them, or returns null if there are none
+     * or they are byte for byte the same as in the previous ping. Only consecutive repeats are skipped, so
+     * a list the sender advertises again after some pings without one is decoded as usual.
+     * The buffer is fully consumed in all cases.
+     */
+    List<InetSocketAddress> decodeServers(ByteBuffer body) throws IOException {
+        if (!body.hasRemaining()) {
+            receivedServersBytes.limit(0);
+            return null;
+        }
+
+        List<InetSocketAddress> decoded = null;
+        if (!body.equals(receivedServersBytes)) {
+            // Decoded before it is kept, so that a list that fails to decode is never taken for a known one
+            decoded = Collections.unmodifiableList(IpPortSerializer.deserialize(body.duplicate()));
+
+            if (receivedServersBytes.capacity() < body.remaining()) {
+                receivedServersBytes = ByteBuffer.allocateDirect(body.remaining());
+            }
+
+            receivedServersBytes.clear();
+            receivedServersBytes.put(body.duplicate());
+            receivedServersBytes.flip();
+        }
+
+        body.position(body.limit());
+        receivedServersBytes.rewind();
+        return decoded;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.serdes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over the body of a received frame, everything after the length prefix. Fields are read in place with
+ * absolute gets, so decoding a frame neither allocates nor moves the position of the buffer until
+ * {@link #membership()} hands out the addresses. One instance is reused for every frame of a connection.
+ * <p>
+ * The first byte of a frame is its type, see {@link PacketSerializer#ECHO_FRAME}. Pings of nodes that predate frame
+ * types start with a timestamp in microseconds instead, whose first byte is always zero, so they are read as
+ * {@link PacketSerializer#LEGACY_PING_FRAME}. The header is validated by {@link #wrap(ByteBuffer)}, so accessors do not
+ * check anything. Frames of a type this node does not know are reported as such rather than rejected, so that newer
+ * nodes can add frame types without breaking older ones.
+ * <p>
+ * Not thread safe, used by the receiving side of a connection only.
+ */
+public final class FrameReader {
+
+    private static final int SEQUENCE_OFFSET = Byte.BYTES;
+    private static final int PAYLOAD_SIZE_OFFSET = SEQUENCE_OFFSET + Integer.BYTES;
+
+    private ByteBuffer body;
+    private int start;
+    private int end;
+    private byte type;
+    private int timestampOffset;
+    private int payloadSize;
+
+    /**
+     * Wraps the body of a frame, positioned at its first byte, and validates its header.
+     *
+     * @throws IOException if the frame is too short for its type or its payload does not fit
+     */
+    public FrameReader wrap(ByteBuffer body) throws IOException {
+        this.body = body;
+        this.start = body.position();
+        this.end = body.limit();
+        this.payloadSize = 0;
+
+        int size = body.remaining();
+        if (size < Byte.BYTES) {
+            throw new IOException("Empty frame");
+        }
+
+        type = body.get(start);
+        switch (type) {
+            case PacketSerializer.LEGACY_PING_FRAME:
+                timestampOffset = 0;
+                break;
+            case PacketSerializer.ECHO_FRAME:
+                timestampOffset = Byte.BYTES;
+                requireSize(size, PacketSerializer.ECHO_FRAME_SIZE - Integer.BYTES);
+                return this;
+            case PacketSerializer.SEQUENCED_PING_FRAME:
+                timestampOffset = PAYLOAD_SIZE_OFFSET;
+                break;
+            case PacketSerializer.PADDED_PING_FRAME:
+                timestampOffset = PAYLOAD_SIZE_OFFSET + Integer.BYTES;
+                requireSize(size, timestampOffset);
+                payloadSize = body.getInt(start + PAYLOAD_SIZE_OFFSET);
+                if (payloadSize < 0 || payloadSize > size - timestampOffset - Long.BYTES) {
+                    throw new IOException("Invalid ping payload size " + payloadSize);
+                }
+                break;
+            default:
+                return this;
+        }
+
+        requireSize(size, timestampOffset + Long.BYTES + payloadSize);
+        return this;
+    }
+
+    private static void requireSize(int size, int minimum) throws IOException {
+        if (size < minimum) {
+            throw new IOException("Frame of " + size + " bytes is too short, expected at least " + minimum);
+        }
+    }
+
+    public byte type() {
+        return type;
+    }
+
+    public boolean isEcho() {
+        return type == PacketSerializer.ECHO_FRAME;
+    }
+
+    public boolean isPing() {
+        return type == PacketSerializer.LEGACY_PING_FRAME || isSequenced();
+    }
+
+    /**
+     * True for sequenced pings, padded or not.
+     */
+    public boolean isSequenced() {
+        return type == PacketSerializer.SEQUENCED_PING_FRAME || type == PacketSerializer.PADDED_PING_FRAME;
+    }
+
+    public boolean isPadded() {
+        return type == PacketSerializer.PADDED_PING_FRAME;
+    }
+
+    /**
+     * Frame of a type introduced by a newer node, to be skipped.
+     */
+    public boolean isUnknown() {
+        return !isEcho() && !isPing();
+    }
+
+    /**
+     * Sequence number of a sequenced ping.
+     */
+    public int sequence() {
+        return body.getInt(start + SEQUENCE_OFFSET);
+    }
+
+    /**
+     * Size of the payload of a padded ping, zero for any other ping.
+     */
+    public int payloadSize() {
+        return payloadSize;
+    }
+
+    /**
+     * Timestamp of a ping, or of the ping echoed by an echo frame.
+     */
+    public long timestamp() {
+        return body.getLong(start + timestampOffset);
+    }
+
+    /**
+     * Time the echoing node received our ping, by its clock.
+     */
+    public long echoReceiveTimestamp() {
+        return body.getLong(start + timestampOffset + Long.BYTES);
+    }
+
+    /**
+     * Time the echoing node sent the echo, by its clock.
+     */
+    public long echoTransmitTimestamp() {
+        return body.getLong(start + timestampOffset + 2 * Long.BYTES);
+    }
+
+    /**
+     * Limits the wrapped buffer to the addresses a ping carries, between its timestamp and its payload, and returns it.
+     * Pass it to {@link PacketSerializer#readMembership(ByteBuffer, ConnectionBuffers, java.util.function.Consumer)}.
+     */
+    public ByteBuffer membership() {
+        body.limit(end - payloadSize);
+        body.position(start + timestampOffset + Long.BYTES);
+        return body;
+    }
+}
@@ -7,9 +7,9 @@
  */
 package org.voltdb.meshmonitor.serdes;
 
-import java.net.InetAddress;
+import java.io.IOException;
+import java.net.Inet4Address;
 import java.net.InetSocketAddress;
-import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,7 +20,7 @@ public class IpPortSerializer {
         byte[] address = socketAddress.getAddress().getAddress();
         int port = socketAddress.getPort();
 
-        if (buffer.remaining() > Byte.BYTES + address.length + Short.BYTES) {
+        if (buffer.remaining() >= Byte.BYTES + address.length + Short.BYTES) {
             buffer.put((byte) address.length);
             buffer.put(address);
             buffer.putShort((short) port);
@@ -31,6 +31,14 @@ public class IpPortSerializer {
         return false;
     }
 
+    /**
+     * Number of bytes {@link #serialize(ByteBuffer, InetSocketAddress)} writes for the given address.
+     */
+    public static int serializedSize(InetSocketAddress socketAddress) {
+        int addressLength = socketAddress.getAddress() instanceof Inet4Address ? 4 : 16;
+        return Byte.BYTES + addressLength + Short.BYTES;
+    }
+
     public static boolean serialize(ByteBuffer buffer, List<InetSocketAddress> socketAddresses) {
         for (InetSocketAddress socketAddress : socketAddresses) {
             if (!serialize(buffer, socketAddress)) {
@@ -41,7 +49,7 @@ public class IpPortSerializer {
         return true;
     }
 
-    public static List<InetSocketAddress> deserialize(ByteBuffer buffer) {
+    public static List<InetSocketAddress> deserialize(ByteBuffer buffer) throws IOException {
         List<InetSocketAddress> result = new ArrayList<>();
 
         while (buffer.hasRemaining()) {
@@ -51,20 +59,11 @@ public class IpPortSerializer {
         return result;
     }
 
-    public static InetSocketAddress deserializeSingleIp(ByteBuffer buffer) {
-        byte addressLength = buffer.get();
-        byte[] addressBytes = new byte[addressLength];
-        buffer.get(addressBytes);
-        int port = buffer.getShort() & 0xFFFF;
-
-        InetAddress address;
-        try {
-            address = InetAddress.getByAddress(addressBytes);
-        }
-        catch (UnknownHostException e) {
-            throw new RuntimeException(e);
-        }
-
-        return new InetSocketAddress(address, port);
+    /**
+     * Returns the canonical instance of the address from {@link PeerAddressTable#shared()}, so decoding
+     * an already known peer does not allocate.
+     */
+    public static InetSocketAddress deserializeSingleIp(ByteBuffer buffer) throws IOException {
+        return PeerAddressTable.shared().intern(buffer);
     }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.serdes;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable list of connections together with its wire encoding, as sent in pings.
+ * <p>
+ * It is encoded once when the set of connections changes and shared by the send side of all connections,
+ * which copy ranges of it into their frames with a single bulk put. The offset of every address is kept,
+ * so ranges of whole addresses that fit into a frame are found without decoding anything.
+ */
+public final class MembershipPayload {
+
+    public static final MembershipPayload EMPTY = encode(Collections.emptyList());
+
+    private final List<InetSocketAddress> connections;
+    private final ByteBuffer encoded;
+    private final int[] offsets;
+
+    private MembershipPayload(List<InetSocketAddress> connections, ByteBuffer encoded, int[] offsets) {
+        this.connections = connections;
+        this.encoded = encoded;
+        this.offsets = offsets;
+    }
+
+    public static MembershipPayload encode(List<InetSocketAddress> connections) {
+        int[] offsets = new int[connections.size() + 1];
+        for (int i = 0; i < connections.size(); i++) {
+            offsets[i + 1] = offsets[i] + IpPortSerializer.serializedSize(connections.get(i));
+        }
+
+        ByteBuffer encoded = ByteBuffer.allocateDirect(offsets[connections.size()]);
+        IpPortSerializer.serialize(encoded, connections);
+        encoded.flip();
+
+        return new MembershipPayload(
+                Collections.unmodifiableList(new ArrayList<>(connections)),
+                encoded.asReadOnlyBuffer(),
+                offsets);
+    }
+
+    public List<InetSocketAddress> connections() {
+        return connections;
+    }
+
+    public int size() {
+        return connections.size();
+    }
+
+    /**
+     * Returns the index just past the last connection, starting at {@code start}, that fits into {@code maxBytes}.
+     */
+    public int chunkEnd(int start, int maxBytes) {
+        int low = start;
+        int high = connections.size();
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] - offsets[start] <= maxBytes) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Returns a new view of the encoded connections. Views are meant to be kept and reused with
+     * {@link #select(ByteBuffer, int, int)} by a single thread.
+     */
+    public ByteBuffer view() {
+        return encoded.duplicate();
+    }
+
+    /**
+     * Positions the view on the encoded connections from {@code start} inclusive to {@code end} exclusive.
+     */
+    public ByteBuffer select(ByteBuffer view, int start, int end) {
+        view.clear();
+        view.limit(offsets[end]);
+        view.position(offsets[start]);
+        return view;
+    }
+}
@@ -7,6 +7,7 @@
  */
 package org.voltdb.meshmonitor.serdes;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
@@ -15,8 +16,93 @@ import java.nio.channels.WritableByteChannel;
 import java.util.List;
 import java.util.function.Consumer;
 
+/**
+ * Wire format of the mesh. Every message on a connection is a frame, a length prefix followed by that many bytes:
+ * <pre>
+ * hello           [int length][address][byte capabilities][byte lane][byte protocol version]
+ * legacy ping     [int length][long timestamp][addresses]
+ * echo            [int length][byte 1][long origin][long receive][long transmit]
+ * sequenced ping  [int length][byte 2][int sequence][long timestamp][addresses]
+ * padded ping     [int length][byte 5][int sequence][int payload length][long timestamp][addresses][payload]
+ * </pre>
+ * The hello is the first frame of a connection, sent by the connecting side only. Every field after the address was
+ * added later and older nodes stop reading before it, so missing fields read as zero. Frame types are only sent to
+ * peers that advertised the matching capability in their hello or sent such frames themselves, so a mesh of mixed
+ * versions keeps working. Types 3 and 4 are taken by UDP probes. Received frames are decoded with {@link FrameReader}.
+ */
 public class PacketSerializer {
 
+    public static final int MIN_PING_FRAME_SIZE = Long.BYTES;
+    public static final int MAX_PING_FRAME_SIZE = 1024 * 1024;
+
+    /**
+     * Version of the protocol spoken by this node, sent in the hello message. Nodes that send none speak version 0,
+     * with untyped pings only. It is informational only and logged for debugging, features are negotiated with
+     * capabilities alone.
+     */
+    public static final int PROTOCOL_VERSION = 1;
+
+    /**
+     * Peer echoes timestamps of received pings back in echo frames, advertised in the hello message.
+     */
+    public static final int CAPABILITY_ECHO = 1;
+
+    /**
+     * Peer understands sequenced pings, advertised in the hello message.
+     */
+    public static final int CAPABILITY_SEQUENCE = 2;
+
+    /**
+     * First byte of a ping of a node that predates frame types, the first byte of its timestamp in microseconds.
+     * See {@link FrameReader}.
+     */
+    public static final byte LEGACY_PING_FRAME = 0;
+
+    /**
+     * First byte of an echo frame. Ping frames start with a positive timestamp in microseconds, whose first byte is
+     * always zero, so the two can be told apart. Echo frames are only sent to peers that advertised {@link #CAPABILITY_ECHO}
+     * or sent echo frames themselves, older nodes would not understand them.
+     * <p>
+     * The type is followed by three timestamps: of the echoed ping, when the ping was received and when the echo was
+     * sent, the last two by the clock of the echoing node.
+     */
+    public static final byte ECHO_FRAME = 1;
+    public static final int ECHO_FRAME_SIZE = Integer.BYTES + Byte.BYTES + 3 * Long.BYTES;
+
+    /**
+     * First byte of a sequenced ping, see {@link #ECHO_FRAME}. It is followed by a sequence number, incremented with
+     * every ping sent on the connection, and then the body of a regular ping. Only sent to peers that advertised
+     * {@link #CAPABILITY_SEQUENCE} or sent sequenced pings themselves.
+     */
+    public static final byte SEQUENCED_PING_FRAME = 2;
+    public static final int SEQUENCED_PING_HEADER_SIZE = Integer.BYTES + Byte.BYTES + Integer.BYTES + Long.BYTES;
+
+    /**
+     * Peer understands padded pings, advertised in the hello message.
+     */
+    public static final int CAPABILITY_PADDING = 4;
+
+    /**
+     * First byte of a padded ping, see {@link #ECHO_FRAME}. It is a sequenced ping followed by a number of payload
+     * bytes that carry nothing. They make pings as large as real traffic, so they are subject to the same path MTU,
+     * segmentation and offloads. The length of the payload comes right after the sequence number so that the receiver
+     * can cut it off and decode the rest as any other ping. Only sent to peers that advertised {@link #CAPABILITY_PADDING}
+     * or sent padded pings themselves.
+     */
+    public static final byte PADDED_PING_FRAME = 5;
+    public static final int PADDED_PING_HEADER_SIZE = SEQUENCED_PING_HEADER_SIZE + Integer.BYTES;
+    public static final int MAX_PAYLOAD_BYTES = 64 * 1024;
+
+    /**
+     * First bytes of UDP probes and their replies, see {@link #writeProbe(ByteBuffer, byte, int, long)}. They do not go
+     * over the TCP connection but use the same numbering so that they are never mistaken for any other frame.
+     */
+    public static final byte UDP_PROBE = 3;
+    public static final byte UDP_PROBE_REPLY = 4;
+    public static final int UDP_PROBE_SIZE = Byte.BYTES + Integer.BYTES + Long.BYTES;
+
+    private static final int CAPABILITIES = CAPABILITY_ECHO | CAPABILITY_SEQUENCE | CAPABILITY_PADDING;
+
     public static ByteBuffer readPacketFully(ReadableByteChannel socketChannel) throws IOException {
         ByteBuffer buffer = readCompletely(4, socketChannel);
 
@@ -24,40 +110,235 @@ public class PacketSerializer {
         return readCompletely(packetSize, socketChannel);
     }
 
+    /**
+     * Same as {@link #writeHelloMessage(WritableByteChannel, InetSocketAddress, int)} for a connection on the first
+     * lane: our address, capabilities, lane 0 and the version of our protocol.
+     */
     public static void writeHelloMessage(WritableByteChannel channel, InetSocketAddress self) throws IOException {
+        writeHelloMessage(channel, self, 0);
+    }
+
+    /**
+     * Writes the hello message of a connection to a peer: our address, capabilities, the lane of the connection and
+     * the version of our protocol, in that order. Older nodes stop reading after the address or the capabilities.
+     */
+    public static void writeHelloMessage(WritableByteChannel channel, InetSocketAddress self, int lane) throws IOException {
         ByteBuffer byteBuffer = ByteBuffer.allocate(32);
         byteBuffer.putInt(0);
 
         IpPortSerializer.serialize(byteBuffer, self);
+        byteBuffer.put((byte) CAPABILITIES);
+        byteBuffer.put((byte) lane);
+        byteBuffer.put((byte) PROTOCOL_VERSION);
         byteBuffer.putInt(0, byteBuffer.position() - 4);
         byteBuffer.flip();
 
         writeCompletely(channel, byteBuffer);
     }
 
-    public static void sendPing(WritableByteChannel channel, long now, List<InetSocketAddress> servers) throws IOException {
-        ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+    /**
+     * Reads capabilities following the address in a hello message, older nodes do not send any.
+     */
+    public static int readHelloCapabilities(ByteBuffer hello) {
+        return hello.hasRemaining() ? hello.get() & 0xFF : 0;
+    }
 
-        byteBuf.putInt(0);
+    /**
+     * Reads lane following the capabilities in a hello message, 0 when there is none.
+     */
+    public static int readHelloLane(ByteBuffer hello) {
+        return hello.hasRemaining() ? hello.get() & 0xFF : 0;
+    }
+
+    /**
+     * Reads protocol version following the lane in a hello message, 0 for nodes that send none.
+     */
+    public static int readHelloVersion(ByteBuffer hello) {
+        return hello.hasRemaining() ? hello.get() & 0xFF : 0;
+    }
+
+    /**
+     * Sends a ping with servers that are already encoded, see {@link MembershipPayload}, using the reusable send
+     * buffer of the connection.
+     */
+    public static void sendPing(WritableByteChannel channel, ConnectionBuffers buffers, long now, ByteBuffer encodedServers) throws IOException {
+        ByteBuffer sendBuffer = buffers.sendBuffer();
+        sendBuffer.clear();
+
+        writePing(sendBuffer, now, encodedServers);
+        sendBuffer.flip();
+
+        writeCompletely(channel, sendBuffer);
+    }
+
+    /**
+     * Encodes a complete ping frame, including its length prefix, at the current position of the buffer, copying
+     * servers that are already encoded with a single bulk put. The remaining bytes of {@code encodedServers} are
+     * consumed. Used directly by non-blocking senders that manage their own partial writes.
+     */
+    public static void writePing(ByteBuffer byteBuf, long now, ByteBuffer encodedServers) {
+        byteBuf.putInt(Long.BYTES + encodedServers.remaining());
         byteBuf.putLong(now);
+        byteBuf.put(encodedServers);
+    }
 
-        IpPortSerializer.serialize(byteBuf, servers);
-        byteBuf.putInt(0, byteBuf.position() - 4);
-        byteBuf.flip();
+    /**
+     * Same as {@link #sendPing(WritableByteChannel, ConnectionBuffers, long, ByteBuffer)} but sends a sequenced ping.
+     */
+    public static void sendPing(WritableByteChannel channel, ConnectionBuffers buffers, int sequence, long now, ByteBuffer encodedServers) throws IOException {
+        ByteBuffer sendBuffer = buffers.sendBuffer();
+        sendBuffer.clear();
 
-        writeCompletely(channel, byteBuf);
+        writePing(sendBuffer, sequence, now, encodedServers);
+        sendBuffer.flip();
+
+        writeCompletely(channel, sendBuffer);
     }
 
-    public static long receiveTimestamp(ReadableByteChannel channel, Consumer<List<InetSocketAddress>> meshConsumer) throws IOException {
-        ByteBuffer buffer = readCompletely(4, channel);
+    /**
+     * Same as {@link #writePing(ByteBuffer, long, ByteBuffer)} but encodes a sequenced ping.
+     */
+    public static void writePing(ByteBuffer byteBuf, int sequence, long now, ByteBuffer encodedServers) {
+        byteBuf.putInt(SEQUENCED_PING_HEADER_SIZE - Integer.BYTES + encodedServers.remaining());
+        byteBuf.put(SEQUENCED_PING_FRAME);
+        byteBuf.putInt(sequence);
+        byteBuf.putLong(now);
+        byteBuf.put(encodedServers);
+    }
 
-        int packetSize = buffer.getInt();
-        buffer = readCompletely(packetSize, channel);
+    /**
+     * Same as {@link #sendPing(WritableByteChannel, ConnectionBuffers, int, long, ByteBuffer)} but sends a padded ping.
+     */
+    public static void sendPing(WritableByteChannel channel,
+                                ConnectionBuffers buffers,
+                                int sequence,
+                                long now,
+                                ByteBuffer encodedServers,
+                                ByteBuffer payload) throws IOException {
+        ByteBuffer sendBuffer = buffers.sendBuffer();
+        sendBuffer.clear();
+
+        writePing(sendBuffer, sequence, now, encodedServers, payload);
+        sendBuffer.flip();
+
+        writeCompletely(channel, sendBuffer);
+    }
 
-        long timestamp = buffer.getLong();
-        meshConsumer.accept(IpPortSerializer.deserialize(buffer));
+    /**
+     * Same as {@link #writePing(ByteBuffer, int, long, ByteBuffer)} but encodes a padded ping. The remaining bytes of
+     * {@code payload} are appended, their content is ignored by the receiver.
+     */
+    public static void writePing(ByteBuffer byteBuf, int sequence, long now, ByteBuffer encodedServers, ByteBuffer payload) {
+        byteBuf.putInt(PADDED_PING_HEADER_SIZE - Integer.BYTES + encodedServers.remaining() + payload.remaining());
+        byteBuf.put(PADDED_PING_FRAME);
+        byteBuf.putInt(sequence);
+        byteBuf.putInt(payload.remaining());
+        byteBuf.putLong(now);
+        byteBuf.put(encodedServers);
+        byteBuf.put(payload);
+    }
+
+    /**
+     * Decodes the addresses a ping carries, see {@link FrameReader#membership()}. The consumer is only called when
+     * the ping carries a list of servers different from the previous one received on the same connection. Pings
+     * without any servers mean the sender's connections have not changed.
+     */
+    public static void readMembership(ByteBuffer addresses, ConnectionBuffers buffers, Consumer<List<InetSocketAddress>> meshConsumer) throws IOException {
+        List<InetSocketAddress> servers = buffers.decodeServers(addresses);
+        if (servers != null) {
+            meshConsumer.accept(servers);
+        }
+    }
+
+    /**
+     * Echoes the timestamp of a received ping back to its sender, using the echo buffer of the connection.
+     */
+    public static void sendEcho(WritableByteChannel channel,
+                                ConnectionBuffers buffers,
+                                long echoedTimestamp,
+                                long receiveTimestamp,
+                                long transmitTimestamp) throws IOException {
+        ByteBuffer echoBuffer = buffers.echoBuffer();
+        echoBuffer.clear();
+
+        writeEcho(echoBuffer, echoedTimestamp, receiveTimestamp, transmitTimestamp);
+        echoBuffer.flip();
+
+        writeCompletely(channel, echoBuffer);
+    }
+
+    /**
+     * Encodes a complete echo frame, including its length prefix, at the current position of the buffer.
+     */
+    public static void writeEcho(ByteBuffer byteBuf, long echoedTimestamp, long receiveTimestamp, long transmitTimestamp) {
+        byteBuf.putInt(ECHO_FRAME_SIZE - Integer.BYTES);
+        byteBuf.put(ECHO_FRAME);
+        byteBuf.putLong(echoedTimestamp);
+        byteBuf.putLong(receiveTimestamp);
+        byteBuf.putLong(transmitTimestamp);
+    }
+
+    /**
+     * Reads a complete frame into the reusable body buffer of the connection and returns it, to be decoded with
+     * {@link FrameReader}.
+     */
+    public static ByteBuffer receiveFrame(ReadableByteChannel channel, ConnectionBuffers buffers) throws IOException {
+        ByteBuffer header = buffers.headerBuffer();
+        header.clear();
+        readCompletely(channel, header);
+        header.flip();
 
-        return timestamp;
+        ByteBuffer body = buffers.bodyBuffer(validFrameSize(header.getInt()));
+        readCompletely(channel, body);
+        body.flip();
+
+        return body;
+    }
+
+    /**
+     * Encodes a UDP probe or its reply. A datagram is a whole message, so there is no length prefix. The timestamp
+     * is opaque to the node replying, it is copied into the reply as is.
+     */
+    public static void writeProbe(ByteBuffer datagram, byte type, int sequence, long timestamp) {
+        datagram.put(type);
+        datagram.putInt(sequence);
+        datagram.putLong(timestamp);
+    }
+
+    /**
+     * Returns type of a received UDP datagram, or zero if it is not a valid probe or reply.
+     */
+    public static byte probeType(ByteBuffer datagram) {
+        if (datagram.remaining() != UDP_PROBE_SIZE) {
+            return 0;
+        }
+
+        byte type = datagram.get(datagram.position());
+        return type == UDP_PROBE || type == UDP_PROBE_REPLY ? type : 0;
+    }
+
+    public static int probeSequence(ByteBuffer datagram) {
+        return datagram.getInt(datagram.position() + Byte.BYTES);
+    }
+
+    public static long probeTimestamp(ByteBuffer datagram) {
+        return datagram.getLong(datagram.position() + Byte.BYTES + Integer.BYTES);
+    }
+
+    public static int validFrameSize(int frameSize) throws IOException {
+        if (frameSize < MIN_PING_FRAME_SIZE || frameSize > MAX_PING_FRAME_SIZE) {
+            throw new IOException("Invalid ping frame size " + frameSize);
+        }
+
+        return frameSize;
+    }
+
+    private static void readCompletely(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Connection closed by remote host");
+            }
+        }
     }
 
     private static ByteBuffer readCompletely(int packetSize, ReadableByteChannel socketChannel) throws IOException {
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.serdes;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Interning table of peer addresses keyed by their serialized address and port bytes.
+ * <p>
+ * Every node of the mesh is advertised over and over again by all of its peers. Decoding an address that is already
+ * in the table returns the canonical {@link InetSocketAddress} without allocating anything, so known peers can also be
+ * compared by identity. The table is an open addressing hash table with linear probing. Lookups are lock free,
+ * inserts are synchronized and entries are never removed. The number of entries is capped so that a misbehaving
+ * peer cannot grow it without bounds; addresses decoded once the table is full are simply not interned.
+ */
+public final class PeerAddressTable {
+
+    static final int MAX_ENTRIES = 1 << 16;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static final PeerAddressTable SHARED = new PeerAddressTable(MAX_ENTRIES);
+
+    private final int maxEntries;
+    private volatile AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    private int size;
+
+    PeerAddressTable(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Table used by {@link IpPortSerializer} and the {@link org.voltdb.meshmonitor.ServerManager}.
+     */
+    public static PeerAddressTable shared() {
+        return SHARED;
+    }
+
+    /**
+     * Reads an address serialized by {@link IpPortSerializer#serialize(ByteBuffer, InetSocketAddress)} and returns its
+     * canonical instance. The buffer is advanced past the address.
+     *
+     * @throws IOException if the address is truncated or of a length other than IPv4 or IPv6
+     */
+    public InetSocketAddress intern(ByteBuffer buffer) throws IOException {
+        if (!buffer.hasRemaining()) {
+            throw new IOException("Address truncated, expected its length");
+        }
+
+        int addressLength = buffer.get();
+        checkAddressLength(addressLength);
+        if (buffer.remaining() < addressLength + Short.BYTES) {
+            throw new IOException("Address truncated, expected " + (addressLength + Short.BYTES) + " bytes but got " + buffer.remaining());
+        }
+
+        int addressOffset = buffer.position();
+        int port = buffer.getShort(addressOffset + addressLength) & 0xFFFF;
+        buffer.position(addressOffset + addressLength + Short.BYTES);
+
+        InetSocketAddress interned = find(table, buffer, addressOffset, addressLength, port);
+        if (interned != null) {
+            return interned;
+        }
+
+        byte[] address = new byte[addressLength];
+        for (int i = 0; i < addressLength; i++) {
+            address[i] = buffer.get(addressOffset + i);
+        }
+
+        return insert(address, port);
+    }
+
+    /**
+     * Returns the canonical instance equal to the given address, or the address itself if it is unresolved.
+     */
+    public InetSocketAddress intern(InetSocketAddress socketAddress) {
+        InetAddress inetAddress = socketAddress.getAddress();
+        if (inetAddress == null) {
+            return socketAddress;
+        }
+
+        byte[] address = inetAddress.getAddress();
+        InetSocketAddress interned = find(table, ByteBuffer.wrap(address), 0, address.length, socketAddress.getPort());
+        if (interned != null) {
+            return interned;
+        }
+
+        return insert(address, socketAddress.getPort());
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private synchronized InetSocketAddress insert(byte[] address, int port) {
+        InetSocketAddress interned = find(table, ByteBuffer.wrap(address), 0, address.length, port);
+        if (interned != null) {
+            return interned;
+        }
+
+        Entry entry = new Entry(address, port, new InetSocketAddress(toInetAddress(address), port));
+        if (size >= maxEntries) {
+            return entry.socketAddress;
+        }
+
+        // Keep the load factor at or below one half so that probe sequences stay short
+        if ((size + 1) * 2 > table.length()) {
+            table = resize(table);
+        }
+
+        put(table, entry);
+        size++;
+        return entry.socketAddress;
+    }
+
+    private static InetSocketAddress find(AtomicReferenceArray<Entry> table, ByteBuffer buffer, int addressOffset, int addressLength, int port) {
+        int mask = table.length() - 1;
+        int slot = hash(buffer, addressOffset, addressLength, port) & mask;
+
+        Entry entry;
+        while ((entry = table.get(slot)) != null) {
+            if (entry.matches(buffer, addressOffset, addressLength, port)) {
+                return entry.socketAddress;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return null;
+    }
+
+    private static AtomicReferenceArray<Entry> resize(AtomicReferenceArray<Entry> table) {
+        AtomicReferenceArray<Entry> resized = new AtomicReferenceArray<>(table.length() * 2);
+        for (int i = 0; i < table.length(); i++) {
+            Entry entry = table.get(i);
+            if (entry != null) {
+                put(resized, entry);
+            }
+        }
+
+        return resized;
+    }
+
+    private static void put(AtomicReferenceArray<Entry> table, Entry entry) {
+        int mask = table.length() - 1;
+        int slot = entry.hash & mask;
+        while (table.get(slot) != null) {
+            slot = (slot + 1) & mask;
+        }
+
+        table.set(slot, entry);
+    }
+
+    private static int hash(ByteBuffer buffer, int addressOffset, int addressLength, int port) {
+        int hash = port;
+        for (int i = 0; i < addressLength; i++) {
+            hash = 31 * hash + buffer.get(addressOffset + i);
+        }
+
+        return hash ^ (hash >>> 16);
+    }
+
+    private static void checkAddressLength(int addressLength) throws IOException {
+        if (addressLength != 4 && addressLength != 16) {
+            throw new IOException("Invalid address length " + addressLength);
+        }
+    }
+
+    private static InetAddress toInetAddress(byte[] address) {
+        try {
+            return InetAddress.getByAddress(address);
+        } catch (UnknownHostException e) {
+            // Only thrown for lengths other than 4 and 16, which have been rejected already
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static final class Entry {
+
+        private final byte[] address;
+        private final int port;
+        private final int hash;
+        private final InetSocketAddress socketAddress;
+
+        Entry(byte[] address, int port, InetSocketAddress socketAddress) {
+            this.address = address;
+            this.port = port;
+            this.hash = hash(ByteBuffer.wrap(address), 0, address.length, port);
+            this.socketAddress = socketAddress;
+        }
+
+        boolean matches(ByteBuffer buffer, int addressOffset, int addressLength, int port) {
+            if (this.port != port || address.length != addressLength) {
+                return false;
+            }
+
+            for (int i = 0; i < addressLength; i++) {
+                if (address[i] != buffer.get(addressOffset + i)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ClockOffsetEstimatorTest {
+
+    private static final long DRIFT_INTERVAL = 10_000_000;
+
+    @Test
+    void shouldEstimateOffsetOfSymmetricPath() {
+        // Given
+        ClockOffsetEstimator estimator = new ClockOffsetEstimator(DRIFT_INTERVAL);
+
+        // When
+        // Peer clock is 1000 ahead, 100 each way and the peer holds the ping for 10
+        estimator.sample(0, 1_100, 1_110, 210);
+
+        // Then
+        assertThat(estimator.hasEstimate()).isTrue();
+        assertThat(estimator.offset()).isEqualTo(1_000);
+        assertThat(estimator.hasDrift()).isFalse();
+    }
+
+    @Test
+    void shouldTrustSampleWithLowestDelay() {
+        // Given
+        ClockOffsetEstimator estimator = new ClockOffsetEstimator(DRIFT_INTERVAL);
+
+        // When
+        // Queueing on the way back makes the path asymmetric and skews the offset
+        estimator.sample(0, 1_100, 1_100, 700);
+        estimator.sample(1_000, 2_100, 2_100, 1_200);
+        estimator.sample(2_000, 3_100, 3_100, 2_900);
+
+        // Then
+        assertThat(estimator.offset()).isEqualTo(1_000);
+    }
+
+    @Test
+    void shouldForgetSamplesOlderThanFilter() {
+        // Given
+        ClockOffsetEstimator estimator = new ClockOffsetEstimator(DRIFT_INTERVAL);
+        estimator.sample(0, 1_100, 1_100, 200);
+
+        // When
+        // Peer clock was stepped forward, the old low delay sample must not keep it hidden
+        for (int i = 1; i <= ClockOffsetEstimator.FILTER_SIZE; i++) {
+            long origin = i * 1_000L;
+            estimator.sample(origin, origin + 5_200, origin + 5_200, origin + 400);
+        }
+
+        // Then
+        assertThat(estimator.offset()).isEqualTo(5_000);
+    }
+
+    @Test
+    void shouldDropSamplesWithNegativeDelay() {
+        // Given
+        ClockOffsetEstimator estimator = new ClockOffsetEstimator(DRIFT_INTERVAL);
+
+        // When
+        estimator.sample(1_000, 1_100, 1_500, 1_200);
+
+        // Then
+        assertThat(estimator.hasEstimate()).isFalse();
+    }
+
+    @Test
+    void shouldEstimateDrift() {
+        // Given
+        ClockOffsetEstimator estimator = new ClockOffsetEstimator(DRIFT_INTERVAL);
+
+        // When
+        // Peer clock gains 50 per 1_000_000, that is 50ppm
+        for (long t = 0; t <= 3 * DRIFT_INTERVAL; t += DRIFT_INTERVAL / 10) {
+            long offset = t / 20_000;
+            estimator.sample(t, t + 100 + offset, t + 100 + offset, t + 200);
+        }
+
+        // Then
+        assertThat(estimator.hasDrift()).isTrue();
+        assertThat(estimator.drift() * 1_000_000).isCloseTo(50.0, within(0.5));
+    }
+}
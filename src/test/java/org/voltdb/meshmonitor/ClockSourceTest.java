@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClockSourceTest {
+
+    private static final long EPOCH_NANOS = TimeUnit.DAYS.toNanos(20_000) + 123_456;
+
+    @Test
+    void shouldDeriveWallClockFromMonotonicTime() {
+        // Given
+        FakeClockSource clock = new FakeClockSource();
+
+        // When
+        long first = clock.wallClockNanos(clock.nanoTime());
+        clock.advance(TimeUnit.MILLISECONDS.toNanos(5));
+        long second = clock.wallClockNanos(clock.nanoTime());
+
+        // Then
+        assertThat(first).isEqualTo(EPOCH_NANOS);
+        assertThat(second - first).isEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+        assertThat(clock.epochReads).isEqualTo(1);
+        assertThat(clock.reportedSteps).isEmpty();
+    }
+
+    @Test
+    void shouldFollowSlewedClockWithoutReportingSteps() {
+        // Given
+        FakeClockSource clock = new FakeClockSource();
+        clock.wallClockNanos(clock.nanoTime());
+
+        // When
+        // Slewing by 500ppm, the most NTP does
+        for (int i = 0; i < 10; i++) {
+            clock.advance(ClockSource.REANCHOR_INTERVAL_NANOS);
+            clock.stepWallClock(ClockSource.REANCHOR_INTERVAL_NANOS / 2_000);
+            clock.wallClockNanos(clock.nanoTime());
+        }
+
+        // Then
+        assertThat(clock.reportedSteps).isEmpty();
+        assertThat(clock.wallClockNanos(clock.nanoTime())).isEqualTo(clock.wallClock);
+    }
+
+    @Test
+    void shouldReportStepOnceAndJumpToNewTime() {
+        // Given
+        FakeClockSource clock = new FakeClockSource();
+        clock.wallClockNanos(clock.nanoTime());
+
+        // When
+        clock.advance(TimeUnit.MILLISECONDS.toNanos(5));
+        clock.stepWallClock(-TimeUnit.SECONDS.toNanos(2));
+        long afterStep = clock.wallClockNanos(clock.nanoTime());
+        clock.advance(TimeUnit.MILLISECONDS.toNanos(5));
+        long later = clock.wallClockNanos(clock.nanoTime());
+
+        // Then
+        assertThat(clock.reportedSteps).containsExactly(-TimeUnit.SECONDS.toNanos(2));
+        assertThat(clock.steps()).isEqualTo(1);
+        assertThat(afterStep).isEqualTo(clock.wallClock - TimeUnit.MILLISECONDS.toNanos(5));
+        assertThat(later - afterStep).isEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+    }
+
+    private static class FakeClockSource extends ClockSource {
+
+        private final List<Long> reportedSteps = new ArrayList<>();
+        private long nanoTime = 42;
+        private long wallClock = EPOCH_NANOS;
+        private int epochReads;
+
+        void advance(long nanos) {
+            nanoTime += nanos;
+            wallClock += nanos;
+        }
+
+        void stepWallClock(long nanos) {
+            wallClock += nanos;
+        }
+
+        FakeClockSource() {
+            setStepListener(reportedSteps::add);
+        }
+
+        @Override
+        protected long systemNanoTime() {
+            return nanoTime;
+        }
+
+        @Override
+        protected long systemCurrentTimeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(wallClock);
+        }
+
+        @Override
+        protected long systemEpochNanos() {
+            epochReads++;
+            return wallClock;
+        }
+    }
+}
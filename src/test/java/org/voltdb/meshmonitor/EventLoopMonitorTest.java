@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.awaitility.Durations;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.shaded.org.apache.commons.io.IOUtils;
+import org.voltdb.meshmonitor.serdes.MembershipPayload;
+import org.voltdb.meshmonitor.serdes.PacketSerializer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.voltdb.meshmonitor.MonitorTest.address;
+
+class EventLoopMonitorTest {
+
+    private MonitorEventLoop eventLoop;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        eventLoop = new MonitorEventLoop(ConsoleLoggerTest.loggerForTest());
+        eventLoop.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventLoop.close();
+    }
+
+    @Test
+    void shouldSendAndReceivePing() throws Exception {
+        // Given
+        ConsoleLogger logger = ConsoleLoggerTest.loggerForTest();
+        MeshMonitorTimings timings1 = MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT);
+        MeshMonitorTimings timings2 = MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT);
+
+        InetSocketAddress nodeA = address("127.0.0.1");
+        InetSocketAddress nodeB = address("127.0.0.1");
+
+        ServerSocketChannel nodeBChannel = ServerSocketChannel.open();
+        nodeBChannel.socket().bind(nodeB);
+        Future<SocketChannel> nodeAConnection = Executors.newFixedThreadPool(1).submit(nodeBChannel::accept);
+
+        SocketChannel connectionToNodeB = SocketChannel.open(nodeB);
+
+        MeshMonitor meshMonitor1 = mock(MeshMonitor.class);
+        MeshMonitor meshMonitor2 = mock(MeshMonitor.class);
+
+        List<InetSocketAddress> ipList = List.of(
+                address("10.1.0.2", 42),
+                address("10.1.0.3", 42),
+                address("10.1.0.4", 42)
+        );
+
+        when(meshMonitor1.getMembership()).thenReturn(MembershipPayload.encode(ipList));
+        when(meshMonitor2.getMembership()).thenReturn(MembershipPayload.encode(ipList));
+
+        // When
+        Monitor monitor1 = new EventLoopMonitor(eventLoop, logger, meshMonitor1, timings1, Duration.ofMillis(5), connectionToNodeB, nodeB, MonitorConfig.DEFAULT);
+        monitor1.start();
+
+        Monitor monitor2 = new EventLoopMonitor(eventLoop, logger, meshMonitor2, timings2, Duration.ofMillis(5), nodeAConnection.get(5, TimeUnit.SECONDS), nodeA, MonitorConfig.DEFAULT);
+        monitor2.start();
+
+        // Then
+        await().atMost(Durations.TEN_SECONDS).untilAsserted(() -> {
+            verify(meshMonitor1, atLeast(1)).onNewNodeInMesh(nodeB, ipList);
+            verify(meshMonitor2, atLeast(1)).onNewNodeInMesh(nodeA, ipList);
+
+            assertThat(timings1.pingHistogram().getCumulativeHistogram().getTotalCount()).isPositive();
+            assertThat(timings1.jitterHistogram().getCumulativeHistogram().getTotalCount()).isPositive();
+            assertThat(timings2.pingHistogram().getCumulativeHistogram().getTotalCount()).isPositive();
+            assertThat(timings2.jitterHistogram().getCumulativeHistogram().getTotalCount()).isPositive();
+        });
+    }
+
+    @Test
+    void shouldMeasureRoundTripWhenAcceptedPeerAdvertisedEchoes() throws Exception {
+        // Given
+        ConsoleLogger logger = ConsoleLoggerTest.loggerForTest();
+        MeshMonitorTimings timings1 = MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT);
+        MeshMonitorTimings timings2 = MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT);
+
+        InetSocketAddress nodeA = address("127.0.0.1");
+        InetSocketAddress nodeB = address("127.0.0.1");
+
+        ServerSocketChannel nodeBChannel = ServerSocketChannel.open();
+        nodeBChannel.socket().bind(nodeB);
+        Future<SocketChannel> nodeAConnection = Executors.newFixedThreadPool(1).submit(nodeBChannel::accept);
+
+        SocketChannel connectionToNodeB = SocketChannel.open(nodeB);
+
+        MeshMonitor meshMonitor = mock(MeshMonitor.class);
+        when(meshMonitor.getMembership()).thenReturn(MembershipPayload.EMPTY);
+
+        // When
+        Monitor monitor1 = new EventLoopMonitor(eventLoop, logger, meshMonitor, timings1, Duration.ofMillis(5), connectionToNodeB, nodeB, MonitorConfig.DEFAULT);
+        monitor1.start();
+
+        // Node B learnt from the hello message that node A echoes, node A learns it from the first echo
+        Monitor monitor2 = new EventLoopMonitor(eventLoop, logger, meshMonitor, timings2, Duration.ofMillis(5), nodeAConnection.get(5, TimeUnit.SECONDS), nodeA, MonitorConfig.DEFAULT);
+        monitor2.addPeerCapabilities(PacketSerializer.CAPABILITY_ECHO);
+        monitor2.start();
+
+        // Then
+        await().atMost(Durations.TEN_SECONDS).untilAsserted(() -> {
+            assertThat(timings1.roundTripHistogram().getCumulativeHistogram().getTotalCount()).isPositive();
+            assertThat(timings2.roundTripHistogram().getCumulativeHistogram().getTotalCount()).isPositive();
+        });
+        IOUtils.closeQuietly(nodeBChannel);
+    }
+
+    @Test
+    void shouldServiceAllConnectionsWithoutStartingThreadsPerPeer() throws Exception {
+        // Given
+        ConsoleLogger logger = ConsoleLoggerTest.loggerForTest();
+        InetSocketAddress server = address("127.0.0.1");
+
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        serverChannel.socket().bind(server);
+
+        int threadsBefore = Thread.activeCount();
+
+        // When
+        List<Monitor> monitors = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            SocketChannel client = SocketChannel.open(server);
+            SocketChannel accepted = serverChannel.accept();
+
+            MeshMonitor meshMonitor = mock(MeshMonitor.class);
+            when(meshMonitor.getMembership()).thenReturn(MembershipPayload.encode(List.of()));
+
+            Monitor clientMonitor = new EventLoopMonitor(eventLoop, logger, meshMonitor, MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT), Duration.ofMillis(5), client, server, MonitorConfig.DEFAULT);
+            Monitor acceptedMonitor = new EventLoopMonitor(eventLoop, logger, meshMonitor, MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT), Duration.ofMillis(5), accepted, server, MonitorConfig.DEFAULT);
+            clientMonitor.start();
+            acceptedMonitor.start();
+
+            monitors.add(clientMonitor);
+            monitors.add(acceptedMonitor);
+        }
+
+        // Then
+        await().atMost(Durations.TEN_SECONDS).untilAsserted(() -> {
+            for (Monitor monitor : monitors) {
+                assertThat(monitor.getTimings().pingHistogram().getCumulativeHistogram().getTotalCount()).isPositive();
+            }
+        });
+
+        // Only the lazily started callback thread may have been added
+        assertThat(Thread.activeCount()).isLessThanOrEqualTo(threadsBefore + 1);
+        IOUtils.closeQuietly(serverChannel);
+    }
+
+    @Test
+    void shouldDisconnectEveryMonitorOnClose() throws Exception {
+        // Given
+        ConsoleLogger logger = ConsoleLoggerTest.loggerForTest();
+        InetSocketAddress server = address("127.0.0.1");
+
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        serverChannel.socket().bind(server);
+
+        MeshMonitor meshMonitor = mock(MeshMonitor.class);
+        when(meshMonitor.getMembership()).thenReturn(MembershipPayload.encode(List.of()));
+
+        List<Monitor> monitors = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            SocketChannel client = SocketChannel.open(server);
+            serverChannel.accept();
+
+            Monitor monitor = new EventLoopMonitor(eventLoop, logger, meshMonitor, MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT), Duration.ofMillis(5), client, server, MonitorConfig.DEFAULT);
+            monitor.start();
+            monitors.add(monitor);
+        }
+        await().atMost(Durations.TEN_SECONDS).untilAsserted(() -> {
+            for (Monitor monitor : monitors) {
+                assertThat(monitor.getTimings().jitterHistogram().getCumulativeHistogram().getTotalCount()).isPositive();
+            }
+        });
+
+        // When
+        eventLoop.close();
+
+        // Then
+        await().atMost(Durations.TEN_SECONDS).untilAsserted(() -> {
+            for (Monitor monitor : monitors) {
+                assertThat(monitor.isRunning()).isFalse();
+                assertThat(monitor.getChannel().isOpen()).isFalse();
+            }
+            for (Monitor monitor : monitors) {
+                verify(meshMonitor).onDisconnect(eq(monitor), any());
+            }
+        });
+        IOUtils.closeQuietly(serverChannel);
+    }
+
+    @Test
+    void shouldReportDisconnect() throws Exception {
+        // Given
+        ConsoleLogger logger = ConsoleLoggerTest.loggerForTest();
+        InetSocketAddress nodeB = address("127.0.0.1");
+
+        ServerSocketChannel nodeBChannel = ServerSocketChannel.open();
+        nodeBChannel.socket().bind(nodeB);
+        Future<SocketChannel> nodeAConnection = Executors.newFixedThreadPool(1).submit(nodeBChannel::accept);
+
+        SocketChannel connectionToNodeB = SocketChannel.open(nodeB);
+        SocketChannel acceptedConnection = nodeAConnection.get(5, TimeUnit.SECONDS);
+
+        MeshMonitor meshMonitor = mock(MeshMonitor.class);
+        when(meshMonitor.getMembership()).thenReturn(MembershipPayload.encode(List.of()));
+
+        Monitor monitor = new EventLoopMonitor(eventLoop, logger, meshMonitor, MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT), Duration.ofMillis(5), connectionToNodeB, nodeB, MonitorConfig.DEFAULT);
+        monitor.start();
+
+        // When
+        IOUtils.closeQuietly(acceptedConnection);
+        IOUtils.closeQuietly(nodeBChannel);
+
+        // Then
+        await().atMost(Durations.TEN_SECONDS).untilAsserted(() -> {
+            assertThat(monitor.isRunning()).isFalse();
+            verify(meshMonitor, times(1)).onDisconnect(eq(monitor), any());
+        });
+    }
+}
@@ -8,17 +8,17 @@
 package org.voltdb.meshmonitor;
 
 import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
 import java.time.Duration;
 import java.util.concurrent.ThreadLocalRandom;
 
 import static org.voltdb.meshmonitor.ConsoleLoggerTest.loggerForTest;
-import static org.voltdb.meshmonitor.MeshMonitorTimings.createDefault;
 
 class FakeMonitor extends Monitor {
 
     private static final Duration PING_INTERVAL = Duration.ofSeconds(5);
 
-    private final boolean isRunning;
+    private volatile boolean isRunning;
 
     public static FakeMonitor random() {
         int lastOctet = ThreadLocalRandom.current().nextInt(255);
@@ -28,12 +28,22 @@ class FakeMonitor extends Monitor {
     }
 
     public FakeMonitor(InetSocketAddress remoteId) {
-        super(loggerForTest(), null, createDefault(loggerForTest()), PING_INTERVAL, null, remoteId);
+        super(loggerForTest(), null, MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT), PING_INTERVAL, null, remoteId, MonitorConfig.DEFAULT);
+        isRunning = true;
+    }
+
+    public FakeMonitor(InetSocketAddress remoteId, MeshMonitorTimings timings) {
+        super(loggerForTest(), null, timings, PING_INTERVAL, null, remoteId, MonitorConfig.DEFAULT);
+        isRunning = true;
+    }
+
+    public FakeMonitor(InetSocketAddress remoteId, SocketChannel channel) {
+        super(loggerForTest(), null, MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT), PING_INTERVAL, channel, remoteId, MonitorConfig.DEFAULT);
         isRunning = true;
     }
 
     public FakeMonitor(InetSocketAddress remoteId, boolean isRunning) {
-        super(loggerForTest(), null, createDefault(loggerForTest()), PING_INTERVAL, null, remoteId);
+        super(loggerForTest(), null, MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT), PING_INTERVAL, null, remoteId, MonitorConfig.DEFAULT);
         this.isRunning = isRunning;
     }
 
@@ -41,6 +51,10 @@ class FakeMonitor extends Monitor {
     public void start() {
     }
 
+    public void stop() {
+        isRunning = false;
+    }
+
     @Override
     public boolean isRunning() {
         return isRunning;
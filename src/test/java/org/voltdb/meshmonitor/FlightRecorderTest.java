@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlightRecorderTest {
+
+    private static final InetSocketAddress PEER_1 = new InetSocketAddress("127.0.0.1", 12222);
+    private static final InetSocketAddress PEER_2 = new InetSocketAddress("::1", 12223);
+
+    @Test
+    void shouldReadBackSamplesOfAllPeers(@TempDir Path directory) throws IOException {
+        // Given
+        FlightRecorder recorder = FlightRecorder.open(directory.resolve("flight"), 16, TimeUnit.MICROSECONDS);
+
+        // When
+        recorder.peer(PEER_1, 0).record(7, 1_000, 1_100, 5);
+        recorder.peer(PEER_2, 3).record(-1, 2_000, 2_200, 0);
+
+        // Then
+        List<FlightRecorder.Sample> samples = recorder.read(0, Long.MAX_VALUE);
+        assertThat(samples).hasSize(2);
+
+        FlightRecorder.Sample first = samples.get(0);
+        assertThat(first.index()).isEqualTo(1);
+        assertThat(first.remoteId()).isEqualTo(PEER_1);
+        assertThat(first.lane()).isZero();
+        assertThat(first.sequence()).isEqualTo(7);
+        assertThat(first.sendTimestamp()).isEqualTo(1_000);
+        assertThat(first.receiveTimestamp()).isEqualTo(1_100);
+        assertThat(first.writeStall()).isEqualTo(5);
+
+        FlightRecorder.Sample second = samples.get(1);
+        assertThat(second.remoteId()).isEqualTo(PEER_2);
+        assertThat(second.lane()).isEqualTo(3);
+        assertThat(second.sequence()).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldReadOnlySamplesReceivedWithinWindow(@TempDir Path directory) throws IOException {
+        // Given
+        FlightRecorder recorder = FlightRecorder.open(directory.resolve("flight"), 16, TimeUnit.MICROSECONDS);
+        FlightRecorder.Peer peer = recorder.peer(PEER_1, 0);
+        for (int i = 0; i < 10; i++) {
+            peer.record(i, i * 100, i * 100 + 10, 0);
+        }
+
+        // When
+        List<FlightRecorder.Sample> samples = recorder.read(300, 610);
+
+        // Then
+        assertThat(samples).extracting(FlightRecorder.Sample::sequence).containsExactly(3, 4, 5, 6);
+    }
+
+    @Test
+    void shouldOverwriteOldestSamplesWhenFull(@TempDir Path directory) throws IOException {
+        // Given
+        FlightRecorder recorder = FlightRecorder.open(directory.resolve("flight"), 4, TimeUnit.MICROSECONDS);
+        FlightRecorder.Peer peer = recorder.peer(PEER_1, 0);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            peer.record(i, i, i, 0);
+        }
+
+        // Then
+        assertThat(recorder.read(0, Long.MAX_VALUE))
+                .extracting(FlightRecorder.Sample::sequence)
+                .containsExactly(6, 7, 8, 9);
+    }
+
+    @Test
+    void shouldContinueAfterNewestSampleWhenReopened(@TempDir Path directory) throws IOException {
+        // Given
+        Path file = directory.resolve("flight");
+        FlightRecorder.Peer before = FlightRecorder.open(file, 4, TimeUnit.MICROSECONDS).peer(PEER_1, 0);
+        for (int i = 0; i < 6; i++) {
+            before.record(i, i, i, 0);
+        }
+
+        // When
+        FlightRecorder recorder = FlightRecorder.open(file, 4, TimeUnit.MICROSECONDS);
+        recorder.peer(PEER_2, 0).record(100, 100, 100, 0);
+
+        // Then
+        List<FlightRecorder.Sample> samples = FlightRecorder.openForReading(file).read(0, Long.MAX_VALUE);
+        assertThat(samples).extracting(FlightRecorder.Sample::sequence).containsExactly(3, 4, 5, 100);
+        assertThat(samples).extracting(FlightRecorder.Sample::index).containsExactly(4L, 5L, 6L, 7L);
+    }
+
+    @Test
+    void shouldStartOverWhenReopenedWithAnotherUnit(@TempDir Path directory) throws IOException {
+        // Given
+        Path file = directory.resolve("flight");
+        FlightRecorder.open(file, 4, TimeUnit.MICROSECONDS).peer(PEER_1, 0).record(1, 1, 1, 0);
+
+        // When
+        FlightRecorder recorder = FlightRecorder.open(file, 4, TimeUnit.NANOSECONDS);
+
+        // Then
+        assertThat(recorder.read(0, Long.MAX_VALUE)).isEmpty();
+        assertThat(FlightRecorder.openForReading(file).unit()).isEqualTo(TimeUnit.NANOSECONDS);
+    }
+
+    @Test
+    void shouldSkipTornSample(@TempDir Path directory) throws IOException {
+        // Given
+        Path file = directory.resolve("flight");
+        FlightRecorder.Peer peer = FlightRecorder.open(file, 4, TimeUnit.MICROSECONDS).peer(PEER_1, 0);
+        for (int i = 0; i < 3; i++) {
+            peer.record(i, i, i, 0);
+        }
+
+        // When, the process died while writing the receive timestamp of the second sample
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(FlightRecorder.HEADER_BYTES + FlightRecorder.RECORD_BYTES + 16);
+            raf.writeLong(42);
+        }
+
+        // Then
+        assertThat(FlightRecorder.openForReading(file).read(0, Long.MAX_VALUE))
+                .extracting(FlightRecorder.Sample::sequence)
+                .containsExactly(0, 2);
+    }
+
+    @Test
+    void shouldKeepEverySampleOfConcurrentWriters(@TempDir Path directory) throws Exception {
+        // Given
+        int threads = 4;
+        int samplesPerThread = 10_000;
+        FlightRecorder recorder = FlightRecorder.open(directory.resolve("flight"), threads * samplesPerThread, TimeUnit.MICROSECONDS);
+
+        // When
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            FlightRecorder.Peer peer = recorder.peer(new InetSocketAddress("127.0.0.1", 20000 + t), t);
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < samplesPerThread; i++) {
+                    peer.record(i, i, i, i);
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        // Then
+        List<FlightRecorder.Sample> samples = recorder.read(0, Long.MAX_VALUE);
+        assertThat(samples).hasSize(threads * samplesPerThread);
+        for (int t = 0; t < threads; t++) {
+            int lane = t;
+            assertThat(samples.stream().filter(sample -> sample.lane() == lane))
+                    .extracting(FlightRecorder.Sample::sequence)
+                    .isSorted()
+                    .hasSize(samplesPerThread);
+        }
+    }
+
+    @Test
+    void shouldRejectOtherFiles(@TempDir Path directory) throws IOException {
+        // Given
+        Path file = directory.resolve("other");
+        Files.write(file, new byte[128]);
+
+        // When, Then
+        assertThatThrownBy(() -> FlightRecorder.openForReading(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("is not a flight recorder file");
+    }
+}
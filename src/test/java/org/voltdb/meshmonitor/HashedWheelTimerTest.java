@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedWheelTimerTest {
+
+    private static final long START = 1_000L;
+    private static final long TICK = 10L;
+    private static final int WHEEL_SIZE = 8;
+
+    private final List<String> expired = new ArrayList<>();
+
+    @Test
+    void shouldNotExpireTimeoutBeforeItsDeadline() {
+        // Given
+        HashedWheelTimer timer = new HashedWheelTimer(START, TICK, WHEEL_SIZE);
+        RecordingTimeout timeout = new RecordingTimeout("a");
+
+        // When
+        timer.schedule(timeout, START + 25);
+        timer.advance(START + 29);
+
+        // Then
+        assertThat(expired).isEmpty();
+        assertThat(timer.nextExpiryTime()).isEqualTo(START + 30);
+
+        timer.advance(START + 30);
+        assertThat(expired).containsExactly("a@" + (START + 30));
+        assertThat(timeout.isScheduled()).isFalse();
+    }
+
+    @Test
+    void shouldExpireTimeoutsBeyondOneRotation() {
+        // Given
+        HashedWheelTimer timer = new HashedWheelTimer(START, TICK, WHEEL_SIZE);
+        long deadline = START + 3 * WHEEL_SIZE * TICK + 20;
+
+        // When
+        timer.schedule(new RecordingTimeout("far"), deadline);
+        timer.schedule(new RecordingTimeout("near"), START + 20);
+        timer.advance(deadline - 1);
+
+        // Then
+        assertThat(expired).containsExactly("near@" + (deadline - 1));
+
+        timer.advance(deadline);
+        assertThat(expired).containsExactly("near@" + (deadline - 1), "far@" + deadline);
+    }
+
+    @Test
+    void shouldExpireOverdueTimeoutOnNextAdvance() {
+        // Given
+        HashedWheelTimer timer = new HashedWheelTimer(START, TICK, WHEEL_SIZE);
+        timer.advance(START + 100);
+
+        // When
+        timer.schedule(new RecordingTimeout("late"), START + 50);
+        timer.advance(START + 110);
+
+        // Then
+        assertThat(expired).containsExactly("late@" + (START + 110));
+    }
+
+    @Test
+    void shouldNotExpireCancelledTimeout() {
+        // Given
+        HashedWheelTimer timer = new HashedWheelTimer(START, TICK, WHEEL_SIZE);
+        RecordingTimeout first = new RecordingTimeout("first");
+        RecordingTimeout second = new RecordingTimeout("second");
+        RecordingTimeout third = new RecordingTimeout("third");
+
+        timer.schedule(first, START + 10);
+        timer.schedule(second, START + 10);
+        timer.schedule(third, START + 10);
+
+        // When
+        timer.cancel(second);
+        timer.advance(START + 10);
+
+        // Then
+        assertThat(expired).containsExactlyInAnyOrder("first@" + (START + 10), "third@" + (START + 10));
+        assertThat(second.isScheduled()).isFalse();
+    }
+
+    @Test
+    void shouldAllowTimeoutToRescheduleItself() {
+        // Given
+        HashedWheelTimer timer = new HashedWheelTimer(START, TICK, WHEEL_SIZE);
+        List<Long> deadlines = new ArrayList<>();
+        HashedWheelTimer.Timeout periodic = new HashedWheelTimer.Timeout() {
+            @Override
+            protected void expired(HashedWheelTimer timer, long now) {
+                deadlines.add(deadline());
+                timer.schedule(this, deadline() + 35);
+            }
+        };
+
+        // When
+        timer.schedule(periodic, START + 35);
+        timer.advance(START + 200);
+
+        // Then
+        assertThat(deadlines).containsExactly(START + 35, START + 70, START + 105, START + 140, START + 175);
+    }
+
+    private class RecordingTimeout extends HashedWheelTimer.Timeout {
+
+        private final String name;
+
+        RecordingTimeout(String name) {
+            this.name = name;
+        }
+
+        @Override
+        protected void expired(HashedWheelTimer timer, long now) {
+            expired.add(name + "@" + now);
+        }
+    }
+}
@@ -11,7 +11,9 @@ import org.junit.jupiter.api.Test;
 
 import java.io.StringWriter;
 import java.net.InetSocketAddress;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -37,8 +39,8 @@ class HistogramLoggerTest {
 
         // Then
         assertThat(logContent.toString()).contains(
-                "----------ping-(ms)---------- ---------jitter-(ms)--------- ----timestamp-diff-(ms)------",
-                "Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99"
+                "----------ping-(ms)---------- ---------jitter-(ms)--------- ----timestamp-diff-(ms)------ -------round-trip-(ms)-------",
+                "Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99"
         );
     }
 
@@ -48,12 +50,13 @@ class HistogramLoggerTest {
         StringWriter logContent = new StringWriter();
         ConsoleLogger consoleLogger = ConsoleLoggerTest.loggerForTest(logContent);
 
-        MeshMonitorTimings timings1 = MeshMonitorTimings.createDefault(consoleLogger);
+        MeshMonitorTimings timings1 = MeshMonitorTimings.create(consoleLogger, ServerManagerConfig.DEFAULT);
         timings1.pingHistogram().recordValueWithExpectedInterval(TimeUnit.MILLISECONDS.toMicros(10), EXPECTED_INTERVAL);
         timings1.timestampDeltaHistogram().recordValueWithExpectedInterval(TimeUnit.MILLISECONDS.toMicros(12), EXPECTED_INTERVAL);
         timings1.jitterHistogram().recordValueWithExpectedInterval(TimeUnit.MILLISECONDS.toMicros(14), EXPECTED_INTERVAL);
+        timings1.echoReceived(0, 0, 0, TimeUnit.MILLISECONDS.toMicros(2));
 
-        MeshMonitorTimings timings2 = MeshMonitorTimings.createDefault(consoleLogger);
+        MeshMonitorTimings timings2 = MeshMonitorTimings.create(consoleLogger, ServerManagerConfig.DEFAULT);
         timings2.pingHistogram().recordValueWithExpectedInterval(TimeUnit.MILLISECONDS.toMicros(1), EXPECTED_INTERVAL);
         timings2.timestampDeltaHistogram().recordValueWithExpectedInterval(TimeUnit.MILLISECONDS.toMicros(3), EXPECTED_INTERVAL);
         timings2.jitterHistogram().recordValueWithExpectedInterval(TimeUnit.MILLISECONDS.toMicros(7), EXPECTED_INTERVAL);
@@ -74,10 +77,10 @@ class HistogramLoggerTest {
 
         // Then
         assertThat(logContent.toString()).containsIgnoringNewLines(
-//                                 ----------ping-(ms)---------- ---------jitter-(ms)--------- ----timestamp-diff-(ms)------
-//                                   Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99
-                "[       10.1.0.2]  10.0   7.5  10.0  10.0  10.0| 14.0  11.5  14.0  14.0  14.0| 12.0   9.5  12.0  12.0  12.0",
-                "[       10.1.0.3]   1.0   1.0   1.0   1.0   1.0|  7.0   7.0   7.0   7.0   7.0|  3.0   3.0   3.0   3.0   3.0"
+//                                 ----------ping-(ms)---------- ---------jitter-(ms)--------- ----timestamp-diff-(ms)------ -------round-trip-(ms)-------
+//                                   Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99
+                "[       10.1.0.2]  10.0   7.5  10.0  10.0  10.0| 14.0  11.5  14.0  14.0  14.0| 12.0   9.5  12.0  12.0  12.0|  2.0   2.0   2.0   2.0   2.0",
+                "[       10.1.0.3]   1.0   1.0   1.0   1.0   1.0|  7.0   7.0   7.0   7.0   7.0|  3.0   3.0   3.0   3.0   3.0|  0.0   0.0   0.0   0.0   0.0"
         );
     }
 
@@ -87,7 +90,7 @@ class HistogramLoggerTest {
         StringWriter logContent = new StringWriter();
         ConsoleLogger consoleLogger = ConsoleLoggerTest.loggerForTest(logContent);
 
-        MeshMonitorTimings timings1 = MeshMonitorTimings.createDefault(consoleLogger);
+        MeshMonitorTimings timings1 = MeshMonitorTimings.create(consoleLogger, ServerManagerConfig.DEFAULT);
         timings1.pingHistogram().recordValueWithExpectedInterval(TimeUnit.SECONDS.toMicros(10), EXPECTED_INTERVAL);
         timings1.timestampDeltaHistogram().recordValueWithExpectedInterval(TimeUnit.SECONDS.toMicros(12), EXPECTED_INTERVAL);
         timings1.jitterHistogram().recordValueWithExpectedInterval(TimeUnit.SECONDS.toMicros(14), EXPECTED_INTERVAL);
@@ -103,9 +106,105 @@ class HistogramLoggerTest {
 
         // Then
         assertThat(logContent.toString()).containsIgnoringNewLines(
-//                                 ----------ping-(ms)---------- ---------jitter-(ms)--------- ----timestamp-diff-(ms)------
-//                                   Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99
+//                                 ----------ping-(ms)---------- ---------jitter-(ms)--------- ----timestamp-diff-(ms)------ -------round-trip-(ms)-------
+//                                   Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99
                 "[       10.1.0.2] 10.0s  5.0s  9.9s 10.0s 10.0s|14.0s  7.0s 13.9s 14.0s 14.0s|12.0s  6.0s 11.9s 12.0s 12.0s"
         );
     }
+
+    @Test
+    void shouldPrintNanosecondTimingsWithMicrosecondPrecision() {
+        // Given
+        StringWriter logContent = new StringWriter();
+        ConsoleLogger consoleLogger = ConsoleLoggerTest.loggerForTest(logContent);
+
+        long expectedInterval = TimeUnit.MICROSECONDS.toNanos(250);
+        MeshMonitorTimings timings1 = MeshMonitorTimings.create(consoleLogger, ServerManagerConfig.DEFAULT.withTimingsUnit(TimeUnit.NANOSECONDS));
+        timings1.pingHistogram().recordValueWithExpectedInterval(TimeUnit.MICROSECONDS.toNanos(250), expectedInterval);
+        timings1.timestampDeltaHistogram().recordValueWithExpectedInterval(TimeUnit.MICROSECONDS.toNanos(42), expectedInterval);
+        timings1.jitterHistogram().recordValueWithExpectedInterval(TimeUnit.MILLISECONDS.toNanos(12), expectedInterval);
+
+        Monitor monitor1 = mock(Monitor.class);
+        when(monitor1.getRemoteId()).thenReturn(REMOTE_ID_1);
+        when(monitor1.getTimings()).thenReturn(timings1);
+
+        HistogramLogger logger = new HistogramLogger(consoleLogger);
+
+        // When
+        logger.printResults(monitor1, TimeUnit.MILLISECONDS.toMicros(20));
+
+        // Then
+        assertThat(logContent.toString()).containsIgnoringNewLines(
+//                                 ----------ping-(ms)---------- ---------jitter-(ms)--------- ----timestamp-diff-(ms)------ -------round-trip-(ms)-------
+//                                   Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99|  Max  Mean    99  99.9 99.99
+                "[       10.1.0.2] 0.250 0.250 0.250 0.250 0.250|"
+        );
+    }
+
+    @Test
+    void shouldPrintAllLanesMergedFollowedByEveryLane() {
+        // Given
+        StringWriter logContent = new StringWriter();
+        ConsoleLogger consoleLogger = ConsoleLoggerTest.loggerForTest(logContent);
+        long expectedInterval = TimeUnit.MILLISECONDS.toMicros(20);
+
+        MeshMonitorTimings firstLaneTimings = MeshMonitorTimings.create(consoleLogger, ServerManagerConfig.DEFAULT);
+        firstLaneTimings.pingHistogram().recordValueWithExpectedInterval(TimeUnit.MILLISECONDS.toMicros(2), expectedInterval);
+
+        MeshMonitorTimings secondLaneTimings = MeshMonitorTimings.create(consoleLogger, ServerManagerConfig.DEFAULT);
+        secondLaneTimings.pingHistogram().recordValueWithExpectedInterval(TimeUnit.MILLISECONDS.toMicros(10), expectedInterval);
+
+        Monitor firstLane = mock(Monitor.class);
+        when(firstLane.getRemoteId()).thenReturn(REMOTE_ID_1);
+        when(firstLane.getTimings()).thenReturn(firstLaneTimings);
+
+        Monitor secondLane = mock(Monitor.class);
+        when(secondLane.getRemoteId()).thenReturn(REMOTE_ID_1);
+        when(secondLane.getTimings()).thenReturn(secondLaneTimings);
+        when(secondLane.getLane()).thenReturn(1);
+
+        HistogramLogger logger = new HistogramLogger(consoleLogger);
+
+        // When
+        logger.printResults(firstLane, List.of(secondLane), expectedInterval);
+
+        // Then
+        assertThat(logContent.toString())
+                .contains("[       10.1.0.2]  10.0   6.0  10.0  10.0  10.0|")
+                .contains("all lanes")
+                .contains("[       10.1.0.2]   2.0   2.0   2.0   2.0   2.0|")
+                .contains("lane 0")
+                .contains("[       10.1.0.2]  10.0  10.0  10.0  10.0  10.0|")
+                .contains("lane 1");
+
+        assertThat(firstLaneTimings.pingHistogram().getDeltaHistogram().getTotalCount()).isZero();
+        assertThat(secondLaneTimings.pingHistogram().getDeltaHistogram().getTotalCount()).isZero();
+    }
+
+    @Test
+    void shouldPrintSameWindowOnEveryReport() {
+        // Given
+        StringWriter logContent = new StringWriter();
+        ConsoleLogger consoleLogger = ConsoleLoggerTest.loggerForTest(logContent);
+
+        MeshMonitorTimings timings = MeshMonitorTimings.create(consoleLogger, ServerManagerConfig.DEFAULT);
+        timings.pingHistogram().recordValueWithExpectedInterval(TimeUnit.MILLISECONDS.toMicros(10), EXPECTED_INTERVAL);
+
+        Monitor monitor = mock(Monitor.class);
+        when(monitor.getRemoteId()).thenReturn(REMOTE_ID_1);
+        when(monitor.getTimings()).thenReturn(timings);
+
+        HistogramLogger logger = new HistogramLogger(consoleLogger, SlidingWindow.FIVE_MINUTES);
+
+        // When
+        logger.printHeader();
+        logger.printResults(monitor, EXPECTED_INTERVAL * 2);
+        logger.printResults(monitor, EXPECTED_INTERVAL * 2);
+
+        // Then
+        String row = "[       10.1.0.2]  10.0   7.5  10.0  10.0  10.0|";
+        assertThat(logContent.toString()).contains("Percentiles over the last 5m");
+        assertThat(logContent.toString().split(Pattern.quote(row), -1)).hasSize(3);
+        assertThat(timings.pingHistogram().getDeltaHistogram().getTotalCount()).isEqualTo(2);
+    }
 }
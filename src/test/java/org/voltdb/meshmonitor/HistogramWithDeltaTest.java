@@ -7,10 +7,11 @@
  */
 package org.voltdb.meshmonitor;
 
-import org.HdrHistogram.SynchronizedHistogram;
+import org.HdrHistogram.Histogram;
 import org.junit.jupiter.api.Test;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -21,7 +22,7 @@ class HistogramWithDeltaTest {
     @Test
     void shouldUpdateBothHistograms() {
         // Given
-        SynchronizedHistogram histogram = new SynchronizedHistogram(1_000_000_000L, 3);
+        Histogram histogram = new Histogram(1_000_000_000L, 3);
         HistogramWithDelta histogramWithDelta = new HistogramWithDelta(
                 loggerForTest(),
                 "test",
@@ -41,7 +42,7 @@ class HistogramWithDeltaTest {
     @Test
     void shouldMakeACopyOfTheHistogram() {
         // Given
-        SynchronizedHistogram histogram = new SynchronizedHistogram(1_000_000_000L, 3);
+        Histogram histogram = new Histogram(1_000_000_000L, 3);
         HistogramWithDelta histogramWithDelta = new HistogramWithDelta(
                 loggerForTest(),
                 "test",
@@ -62,7 +63,7 @@ class HistogramWithDeltaTest {
     @Test
     void shouldUseIndependentHistograms() {
         // Given
-        SynchronizedHistogram histogram = new SynchronizedHistogram(1_000_000_000L, 3);
+        Histogram histogram = new Histogram(1_000_000_000L, 3);
         HistogramWithDelta histogramWithDelta = new HistogramWithDelta(
                 loggerForTest(),
                 "test",
@@ -73,19 +74,122 @@ class HistogramWithDeltaTest {
 
         // When
         histogramWithDelta.recordValueWithExpectedInterval(value, value);
-        histogramWithDelta.getDeltaHistogram().reset();
+        long taken = histogramWithDelta.takeDeltaHistogram(delta -> delta.getCountAtValue(value));
 
         // Then
+        assertThat(taken).isEqualTo(1);
         assertThat(histogramWithDelta.getCumulativeHistogram().getCountAtValue(value)).isEqualTo(1);
         assertThat(histogramWithDelta.getDeltaHistogram().getCountAtValue(value)).isZero();
     }
 
+    @Test
+    void shouldNotLoseValuesRecordedWhileReading() throws InterruptedException {
+        // Given
+        HistogramWithDelta histogramWithDelta = new HistogramWithDelta(
+                loggerForTest(),
+                "test",
+                new Histogram(1_000_000_000L, 3)
+        );
+
+        int values = 1_000_000;
+        AtomicBoolean recording = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < values; i++) {
+                histogramWithDelta.recordValue(1 + i % 1000);
+            }
+            recording.set(false);
+        });
+
+        // When
+        writer.start();
+        long takenCount = 0;
+        while (recording.get()) {
+            takenCount += histogramWithDelta.takeDeltaHistogram(Histogram::getTotalCount);
+            histogramWithDelta.getCumulativeHistogram(histogram -> assertThat(histogram.getTotalCount()).isBetween(0L, (long) values));
+        }
+        writer.join();
+        takenCount += histogramWithDelta.takeDeltaHistogram(Histogram::getTotalCount);
+
+        // Then
+        assertThat(takenCount).isEqualTo(values);
+        assertThat(histogramWithDelta.getCumulativeHistogram().getTotalCount()).isEqualTo(values);
+    }
+
+    @Test
+    void shouldKeepRangeAndPrecisionOfCompactHistograms() {
+        // Given
+        HistogramConfig config = HistogramConfig.compact();
+        HistogramWithDelta histogramWithDelta = config.newHistogramWithDelta(loggerForTest(), "test", TimeUnit.MICROSECONDS);
+        long value = TimeUnit.SECONDS.toMicros(10);
+
+        // When
+        histogramWithDelta.recordValue(value);
+        HistogramWithDelta copy = histogramWithDelta.emptyCopy("copy");
+        copy.recordValue(value);
+        copy.recordValue(TimeUnit.DAYS.toMicros(2));
+
+        // Then
+        Histogram cumulative = copy.getCumulativeHistogram();
+        assertThat(cumulative.getTotalCount()).isEqualTo(1);
+        assertThat(cumulative.getNumberOfSignificantValueDigits()).isEqualTo(3);
+        assertThat(cumulative.isAutoResize()).isTrue();
+        assertThat(cumulative.valuesAreEquivalent(cumulative.getMaxValue(), value)).isTrue();
+    }
+
+    @Test
+    void shouldTakeLogHistogramIndependentlyOfDelta() {
+        // Given
+        HistogramWithDelta histogramWithDelta = new HistogramWithDelta(
+                loggerForTest(),
+                "test",
+                new Histogram(1_000_000_000L, 3)
+        );
+        histogramWithDelta.recordValue(10);
+
+        // When
+        Histogram first = histogramWithDelta.takeLogHistogram();
+        histogramWithDelta.recordValue(20);
+        long deltaCount = histogramWithDelta.takeDeltaHistogram(Histogram::getTotalCount);
+        Histogram second = histogramWithDelta.takeLogHistogram();
+        Histogram third = histogramWithDelta.takeLogHistogram();
+
+        // Then
+        assertThat(first.getTotalCount()).isEqualTo(1);
+        assertThat(first.getMaxValue()).isEqualTo(10);
+        assertThat(deltaCount).isEqualTo(2);
+        assertThat(second.getTotalCount()).isEqualTo(1);
+        assertThat(second.getMaxValue()).isEqualTo(20);
+        assertThat(third.getTotalCount()).isZero();
+    }
+
+    @Test
+    void shouldReportValuesRecordedWithinWindow() {
+        // Given
+        HistogramWithDelta histogramWithDelta = new HistogramWithDelta(
+                loggerForTest(),
+                "test",
+                new Histogram(1_000_000_000L, 3)
+        );
+        long now = TimeUnit.HOURS.toNanos(1);
+
+        // When
+        histogramWithDelta.recordValue(100);
+        histogramWithDelta.sample(now - TimeUnit.MINUTES.toNanos(3));
+        histogramWithDelta.recordValue(200);
+        histogramWithDelta.sample(now);
+
+        // Then
+        assertThat(histogramWithDelta.getWindowHistogram(SlidingWindow.ONE_MINUTE, now, Histogram::getTotalCount)).isEqualTo(1);
+        assertThat(histogramWithDelta.getWindowHistogram(SlidingWindow.FIVE_MINUTES, now, Histogram::getTotalCount)).isEqualTo(2);
+        assertThat(histogramWithDelta.emptyCopy("copy").getWindowHistogram(SlidingWindow.FIVE_MINUTES, now, Histogram::getTotalCount)).isZero();
+    }
+
     @Test
     void shouldLogErrorOnlyWhenValueExceedsMaximumTrackableValue() {
         // Given
         ConsoleLogger consoleLogger = mock(ConsoleLogger.class);
 
-        SynchronizedHistogram histogram = new SynchronizedHistogram(1000L, 3);
+        Histogram histogram = new Histogram(1000L, 3);
         HistogramWithDelta histogramWithDelta = new HistogramWithDelta(
                 consoleLogger,
                 "test",
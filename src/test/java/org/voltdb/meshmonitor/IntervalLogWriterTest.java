@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.HdrHistogram.EncodableHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.voltdb.meshmonitor.ConsoleLoggerTest.loggerForTest;
+
+class IntervalLogWriterTest {
+
+    private static final InetSocketAddress NODE = new InetSocketAddress("127.0.0.1", 12222);
+    private static final InetSocketAddress REMOTE_ID = new InetSocketAddress("127.0.0.2", 12222);
+    private static final long START = 1_700_000_000_000L;
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Test
+    void shouldWriteTaggedHistogramsReadableByHdrHistogram(@TempDir Path directory) throws IOException {
+        // Given
+        MeshMonitorTimings timings = MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT);
+        timings.pingHistogram().recordValue(100);
+        timings.pingHistogram().recordValue(200);
+        timings.roundTripHistogram().recordValue(300);
+
+        IntervalLogWriter writer = writer(directory, 1024 * 1024, HOUR, 1024 * 1024);
+
+        // When
+        List<Histogram> batch = new ArrayList<>();
+        IntervalLogWriter.collect(batch, monitorWith(timings), START, START + 10_000);
+        writer.write(batch, START + 10_000);
+
+        // Then
+        List<Path> files = files(directory);
+        assertThat(files).hasSize(1);
+        assertThat(files.get(0).getFileName().toString())
+                .isEqualTo("meshmonitor-127.0.0.1_12222-20231114T221330.000Z.hlog");
+        assertThat(new String(Files.readAllBytes(files.get(0)))).contains("#[Node: 127.0.0.1:12222]");
+
+        List<EncodableHistogram> histograms = read(files.get(0));
+        assertThat(histograms).extracting(EncodableHistogram::getTag).containsExactly(
+                "127.0.0.2:12222/receive",
+                "127.0.0.2:12222/rtt");
+        assertThat(((Histogram) histograms.get(0)).getTotalCount()).isEqualTo(2);
+        assertThat(((Histogram) histograms.get(1)).getMaxValue()).isEqualTo(300);
+        assertThat(histograms.get(0).getStartTimeStamp()).isEqualTo(START);
+        assertThat(histograms.get(0).getEndTimeStamp()).isEqualTo(START + 10_000);
+    }
+
+    @Test
+    void shouldTagLanesOtherThanTheFirst() {
+        assertThat(IntervalLogWriter.tag(REMOTE_ID, 0, "rtt")).isEqualTo("127.0.0.2:12222/rtt");
+        assertThat(IntervalLogWriter.tag(REMOTE_ID, 3, "rtt")).isEqualTo("127.0.0.2:12222/rtt/3");
+    }
+
+    @Test
+    void shouldStartNewFileWhenCurrentIsTooOldOrTooLarge(@TempDir Path directory) throws IOException {
+        // Given
+        IntervalLogWriter writer = writer(directory, 2048, HOUR, 1024 * 1024);
+
+        // When
+        writer.write(batch(START), START);
+        writer.write(batch(START + 1000), START + 1000);
+        writer.write(batch(START + HOUR), START + HOUR);
+        for (int i = 1; i < 100; i++) {
+            writer.write(batch(START + HOUR + i), START + HOUR + i);
+        }
+
+        // Then
+        List<Path> files = files(directory);
+        assertThat(files.size()).isGreaterThan(3);
+        assertThat(read(files.get(0))).hasSize(2);
+        for (Path file : files) {
+            assertThat(Files.size(file)).isLessThan(2048 + 1024);
+        }
+    }
+
+    @Test
+    void shouldDeleteOldestFilesBeyondRetention(@TempDir Path directory) throws IOException {
+        // Given
+        IntervalLogWriter writer = writer(directory, 1, HOUR, 1);
+        Path otherNode = Files.createFile(directory.resolve("meshmonitor-127.0.0.3_12222-20231114T221320.000Z.hlog"));
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            writer.write(batch(START + i), START + i);
+        }
+
+        // Then only the current file of this node is kept
+        List<Path> files = files(directory);
+        assertThat(files).containsExactly(directory.resolve("meshmonitor-127.0.0.1_12222-20231114T221320.004Z.hlog"), otherNode);
+        assertThat(read(files.get(0))).hasSize(1);
+    }
+
+    @Test
+    void shouldWriteQueuedBatchesBeforeClosing(@TempDir Path directory) throws IOException {
+        // Given
+        IntervalLogWriter writer = writer(directory, 1024 * 1024, HOUR, 1024 * 1024);
+        writer.start();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertThat(writer.offer(batch(START + i))).isTrue();
+        }
+        writer.close();
+
+        // Then
+        List<Path> files = files(directory);
+        assertThat(files).hasSize(1);
+        assertThat(read(files.get(0))).hasSize(5);
+    }
+
+    private static IntervalLogWriter writer(Path directory, long maxFileBytes, long maxFileAgeMillis, long maxTotalBytes) {
+        return new IntervalLogWriter(
+                loggerForTest(),
+                directory,
+                NODE,
+                TimeUnit.MICROSECONDS,
+                maxFileBytes,
+                maxFileAgeMillis,
+                maxTotalBytes);
+    }
+
+    private static List<Histogram> batch(long endMillis) {
+        Histogram histogram = new Histogram(3);
+        histogram.recordValue(endMillis % 1000 + 1);
+        histogram.setTag(IntervalLogWriter.tag(REMOTE_ID, 0, "rtt"));
+        histogram.setStartTimeStamp(endMillis - 1000);
+        histogram.setEndTimeStamp(endMillis);
+
+        return Collections.singletonList(histogram);
+    }
+
+    private static Monitor monitorWith(MeshMonitorTimings timings) {
+        Monitor monitor = mock(Monitor.class);
+        when(monitor.getTimings()).thenReturn(timings);
+        when(monitor.getRemoteId()).thenReturn(REMOTE_ID);
+
+        return monitor;
+    }
+
+    private static List<Path> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static List<EncodableHistogram> read(Path file) throws IOException {
+        List<EncodableHistogram> histograms = new ArrayList<>();
+        HistogramLogReader reader = new HistogramLogReader(file.toFile());
+        try {
+            EncodableHistogram histogram;
+            while ((histogram = reader.nextIntervalHistogram()) != null) {
+                histograms.add(histogram);
+            }
+        } finally {
+            reader.close();
+        }
+
+        return histograms;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.junit.jupiter.api.Test;
+import org.voltdb.meshmonitor.serdes.ConnectionBuffers;
+import org.voltdb.meshmonitor.serdes.FrameReader;
+import org.voltdb.meshmonitor.serdes.IpPortSerializer;
+import org.voltdb.meshmonitor.serdes.MembershipPayload;
+import org.voltdb.meshmonitor.serdes.PacketSerializer;
+import org.voltdb.meshmonitor.testutils.LoopbackByteChannel;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.voltdb.meshmonitor.testutils.FileChannelUtils.newLoopbackChannel;
+
+class MembershipAdvertiserTest {
+
+    private static final long REFRESH_INTERVAL = 1_000;
+    private static final int MAX_ADDRESS_BYTES = ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE - ConnectionBuffers.PING_HEADER_SIZE;
+
+    private final MeshMonitorTimings timings = MeshMonitorTimings.create(ConsoleLoggerTest.loggerForTest(), ServerManagerConfig.DEFAULT);
+    private final MeshMonitor meshMonitor = mock(MeshMonitor.class);
+
+    @Test
+    void shouldAdvertiseAgainOnlyAfterRefreshInterval() throws IOException {
+        // Given
+        List<InetSocketAddress> connections = List.of(new InetSocketAddress("10.1.0.2", 8080));
+        when(meshMonitor.getMembership()).thenReturn(MembershipPayload.encode(connections));
+        when(meshMonitor.getMembershipVersion()).thenReturn(1L);
+
+        MembershipAdvertiser advertiser = new MembershipAdvertiser(meshMonitor, timings, MAX_ADDRESS_BYTES, REFRESH_INTERVAL);
+
+        // When
+        List<InetSocketAddress> first = decode(advertiser.nextPing(0));
+        List<InetSocketAddress> beforeRefresh = decode(advertiser.nextPing(REFRESH_INTERVAL - 1));
+        List<InetSocketAddress> afterRefresh = decode(advertiser.nextPing(REFRESH_INTERVAL));
+
+        // Then
+        assertThat(first).isEqualTo(connections);
+        assertThat(beforeRefresh).isEmpty();
+        assertThat(afterRefresh).isEqualTo(connections);
+        assertThat(timings.membershipSplits()).isZero();
+    }
+
+    @Test
+    void shouldSplitConnectionsThatDoNotFitIntoSinglePing() throws IOException {
+        // Given
+        List<InetSocketAddress> connections = List.of(
+                new InetSocketAddress("10.1.0.2", 8080),
+                new InetSocketAddress("2001:db8::1", 8080),
+                new InetSocketAddress("10.1.0.3", 8080));
+        when(meshMonitor.getMembership()).thenReturn(MembershipPayload.encode(connections));
+        when(meshMonitor.getMembershipVersion()).thenReturn(1L);
+
+        // Room for an IPv4 and an IPv6 address, but not for another IPv4 one
+        MembershipAdvertiser advertiser = new MembershipAdvertiser(meshMonitor, timings, 7 + 19 + 6, REFRESH_INTERVAL);
+
+        // When
+        List<InetSocketAddress> first = decode(advertiser.nextPing(0));
+        List<InetSocketAddress> second = decode(advertiser.nextPing(1));
+        List<InetSocketAddress> third = decode(advertiser.nextPing(2));
+
+        // Then
+        assertThat(first).containsExactly(connections.get(0), connections.get(1));
+        assertThat(second).containsExactly(connections.get(2));
+        assertThat(third).isEmpty();
+        assertThat(timings.membershipSplits()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAdvertiseThousandMemberMeshToJoiningNode() throws IOException {
+        // Given
+        List<InetSocketAddress> connections = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String host = i % 2 == 0
+                    ? "10.0." + (i / 256) + "." + (i % 256)
+                    : "2001:db8::" + Integer.toHexString(i);
+            connections.add(new InetSocketAddress(host, 12222));
+        }
+        when(meshMonitor.getMembership()).thenReturn(MembershipPayload.encode(connections));
+        when(meshMonitor.getMembershipVersion()).thenReturn(1L);
+
+        MembershipAdvertiser advertiser = new MembershipAdvertiser(meshMonitor, timings, MAX_ADDRESS_BYTES, REFRESH_INTERVAL);
+        LoopbackByteChannel channel = newLoopbackChannel();
+        ConnectionBuffers senderBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        ConnectionBuffers receiverBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        Set<InetSocketAddress> joinerView = new HashSet<>();
+
+        // When
+        int pings = 0;
+        while (joinerView.size() < connections.size() && pings < 100) {
+            PacketSerializer.sendPing(channel, senderBuffers, pings, advertiser.nextPing(pings));
+            FrameReader frame = new FrameReader().wrap(PacketSerializer.receiveFrame(channel, receiverBuffers));
+            PacketSerializer.readMembership(frame.membership(), receiverBuffers, joinerView::addAll);
+            pings++;
+        }
+
+        // Then
+        assertThat(joinerView).containsExactlyInAnyOrderElementsOf(connections);
+        assertThat(pings).isGreaterThan(1);
+        assertThat(timings.membershipSplits()).isEqualTo(1);
+    }
+
+    private static List<InetSocketAddress> decode(ByteBuffer encoded) throws IOException {
+        return IpPortSerializer.deserialize(encoded.duplicate());
+    }
+}
@@ -8,22 +8,30 @@
 package org.voltdb.meshmonitor;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.testcontainers.shaded.org.awaitility.Durations;
 import org.voltdb.meshmonitor.serdes.IpPortSerializer;
 import org.voltdb.meshmonitor.serdes.PacketSerializer;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Durations.TEN_SECONDS;
@@ -44,8 +52,7 @@ class MeshMonitorTest {
                 mock(ServerManager.class),
                 localAddress,
                 List.of(),
-                5,
-                50
+                MeshMonitorConfig.DEFAULT.withReportIntervalSeconds(5)
         );
 
         // When
@@ -70,8 +77,7 @@ class MeshMonitorTest {
                 mock(ServerManager.class),
                 localAddress,
                 addresses,
-                5,
-                50
+                MeshMonitorConfig.DEFAULT.withReportIntervalSeconds(5)
         );
 
         // When
@@ -110,7 +116,8 @@ class MeshMonitorTest {
         ServerManager serverManager = new ServerManager(
                 loggerForTest(),
                 monitorFactory,
-                Duration.ofMillis(5)
+                Duration.ofMillis(5),
+                ServerManagerConfig.DEFAULT
         );
 
         MeshMonitor meshMonitor = new MeshMonitor(
@@ -118,8 +125,7 @@ class MeshMonitorTest {
                 serverManager,
                 localAddress,
                 List.of(),
-                5,
-                50
+                MeshMonitorConfig.DEFAULT.withReportIntervalSeconds(5)
         );
 
         // When
@@ -147,7 +153,8 @@ class MeshMonitorTest {
         ServerManager serverManager = new ServerManager(
                 loggerForTest(),
                 monitorFactory,
-                Duration.ofMillis(5)
+                Duration.ofMillis(5),
+                ServerManagerConfig.DEFAULT
         );
 
         MeshMonitor meshMonitor = new MeshMonitor(
@@ -155,8 +162,7 @@ class MeshMonitorTest {
                 serverManager,
                 localAddress,
                 List.of(),
-                5,
-                50
+                MeshMonitorConfig.DEFAULT.withReportIntervalSeconds(5)
         );
 
         // When
@@ -175,6 +181,102 @@ class MeshMonitorTest {
                 assertThat(serverManager.getConnections()).containsOnly(remoteAddress));
     }
 
+    @Test
+    void shouldOpenEveryLaneFromItsOwnSourcePort() throws Exception {
+        // Given
+        InetSocketAddress localAddress = address("127.0.0.1");
+        InetSocketAddress remoteAddress = address("127.0.0.1");
+
+        MonitorFactory monitorFactory = (logger, meshMonitor, timings, pingInterval, channel, remoteId)  -> new FakeMonitor(remoteId);
+        ServerManager serverManager = new ServerManager(
+                loggerForTest(),
+                monitorFactory,
+                Duration.ofMillis(5),
+                ServerManagerConfig.DEFAULT
+        );
+
+        MeshMonitor meshMonitor = new MeshMonitor(
+                loggerForTest(),
+                serverManager,
+                localAddress,
+                List.of(remoteAddress),
+                MeshMonitorConfig.DEFAULT.withReportIntervalSeconds(5).withLanes(3)
+        );
+
+        ServerSocketChannel serverSocket = ServerSocketChannel.open();
+        serverSocket.bind(remoteAddress);
+
+        // When
+        Executors.newFixedThreadPool(1).submit(() -> meshMonitor.start(false));
+
+        List<Integer> lanes = new ArrayList<>();
+        List<Integer> sourcePorts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            SocketChannel socket = serverSocket.accept();
+            ByteBuffer buffer = PacketSerializer.readPacketFully(socket);
+            IpPortSerializer.deserializeSingleIp(buffer);
+            PacketSerializer.readHelloCapabilities(buffer);
+
+            lanes.add(PacketSerializer.readHelloLane(buffer));
+            sourcePorts.add(((InetSocketAddress) socket.getRemoteAddress()).getPort());
+        }
+
+        // Then
+        assertThat(lanes).containsExactly(0, 1, 2);
+        assertThat(sourcePorts).doesNotHaveDuplicates();
+        await().atMost(Durations.TEN_SECONDS).untilAsserted(() ->
+                assertThat(serverManager.getLanes(remoteAddress)).extracting(Monitor::getLane).containsExactly(1, 2));
+        assertThat(serverManager.getConnections()).containsOnly(remoteAddress);
+    }
+
+    @Test
+    void shouldStartLanesWithCapabilitiesOfFirstLane() throws Exception {
+        // Given
+        InetSocketAddress localAddress = address("127.0.0.1");
+        InetSocketAddress remoteAddress = address("127.0.0.1");
+
+        // Only lane 0 learns capabilities of the peer, lanes are created after it
+        AtomicInteger created = new AtomicInteger();
+        MonitorFactory monitorFactory = (logger, meshMonitor, timings, pingInterval, channel, remoteId) -> {
+            FakeMonitor monitor = new FakeMonitor(remoteId);
+            if (created.getAndIncrement() == 0) {
+                monitor.addPeerCapabilities(PacketSerializer.CAPABILITY_ECHO | PacketSerializer.CAPABILITY_SEQUENCE);
+            }
+            return monitor;
+        };
+        ServerManager serverManager = new ServerManager(
+                loggerForTest(),
+                monitorFactory,
+                Duration.ofMillis(5),
+                ServerManagerConfig.DEFAULT
+        );
+
+        MeshMonitor meshMonitor = new MeshMonitor(
+                loggerForTest(),
+                serverManager,
+                localAddress,
+                List.of(remoteAddress),
+                MeshMonitorConfig.DEFAULT.withReportIntervalSeconds(5).withLanes(3)
+        );
+
+        ServerSocketChannel serverSocket = ServerSocketChannel.open();
+        serverSocket.bind(remoteAddress);
+
+        // When
+        Executors.newFixedThreadPool(1).submit(() -> meshMonitor.start(false));
+        for (int i = 0; i < 3; i++) {
+            serverSocket.accept();
+        }
+
+        // Then
+        await().atMost(Durations.TEN_SECONDS).untilAsserted(() ->
+                assertThat(serverManager.getLanes(remoteAddress))
+                        .extracting(Monitor::getPeerCapabilities)
+                        .containsExactly(
+                                PacketSerializer.CAPABILITY_ECHO | PacketSerializer.CAPABILITY_SEQUENCE,
+                                PacketSerializer.CAPABILITY_ECHO | PacketSerializer.CAPABILITY_SEQUENCE));
+    }
+
     @Test
     void shouldNotInitiateConnectionToItself() {
         // Given
@@ -185,7 +287,8 @@ class MeshMonitorTest {
         ServerManager serverManager = new ServerManager(
                 loggerForTest(),
                 monitorFactory,
-                Duration.ofMillis(5)
+                Duration.ofMillis(5),
+                ServerManagerConfig.DEFAULT
         );
 
         MeshMonitor meshMonitor = new MeshMonitor(
@@ -193,8 +296,7 @@ class MeshMonitorTest {
                 serverManager,
                 localAddress,
                 List.of(),
-                5,
-                50
+                MeshMonitorConfig.DEFAULT.withReportIntervalSeconds(5)
         );
 
         // When
@@ -214,7 +316,8 @@ class MeshMonitorTest {
         ServerManager serverManager = new ServerManager(
                 loggerForTest(),
                 monitorFactory,
-                Duration.ofMillis(5)
+                Duration.ofMillis(5),
+                ServerManagerConfig.DEFAULT
         );
 
         MeshMonitor meshMonitor = new MeshMonitor(
@@ -222,8 +325,7 @@ class MeshMonitorTest {
                 serverManager,
                 localAddress,
                 List.of(),
-                5,
-                50
+                MeshMonitorConfig.DEFAULT.withReportIntervalSeconds(5)
         );
 
         // When
@@ -235,10 +337,51 @@ class MeshMonitorTest {
         assertThat(serverManager.getConnections()).containsOnly(remoteAddress);
 
         // Then
-        meshMonitor.onDisconnect(remoteAddress, new IOException());
+        meshMonitor.onDisconnect(serverManager.getMonitor(remoteAddress), new IOException());
         assertThat(serverManager.getConnections()).isEmpty();
     }
 
+    @Test
+    void shouldLogLastIntervalOfDisconnectedPeer(@TempDir Path directory) throws IOException {
+        // Given
+        InetSocketAddress localAddress = address("127.0.0.1");
+        InetSocketAddress remoteAddress = address("127.0.0.2");
+
+        MeshMonitorTimings timings = MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT);
+        timings.roundTripHistogram().recordValue(300);
+        ServerManager serverManager = mock(ServerManager.class);
+
+        IntervalLogWriter intervalLog = new IntervalLogWriter(
+                loggerForTest(),
+                directory,
+                localAddress,
+                TimeUnit.MICROSECONDS,
+                1024 * 1024,
+                TimeUnit.HOURS.toMillis(1),
+                1024 * 1024);
+        intervalLog.start();
+
+        MeshMonitor meshMonitor = new MeshMonitor(
+                loggerForTest(),
+                serverManager,
+                localAddress,
+                List.of(),
+                MeshMonitorConfig.DEFAULT.withReportIntervalSeconds(1).withIntervalLog(intervalLog)
+        );
+
+        // When
+        Executors.newFixedThreadPool(1).submit(() -> meshMonitor.start(false));
+        meshMonitor.onDisconnect(new FakeMonitor(remoteAddress, timings), new IOException("Connection reset"));
+
+        // Then
+        String tag = IntervalLogWriter.tag(remoteAddress, 0, "rtt");
+        await().atMost(TEN_SECONDS).untilAsserted(() -> {
+            try (Stream<Path> files = Files.list(directory)) {
+                assertThat(files.map(MeshMonitorTest::read)).anyMatch(content -> content.contains("Tag=" + tag));
+            }
+        });
+    }
+
     @Test
     void shouldNotPrintStatisticsHeaderWhenNoMonitors() {
         // Given
@@ -250,8 +393,7 @@ class MeshMonitorTest {
                 mock(ServerManager.class),
                 localAddress,
                 List.of(),
-                1,
-                50
+                MeshMonitorConfig.DEFAULT.withReportIntervalSeconds(1)
         );
 
         // When
@@ -282,8 +424,7 @@ class MeshMonitorTest {
                 serverManager,
                 localAddress,
                 List.of(),
-                1,
-                50
+                MeshMonitorConfig.DEFAULT.withReportIntervalSeconds(1)
         );
 
         // When
@@ -300,4 +441,12 @@ class MeshMonitorTest {
             }
         });
     }
+
+    private static String read(Path file) {
+        try {
+            return new String(Files.readAllBytes(file), StandardCharsets.US_ASCII);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -9,6 +9,8 @@ package org.voltdb.meshmonitor;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -19,7 +21,7 @@ class MeshMonitorTimingsTest {
     @Test
     void shouldRecordPingReceivedProperly() {
         // Given
-        MeshMonitorTimings timings = MeshMonitorTimings.createDefault(loggerForTest());
+        MeshMonitorTimings timings = MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT);
 
         long now = TimeUnit.MILLISECONDS.toMicros(42);
         long lastReceiveTime = TimeUnit.MILLISECONDS.toMicros(35);
@@ -27,7 +29,7 @@ class MeshMonitorTimingsTest {
         long pingInterval = TimeUnit.MILLISECONDS.toMicros(5);
 
         // When
-        timings.pingReceived(now, lastReceiveTime, timestampFromRemoteHost, pingInterval);
+        timings.pingReceived(now, lastReceiveTime, now, timestampFromRemoteHost, pingInterval);
 
         // Then
         long receiveSamples = timings.pingHistogram().getCumulativeHistogram().getCountAtValue(now - lastReceiveTime);
@@ -40,7 +42,7 @@ class MeshMonitorTimingsTest {
     @Test
     void shouldHandleNegativeDeltaInPingReceived() {
         // Given
-        MeshMonitorTimings timings = MeshMonitorTimings.createDefault(loggerForTest());
+        MeshMonitorTimings timings = MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT);
 
         long now = TimeUnit.MILLISECONDS.toMicros(42);
         long lastReceiveTime = TimeUnit.MILLISECONDS.toMicros(35);
@@ -48,7 +50,7 @@ class MeshMonitorTimingsTest {
         long pingInterval = TimeUnit.MILLISECONDS.toMicros(5);
 
         // When
-        timings.pingReceived(now, lastReceiveTime, timestampFromRemoteHost, pingInterval);
+        timings.pingReceived(now, lastReceiveTime, now, timestampFromRemoteHost, pingInterval);
 
         // Then
         long receiveSamples = timings.pingHistogram().getCumulativeHistogram().getCountAtValue(now - lastReceiveTime);
@@ -58,10 +60,90 @@ class MeshMonitorTimingsTest {
         assertThat(deltaSamples).isEqualTo(1);
     }
 
+    @Test
+    void shouldRecordOneWayDelayCorrectedForClockOffset() {
+        // Given
+        MeshMonitorTimings timings = MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT);
+
+        // Remote clock is 30ms ahead, 1ms each way
+        long offset = TimeUnit.MILLISECONDS.toMicros(30);
+        long oneWay = TimeUnit.MILLISECONDS.toMicros(1);
+        timings.echoReceived(0, oneWay + offset, oneWay + offset, 2 * oneWay);
+
+        long now = TimeUnit.MILLISECONDS.toMicros(42);
+        long timestampFromRemoteHost = now - oneWay + offset;
+
+        // When
+        timings.pingReceived(now, now - TimeUnit.MILLISECONDS.toMicros(5), now, timestampFromRemoteHost, TimeUnit.MILLISECONDS.toMicros(5));
+
+        // Then
+        assertThat(timings.clockOffset().offset()).isEqualTo(offset);
+        assertThat(timings.roundTripHistogram().getCumulativeHistogram().getCountAtValue(2 * oneWay)).isEqualTo(1);
+        assertThat(timings.oneWayDelayHistogram().getCumulativeHistogram().getCountAtValue(oneWay)).isEqualTo(1);
+        assertThat(timings.timestampDeltaHistogram().getCumulativeHistogram().getCountAtValue(offset - oneWay)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotRecordOneWayDelayWithoutClockOffset() {
+        // Given
+        MeshMonitorTimings timings = MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT);
+        long now = TimeUnit.MILLISECONDS.toMicros(42);
+
+        // When
+        timings.pingReceived(now, now - TimeUnit.MILLISECONDS.toMicros(5), now, now - 100, TimeUnit.MILLISECONDS.toMicros(5));
+
+        // Then
+        assertThat(timings.timestampDeltaHistogram().getCumulativeHistogram().getTotalCount()).isEqualTo(1);
+        assertThat(timings.oneWayDelayHistogram().getCumulativeHistogram().getTotalCount()).isZero();
+    }
+
+    @Test
+    void shouldCountOneWayDelayBelowZeroInsteadOfRecordingIt() {
+        // Given
+        MeshMonitorTimings timings = MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT);
+
+        // Remote clock is 30ms ahead, 1ms each way
+        long offset = TimeUnit.MILLISECONDS.toMicros(30);
+        long oneWay = TimeUnit.MILLISECONDS.toMicros(1);
+        timings.echoReceived(0, oneWay + offset, oneWay + offset, 2 * oneWay);
+
+        // Remote clock has since moved 3ms further ahead than estimated
+        long now = TimeUnit.MILLISECONDS.toMicros(42);
+        long timestampFromRemoteHost = now - oneWay + offset + TimeUnit.MILLISECONDS.toMicros(3);
+
+        // When
+        timings.pingReceived(now, now - TimeUnit.MILLISECONDS.toMicros(5), now, timestampFromRemoteHost, TimeUnit.MILLISECONDS.toMicros(5));
+
+        // Then
+        assertThat(timings.oneWayDelayHistogram().getCumulativeHistogram().getTotalCount()).isZero();
+        assertThat(timings.oneWayDelaysBelowZero()).isEqualTo(1);
+        assertThat(timings.timestampDeltaHistogram().getCumulativeHistogram().getCountAtValue(Math.abs(now - timestampFromRemoteHost))).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCountPingsDeliveredInBurst() {
+        // Given
+        MeshMonitorTimings timings = MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT);
+        long pingInterval = TimeUnit.MILLISECONDS.toMicros(5);
+
+        // When
+        // Link stalled for 20ms, the pings stuck behind the first arrive right after it
+        long stallEnd = TimeUnit.MILLISECONDS.toMicros(25);
+        timings.pingReceived(stallEnd, TimeUnit.MILLISECONDS.toMicros(5), stallEnd, stallEnd, pingInterval);
+        timings.pingReceived(stallEnd + 10, stallEnd, stallEnd, stallEnd, pingInterval);
+        timings.pingReceived(stallEnd + 20, stallEnd + 10, stallEnd, stallEnd, pingInterval);
+        timings.pingReceived(stallEnd + 30, stallEnd + 20, stallEnd, stallEnd, pingInterval);
+        timings.pingReceived(stallEnd + 30 + pingInterval, stallEnd + 30, stallEnd, stallEnd, pingInterval);
+
+        // Then
+        assertThat(timings.pingsReceived()).isEqualTo(5);
+        assertThat(timings.pingsLate()).isEqualTo(3);
+    }
+
     @Test
     void shouldTrackWakeupJitterProperly() {
         // Given
-        MeshMonitorTimings timings = MeshMonitorTimings.createDefault(loggerForTest());
+        MeshMonitorTimings timings = MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT);
 
         long expected = TimeUnit.MILLISECONDS.toMicros(10);
 
@@ -72,4 +154,102 @@ class MeshMonitorTimingsTest {
         long actual = timings.jitterHistogram().getCumulativeHistogram().getCountAtValue(expected);
         assertThat(actual).isEqualTo(1);
     }
+
+    @Test
+    void shouldTrackSameRangeInNanoseconds() {
+        // Given
+        MeshMonitorTimings timings = MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT.withTimingsUnit(TimeUnit.NANOSECONDS));
+
+        long pingInterval = TimeUnit.MICROSECONDS.toNanos(250);
+        long stall = TimeUnit.HOURS.toNanos(23);
+
+        // When
+        timings.trackWakeupJitter(TimeUnit.MICROSECONDS.toNanos(130), pingInterval);
+        timings.trackWakeupJitter(stall, stall);
+
+        // Then
+        assertThat(timings.unit()).isEqualTo(TimeUnit.NANOSECONDS);
+        assertThat(timings.jitterHistogram().getCumulativeHistogram().getHighestTrackableValue())
+                .isGreaterThanOrEqualTo(TimeUnit.HOURS.toNanos(24));
+        assertThat(timings.jitterHistogram().getCumulativeHistogram().getMinValue())
+                .isBetween(TimeUnit.MICROSECONDS.toNanos(130) - 100, TimeUnit.MICROSECONDS.toNanos(130));
+    }
+
+    @Test
+    void shouldRecordDeltaOfPaddedPingsBySize() {
+        // Given
+        MeshMonitorTimings timings = MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT);
+        long pingInterval = TimeUnit.MILLISECONDS.toMicros(5);
+        long now = TimeUnit.MILLISECONDS.toMicros(42);
+
+        // When
+        timings.pingReceived(now, now - pingInterval, now, now - 30, pingInterval, 1400);
+        timings.pingReceived(now, now - pingInterval, now, now - 90, pingInterval, 65536);
+        timings.pingReceived(now, now - pingInterval, now, now - 10, pingInterval, 0);
+        for (int payloadSize = 1; payloadSize <= 2 * MeshMonitorTimings.MAX_PAYLOAD_SIZES; payloadSize++) {
+            timings.pingReceived(now, now - pingInterval, now, now, pingInterval, 100_000 + payloadSize);
+        }
+
+        // Then
+        assertThat(timings.timestampDeltaHistogram().getCumulativeHistogram().getTotalCount())
+                .isEqualTo(3 + 2 * MeshMonitorTimings.MAX_PAYLOAD_SIZES);
+        assertThat(timings.payloadDeltaHistograms()).hasSize(MeshMonitorTimings.MAX_PAYLOAD_SIZES);
+        assertThat(timings.payloadDeltaHistograms().keySet()).startsWith(1400, 65536);
+        assertThat(timings.payloadDeltaHistograms().get(1400).getCumulativeHistogram().getCountAtValue(30)).isEqualTo(1);
+        assertThat(timings.payloadDeltaHistograms().get(65536).getCumulativeHistogram().getCountAtValue(90)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTakeFractionOfMemoryWithCompactHistograms() {
+        // Given
+        MeshMonitorTimings defaultTimings = MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT);
+        MeshMonitorTimings compactTimings = MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT.withHistogramConfig(HistogramConfig.compact()));
+        MeshMonitorTimings lowPrecisionTimings = MeshMonitorTimings.create(
+                loggerForTest(),
+                ServerManagerConfig.DEFAULT.withHistogramConfig(new HistogramConfig(HistogramConfig.DEFAULT_RANGE, 2, true)));
+
+        long pingInterval = TimeUnit.MILLISECONDS.toMicros(5);
+        long worstDelay = TimeUnit.MILLISECONDS.toMicros(100);
+
+        // When
+        for (MeshMonitorTimings timings : List.of(defaultTimings, compactTimings, lowPrecisionTimings)) {
+            timings.pingReceived(pingInterval + worstDelay, pingInterval, pingInterval + worstDelay, pingInterval, pingInterval);
+            timings.echoReceived(0, 0, 0, worstDelay);
+        }
+
+        // Then: ten histograms of the sizes documented in README.md
+        assertThat(defaultTimings.getEstimatedFootprintInBytes()).isGreaterThan(2_000_000);
+        assertThat(compactTimings.getEstimatedFootprintInBytes()).isLessThan(500_000);
+        assertThat(lowPrecisionTimings.getEstimatedFootprintInBytes()).isLessThan(100_000);
+    }
+
+    @Test
+    void shouldAllocateUdpHistogramOnlyWithUdpProbing() {
+        // Given
+        MeshMonitorTimings withoutUdp = MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT);
+        MeshMonitorTimings withUdp = MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT.withUdp(true));
+
+        // When
+        withoutUdp.sampleWindows();
+        withUdp.udpReplyReceived(42, 0);
+
+        // Then
+        assertThat(withoutUdp.udpRoundTripHistogram()).isNull();
+        assertThat(withUdp.udpRoundTripHistogram().getCumulativeHistogram().getTotalCount()).isEqualTo(1);
+        assertThat(withoutUdp.getEstimatedFootprintInBytes()).isLessThan(withUdp.getEstimatedFootprintInBytes());
+    }
+
+    @Test
+    void shouldDropValuesAboveRangeOfCompactHistograms() {
+        // Given
+        HistogramConfig config = new HistogramConfig(Duration.ofSeconds(1), 3, true);
+        MeshMonitorTimings timings = MeshMonitorTimings.create(loggerForTest(), ServerManagerConfig.DEFAULT.withHistogramConfig(config));
+
+        // When
+        timings.roundTripHistogram().recordValue(TimeUnit.MILLISECONDS.toMicros(500));
+        timings.roundTripHistogram().recordValue(TimeUnit.SECONDS.toMicros(2));
+
+        // Then
+        assertThat(timings.roundTripHistogram().getCumulativeHistogram().getTotalCount()).isEqualTo(1);
+    }
 }
@@ -11,6 +11,9 @@ import org.awaitility.Durations;
 import org.junit.jupiter.api.Test;
 import org.testcontainers.shaded.com.google.common.util.concurrent.Futures;
 import org.testcontainers.shaded.org.apache.commons.io.IOUtils;
+import org.voltdb.meshmonitor.serdes.IpPortSerializer;
+import org.voltdb.meshmonitor.serdes.MembershipPayload;
+import org.voltdb.meshmonitor.serdes.PacketSerializer;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
@@ -36,7 +39,7 @@ public class MonitorTest {
     void shouldInitialiseState() {
         // Given
         ConsoleLogger logger = ConsoleLoggerTest.loggerForTest();
-        MeshMonitorTimings timings = MeshMonitorTimings.createDefault(logger);
+        MeshMonitorTimings timings = MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT);
 
         // When
         Monitor monitor = new Monitor(
@@ -45,7 +48,8 @@ public class MonitorTest {
                 timings,
                 Duration.ofMillis(5),
                 mock(SocketChannel.class),
-                REMOTE_ID_1
+                REMOTE_ID_1,
+                MonitorConfig.DEFAULT
         );
 
         // Then
@@ -54,25 +58,60 @@ public class MonitorTest {
         assertThat(monitor.getTimings()).isEqualTo(timings);
     }
 
+    @Test
+    void shouldAdvertiseConnectionsOnlyWhenMembershipChanges() throws IOException {
+        // Given
+        ConsoleLogger logger = ConsoleLoggerTest.loggerForTest();
+        List<InetSocketAddress> connections = List.of(REMOTE_ID_1);
+
+        MeshMonitor meshMonitor = mock(MeshMonitor.class);
+        when(meshMonitor.getMembership()).thenReturn(MembershipPayload.encode(connections));
+        when(meshMonitor.getMembershipVersion()).thenReturn(1L, 1L, 2L);
+
+        Monitor monitor = new Monitor(
+                logger,
+                meshMonitor,
+                MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT),
+                Duration.ofMillis(5),
+                mock(SocketChannel.class),
+                REMOTE_ID_1,
+                MonitorConfig.DEFAULT
+        );
+
+        // When
+        List<InetSocketAddress> first = IpPortSerializer.deserialize(monitor.membershipToAdvertise());
+        List<InetSocketAddress> unchanged = IpPortSerializer.deserialize(monitor.membershipToAdvertise());
+        List<InetSocketAddress> changed = IpPortSerializer.deserialize(monitor.membershipToAdvertise());
+
+        // Then
+        assertThat(first).isEqualTo(connections);
+        assertThat(unchanged).isEmpty();
+        assertThat(changed).isEqualTo(connections);
+    }
+
     @Test
     void shouldStartThreads() {
         // Given
         ConsoleLogger logger = ConsoleLoggerTest.loggerForTest();
-        MeshMonitorTimings timings = MeshMonitorTimings.createDefault(logger);
+        MeshMonitorTimings timings = MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT);
 
         Socket socket = mock(Socket.class);
         when(socket.getRemoteSocketAddress()).thenReturn(REMOTE_ID_1);
         SocketChannel socketChannel = mock(SocketChannel.class);
         when(socketChannel.socket()).thenReturn(socket);
 
+        MeshMonitor meshMonitor = mock(MeshMonitor.class);
+        when(meshMonitor.getMembership()).thenReturn(MembershipPayload.EMPTY);
+
         // When
         Monitor monitor = new Monitor(
                 logger,
-                mock(MeshMonitor.class),
+                meshMonitor,
                 timings,
                 Duration.ofMillis(5),
                 socketChannel,
-                REMOTE_ID_1
+                REMOTE_ID_1,
+                MonitorConfig.DEFAULT
         );
         monitor.start();
 
@@ -90,7 +129,7 @@ public class MonitorTest {
     void shouldStopBothThreadsOnIOExceptionAndNotifyMeshMonitor() throws IOException {
         // Given
         ConsoleLogger logger = ConsoleLoggerTest.loggerForTest();
-        MeshMonitorTimings timings = MeshMonitorTimings.createDefault(logger);
+        MeshMonitorTimings timings = MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT);
 
         InetSocketAddress socketAddress = address("10.1.0.2");
         Socket socket = mock(Socket.class);
@@ -109,6 +148,7 @@ public class MonitorTest {
         });
 
         MeshMonitor meshMonitor = mock(MeshMonitor.class);
+        when(meshMonitor.getMembership()).thenReturn(MembershipPayload.EMPTY);
 
         // When
         Monitor monitor = new Monitor(
@@ -117,7 +157,8 @@ public class MonitorTest {
                 timings,
                 Duration.ofMillis(5),
                 socketChannel,
-                socketAddress
+                socketAddress,
+                MonitorConfig.DEFAULT
         );
         monitor.start();
 
@@ -133,7 +174,7 @@ public class MonitorTest {
                             address + " send thread"
                     );
 
-            verify(meshMonitor).onDisconnect(eq(socketAddress), any());
+            verify(meshMonitor).onDisconnect(eq(monitor), any());
         });
     }
 
@@ -141,7 +182,7 @@ public class MonitorTest {
     void shouldSendAndReceivePing() throws IOException, ExecutionException, InterruptedException, TimeoutException {
         // Given
         ConsoleLogger logger = ConsoleLoggerTest.loggerForTest();
-        MeshMonitorTimings timings = MeshMonitorTimings.createDefault(logger);
+        MeshMonitorTimings timings = MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT);
 
         InetSocketAddress nodeA = address("127.0.0.1");
         InetSocketAddress nodeB = address("127.0.0.1");
@@ -161,8 +202,8 @@ public class MonitorTest {
                 address("10.1.0.4", 42)
         );
 
-        when(meshMonitor1.getConnections()).thenReturn(ipList);
-        when(meshMonitor2.getConnections()).thenReturn(ipList);
+        when(meshMonitor1.getMembership()).thenReturn(MembershipPayload.encode(ipList));
+        when(meshMonitor2.getMembership()).thenReturn(MembershipPayload.encode(ipList));
 
         // When
         Monitor monitor1 = new Monitor(
@@ -171,7 +212,8 @@ public class MonitorTest {
                 timings,
                 Duration.ofMillis(5),
                 connectionToNodeB,
-                nodeB
+                nodeB,
+                MonitorConfig.DEFAULT
         );
         monitor1.start();
 
@@ -181,7 +223,8 @@ public class MonitorTest {
                 timings,
                 Duration.ofMillis(5),
                 nodeAConnection.get(5, TimeUnit.SECONDS),
-                nodeA
+                nodeA,
+                MonitorConfig.DEFAULT
         );
         monitor2.start();
 
@@ -192,11 +235,135 @@ public class MonitorTest {
         });
     }
 
+    @Test
+    void shouldMeasureRoundTripOnlyBetweenPeersThatEcho() throws IOException, ExecutionException, InterruptedException, TimeoutException {
+        // Given
+        ConsoleLogger logger = ConsoleLoggerTest.loggerForTest();
+        MeshMonitorTimings timings1 = MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT);
+        MeshMonitorTimings timings2 = MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT);
+
+        InetSocketAddress nodeA = address("127.0.0.1");
+        InetSocketAddress nodeB = address("127.0.0.1");
+
+        ServerSocketChannel nodeBChannel = ServerSocketChannel.open();
+        nodeBChannel.socket().bind(nodeB);
+        Future<SocketChannel> nodeAConnection = Executors.newFixedThreadPool(1).submit(nodeBChannel::accept);
+
+        SocketChannel connectionToNodeB = SocketChannel.open(nodeB);
+
+        MeshMonitor meshMonitor = mock(MeshMonitor.class);
+        when(meshMonitor.getMembership()).thenReturn(MembershipPayload.EMPTY);
+
+        // When
+        Monitor monitor1 = new Monitor(logger, meshMonitor, timings1, Duration.ofMillis(5), connectionToNodeB, nodeB, MonitorConfig.DEFAULT);
+        monitor1.start();
+
+        // Node B learnt from the hello message that node A echoes, node A learns it from the first echo
+        Monitor monitor2 = new Monitor(logger, meshMonitor, timings2, Duration.ofMillis(5), nodeAConnection.get(5, TimeUnit.SECONDS), nodeA, MonitorConfig.DEFAULT);
+        monitor2.addPeerCapabilities(PacketSerializer.CAPABILITY_ECHO);
+        monitor2.start();
+
+        // Then
+        await().atMost(Durations.TEN_SECONDS).untilAsserted(() -> {
+            assertThat(timings1.roundTripHistogram().getCumulativeHistogram().getTotalCount()).isPositive();
+            assertThat(timings2.roundTripHistogram().getCumulativeHistogram().getTotalCount()).isPositive();
+            assertThat(timings1.pingHistogram().getCumulativeHistogram().getTotalCount()).isPositive();
+            assertThat(timings2.pingHistogram().getCumulativeHistogram().getTotalCount()).isPositive();
+        });
+
+        IOUtils.closeQuietly(connectionToNodeB);
+        IOUtils.closeQuietly(nodeBChannel);
+    }
+
+    @Test
+    void shouldSequencePingsBetweenUpgradedPeers() throws IOException, ExecutionException, InterruptedException, TimeoutException {
+        // Given
+        ConsoleLogger logger = ConsoleLoggerTest.loggerForTest();
+        MeshMonitorTimings timings1 = MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT);
+        MeshMonitorTimings timings2 = MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT);
+
+        InetSocketAddress nodeA = address("127.0.0.1");
+        InetSocketAddress nodeB = address("127.0.0.1");
+
+        ServerSocketChannel nodeBChannel = ServerSocketChannel.open();
+        nodeBChannel.socket().bind(nodeB);
+        Future<SocketChannel> nodeAConnection = Executors.newFixedThreadPool(1).submit(nodeBChannel::accept);
+
+        SocketChannel connectionToNodeB = SocketChannel.open(nodeB);
+
+        MeshMonitor meshMonitor = mock(MeshMonitor.class);
+        when(meshMonitor.getMembership()).thenReturn(MembershipPayload.EMPTY);
+
+        // When
+        Monitor monitor1 = new Monitor(logger, meshMonitor, timings1, Duration.ofMillis(5), connectionToNodeB, nodeB, MonitorConfig.DEFAULT);
+        monitor1.start();
+
+        Monitor monitor2 = new Monitor(logger, meshMonitor, timings2, Duration.ofMillis(5), nodeAConnection.get(5, TimeUnit.SECONDS), nodeA, MonitorConfig.DEFAULT);
+        monitor2.addPeerCapabilities(PacketSerializer.CAPABILITY_SEQUENCE);
+        monitor2.start();
+
+        // Then
+        await().atMost(Durations.TEN_SECONDS).untilAsserted(() -> {
+            assertThat(monitor1.peerSequencesPings()).isTrue();
+            assertThat(timings1.pingsReceived()).isGreaterThan(10);
+            assertThat(timings2.pingsReceived()).isGreaterThan(10);
+        });
+        assertThat(timings1.pingsSent()).isPositive();
+        assertThat(timings2.pingsSent()).isPositive();
+        assertThat(timings1.pingGaps()).isZero();
+        assertThat(timings2.pingGaps()).isZero();
+        assertThat(timings2.pingsReordered()).isZero();
+
+        IOUtils.closeQuietly(connectionToNodeB);
+        IOUtils.closeQuietly(nodeBChannel);
+    }
+
+    @Test
+    void shouldPadPingsOnlyForPeersThatUnderstandThem() throws IOException, ExecutionException, InterruptedException, TimeoutException {
+        // Given
+        ConsoleLogger logger = ConsoleLoggerTest.loggerForTest();
+        MeshMonitorTimings timings1 = MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT);
+        MeshMonitorTimings timings2 = MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT);
+
+        InetSocketAddress nodeA = address("127.0.0.1");
+        InetSocketAddress nodeB = address("127.0.0.1");
+
+        ServerSocketChannel nodeBChannel = ServerSocketChannel.open();
+        nodeBChannel.socket().bind(nodeB);
+        Future<SocketChannel> nodeAConnection = Executors.newFixedThreadPool(1).submit(nodeBChannel::accept);
+
+        SocketChannel connectionToNodeB = SocketChannel.open(nodeB);
+
+        MeshMonitor meshMonitor = mock(MeshMonitor.class);
+        when(meshMonitor.getMembership()).thenReturn(MembershipPayload.EMPTY);
+
+        // When
+        Monitor monitor1 = new Monitor(logger, meshMonitor, timings1, Duration.ofMillis(5), connectionToNodeB, nodeB,
+                MonitorConfig.DEFAULT.withPayloadSizes(new int[]{64, 16384}));
+        monitor1.start();
+
+        Monitor monitor2 = new Monitor(logger, meshMonitor, timings2, Duration.ofMillis(5), nodeAConnection.get(5, TimeUnit.SECONDS), nodeA, MonitorConfig.DEFAULT);
+        monitor2.addPeerCapabilities(PacketSerializer.CAPABILITY_SEQUENCE | PacketSerializer.CAPABILITY_PADDING);
+        monitor2.start();
+
+        // Then
+        await().atMost(Durations.TEN_SECONDS).untilAsserted(() -> {
+            assertThat(monitor1.peerPadsPings()).isTrue();
+            assertThat(timings2.payloadDeltaHistograms()).containsOnlyKeys(64, 16384);
+            assertThat(timings2.pingsReceived()).isGreaterThan(10);
+        });
+        assertThat(timings1.payloadDeltaHistograms()).isEmpty();
+        assertThat(timings2.pingGaps()).isZero();
+
+        IOUtils.closeQuietly(connectionToNodeB);
+        IOUtils.closeQuietly(nodeBChannel);
+    }
+
     @Test
     void shouldReportDisconnect() throws IOException {
         // Given
         ConsoleLogger logger = ConsoleLoggerTest.loggerForTest();
-        MeshMonitorTimings timings = MeshMonitorTimings.createDefault(logger);
+        MeshMonitorTimings timings = MeshMonitorTimings.create(logger, ServerManagerConfig.DEFAULT);
 
         InetSocketAddress nodeB = address("127.0.0.1");
 
@@ -216,8 +383,8 @@ public class MonitorTest {
                 address("10.1.0.4", 42)
         );
 
-        when(meshMonitor1.getConnections()).thenReturn(ipList);
-        when(meshMonitor2.getConnections()).thenReturn(ipList);
+        when(meshMonitor1.getMembership()).thenReturn(MembershipPayload.encode(ipList));
+        when(meshMonitor2.getMembership()).thenReturn(MembershipPayload.encode(ipList));
 
         // When
         Monitor monitor1 = new Monitor(
@@ -226,7 +393,8 @@ public class MonitorTest {
                 timings,
                 Duration.ofMillis(5),
                 connectionToNodeB,
-                nodeB
+                nodeB,
+                MonitorConfig.DEFAULT
         );
         monitor1.start();
 
@@ -239,7 +407,7 @@ public class MonitorTest {
 
             // This should be invoked by both sending and receiving thread but on some systems
             // does not happen. It's ok for now.
-            verify(meshMonitor1, atLeast(1)).onDisconnect(eq(nodeB), any());
+            verify(meshMonitor1, atLeast(1)).onDisconnect(eq(monitor1), any());
         });
     }
 
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PingScheduleTest {
+
+    private static final long START = 0L;
+    private static final long TICK = 10L;
+    private static final long INTERVAL = 100L;
+
+    @Test
+    void shouldFireAtAbsoluteDeadlinesWithoutDrift() {
+        // Given
+        HashedWheelTimer timer = new HashedWheelTimer(START, TICK, 64);
+        RecordingSchedule schedule = new RecordingSchedule();
+        timer.schedule(schedule, START + 50);
+
+        // When
+        // Timer is advanced late each time, this must not push following deadlines back
+        for (long now = START; now <= START + 1_000; now += 7) {
+            timer.advance(now);
+        }
+
+        // Then
+        assertThat(schedule.deadlines).containsExactlyElementsOf(
+                LongStream.rangeClosed(0, 9)
+                        .map(i -> START + 50 + i * INTERVAL)
+                        .boxed()
+                        .collect(Collectors.toList()));
+        assertThat(schedule.missed).containsOnly(0L);
+    }
+
+    @Test
+    void shouldReportDeadlinesMissedDuringStall() {
+        // Given
+        HashedWheelTimer timer = new HashedWheelTimer(START, TICK, 64);
+        RecordingSchedule schedule = new RecordingSchedule();
+        timer.schedule(schedule, START + 100);
+
+        // When
+        timer.advance(START + 100);
+        timer.advance(START + 450);
+        timer.advance(START + 500);
+
+        // Then
+        assertThat(schedule.deadlines).containsExactly(START + 100, START + 200, START + 500);
+        assertThat(schedule.missed).containsExactly(0L, 2L, 0L);
+    }
+
+    @Test
+    void shouldStaggerFirstDeadlinesAcrossInterval() {
+        // Given
+        StaggeredPhases phases = new StaggeredPhases(START);
+        int connections = 16;
+
+        // When
+        List<Long> phasesWithinInterval = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            long firstDeadline = phases.nextFirstDeadline(START + 1_234, INTERVAL);
+
+            assertThat(firstDeadline).isGreaterThan(START + 1_234);
+            phasesWithinInterval.add((firstDeadline - START) % INTERVAL);
+        }
+
+        // Then
+        // With even spread no two connections should be much closer than interval / connections
+        phasesWithinInterval.sort(Long::compare);
+        for (int i = 1; i < phasesWithinInterval.size(); i++) {
+            assertThat(phasesWithinInterval.get(i) - phasesWithinInterval.get(i - 1))
+                    .isGreaterThanOrEqualTo(INTERVAL / connections / 3);
+        }
+    }
+
+    @Test
+    void shouldApplyAdditionsAndCancellationsInOrder() {
+        // Given
+        PingScheduler scheduler = new PingScheduler();
+        RecordingSchedule cancelled = new RecordingSchedule();
+        RecordingSchedule restarted = new RecordingSchedule();
+
+        // When
+        // All changes are made before the scheduler thread gets to any of them
+        scheduler.schedule(cancelled);
+        scheduler.cancel(cancelled);
+        scheduler.schedule(restarted);
+        scheduler.cancel(restarted);
+        scheduler.schedule(restarted);
+        scheduler.processPendingChanges();
+
+        // Then
+        assertThat(cancelled.isScheduled()).isFalse();
+        assertThat(restarted.isScheduled()).isTrue();
+    }
+
+    private static class RecordingSchedule extends PingSchedule {
+
+        private final List<Long> deadlines = new ArrayList<>();
+        private final List<Long> missed = new ArrayList<>();
+
+        RecordingSchedule() {
+            super(INTERVAL);
+        }
+
+        @Override
+        protected void onPingDue(long deadline, long missedDeadlines) {
+            deadlines.add(deadline);
+            missed.add(missedDeadlines);
+        }
+    }
+}
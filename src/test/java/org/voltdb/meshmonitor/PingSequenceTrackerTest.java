@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PingSequenceTrackerTest {
+
+    private final PingSequenceTracker tracker = new PingSequenceTracker();
+
+    @Test
+    void shouldAcceptConsecutiveSequenceStartingAnywhere() {
+        // When / Then
+        assertThat(tracker.received(1000)).isZero();
+        assertThat(tracker.received(1001)).isZero();
+        assertThat(tracker.received(1002)).isZero();
+    }
+
+    @Test
+    void shouldReportGapsAndReorderedPings() {
+        // When / Then
+        assertThat(tracker.received(0)).isZero();
+        assertThat(tracker.received(3)).isEqualTo(2);
+        assertThat(tracker.received(2)).isEqualTo(PingSequenceTracker.REORDERED);
+        assertThat(tracker.received(4)).isZero();
+        assertThat(tracker.received(4)).isEqualTo(PingSequenceTracker.REORDERED);
+    }
+
+    @Test
+    void shouldFollowSequenceAcrossWrapAround() {
+        // When / Then
+        assertThat(tracker.received(Integer.MAX_VALUE - 1)).isZero();
+        assertThat(tracker.received(Integer.MAX_VALUE)).isZero();
+        assertThat(tracker.received(Integer.MIN_VALUE)).isZero();
+        assertThat(tracker.received(Integer.MIN_VALUE + 2)).isEqualTo(1);
+    }
+}
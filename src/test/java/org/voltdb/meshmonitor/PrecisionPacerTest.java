@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrecisionPacerTest {
+
+    private static final Duration INTERVAL = Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(250));
+
+    @Test
+    void shouldCalibrateSpinWithinBounds() {
+        // When
+        PrecisionPacer pacer = PrecisionPacer.calibrate();
+
+        // Then
+        assertThat(pacer.spinThresholdNanos()).isBetween(PrecisionPacer.MIN_SPIN_NANOS, PrecisionPacer.MAX_SPIN_NANOS);
+        assertThat(pacer.expectedCpuShare(INTERVAL)).isBetween(0.0, 1.0);
+    }
+
+    @Test
+    void shouldNeverSendBeforeDeadline() {
+        // Given
+        MeshMonitorTimings timings = MeshMonitorTimings.create(ConsoleLoggerTest.loggerForTest(), ServerManagerConfig.DEFAULT.withTimingsUnit(TimeUnit.NANOSECONDS));
+        PingPacer.Pacing pacing = new PrecisionPacer(TimeUnit.MICROSECONDS.toNanos(100)).start(INTERVAL, timings);
+
+        // When
+        awaitPing(pacing);
+        long firstPing = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            awaitPing(pacing);
+        }
+        long lastPing = System.nanoTime();
+
+        // Then
+        assertThat(lastPing - firstPing).isGreaterThanOrEqualTo(19 * INTERVAL.toNanos());
+        assertThat(timings.pacingSpinNanos()).isPositive();
+    }
+
+    @Test
+    void shouldReportDeadlinesMissedDuringStall() throws InterruptedException {
+        // Given
+        MeshMonitorTimings timings = MeshMonitorTimings.create(ConsoleLoggerTest.loggerForTest(), ServerManagerConfig.DEFAULT.withTimingsUnit(TimeUnit.NANOSECONDS));
+        PingPacer.Pacing pacing = new PrecisionPacer(TimeUnit.MICROSECONDS.toNanos(100)).start(INTERVAL, timings);
+        awaitPing(pacing);
+
+        // When
+        Thread.sleep(2);
+        awaitPing(pacing);
+
+        // Then
+        assertThat(timings.missedPingDeadlines()).isGreaterThanOrEqualTo(7);
+    }
+
+    private static void awaitPing(PingPacer.Pacing pacing) {
+        while (!pacing.awaitPing()) {
+        }
+    }
+}
@@ -8,8 +8,12 @@
 package org.voltdb.meshmonitor;
 
 import org.junit.jupiter.api.Test;
+import org.voltdb.meshmonitor.serdes.IpPortSerializer;
+import org.voltdb.meshmonitor.serdes.MembershipPayload;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 import java.time.Duration;
 
@@ -34,7 +38,8 @@ class ServerManagerTest {
         ServerManager serverManager = new ServerManager(
                 loggerForTest(),
                 monitorFactory,
-                PING_INTERVAL
+                PING_INTERVAL,
+                ServerManagerConfig.DEFAULT
         );
 
         // When
@@ -54,7 +59,8 @@ class ServerManagerTest {
         ServerManager serverManager = new ServerManager(
                 loggerForTest(),
                 monitorFactory,
-                PING_INTERVAL
+                PING_INTERVAL,
+                ServerManagerConfig.DEFAULT
         );
 
         // When
@@ -84,7 +90,8 @@ class ServerManagerTest {
         ServerManager serverManager = new ServerManager(
                 loggerForTest(),
                 monitorFactory,
-                PING_INTERVAL
+                PING_INTERVAL,
+                ServerManagerConfig.DEFAULT
         );
 
         // When
@@ -98,4 +105,239 @@ class ServerManagerTest {
         assertThat(serverManager.hasConnection(REMOTE_ID_1)).isTrue();
         assertThat(serverManager.hasConnection(REMOTE_ID_2)).isFalse();
     }
+
+    @Test
+    void shouldBumpMembershipVersionWhenConnectionsChange() {
+        // Given
+        MonitorFactory monitorFactory = (logger, meshMonitor, timings, pingInterval, channel, remoteId) -> new FakeMonitor(remoteId);
+        ServerManager serverManager = new ServerManager(
+                loggerForTest(),
+                monitorFactory,
+                PING_INTERVAL,
+                ServerManagerConfig.DEFAULT
+        );
+        long initialVersion = serverManager.getMembershipVersion();
+
+        // When
+        serverManager.createNewMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_1);
+        long afterAdd = serverManager.getMembershipVersion();
+
+        serverManager.createNewMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_1);
+        long afterDuplicate = serverManager.getMembershipVersion();
+
+        serverManager.removeConnection(new FakeMonitor(REMOTE_ID_2));
+        long afterRemovingUnknown = serverManager.getMembershipVersion();
+
+        serverManager.removeConnection(serverManager.getMonitor(REMOTE_ID_1));
+        long afterRemove = serverManager.getMembershipVersion();
+
+        // Then
+        assertThat(afterAdd).isGreaterThan(initialVersion);
+        assertThat(afterDuplicate).isEqualTo(afterAdd);
+        assertThat(afterRemovingUnknown).isEqualTo(afterAdd);
+        assertThat(afterRemove).isGreaterThan(afterAdd);
+    }
+
+    @Test
+    void shouldHandMonitorsCanonicalAddressesMatchingDecodedOnes() throws IOException {
+        // Given
+        MonitorFactory monitorFactory = (logger, meshMonitor, timings, pingInterval, channel, remoteId) -> new FakeMonitor(remoteId);
+        ServerManager serverManager = new ServerManager(
+                loggerForTest(),
+                monitorFactory,
+                PING_INTERVAL,
+                ServerManagerConfig.DEFAULT
+        );
+
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        IpPortSerializer.serialize(buffer, REMOTE_ID_1);
+        buffer.flip();
+
+        // When
+        serverManager.createNewMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_1);
+        InetSocketAddress decoded = IpPortSerializer.deserializeSingleIp(buffer);
+
+        // Then
+        assertThat(serverManager.getConnections()).singleElement().isSameAs(decoded);
+        assertThat(serverManager.hasConnection(decoded)).isTrue();
+    }
+
+    @Test
+    void shouldReplaceStoppedMonitorOfSamePeer() {
+        // Given
+        FakeMonitor stopped = new FakeMonitor(REMOTE_ID_1, false);
+        FakeMonitor replacement = new FakeMonitor(REMOTE_ID_1, true);
+        MonitorFactory monitorFactory = mock(MonitorFactory.class);
+        when(monitorFactory.newMonitor(any(), any(), any(), any(), any(), eq(REMOTE_ID_1))).thenReturn(stopped, replacement);
+
+        ServerManager serverManager = new ServerManager(
+                loggerForTest(),
+                monitorFactory,
+                PING_INTERVAL,
+                ServerManagerConfig.DEFAULT
+        );
+
+        // When
+        boolean first = serverManager.createNewMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_1);
+        boolean second = serverManager.createNewMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_1);
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(serverManager.getMonitors()).containsExactly(replacement);
+        assertThat(serverManager.hasConnection(REMOTE_ID_1)).isTrue();
+
+        assertThat(serverManager.removeConnection(replacement)).isTrue();
+        assertThat(serverManager.getMonitors()).isEmpty();
+        assertThat(serverManager.getConnections()).isEmpty();
+    }
+
+    @Test
+    void shouldNotRemoveReplacementWhenStaleDisconnectArrivesLate() {
+        // Given
+        FakeMonitor stopped = new FakeMonitor(REMOTE_ID_1, false);
+        FakeMonitor replacement = new FakeMonitor(REMOTE_ID_1, true);
+        MonitorFactory monitorFactory = mock(MonitorFactory.class);
+        when(monitorFactory.newMonitor(any(), any(), any(), any(), any(), eq(REMOTE_ID_1))).thenReturn(stopped, replacement);
+
+        ServerManager serverManager = new ServerManager(
+                loggerForTest(),
+                monitorFactory,
+                PING_INTERVAL,
+                ServerManagerConfig.DEFAULT
+        );
+        serverManager.createNewMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_1);
+        serverManager.createNewMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_1);
+        long version = serverManager.getMembershipVersion();
+
+        // When
+        boolean removed = serverManager.removeConnection(stopped);
+
+        // Then
+        assertThat(removed).isFalse();
+        assertThat(serverManager.getMonitor(REMOTE_ID_1)).isSameAs(replacement);
+        assertThat(serverManager.getMonitors()).containsExactly(replacement);
+        assertThat(serverManager.hasConnection(REMOTE_ID_1)).isTrue();
+        assertThat(serverManager.getMembershipVersion()).isEqualTo(version);
+    }
+
+    @Test
+    void shouldNotRemoveReplacementLaneWhenStaleDisconnectArrivesLate() {
+        // Given
+        MonitorFactory monitorFactory = (logger, meshMonitor, timings, pingInterval, channel, remoteId) -> new FakeMonitor(remoteId);
+        ServerManager serverManager = new ServerManager(
+                loggerForTest(),
+                monitorFactory,
+                PING_INTERVAL,
+                ServerManagerConfig.DEFAULT
+        );
+        serverManager.createNewMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_1);
+        serverManager.createLaneMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_1, 1, 0);
+        FakeMonitor stale = (FakeMonitor) serverManager.getLanes(REMOTE_ID_1).get(0);
+        stale.stop();
+        serverManager.createLaneMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_1, 1, 0);
+        Monitor replacement = serverManager.getLanes(REMOTE_ID_1).get(0);
+
+        // When
+        boolean removed = serverManager.removeLane(stale);
+
+        // Then
+        assertThat(removed).isFalse();
+        assertThat(replacement).isNotSameAs(stale);
+        assertThat(serverManager.getLanes(REMOTE_ID_1)).containsExactly(replacement);
+        assertThat(serverManager.hasLane(REMOTE_ID_1, 1)).isTrue();
+    }
+
+    @Test
+    void shouldEncodeMembershipOnlyWhenConnectionsChange() {
+        // Given
+        MonitorFactory monitorFactory = (logger, meshMonitor, timings, pingInterval, channel, remoteId) -> new FakeMonitor(remoteId);
+        ServerManager serverManager = new ServerManager(
+                loggerForTest(),
+                monitorFactory,
+                PING_INTERVAL,
+                ServerManagerConfig.DEFAULT
+        );
+        serverManager.createNewMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_1);
+
+        // When
+        MembershipPayload first = serverManager.getMembership();
+        MembershipPayload unchanged = serverManager.getMembership();
+
+        serverManager.createNewMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_2);
+        MembershipPayload changed = serverManager.getMembership();
+
+        // Then
+        assertThat(first.connections()).containsExactly(REMOTE_ID_1);
+        assertThat(unchanged).isSameAs(first);
+        assertThat(changed.connections()).containsExactly(REMOTE_ID_1, REMOTE_ID_2);
+    }
+
+    @Test
+    void shouldTakeStoppedMonitorOutOfMembershipBeforeItIsRemoved() {
+        // Given
+        FakeMonitor first = new FakeMonitor(REMOTE_ID_1);
+        FakeMonitor second = new FakeMonitor(REMOTE_ID_2);
+        MonitorFactory monitorFactory = mock(MonitorFactory.class);
+        when(monitorFactory.newMonitor(any(), any(), any(), any(), any(), eq(REMOTE_ID_1))).thenReturn(first);
+        when(monitorFactory.newMonitor(any(), any(), any(), any(), any(), eq(REMOTE_ID_2))).thenReturn(second);
+
+        ServerManager serverManager = new ServerManager(
+                loggerForTest(),
+                monitorFactory,
+                PING_INTERVAL,
+                ServerManagerConfig.DEFAULT
+        );
+        serverManager.createNewMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_1);
+        serverManager.createNewMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_2);
+        long version = serverManager.getMembershipVersion();
+
+        // When
+        second.stop();
+        serverManager.monitorStopped(second);
+        MembershipPayload afterStop = serverManager.getMembership();
+
+        // Then
+        assertThat(serverManager.getMonitors()).containsExactly(first);
+        assertThat(serverManager.getConnections()).containsExactly(REMOTE_ID_1);
+        assertThat(afterStop.connections()).containsExactly(REMOTE_ID_1);
+        assertThat(serverManager.getMembership()).isSameAs(afterStop);
+        assertThat(serverManager.getMembershipVersion()).isGreaterThan(version);
+
+        assertThat(serverManager.removeConnection(second)).isTrue();
+        assertThat(serverManager.getMonitors()).containsExactly(first);
+    }
+
+    @Test
+    void shouldKeepLanesApartFromMembership() {
+        // Given
+        MonitorFactory monitorFactory = (logger, meshMonitor, timings, pingInterval, channel, remoteId) -> new FakeMonitor(remoteId);
+        ServerManager serverManager = new ServerManager(
+                loggerForTest(),
+                monitorFactory,
+                PING_INTERVAL,
+                ServerManagerConfig.DEFAULT
+        );
+        serverManager.createNewMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_1);
+        long version = serverManager.getMembershipVersion();
+
+        // When
+        boolean second = serverManager.createLaneMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_1, 2, 0);
+        boolean first = serverManager.createLaneMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_1, 1, 0);
+        boolean duplicate = serverManager.createLaneMonitorIfNotAlreadyPresent(mock(SocketChannel.class), mock(MeshMonitor.class), REMOTE_ID_1, 1, 0);
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(duplicate).isFalse();
+        assertThat(serverManager.getLanes(REMOTE_ID_1)).extracting(Monitor::getLane).containsExactly(1, 2);
+        assertThat(serverManager.getLanes(REMOTE_ID_2)).isEmpty();
+        assertThat(serverManager.getMonitors()).hasSize(1);
+        assertThat(serverManager.getMembershipVersion()).isEqualTo(version);
+
+        assertThat(serverManager.removeLane(serverManager.getLanes(REMOTE_ID_1).get(0))).isTrue();
+        assertThat(serverManager.hasLane(REMOTE_ID_1, 1)).isFalse();
+        assertThat(serverManager.getLanes(REMOTE_ID_1)).extracting(Monitor::getLane).containsExactly(2);
+        assertThat(serverManager.hasConnection(REMOTE_ID_1)).isTrue();
+    }
 }
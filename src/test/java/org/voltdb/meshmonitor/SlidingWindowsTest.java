@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowsTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    void shouldReportValuesOfEveryWindowEndingNow() {
+        // Given
+        SlidingWindows windows = new SlidingWindows(3);
+        long now = TimeUnit.HOURS.toNanos(1);
+
+        // When
+        windows.add(interval(10), now - 10 * MINUTE);
+        windows.add(interval(20), now - 3 * MINUTE);
+        windows.add(interval(30), now - 20 * MINUTE);
+        windows.add(interval(40), now);
+
+        // Then
+        assertThat(window(windows, SlidingWindow.ONE_MINUTE, now).getTotalCount()).isEqualTo(1);
+        assertThat(window(windows, SlidingWindow.FIVE_MINUTES, now).getTotalCount()).isEqualTo(2);
+        assertThat(window(windows, SlidingWindow.FIFTEEN_MINUTES, now).getTotalCount()).isEqualTo(3);
+        assertThat(window(windows, SlidingWindow.FIFTEEN_MINUTES, now).getMinValue()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldForgetSlotsOnceTheRingTurnsOver() {
+        // Given
+        SlidingWindows windows = new SlidingWindows(3);
+        long start = -TimeUnit.HOURS.toNanos(1);
+
+        // When
+        for (long now = start; now < start + 2 * SlidingWindows.SLOTS * SlidingWindows.SLOT_NANOS; now += SlidingWindows.SAMPLE_INTERVAL_NANOS) {
+            windows.add(interval(100), now);
+        }
+        long end = start + 2 * SlidingWindows.SLOTS * SlidingWindows.SLOT_NANOS - SlidingWindows.SAMPLE_INTERVAL_NANOS;
+
+        // Then: 2 complete slots and the one in progress, of 6 samples each
+        long samplesPerSlot = SlidingWindows.SLOT_NANOS / SlidingWindows.SAMPLE_INTERVAL_NANOS;
+        assertThat(window(windows, SlidingWindow.ONE_MINUTE, end).getTotalCount()).isEqualTo(3 * samplesPerSlot);
+        assertThat(window(windows, SlidingWindow.FIFTEEN_MINUTES, end).getTotalCount()).isEqualTo(SlidingWindows.SLOTS * samplesPerSlot);
+        assertThat(window(windows, SlidingWindow.FIFTEEN_MINUTES, end + 30 * MINUTE).getTotalCount()).isZero();
+    }
+
+    @Test
+    void shouldStayWithinFewKilobytesForTypicalValues() {
+        // Given
+        SlidingWindows windows = new SlidingWindows(3);
+
+        // When: a full ring of 30 second slots with pings of a healthy network and an occasional stall
+        for (long now = 0; now < SlidingWindows.SLOTS * SlidingWindows.SLOT_NANOS; now += SlidingWindows.SAMPLE_INTERVAL_NANOS) {
+            Histogram interval = new Histogram(3);
+            for (int i = 0; i < 1000; i++) {
+                interval.recordValue(4800 + i % 400);
+            }
+            interval.recordValue(TimeUnit.MILLISECONDS.toMicros(250));
+            windows.add(interval, now);
+        }
+
+        // Then
+        assertThat(windows.getEstimatedFootprintInBytes()).isLessThan(SlidingWindows.SLOTS * 8 * 1024);
+    }
+
+    private static Histogram interval(long value) {
+        Histogram histogram = new Histogram(3);
+        histogram.recordValue(value);
+        return histogram;
+    }
+
+    private static Histogram window(SlidingWindows windows, SlidingWindow window, long now) {
+        Histogram histogram = new Histogram(3);
+        windows.addTo(histogram, window, now);
+        return histogram;
+    }
+}
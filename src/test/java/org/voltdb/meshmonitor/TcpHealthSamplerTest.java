@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.voltdb.meshmonitor.procfs.ProcNetFixtures;
+import org.voltdb.meshmonitor.procfs.TcpSocketStats;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.voltdb.meshmonitor.ConsoleLoggerTest.loggerForTest;
+
+class TcpHealthSamplerTest {
+
+    private static final InetSocketAddress LOCAL = new InetSocketAddress("192.168.0.3", 12222);
+
+    private final ServerManager serverManager = new ServerManager(
+            loggerForTest(),
+            (logger, meshMonitor, timings, pingInterval, channel, remoteId) -> new FakeMonitor(remoteId, channel),
+            Duration.ofMillis(5),
+            ServerManagerConfig.DEFAULT);
+
+    @Test
+    void shouldAttachSocketStatsToMonitors() throws IOException {
+        // Given
+        InetSocketAddress retransmitting = new InetSocketAddress("192.168.0.4", 12222);
+        InetSocketAddress mapped = new InetSocketAddress("192.168.0.5", 12222);
+        InetSocketAddress missing = new InetSocketAddress("192.168.0.9", 12222);
+
+        connect(retransmitting, new InetSocketAddress("192.168.0.4", 57764));
+        connect(mapped, new InetSocketAddress("192.168.0.5", 45506));
+        connect(missing, new InetSocketAddress("192.168.0.9", 50000));
+
+        TcpHealthSampler sampler = new TcpHealthSampler(
+                loggerForTest(),
+                serverManager,
+                Duration.ofSeconds(1),
+                ProcNetFixtures.directory(),
+                ByteOrder.LITTLE_ENDIAN);
+
+        // When
+        sampler.sample();
+
+        // Then
+        TcpSocketStats retransmittingStats = timingsOf(retransmitting).tcpSocketStats();
+        assertThat(retransmittingStats.sendQueueBytes()).isEqualTo(107184);
+        assertThat(retransmittingStats.retransmits()).isEqualTo(3);
+
+        assertThat(timingsOf(mapped).tcpSocketStats().timer()).isEqualTo(TcpSocketStats.TIMER_ZERO_WINDOW_PROBE);
+        assertThat(timingsOf(missing).tcpSocketStats()).isNull();
+
+        assertThat(timingsOf(retransmitting).hostRetransmittedSegments()).isEqualTo(1337);
+        assertThat(timingsOf(missing).hostRetransmittedSegments()).isEqualTo(1337);
+    }
+
+    @Test
+    void shouldAttachSocketStatsToLanes() throws IOException {
+        // Given
+        InetSocketAddress remoteId = new InetSocketAddress("192.168.0.6", 12222);
+        connect(remoteId, new InetSocketAddress("192.168.0.6", 50000));
+        connectLane(remoteId, 1, new InetSocketAddress("192.168.0.3", 41968));
+
+        TcpHealthSampler sampler = new TcpHealthSampler(
+                loggerForTest(),
+                serverManager,
+                Duration.ofSeconds(1),
+                ProcNetFixtures.directory(),
+                ByteOrder.LITTLE_ENDIAN);
+
+        // When
+        sampler.sample();
+
+        // Then
+        MeshMonitorTimings laneTimings = serverManager.getLanes(remoteId).get(0).getTimings();
+        assertThat(laneTimings.tcpSocketStats().receiveQueueBytes()).isEqualTo(1500);
+        assertThat(laneTimings.hostRetransmittedSegments()).isEqualTo(1337);
+    }
+
+    @Test
+    void shouldNotBeSupportedWithoutSocketTables(@TempDir Path procNet) {
+        // Given
+        TcpHealthSampler sampler = new TcpHealthSampler(
+                loggerForTest(),
+                serverManager,
+                Duration.ofSeconds(1),
+                procNet,
+                ByteOrder.LITTLE_ENDIAN);
+
+        // When / Then
+        assertThat(sampler.isSupported()).isFalse();
+    }
+
+    private void connect(InetSocketAddress remoteId, InetSocketAddress remoteSocket) throws IOException {
+        SocketChannel channel = mock(SocketChannel.class);
+        when(channel.getLocalAddress()).thenReturn(LOCAL);
+        when(channel.getRemoteAddress()).thenReturn(remoteSocket);
+
+        serverManager.createNewMonitorIfNotAlreadyPresent(channel, null, remoteId);
+    }
+
+    private void connectLane(InetSocketAddress remoteId, int lane, InetSocketAddress localSocket) throws IOException {
+        SocketChannel channel = mock(SocketChannel.class);
+        when(channel.getLocalAddress()).thenReturn(localSocket);
+        when(channel.getRemoteAddress()).thenReturn(remoteId);
+
+        serverManager.createLaneMonitorIfNotAlreadyPresent(channel, null, remoteId, lane, 0);
+    }
+
+    private MeshMonitorTimings timingsOf(InetSocketAddress remoteId) {
+        return serverManager.getMonitor(remoteId).getTimings();
+    }
+}
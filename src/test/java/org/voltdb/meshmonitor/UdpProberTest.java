@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor;
+
+import org.awaitility.Durations;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.voltdb.meshmonitor.ConsoleLoggerTest.loggerForTest;
+import static org.voltdb.meshmonitor.MonitorTest.address;
+
+class UdpProberTest {
+
+    private static final Duration PING_INTERVAL = Duration.ofMillis(5);
+
+    private final List<UdpProber> probers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        probers.forEach(UdpProber::close);
+    }
+
+    @Test
+    void shouldMeasureRoundTripBetweenConnectedNodes() throws IOException {
+        // Given
+        InetSocketAddress nodeA = address("127.0.0.1");
+        InetSocketAddress nodeB = address("127.0.0.1");
+
+        ServerManager serverManagerA = serverManagerConnectedTo(nodeB);
+        ServerManager serverManagerB = serverManagerConnectedTo(nodeA);
+
+        // When
+        startProber(serverManagerA, nodeA);
+        startProber(serverManagerB, nodeB);
+
+        // Then
+        MeshMonitorTimings timingsA = serverManagerA.getMonitor(nodeB).getTimings();
+        MeshMonitorTimings timingsB = serverManagerB.getMonitor(nodeA).getTimings();
+        await().atMost(Durations.TEN_SECONDS).untilAsserted(() -> {
+            assertThat(timingsA.udpRepliesReceived()).isGreaterThan(10);
+            assertThat(timingsB.udpRepliesReceived()).isGreaterThan(10);
+        });
+
+        assertThat(timingsA.udpProbesSent()).isGreaterThanOrEqualTo(timingsA.udpRepliesReceived());
+        assertThat(timingsA.udpRoundTripHistogram().getCumulativeHistogram().getTotalCount()).isPositive();
+        assertThat(timingsA.udpProbesLost()).isZero();
+        assertThat(timingsA.udpRepliesReordered()).isZero();
+    }
+
+    @Test
+    void shouldNotReplyToNodesOutsideOfMesh() throws IOException, InterruptedException {
+        // Given
+        InetSocketAddress nodeA = address("127.0.0.1");
+        InetSocketAddress nodeB = address("127.0.0.1");
+
+        ServerManager serverManagerA = serverManagerConnectedTo(nodeB);
+        ServerManager serverManagerB = serverManagerConnectedTo(address("127.0.0.1"));
+
+        // When
+        startProber(serverManagerA, nodeA);
+        startProber(serverManagerB, nodeB);
+
+        // Then
+        MeshMonitorTimings timingsA = serverManagerA.getMonitor(nodeB).getTimings();
+        await().atMost(Durations.TEN_SECONDS).until(() -> timingsA.udpProbesSent() > 10);
+        Thread.sleep(PING_INTERVAL.toMillis() * 4);
+
+        assertThat(timingsA.udpRepliesReceived()).isZero();
+        assertThat(timingsA.udpProbesLost()).isZero();
+    }
+
+    private ServerManager serverManagerConnectedTo(InetSocketAddress remoteId) {
+        ServerManager serverManager = new ServerManager(
+                loggerForTest(),
+                (logger, meshMonitor, timings, pingInterval, channel, id) -> new FakeMonitor(id, timings),
+                PING_INTERVAL,
+                ServerManagerConfig.DEFAULT.withUdp(true));
+        serverManager.createNewMonitorIfNotAlreadyPresent(null, mock(MeshMonitor.class), remoteId);
+
+        return serverManager;
+    }
+
+    private void startProber(ServerManager serverManager, InetSocketAddress bindAddress) throws IOException {
+        UdpProber prober = new UdpProber(loggerForTest(), serverManager, bindAddress, PING_INTERVAL);
+        prober.start();
+        probers.add(prober);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.analyze;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.voltdb.meshmonitor.IntervalLogWriter;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.voltdb.meshmonitor.ConsoleLoggerTest.loggerForTest;
+
+class IntervalLogAnalyzerTest {
+
+    static final String NODE_A = "10.0.0.1:12222";
+    static final String NODE_B = "10.0.0.2:12222";
+    static final String NODE_C = "10.0.0.3:12222";
+    static final long START = 1_700_000_000_000L;
+    static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    @Test
+    void shouldMergeLinksOfAllNodesAndLanes(@TempDir Path directory) throws IOException {
+        // Given
+        writeLog(directory.resolve("a.hlog"), NODE_A, TimeUnit.MICROSECONDS,
+                interval(NODE_B + "/rtt", START, 100),
+                interval(NODE_B + "/rtt/1", START, 500),
+                interval(NODE_C + "/rtt", START, 200),
+                interval(NODE_C + "/receive", START, 900));
+        writeLog(directory.resolve("b/b.hlog"), NODE_B, TimeUnit.NANOSECONDS,
+                interval(NODE_A + "/rtt", START, 300_000));
+
+        // When
+        MeshReport report = analyze(directory, "rtt");
+
+        // Then
+        assertThat(report.files()).isEqualTo(2);
+        assertThat(report.intervals()).isEqualTo(4);
+        assertThat(report.nodes()).containsExactly(NODE_A, NODE_B, NODE_C);
+        assertThat(report.link(NODE_A, NODE_B).getTotalCount()).isEqualTo(2);
+        assertThat(report.link(NODE_A, NODE_B).getMaxValue()).isEqualTo(500);
+        assertThat(report.link(NODE_A, NODE_C).getMaxValue()).isEqualTo(200);
+        assertThat(report.link(NODE_B, NODE_A).getMaxValue()).isEqualTo(300);
+        assertThat(report.link(NODE_C, NODE_A)).isNull();
+    }
+
+    @Test
+    void shouldKeepWorstLinksOfEveryBucket(@TempDir Path directory) throws IOException {
+        // Given
+        writeLog(directory.resolve("a.hlog"), NODE_A, TimeUnit.MICROSECONDS,
+                interval(NODE_B + "/rtt", START, 100),
+                interval(NODE_C + "/rtt", START, 200),
+                interval(NODE_B + "/rtt", START + MINUTE, 700),
+                interval(NODE_C + "/rtt", START + MINUTE, 300));
+        writeLog(directory.resolve("b.hlog"), NODE_B, TimeUnit.MICROSECONDS,
+                interval(NODE_A + "/rtt", START, 400),
+                interval(NODE_A + "/rtt", START + MINUTE, 50));
+
+        // When
+        MeshReport report = analyze(directory, "rtt");
+
+        // Then
+        Map<Long, WorstLinks> timeline = report.timeline();
+        assertThat(timeline).hasSize(2);
+
+        List<WorstLinks.Entry> first = timeline.get(bucketOf(START)).sorted();
+        assertThat(first).extracting(WorstLinks.Entry::link).containsExactly(
+                new Link(NODE_B, NODE_A),
+                new Link(NODE_A, NODE_C));
+        assertThat(first).extracting(WorstLinks.Entry::value).containsExactly(400L, 200L);
+
+        List<WorstLinks.Entry> second = timeline.get(bucketOf(START + MINUTE)).sorted();
+        assertThat(second).extracting(WorstLinks.Entry::link).containsExactly(
+                new Link(NODE_A, NODE_B),
+                new Link(NODE_A, NODE_C));
+    }
+
+    @Test
+    void shouldSkipFilesWithoutNodeAndTruncatedLines(@TempDir Path directory) throws IOException {
+        // Given
+        writeLog(directory.resolve("a.hlog"), NODE_A, TimeUnit.MICROSECONDS,
+                interval(NODE_B + "/rtt", START, 100));
+        Files.write(directory.resolve("a.hlog"),
+                "Tag=10.0.0.2:12222/rtt,1700000060.000,10.000,0.002,HISTFAAAACl4nJNpmSzMwMDAxQABz".getBytes(StandardCharsets.US_ASCII),
+                StandardOpenOption.APPEND);
+        Files.write(directory.resolve("unknown.hlog"), "#[Histogram log format version 1.3]\n".getBytes(StandardCharsets.US_ASCII));
+
+        StringWriter output = new StringWriter();
+        IntervalLogAnalyzer analyzer = new IntervalLogAnalyzer(loggerForTest(output), "rtt", 2);
+
+        // When
+        MeshReport report = analyzer.analyze(IntervalLogAnalyzer.findLogs(directory), new MeshReport(99.9, MINUTE, 3, 3));
+
+        // Then
+        assertThat(report.files()).isEqualTo(1);
+        assertThat(report.intervals()).isEqualTo(1);
+        assertThat(output.toString())
+                .contains("unknown.hlog, it does not name the node")
+                .contains("Skipping the rest of");
+    }
+
+    static MeshReport analyze(Path directory, String metric) throws IOException {
+        IntervalLogAnalyzer analyzer = new IntervalLogAnalyzer(loggerForTest(), metric, 2);
+        return analyzer.analyze(IntervalLogAnalyzer.findLogs(directory), new MeshReport(99.9, MINUTE, 2, 3));
+    }
+
+    static Histogram interval(String tag, long startMillis, long value) {
+        Histogram histogram = new Histogram(3);
+        histogram.recordValue(value);
+        histogram.setTag(tag);
+        histogram.setStartTimeStamp(startMillis);
+        histogram.setEndTimeStamp(startMillis + 10_000);
+
+        return histogram;
+    }
+
+    /**
+     * Writes a log the way {@link IntervalLogWriter} does.
+     */
+    static void writeLog(Path file, String node, TimeUnit unit, Histogram... intervals) throws IOException {
+        Files.createDirectories(file.getParent());
+        double maxValueUnitRatio = unit.convert(1, TimeUnit.SECONDS);
+        try (PrintStream output = new PrintStream(new FileOutputStream(file.toFile()), false, "US-ASCII")) {
+            HistogramLogWriter writer = new HistogramLogWriter(output);
+            writer.outputLogFormatVersion();
+            writer.outputComment(String.format(IntervalLogWriter.NODE_COMMENT, node));
+            writer.outputComment("[Max value unit ratio: " + maxValueUnitRatio + "]");
+            writer.outputStartTime(START);
+            writer.setBaseTime(START);
+            writer.outputBaseTime(START);
+            writer.outputLegend();
+            for (Histogram interval : intervals) {
+                writer.outputIntervalHistogram(
+                        (interval.getStartTimeStamp() - START) / 1000.0,
+                        (interval.getEndTimeStamp() - START) / 1000.0,
+                        interval,
+                        maxValueUnitRatio);
+            }
+        }
+    }
+
+    private static long bucketOf(long startMillis) {
+        long end = startMillis + 10_000;
+        return end - end % MINUTE;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.analyze;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorstLinksTest {
+
+    private static final Link AB = new Link("a", "b");
+    private static final Link AC = new Link("a", "c");
+    private static final Link BA = new Link("b", "a");
+
+    @Test
+    void shouldKeepHighestValueOfEveryLink() {
+        // Given
+        WorstLinks worstLinks = new WorstLinks(2);
+
+        // When
+        worstLinks.offer(AB, 10);
+        worstLinks.offer(AC, 20);
+        worstLinks.offer(AB, 30);
+        worstLinks.offer(AB, 5);
+
+        // Then
+        assertThat(worstLinks.sorted()).extracting(WorstLinks.Entry::link).containsExactly(AB, AC);
+        assertThat(worstLinks.sorted()).extracting(WorstLinks.Entry::value).containsExactly(30L, 20L);
+    }
+
+    @Test
+    void shouldDropLowestLinkWhenFull() {
+        // Given
+        WorstLinks worstLinks = new WorstLinks(2);
+        WorstLinks other = new WorstLinks(2);
+
+        // When
+        worstLinks.offer(AB, 10);
+        worstLinks.offer(AC, 20);
+        worstLinks.offer(BA, 1);
+        other.offer(BA, 15);
+        other.offer(AB, 5);
+        worstLinks.merge(other);
+
+        // Then
+        assertThat(worstLinks.sorted()).extracting(WorstLinks.Entry::link).containsExactly(AC, BA);
+        assertThat(worstLinks.sorted()).extracting(WorstLinks.Entry::value).containsExactly(20L, 15L);
+    }
+}
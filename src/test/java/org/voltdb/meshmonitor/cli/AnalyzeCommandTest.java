@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.cli;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.voltdb.meshmonitor.IntervalLogWriter;
+import picocli.CommandLine;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalyzeCommandTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void shouldPrintMatrixAndTimelineAndWriteCsv(@TempDir Path directory) throws IOException {
+        // Given
+        Path logs = directory.resolve("logs");
+        Path csv = directory.resolve("csv");
+        writeLog(logs.resolve("a.hlog"), "10.0.0.1:12222", interval("10.0.0.2:12222/rtt", 1500));
+        writeLog(logs.resolve("b.hlog"), "10.0.0.2:12222", interval("10.0.0.1:12222/rtt", 1900));
+
+        CommandLine cmd = new CommandLine(new MeshMonitorCommand());
+        StringWriter out = new StringWriter();
+        cmd.setOut(new PrintWriter(out));
+
+        // When
+        int exitCode = cmd.execute("analyze", logs.toString(), "--csv", csv.toString());
+
+        // Then
+        assertThat(exitCode).isZero();
+        assertThat(out.toString())
+                .contains("Read 2 intervals of rtt from 2 files, 2023-11-14T22:13:20Z to 2023-11-14T22:13:30Z")
+                .contains("    1  10.0.0.1:12222")
+                .contains("p99.9 of rtt by node (rows) and peer (columns), ms:")
+                .contains("    1         -     1.500")
+                .contains("    2     1.900         -")
+                .contains("Worst links by p99.9 of rtt every 60s, ms:")
+                .contains("2023-11-14T22:13:00Z  2->1 1.900  1->2 1.500");
+
+        List<String> links = Files.readAllLines(csv.resolve("links.csv"));
+        assertThat(links).containsExactly(
+                "node,peer,metric,count,p50_ms,p90_ms,p99_ms,p99.9_ms,p99.99_ms,max_ms",
+                "10.0.0.1:12222,10.0.0.2:12222,rtt,1,1.500,1.500,1.500,1.500,1.500,1.500",
+                "10.0.0.2:12222,10.0.0.1:12222,rtt,1,1.900,1.900,1.900,1.900,1.900,1.900");
+
+        List<String> timeline = Files.readAllLines(csv.resolve("timeline.csv"));
+        assertThat(timeline).containsExactly(
+                "bucket_start,rank,node,peer,metric,percentile,value_ms",
+                "2023-11-14T22:13:00Z,1,10.0.0.2:12222,10.0.0.1:12222,rtt,99.9,1.900",
+                "2023-11-14T22:13:00Z,2,10.0.0.1:12222,10.0.0.2:12222,rtt,99.9,1.500");
+    }
+
+    @Test
+    void shouldRejectUnknownMetric(@TempDir Path directory) {
+        // Given
+        CommandLine cmd = new CommandLine(new MeshMonitorCommand());
+        StringWriter err = new StringWriter();
+        cmd.setErr(new PrintWriter(err));
+
+        // When
+        int exitCode = cmd.execute("analyze", directory.toString(), "--metric", "ping");
+
+        // Then
+        assertThat(exitCode).isEqualTo(2);
+        assertThat(err.toString()).contains("Invalid argument: Metric must be one of receive, send, delta, one_way, rtt, udp_rtt.");
+    }
+
+    private static Histogram interval(String tag, long value) {
+        Histogram histogram = new Histogram(3);
+        histogram.recordValue(value);
+        histogram.setTag(tag);
+        histogram.setStartTimeStamp(START);
+        histogram.setEndTimeStamp(START + 10_000);
+
+        return histogram;
+    }
+
+    private static void writeLog(Path file, String node, Histogram interval) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (PrintStream output = new PrintStream(new FileOutputStream(file.toFile()), false, "US-ASCII")) {
+            HistogramLogWriter writer = new HistogramLogWriter(output);
+            writer.outputComment(String.format(IntervalLogWriter.NODE_COMMENT, node));
+            writer.setBaseTime(START);
+            writer.outputBaseTime(START);
+            writer.outputLegend();
+            writer.outputIntervalHistogram(0.0, 10.0, interval, 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.cli;
+
+import org.junit.jupiter.api.Test;
+import picocli.CommandLine;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DurationConverterTest {
+
+    private final DurationConverter converter = new DurationConverter();
+
+    @Test
+    public void shouldTreatPlainNumbersAsMilliseconds() {
+        // When
+        Duration result = converter.convert("5");
+
+        // Then
+        assertThat(result).isEqualTo(Duration.ofMillis(5));
+    }
+
+    @Test
+    public void shouldConvertWithUnits() {
+        // When & Then
+        assertThat(converter.convert("250us")).isEqualTo(Duration.ofNanos(250_000));
+        assertThat(converter.convert("250µs")).isEqualTo(Duration.ofNanos(250_000));
+        assertThat(converter.convert("500ns")).isEqualTo(Duration.ofNanos(500));
+        assertThat(converter.convert("10ms")).isEqualTo(Duration.ofMillis(10));
+        assertThat(converter.convert("2s")).isEqualTo(Duration.ofSeconds(2));
+    }
+
+    @Test
+    public void shouldThrowExceptionWithInvalidDuration() {
+        // When & Then
+        assertThatThrownBy(() -> converter.convert("0.5ms"))
+                .isInstanceOf(CommandLine.TypeConversionException.class)
+                .hasMessageContaining("Invalid duration '0.5ms'");
+
+        assertThatThrownBy(() -> converter.convert("5m"))
+                .isInstanceOf(CommandLine.TypeConversionException.class);
+    }
+}
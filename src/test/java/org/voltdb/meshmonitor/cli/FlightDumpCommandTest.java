@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.cli;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.voltdb.meshmonitor.FlightRecorder;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightDumpCommandTest {
+
+    private static final long START = 1_700_000_000_000_000L; // 2023-11-14T22:13:20Z in microseconds
+
+    @Test
+    void shouldPrintSamplesAroundGivenTime(@TempDir Path directory) throws IOException {
+        // Given
+        Path file = directory.resolve("flight");
+        FlightRecorder recorder = FlightRecorder.open(file, 16, TimeUnit.MICROSECONDS);
+        FlightRecorder.Peer peer1 = recorder.peer(new InetSocketAddress("10.0.0.1", 12222), 0);
+        FlightRecorder.Peer peer2 = recorder.peer(new InetSocketAddress("10.0.0.2", 12222), 1);
+        peer1.record(1, START - 10_000_000, START - 9_999_000, 0);
+        peer1.record(2, START - 500, START, 20);
+        peer2.record(-1, START + 1_000, START + 2_500, 0);
+        peer1.record(3, START + 4_000, START + 5_000, 0);
+
+        CommandLine cmd = new CommandLine(new MeshMonitorCommand());
+        StringWriter out = new StringWriter();
+        cmd.setOut(new PrintWriter(out));
+
+        // When
+        int exitCode = cmd.execute("flight-dump", file.toString(), "--at", "2023-11-14T22:13:20Z", "--window", "1s");
+
+        // Then
+        assertThat(exitCode).isZero();
+        assertThat(out.toString())
+                .contains("2023-11-14T22:13:20Z        10.0.0.1:12222            0          2      0.500          -      0.020")
+                .contains("2023-11-14T22:13:20.002500Z 10.0.0.2:12222            1          -      1.500          -      0.000")
+                .contains("2023-11-14T22:13:20.005Z    10.0.0.1:12222            0          3      1.000      5.000      0.000")
+                .contains("Samples: 3")
+                .doesNotContain("22:13:10");
+    }
+
+    @Test
+    void shouldPrintSamplesOfGivenPeerOnly(@TempDir Path directory) throws IOException {
+        // Given
+        Path file = directory.resolve("flight");
+        FlightRecorder recorder = FlightRecorder.open(file, 16, TimeUnit.MICROSECONDS);
+        recorder.peer(new InetSocketAddress("10.0.0.1", 12222), 0).record(1, START, START, 0);
+        recorder.peer(new InetSocketAddress("10.0.0.2", 12222), 0).record(2, START, START, 0);
+
+        CommandLine cmd = new CommandLine(new MeshMonitorCommand());
+        StringWriter out = new StringWriter();
+        cmd.setOut(new PrintWriter(out));
+
+        // When
+        int exitCode = cmd.execute("flight-dump", file.toString(), "--at", "1700000000000", "--peer", "10.0.0.2");
+
+        // Then
+        assertThat(exitCode).isZero();
+        assertThat(out.toString())
+                .contains("10.0.0.2:12222")
+                .doesNotContain("10.0.0.1:12222")
+                .contains("Samples: 1");
+    }
+
+    @Test
+    void shouldRejectInvalidTime(@TempDir Path directory) throws IOException {
+        // Given
+        Path file = directory.resolve("flight");
+        FlightRecorder.open(file, 16, TimeUnit.MICROSECONDS);
+
+        CommandLine cmd = new CommandLine(new MeshMonitorCommand());
+        StringWriter err = new StringWriter();
+        cmd.setErr(new PrintWriter(err));
+
+        // When
+        int exitCode = cmd.execute("flight-dump", file.toString(), "--at", "yesterday");
+
+        // Then
+        assertThat(exitCode).isEqualTo(2);
+        assertThat(err.toString()).contains("Invalid argument: Time yesterday is neither an ISO-8601 instant nor milliseconds since the epoch.");
+    }
+}
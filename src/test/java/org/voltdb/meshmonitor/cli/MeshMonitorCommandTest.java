@@ -37,6 +37,62 @@ class MeshMonitorCommandTest {
                 Arguments.of(
                         "-t=-42",
                         "Invalid argument: Minimum latency to report should be greater than zero."
+                ),
+                Arguments.of(
+                        "--engine=fibers",
+                        "Invalid engine 'fibers', expected one of: threads, event-loop"
+                ),
+                Arguments.of(
+                        "--threads=green",
+                        "Invalid thread type 'green', expected one of: platform, virtual"
+                ),
+                Arguments.of(
+                        "-p=0",
+                        "Invalid argument: Ping interval must be greater than zero."
+                ),
+                Arguments.of(
+                        "-p=250us",
+                        "Invalid argument: Ping intervals below 1ms require --precision."
+                ),
+                Arguments.of(
+                        "--ping=fast",
+                        "Invalid duration 'fast'"
+                ),
+                Arguments.of(
+                        "--max-frame-size=32",
+                        "Invalid argument: Maximum frame size must be between 64 and 1048576 bytes."
+                ),
+                Arguments.of(
+                        "--payload-bytes=1400,0",
+                        "Invalid argument: Payload size must be between 1 and 65536 bytes."
+                ),
+                Arguments.of(
+                        "--lanes=0",
+                        "Invalid argument: Number of lanes must be between 1 and 64."
+                ),
+                Arguments.of(
+                        "--histogram-digits=6",
+                        "Invalid argument: Number of significant digits must be between 1 and 5."
+                ),
+                Arguments.of(
+                        "--histogram-range=500ms",
+                        "Invalid argument: Histogram range must be at least 1s."
+                ),
+                Arguments.of(
+                        "--console-window=1h",
+                        "Invalid window '1h', expected one of: 1m, 5m, 15m"
+                ),
+                Arguments.of(
+                        "--interval-log-file-mib=0",
+                        "Invalid argument: Interval log file size must be at least 1MiB and at most the retention size."
+                ),
+                Arguments.of(
+                        "--interval-log-retention-mib=32",
+                        "Invalid argument: Interval log file size must be at least 1MiB and at most the retention size."
+                ),
+                Arguments.of(
+                        "--interval-log-rotate=500ms",
+                        "Invalid argument: Interval log rotation must be at least 1s."
                 )
         );
     }
@@ -11,8 +11,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.voltdb.meshmonitor.ConsoleLoggerTest;
 import org.voltdb.meshmonitor.MeshMonitorTimings;
+import org.voltdb.meshmonitor.ServerManagerConfig;
 
 import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -24,7 +26,7 @@ public class HistogramPrinterTest {
 
     @BeforeEach
     void setUp() {
-        meshMonitorTimings = MeshMonitorTimings.createDefault(ConsoleLoggerTest.loggerForTest());
+        meshMonitorTimings = MeshMonitorTimings.create(ConsoleLoggerTest.loggerForTest(), ServerManagerConfig.DEFAULT);
     }
 
     @Test
@@ -89,4 +91,42 @@ public class HistogramPrinterTest {
         assertThat(result).contains("meshmonitor_histogram_sum{host_name=\"host_name\",remote_host_name=\"remote_host_com\",} 4665");
         assertThat(result).contains("meshmonitor_histogram_count{host_name=\"host_name\",remote_host_name=\"remote_host_com\",} 3");
     }
+
+    @Test
+    public void shouldUseSameBucketsForNanosecondHistograms() {
+        // Given
+        MeshMonitorTimings nanosecondTimings = MeshMonitorTimings.create(ConsoleLoggerTest.loggerForTest(), ServerManagerConfig.DEFAULT.withTimingsUnit(TimeUnit.NANOSECONDS));
+
+        nanosecondTimings
+                .timestampDeltaHistogram()
+                .recordValueWithExpectedInterval(TimeUnit.MICROSECONDS.toNanos(42), 0);
+
+        nanosecondTimings
+                .timestampDeltaHistogram()
+                .recordValueWithExpectedInterval(TimeUnit.MICROSECONDS.toNanos(420), 0);
+
+        nanosecondTimings
+                .timestampDeltaHistogram()
+                .recordValueWithExpectedInterval(TimeUnit.MICROSECONDS.toNanos(4200), 0);
+
+        HistogramPrinter printer = new HistogramPrinter("host_name");
+        StringBuilder actual = new StringBuilder();
+
+        // When
+        nanosecondTimings
+                .timestampDeltaHistogram()
+                .getCumulativeHistogram(histogram ->
+                        printer.printHistogram(actual, histogram, TimeUnit.NANOSECONDS, REMOTE_ID, "histogram")
+                );
+
+        // Then
+        String result = actual.toString();
+        assertThat(result).contains("meshmonitor_histogram_bucket{host_name=\"host_name\",remote_host_name=\"remote_host_com\",le=\"0.000010\"} 0");
+        assertThat(result).contains("meshmonitor_histogram_bucket{host_name=\"host_name\",remote_host_name=\"remote_host_com\",le=\"0.000100\"} 1");
+        assertThat(result).contains("meshmonitor_histogram_bucket{host_name=\"host_name\",remote_host_name=\"remote_host_com\",le=\"0.000500\"} 2");
+        assertThat(result).contains("meshmonitor_histogram_bucket{host_name=\"host_name\",remote_host_name=\"remote_host_com\",le=\"0.001000\"} 2");
+        assertThat(result).contains("meshmonitor_histogram_bucket{host_name=\"host_name\",remote_host_name=\"remote_host_com\",le=\"0.005000\"} 3");
+        assertThat(result).contains("meshmonitor_histogram_sum{host_name=\"host_name\",remote_host_name=\"remote_host_com\",} 4664");
+        assertThat(result).contains("meshmonitor_histogram_count{host_name=\"host_name\",remote_host_name=\"remote_host_com\",} 3");
+    }
 }
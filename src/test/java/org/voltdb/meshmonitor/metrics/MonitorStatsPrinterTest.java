@@ -9,10 +9,14 @@ package org.voltdb.meshmonitor.metrics;
 
 import org.junit.jupiter.api.Test;
 import org.voltdb.meshmonitor.ConsoleLoggerTest;
+import org.voltdb.meshmonitor.HistogramConfig;
 import org.voltdb.meshmonitor.MeshMonitorTimings;
+import org.voltdb.meshmonitor.ServerManagerConfig;
 import org.voltdb.meshmonitor.Monitor;
+import org.voltdb.meshmonitor.procfs.TcpSocketStats;
 
 import java.net.InetSocketAddress;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -25,10 +29,14 @@ class MonitorStatsPrinterTest {
     @Test
     void shouldPrintOutputOfAllHistograms() {
         // Given
-        MeshMonitorTimings timings = MeshMonitorTimings.createDefault(ConsoleLoggerTest.loggerForTest());
+        MeshMonitorTimings timings = MeshMonitorTimings.create(ConsoleLoggerTest.loggerForTest(), ServerManagerConfig.DEFAULT);
         timings.jitterHistogram().recordValueWithExpectedInterval(5, 5);
         timings.timestampDeltaHistogram().recordValueWithExpectedInterval(15, 15);
         timings.pingHistogram().recordValueWithExpectedInterval(42, 42);
+        timings.echoReceived(0, 0, 0, 84);
+        timings.pingDeadlinesMissed(3);
+        timings.pingSent();
+        timings.pingGaps(2);
 
         MonitorStatsPrinter printer = new MonitorStatsPrinter("host");
 
@@ -50,6 +58,219 @@ class MonitorStatsPrinterTest {
                 .contains("meshmonitor_delta_seconds_bucket{host_name=\"host\",remote_host_name=\"remote_host_com\",le=\"0.000100\"} 1")
                 .contains("meshmonitor_delta_seconds_sum{host_name=\"host\",remote_host_name=\"remote_host_com\",} 15")
                 .contains("meshmonitor_send_seconds_bucket{host_name=\"host\",remote_host_name=\"remote_host_com\",le=\"0.000010\"} 1")
-                .contains("meshmonitor_send_seconds_sum{host_name=\"host\",remote_host_name=\"remote_host_com\",} 5");
+                .contains("meshmonitor_send_seconds_sum{host_name=\"host\",remote_host_name=\"remote_host_com\",} 5")
+                .contains("meshmonitor_rtt_seconds_bucket{host_name=\"host\",remote_host_name=\"remote_host_com\",le=\"0.000100\"} 1")
+                .contains("meshmonitor_rtt_seconds_sum{host_name=\"host\",remote_host_name=\"remote_host_com\",} 84")
+                .contains("meshmonitor_pings_sent_total{host_name=\"host\",remote_host_name=\"remote_host_com\",} 1")
+                .contains("meshmonitor_pings_received_total{host_name=\"host\",remote_host_name=\"remote_host_com\",} 0")
+                .contains("meshmonitor_pings_late_total{host_name=\"host\",remote_host_name=\"remote_host_com\",} 0")
+                .contains("meshmonitor_ping_gaps_total{host_name=\"host\",remote_host_name=\"remote_host_com\",} 2")
+                .contains("meshmonitor_pings_reordered_total{host_name=\"host\",remote_host_name=\"remote_host_com\",} 0")
+                .contains("meshmonitor_missed_ping_deadlines_total{host_name=\"host\",remote_host_name=\"remote_host_com\",} 3");
+    }
+
+    @Test
+    void shouldPrintClockOffsetOnceEstimated() {
+        // Given
+        MeshMonitorTimings timings = MeshMonitorTimings.create(ConsoleLoggerTest.loggerForTest(), ServerManagerConfig.DEFAULT);
+        MonitorStatsPrinter printer = new MonitorStatsPrinter("host");
+
+        Monitor monitor = mock(Monitor.class);
+        when(monitor.getTimings()).thenReturn(timings);
+        when(monitor.getRemoteId()).thenReturn(REMOTE_ID);
+
+        StringBuilder beforeEcho = new StringBuilder();
+        StringBuilder afterEcho = new StringBuilder();
+
+        // When
+        printer.print(beforeEcho, monitor);
+        timings.echoReceived(0, 1_500, 1_500, 1_000);
+        printer.print(afterEcho, monitor);
+
+        // Then
+        assertThat(beforeEcho)
+                .doesNotContain("clock_offset")
+                .doesNotContain("one_way_delay");
+        assertThat(afterEcho)
+                .contains("# TYPE meshmonitor_clock_offset_seconds gauge")
+                .contains("meshmonitor_clock_offset_seconds{host_name=\"host\",remote_host_name=\"remote_host_com\",} 0.001000")
+                .contains("# TYPE meshmonitor_one_way_delay_seconds histogram")
+                .contains("meshmonitor_one_way_delays_below_zero_total{host_name=\"host\",remote_host_name=\"remote_host_com\",} 0");
+    }
+
+    @Test
+    void shouldPrintUdpProbesOnlyOnceSent() {
+        // Given
+        MeshMonitorTimings timings = MeshMonitorTimings.create(ConsoleLoggerTest.loggerForTest(), ServerManagerConfig.DEFAULT.withUdp(true));
+        MonitorStatsPrinter printer = new MonitorStatsPrinter("host");
+
+        Monitor monitor = mock(Monitor.class);
+        when(monitor.getTimings()).thenReturn(timings);
+        when(monitor.getRemoteId()).thenReturn(REMOTE_ID);
+
+        StringBuilder beforeProbes = new StringBuilder();
+        StringBuilder afterProbes = new StringBuilder();
+
+        // When
+        printer.print(beforeProbes, monitor);
+        timings.udpProbeSent();
+        timings.udpProbeSent();
+        timings.udpProbeSent();
+        timings.udpReplyReceived(42, 0);
+        timings.udpReplyReceived(42, 1);
+        printer.print(afterProbes, monitor);
+
+        // Then
+        assertThat(beforeProbes).doesNotContain("udp_");
+        assertThat(afterProbes)
+                .contains("meshmonitor_udp_rtt_seconds_sum{host_name=\"host\",remote_host_name=\"remote_host_com\",} 84")
+                .contains("meshmonitor_udp_probes_sent_total{host_name=\"host\",remote_host_name=\"remote_host_com\",} 3")
+                .contains("meshmonitor_udp_replies_received_total{host_name=\"host\",remote_host_name=\"remote_host_com\",} 2")
+                .contains("meshmonitor_udp_probes_lost_total{host_name=\"host\",remote_host_name=\"remote_host_com\",} 1")
+                .contains("meshmonitor_udp_replies_reordered_total{host_name=\"host\",remote_host_name=\"remote_host_com\",} 0");
+    }
+
+    @Test
+    void shouldPrintTcpHealthOnceSampled() {
+        // Given
+        MeshMonitorTimings timings = MeshMonitorTimings.create(ConsoleLoggerTest.loggerForTest(), ServerManagerConfig.DEFAULT);
+        MonitorStatsPrinter printer = new MonitorStatsPrinter("host");
+
+        Monitor monitor = mock(Monitor.class);
+        when(monitor.getTimings()).thenReturn(timings);
+        when(monitor.getRemoteId()).thenReturn(REMOTE_ID);
+
+        StringBuilder beforeSample = new StringBuilder();
+        StringBuilder afterSample = new StringBuilder();
+
+        // When
+        printer.print(beforeSample, monitor);
+        timings.tcpHealthSampled(new TcpSocketStats(1, 4096, 0, TcpSocketStats.TIMER_RETRANSMIT, 2), 1337);
+        printer.print(afterSample, monitor);
+
+        // Then
+        assertThat(beforeSample).doesNotContain("tcp_");
+        assertThat(afterSample)
+                .contains("meshmonitor_tcp_send_queue_bytes{host_name=\"host\",remote_host_name=\"remote_host_com\",} 4096.000000")
+                .contains("meshmonitor_tcp_retransmitting{host_name=\"host\",remote_host_name=\"remote_host_com\",} 1.000000")
+                .contains("meshmonitor_tcp_unrecovered_retransmits{host_name=\"host\",remote_host_name=\"remote_host_com\",} 2.000000")
+                .contains("meshmonitor_tcp_host_retransmitted_segments_total{host_name=\"host\",remote_host_name=\"remote_host_com\",} 1337");
+    }
+
+    @Test
+    void shouldPrintDeltaOfPaddedPingsBySize() {
+        // Given
+        MeshMonitorTimings timings = MeshMonitorTimings.create(ConsoleLoggerTest.loggerForTest(), ServerManagerConfig.DEFAULT);
+        timings.pingReceived(10_000, 5_000, 10_000, 9_980, 5_000, 1400);
+        timings.pingReceived(15_000, 10_000, 15_000, 14_940, 5_000, 9000);
+
+        MonitorStatsPrinter printer = new MonitorStatsPrinter("host");
+
+        Monitor monitor = mock(Monitor.class);
+        when(monitor.getTimings()).thenReturn(timings);
+        when(monitor.getRemoteId()).thenReturn(REMOTE_ID);
+
+        StringBuilder actual = new StringBuilder();
+
+        // When
+        printer.print(actual, monitor);
+
+        // Then
+        assertThat(actual)
+                .contains("meshmonitor_payload_delta_seconds_bucket{host_name=\"host\",remote_host_name=\"remote_host_com\",payload_bytes=\"1400\",le=\"0.000100\"} 1")
+                .contains("meshmonitor_payload_delta_seconds_sum{host_name=\"host\",remote_host_name=\"remote_host_com\",payload_bytes=\"1400\",} 20")
+                .contains("meshmonitor_payload_delta_seconds_sum{host_name=\"host\",remote_host_name=\"remote_host_com\",payload_bytes=\"9000\",} 60");
+    }
+
+    @Test
+    void shouldPrintEveryLaneWithLaneLabel() {
+        // Given
+        MonitorStatsPrinter printer = new MonitorStatsPrinter("host");
+        Monitor firstLane = laneMonitor(0, 20);
+        Monitor secondLane = laneMonitor(1, 60);
+
+        StringBuilder single = new StringBuilder();
+        StringBuilder actual = new StringBuilder();
+
+        // When
+        printer.printLanes(single, firstLane, List.of());
+        printer.printLanes(actual, firstLane, List.of(secondLane));
+
+        // Then
+        assertThat(single).isEmpty();
+        assertThat(actual)
+                .contains("meshmonitor_lane_delta_seconds_sum{host_name=\"host\",remote_host_name=\"remote_host_com\",lane=\"0\",} 20")
+                .contains("meshmonitor_lane_delta_seconds_sum{host_name=\"host\",remote_host_name=\"remote_host_com\",lane=\"1\",} 60")
+                .contains("meshmonitor_lane_receive_seconds_count{host_name=\"host\",remote_host_name=\"remote_host_com\",lane=\"1\",}")
+                .contains("meshmonitor_lane_rtt_seconds_count{host_name=\"host\",remote_host_name=\"remote_host_com\",lane=\"1\",}");
+    }
+
+    private static Monitor laneMonitor(int lane, long delta) {
+        MeshMonitorTimings timings = MeshMonitorTimings.create(ConsoleLoggerTest.loggerForTest(), ServerManagerConfig.DEFAULT);
+        timings.pingReceived(10_000, 5_000, 10_000, 10_000 - delta, 5_000);
+
+        Monitor monitor = mock(Monitor.class);
+        when(monitor.getTimings()).thenReturn(timings);
+        when(monitor.getRemoteId()).thenReturn(REMOTE_ID);
+        when(monitor.getLane()).thenReturn(lane);
+
+        return monitor;
+    }
+
+    @Test
+    void shouldPrintSameOutputWithCompactHistograms() {
+        // Given
+        MeshMonitorTimings defaultTimings = MeshMonitorTimings.create(ConsoleLoggerTest.loggerForTest(), ServerManagerConfig.DEFAULT);
+        MeshMonitorTimings compactTimings = MeshMonitorTimings.create(ConsoleLoggerTest.loggerForTest(), ServerManagerConfig.DEFAULT.withHistogramConfig(HistogramConfig.compact()));
+        for (MeshMonitorTimings timings : List.of(defaultTimings, compactTimings)) {
+            timings.pingReceived(10_000, 5_000, 10_000, 9_980, 5_000);
+            timings.pingReceived(2_015_000, 10_000, 2_015_000, 2_014_000, 5_000);
+            timings.echoReceived(0, 0, 0, 30_000_000);
+        }
+
+        MonitorStatsPrinter printer = new MonitorStatsPrinter("host");
+        StringBuilder defaultOutput = new StringBuilder();
+        StringBuilder compactOutput = new StringBuilder();
+
+        // When
+        printer.print(defaultOutput, monitorWith(defaultTimings));
+        printer.print(compactOutput, monitorWith(compactTimings));
+
+        // Then
+        assertThat(compactOutput.toString()).isEqualTo(defaultOutput.toString());
+        assertThat(compactTimings.getEstimatedFootprintInBytes()).isLessThan(defaultTimings.getEstimatedFootprintInBytes() / 4);
+    }
+
+    @Test
+    void shouldPrintPercentilesOfEveryWindow() {
+        // Given
+        MeshMonitorTimings timings = MeshMonitorTimings.create(ConsoleLoggerTest.loggerForTest(), ServerManagerConfig.DEFAULT);
+        timings.pingHistogram().recordValueWithExpectedInterval(42, 42);
+        timings.echoReceived(0, 0, 0, 84);
+
+        MonitorStatsPrinter printer = new MonitorStatsPrinter("host");
+        StringBuilder actual = new StringBuilder();
+
+        // When
+        printer.print(actual, monitorWith(timings));
+
+        // Then
+        assertThat(actual)
+                .contains("# TYPE meshmonitor_receive_window_seconds summary")
+                .contains("meshmonitor_receive_window_seconds{host_name=\"host\",remote_host_name=\"remote_host_com\",window=\"1m\",quantile=\"0.999\"} 0.000042")
+                .contains("meshmonitor_receive_window_seconds{host_name=\"host\",remote_host_name=\"remote_host_com\",window=\"15m\",quantile=\"1.0\"} 0.000042")
+                .contains("meshmonitor_receive_window_seconds_sum{host_name=\"host\",remote_host_name=\"remote_host_com\",window=\"5m\",} 42")
+                .contains("meshmonitor_receive_window_seconds_count{host_name=\"host\",remote_host_name=\"remote_host_com\",window=\"5m\",} 1")
+                .contains("meshmonitor_rtt_window_seconds{host_name=\"host\",remote_host_name=\"remote_host_com\",window=\"5m\",quantile=\"0.5\"} 0.000084")
+                .contains("meshmonitor_send_window_seconds_count{host_name=\"host\",remote_host_name=\"remote_host_com\",window=\"1m\",} 0")
+                .doesNotContain("udp_rtt_window_seconds");
+    }
+
+    private static Monitor monitorWith(MeshMonitorTimings timings) {
+        Monitor monitor = mock(Monitor.class);
+        when(monitor.getTimings()).thenReturn(timings);
+        when(monitor.getRemoteId()).thenReturn(REMOTE_ID);
+
+        return monitor;
     }
 }
@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.procfs;
+
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Copies of {@code /proc/net} files taken on a little endian host, in {@code src/test/resources/procfs}.
+ */
+public final class ProcNetFixtures {
+
+    private ProcNetFixtures() {
+    }
+
+    public static Path directory() {
+        try {
+            return Paths.get(ProcNetFixtures.class.getResource("/procfs").toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static Path fixture(String name) {
+        return directory().resolve(name);
+    }
+}
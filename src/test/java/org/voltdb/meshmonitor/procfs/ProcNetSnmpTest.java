@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.procfs;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.voltdb.meshmonitor.procfs.ProcNetFixtures.fixture;
+
+class ProcNetSnmpTest {
+
+    @Test
+    void shouldReadRetransmittedSegments() throws IOException {
+        // Given
+        try (BufferedReader snmp = Files.newBufferedReader(fixture("snmp"), StandardCharsets.US_ASCII)) {
+
+            // When
+            long retransmittedSegments = ProcNetSnmp.retransmittedSegments(snmp);
+
+            // Then
+            assertThat(retransmittedSegments).isEqualTo(1337);
+        }
+    }
+
+    @Test
+    void shouldReturnMinusOneWithoutTcpCounters() throws IOException {
+        // Given
+        BufferedReader snmp = new BufferedReader(new StringReader("Udp: InDatagrams NoPorts\nUdp: 41230 12\n"));
+
+        // When
+        long retransmittedSegments = ProcNetSnmp.retransmittedSegments(snmp);
+
+        // Then
+        assertThat(retransmittedSegments).isEqualTo(-1);
+    }
+}
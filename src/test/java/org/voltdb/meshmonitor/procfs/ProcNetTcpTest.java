@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.procfs;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.voltdb.meshmonitor.procfs.ProcNetFixtures.fixture;
+
+class ProcNetTcpTest {
+
+    private static final InetSocketAddress LOCAL = new InetSocketAddress("192.168.0.3", 12222);
+
+    @Test
+    void shouldEncodeKeysTheWayKernelPrintsThem() {
+        // Given
+        InetSocketAddress remote = new InetSocketAddress("192.168.0.2", 50642);
+
+        // When
+        List<String> littleEndian = ProcNetTcp.keys(LOCAL, remote, ByteOrder.LITTLE_ENDIAN);
+        List<String> bigEndian = ProcNetTcp.keys(LOCAL, remote, ByteOrder.BIG_ENDIAN);
+
+        // Then
+        assertThat(littleEndian).containsExactly(
+                "0300A8C0:2FBE 0200A8C0:C5D2",
+                "0000000000000000FFFF00000300A8C0:2FBE 0000000000000000FFFF00000200A8C0:C5D2");
+        assertThat(bigEndian).containsExactly(
+                "C0A80003:2FBE C0A80002:C5D2",
+                "00000000000000000000FFFFC0A80003:2FBE 00000000000000000000FFFFC0A80002:C5D2");
+    }
+
+    @Test
+    void shouldEncodeOnlyOneKeyForIpv6() {
+        // Given
+        InetSocketAddress local = new InetSocketAddress("2001:db8::1", 12222);
+        InetSocketAddress remote = new InetSocketAddress("2001:db8::2", 40000);
+
+        // When
+        List<String> keys = ProcNetTcp.keys(local, remote, ByteOrder.LITTLE_ENDIAN);
+
+        // Then
+        assertThat(keys).containsExactly("B80D0120000000000000000001000000:2FBE B80D0120000000000000000002000000:9C40");
+    }
+
+    @Test
+    void shouldReadOnlyRequestedSockets() throws IOException {
+        // Given
+        Map<String, String> sockets = new HashMap<>();
+        addKeys(sockets, "healthy", new InetSocketAddress("192.168.0.2", 50642));
+        addKeys(sockets, "retransmitting", new InetSocketAddress("192.168.0.4", 57764));
+        addKeys(sockets, "unknown", new InetSocketAddress("192.168.0.9", 50642));
+        sockets.put(ProcNetTcp.keys(
+                new InetSocketAddress("192.168.0.3", 41968),
+                new InetSocketAddress("192.168.0.6", 12222),
+                ByteOrder.LITTLE_ENDIAN).get(0), "connected");
+
+        Map<String, TcpSocketStats> read = new HashMap<>();
+
+        // When
+        try (BufferedReader table = Files.newBufferedReader(fixture("tcp"), StandardCharsets.US_ASCII)) {
+            ProcNetTcp.read(table, sockets, read::put);
+        }
+
+        // Then
+        assertThat(read).containsOnlyKeys("healthy", "retransmitting", "connected");
+
+        TcpSocketStats healthy = read.get("healthy");
+        assertThat(healthy.state()).isEqualTo(1);
+        assertThat(healthy.sendQueueBytes()).isZero();
+        assertThat(healthy.isRetransmitting()).isFalse();
+
+        TcpSocketStats retransmitting = read.get("retransmitting");
+        assertThat(retransmitting.sendQueueBytes()).isEqualTo(107184);
+        assertThat(retransmitting.timer()).isEqualTo(TcpSocketStats.TIMER_RETRANSMIT);
+        assertThat(retransmitting.retransmits()).isEqualTo(3);
+        assertThat(retransmitting.isRetransmitting()).isTrue();
+
+        TcpSocketStats connected = read.get("connected");
+        assertThat(connected.receiveQueueBytes()).isEqualTo(1500);
+        assertThat(connected.timer()).isEqualTo(TcpSocketStats.TIMER_KEEPALIVE);
+        assertThat(connected.isRetransmitting()).isFalse();
+    }
+
+    @Test
+    void shouldReadMappedAndIpv6SocketsOfTcp6() throws IOException {
+        // Given
+        Map<String, String> sockets = new HashMap<>();
+        addKeys(sockets, "mapped", new InetSocketAddress("192.168.0.5", 45506));
+        for (String key : ProcNetTcp.keys(
+                new InetSocketAddress("2001:db8::1", 12222),
+                new InetSocketAddress("2001:db8::2", 40000),
+                ByteOrder.LITTLE_ENDIAN)) {
+            sockets.put(key, "ipv6");
+        }
+
+        Map<String, TcpSocketStats> read = new HashMap<>();
+
+        // When
+        try (BufferedReader table = Files.newBufferedReader(fixture("tcp6"), StandardCharsets.US_ASCII)) {
+            ProcNetTcp.read(table, sockets, read::put);
+        }
+
+        // Then
+        assertThat(read).containsOnlyKeys("mapped", "ipv6");
+        assertThat(read.get("mapped").timer()).isEqualTo(TcpSocketStats.TIMER_ZERO_WINDOW_PROBE);
+        assertThat(read.get("mapped").isRetransmitting()).isTrue();
+        assertThat(read.get("ipv6").sendQueueBytes()).isEqualTo(200);
+    }
+
+    private static void addKeys(Map<String, String> sockets, String name, InetSocketAddress remote) {
+        for (String key : ProcNetTcp.keys(LOCAL, remote, ByteOrder.LITTLE_ENDIAN)) {
+            sockets.put(key, name);
+        }
+    }
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.serdes;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.voltdb.meshmonitor.testutils.FakeWritableByteChannel;
+import org.voltdb.meshmonitor.testutils.LoopbackByteChannel;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.voltdb.meshmonitor.testutils.FileChannelUtils.newLoopbackChannel;
+import static org.voltdb.meshmonitor.testutils.FileChannelUtils.newReadableChannel;
+import static org.voltdb.meshmonitor.testutils.FileChannelUtils.newWritableChannel;
+
+class FrameReaderTest {
+
+    private static final List<InetSocketAddress> SERVERS = List.of(
+            new InetSocketAddress("10.1.0.2", 8080),
+            new InetSocketAddress("2001:db8::1", 8081));
+
+    static Stream<Arguments> pingTestCases() {
+        return Stream.of(
+                Arguments.of("Ping message with empty IP list",
+                        false,
+                        List.of()
+                ),
+                Arguments.of("Ping message with empty IP list (slow connection)",
+                        true,
+                        List.of()
+                ),
+                Arguments.of("Ping message with single IP",
+                        false,
+                        List.of(new InetSocketAddress("127.0.0.1", 8080))
+                ),
+                Arguments.of("Ping message with single IP (slow connection)",
+                        true,
+                        List.of(new InetSocketAddress("127.0.0.1", 8080))
+                ),
+                Arguments.of("Ping message with many IPs",
+                        false,
+                        List.of(new InetSocketAddress("2001:db8::1", 8081),
+                                new InetSocketAddress("127.0.0.1", 8082),
+                                new InetSocketAddress("10.2.0.1", 8083))
+                ),
+                Arguments.of("Ping message with many IPs (slow connection)",
+                        true,
+                        List.of(new InetSocketAddress("2001:db8::1", 8081),
+                                new InetSocketAddress("127.0.0.1", 8082),
+                                new InetSocketAddress("10.2.0.1", 8083))
+                )
+        );
+    }
+
+    @Test
+    void shouldReadPingOfOlderNode() throws IOException {
+        // Given
+        ByteBuffer frame = ByteBuffer.allocate(128);
+        PacketSerializer.writePing(frame, 42L, MembershipPayload.encode(SERVERS).view());
+        ConnectionBuffers buffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        List<List<InetSocketAddress>> received = new ArrayList<>();
+
+        // When
+        FrameReader reader = new FrameReader().wrap(body(frame));
+        PacketSerializer.readMembership(reader.membership(), buffers, received::add);
+
+        // Then
+        assertThat(reader.type()).isEqualTo(PacketSerializer.LEGACY_PING_FRAME);
+        assertThat(reader.isPing()).isTrue();
+        assertThat(reader.isSequenced()).isFalse();
+        assertThat(reader.payloadSize()).isZero();
+        assertThat(reader.timestamp()).isEqualTo(42L);
+        assertThat(received).containsExactly(SERVERS);
+    }
+
+    @Test
+    void shouldReadPaddedPingWithoutPayloadInMembership() throws IOException {
+        // Given
+        ByteBuffer frame = ByteBuffer.allocate(256);
+        ByteBuffer payload = ByteBuffer.allocate(100);
+        PacketSerializer.writePing(frame, 7, 42L, MembershipPayload.encode(SERVERS).view(), payload);
+        ConnectionBuffers buffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        List<List<InetSocketAddress>> received = new ArrayList<>();
+
+        // When
+        FrameReader reader = new FrameReader().wrap(body(frame));
+        PacketSerializer.readMembership(reader.membership(), buffers, received::add);
+
+        // Then
+        assertThat(reader.isPing()).isTrue();
+        assertThat(reader.isPadded()).isTrue();
+        assertThat(reader.sequence()).isEqualTo(7);
+        assertThat(reader.payloadSize()).isEqualTo(100);
+        assertThat(reader.timestamp()).isEqualTo(42L);
+        assertThat(received).containsExactly(SERVERS);
+    }
+
+    @Test
+    void shouldReadEcho() throws IOException {
+        // Given
+        ByteBuffer frame = ByteBuffer.allocate(PacketSerializer.ECHO_FRAME_SIZE);
+        PacketSerializer.writeEcho(frame, 1L, 2L, 3L);
+
+        // When
+        FrameReader reader = new FrameReader().wrap(body(frame));
+
+        // Then
+        assertThat(reader.isEcho()).isTrue();
+        assertThat(reader.isPing()).isFalse();
+        assertThat(reader.timestamp()).isEqualTo(1L);
+        assertThat(reader.echoReceiveTimestamp()).isEqualTo(2L);
+        assertThat(reader.echoTransmitTimestamp()).isEqualTo(3L);
+    }
+
+    @Test
+    void shouldTellEchoesAndPingsApart() throws IOException {
+        // Given
+        LoopbackByteChannel channel = newLoopbackChannel();
+        ConnectionBuffers senderBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        ConnectionBuffers receiverBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        FrameReader reader = new FrameReader();
+        long timestamp = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+
+        // When
+        PacketSerializer.sendPing(channel, senderBuffers, timestamp, MembershipPayload.EMPTY.view());
+        reader.wrap(PacketSerializer.receiveFrame(channel, receiverBuffers));
+        boolean pingIsEcho = reader.isEcho();
+        long pingTimestamp = reader.timestamp();
+
+        PacketSerializer.sendEcho(channel, receiverBuffers, pingTimestamp, timestamp + 5, timestamp + 7);
+        reader.wrap(PacketSerializer.receiveFrame(channel, senderBuffers));
+
+        // Then
+        assertThat(pingIsEcho).isFalse();
+        assertThat(reader.isEcho()).isTrue();
+        assertThat(reader.timestamp()).isEqualTo(timestamp);
+        assertThat(reader.echoReceiveTimestamp()).isEqualTo(timestamp + 5);
+        assertThat(reader.echoTransmitTimestamp()).isEqualTo(timestamp + 7);
+    }
+
+    @Test
+    void shouldReadSequencedPing() throws IOException {
+        // Given
+        LoopbackByteChannel channel = newLoopbackChannel();
+        ConnectionBuffers senderBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        ConnectionBuffers receiverBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        List<InetSocketAddress> servers = List.of(new InetSocketAddress("10.2.0.1", 8083));
+        List<List<InetSocketAddress>> received = new ArrayList<>();
+
+        // When
+        PacketSerializer.sendPing(channel, senderBuffers, -7, 42L, MembershipPayload.encode(servers).view());
+        FrameReader reader = new FrameReader().wrap(PacketSerializer.receiveFrame(channel, receiverBuffers));
+        PacketSerializer.readMembership(reader.membership(), receiverBuffers, received::add);
+
+        // Then
+        assertThat(reader.isEcho()).isFalse();
+        assertThat(reader.isSequenced()).isTrue();
+        assertThat(reader.isPadded()).isFalse();
+        assertThat(reader.sequence()).isEqualTo(-7);
+        assertThat(reader.timestamp()).isEqualTo(42L);
+        assertThat(received).containsExactly(servers);
+    }
+
+    @Test
+    void shouldReadPaddedPingSentWithPayloadOfConnection() throws IOException {
+        // Given
+        LoopbackByteChannel channel = newLoopbackChannel();
+        ConnectionBuffers senderBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[]{1400});
+        ConnectionBuffers receiverBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        List<InetSocketAddress> servers = List.of(new InetSocketAddress("10.2.0.1", 8083));
+        List<List<InetSocketAddress>> received = new ArrayList<>();
+
+        // When
+        PacketSerializer.sendPing(channel, senderBuffers, 7, 42L, MembershipPayload.encode(servers).view(), senderBuffers.nextPayload());
+        ByteBuffer ping = PacketSerializer.receiveFrame(channel, receiverBuffers);
+        int frameSize = ping.remaining();
+        FrameReader reader = new FrameReader().wrap(ping);
+        PacketSerializer.readMembership(reader.membership(), receiverBuffers, received::add);
+
+        // Then
+        assertThat(reader.isSequenced()).isTrue();
+        assertThat(reader.isPadded()).isTrue();
+        assertThat(frameSize).isEqualTo(PacketSerializer.PADDED_PING_HEADER_SIZE - Integer.BYTES + 7 + 1400);
+        assertThat(reader.sequence()).isEqualTo(7);
+        assertThat(reader.payloadSize()).isEqualTo(1400);
+        assertThat(reader.timestamp()).isEqualTo(42L);
+        assertThat(received).containsExactly(servers);
+    }
+
+    @MethodSource("pingTestCases")
+    @ParameterizedTest(name = "{0}")
+    void shouldReadPingWrittenToChannel(String testName, boolean isSlowConnection, List<InetSocketAddress> ipList) throws IOException {
+        // Given
+        FakeWritableByteChannel channel = newWritableChannel(isSlowConnection);
+        ConnectionBuffers senderBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        ConnectionBuffers receiverBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        long timestamp = 42L;
+
+        // When
+        PacketSerializer.sendPing(channel, senderBuffers, timestamp, MembershipPayload.encode(ipList).view());
+
+        // Then
+        ArrayList<InetSocketAddress> actualIps = new ArrayList<>();
+        long actualTimestamp = receivePing(newReadableChannel(channel.getDataWritten()), receiverBuffers, new FrameReader(), actualIps::addAll);
+
+        assertThat(actualIps).containsExactlyElementsOf(ipList);
+        assertThat(actualTimestamp).isEqualTo(timestamp);
+    }
+
+    @MethodSource("pingTestCases")
+    @ParameterizedTest(name = "{0}")
+    void shouldReadPingSentUsingConnectionBuffers(String testName, boolean isSlowConnection, List<InetSocketAddress> ipList) throws IOException {
+        // Given
+        FakeWritableByteChannel channel = newWritableChannel(isSlowConnection);
+        ConnectionBuffers senderBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        ConnectionBuffers receiverBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        long timestamp = 42L;
+
+        // When
+        PacketSerializer.sendPing(channel, senderBuffers, timestamp, MembershipPayload.encode(ipList).view());
+
+        // Then
+        ArrayList<InetSocketAddress> actualIps = new ArrayList<>();
+        long actualTimestamp = receivePing(newReadableChannel(channel.getDataWritten()), receiverBuffers, new FrameReader(), actualIps::addAll);
+
+        assertThat(actualIps).containsExactlyElementsOf(ipList);
+        assertThat(actualTimestamp).isEqualTo(timestamp);
+    }
+
+    @Test
+    void shouldPassServersToConsumerOnlyWhenTheyChange() throws IOException {
+        // Given
+        LoopbackByteChannel channel = newLoopbackChannel();
+        ConnectionBuffers senderBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        ConnectionBuffers receiverBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        FrameReader reader = new FrameReader();
+        List<List<InetSocketAddress>> received = new ArrayList<>();
+
+        List<InetSocketAddress> servers = new ArrayList<>(List.of(new InetSocketAddress("10.2.0.1", 8083)));
+
+        // When
+        PacketSerializer.sendPing(channel, senderBuffers, 1L, MembershipPayload.encode(servers).view());
+        receivePing(channel, receiverBuffers, reader, received::add);
+
+        // Sender that does not know about membership versions repeats the same list
+        PacketSerializer.sendPing(channel, senderBuffers, 2L, MembershipPayload.encode(servers).view());
+        receivePing(channel, receiverBuffers, reader, received::add);
+
+        // Empty list means no change
+        PacketSerializer.sendPing(channel, senderBuffers, 3L, MembershipPayload.EMPTY.view());
+        receivePing(channel, receiverBuffers, reader, received::add);
+
+        servers.add(new InetSocketAddress("127.0.0.1", 8082));
+        PacketSerializer.sendPing(channel, senderBuffers, 4L, MembershipPayload.encode(servers).view());
+        receivePing(channel, receiverBuffers, reader, received::add);
+
+        // Then
+        assertThat(received).containsExactly(servers.subList(0, 1), servers);
+    }
+
+    @Test
+    void shouldNotAllocateWhenSendingAndReceivingInSteadyState() throws IOException {
+        // Given
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        LoopbackByteChannel channel = newLoopbackChannel();
+        ConnectionBuffers senderBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        ConnectionBuffers receiverBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        FrameReader reader = new FrameReader();
+        MembershipPayload servers = MembershipPayload.encode(List.of(
+                new InetSocketAddress("2001:db8::1", 8081),
+                new InetSocketAddress("127.0.0.1", 8082),
+                new InetSocketAddress("10.2.0.1", 8083)));
+        ByteBuffer view = servers.view();
+        Consumer<List<InetSocketAddress>> consumer = list -> {
+        };
+
+        // Warm up, so that neither class loading nor JIT compilation is measured
+        long start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 50_000; i++) {
+            PacketSerializer.sendPing(channel, senderBuffers, i, servers.select(view, 0, servers.size()));
+            receivePing(channel, receiverBuffers, reader, consumer);
+        }
+
+        // When
+        int pings = 10_000;
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < pings; i++) {
+            PacketSerializer.sendPing(channel, senderBuffers, i, servers.select(view, 0, servers.size()));
+            receivePing(channel, receiverBuffers, reader, consumer);
+        }
+        long after = threadMXBean.getThreadAllocatedBytes(threadId);
+
+        // Then
+        assertThat(before).isGreaterThan(start);
+        assertThat(after - before).isLessThan(pings);
+    }
+
+    @Test
+    void shouldReportFramesOfNewerNodesAsUnknown() throws IOException {
+        // Given
+        ByteBuffer body = ByteBuffer.wrap(new byte[]{42, 1, 2, 3});
+
+        // When
+        FrameReader reader = new FrameReader().wrap(body);
+
+        // Then
+        assertThat(reader.isUnknown()).isTrue();
+        assertThat(reader.type()).isEqualTo((byte) 42);
+    }
+
+    @Test
+    void shouldRejectTruncatedFrames() {
+        // Given
+        ByteBuffer echo = ByteBuffer.wrap(new byte[]{PacketSerializer.ECHO_FRAME, 0, 0, 0, 0, 0, 0, 0, 0});
+        ByteBuffer paddedPing = ByteBuffer.allocate(PacketSerializer.PADDED_PING_HEADER_SIZE - Integer.BYTES);
+        paddedPing.put(PacketSerializer.PADDED_PING_FRAME).putInt(1).putInt(1000).putLong(42L).flip();
+
+        // When / Then
+        assertThatThrownBy(() -> new FrameReader().wrap(echo))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Frame of 9 bytes is too short, expected at least 25");
+        assertThatThrownBy(() -> new FrameReader().wrap(paddedPing))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Invalid ping payload size 1000");
+    }
+
+    @Test
+    void shouldNotAllocateWhenReading() throws IOException {
+        // Given
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        ByteBuffer frame = ByteBuffer.allocateDirect(256);
+        PacketSerializer.writePing(frame, 7, 42L, ByteBuffer.allocate(0), ByteBuffer.allocate(100));
+        ByteBuffer body = body(frame);
+        FrameReader reader = new FrameReader();
+
+        // Warm up, so that neither class loading nor JIT compilation is measured
+        long sum = 0;
+        for (int i = 0; i < 50_000; i++) {
+            sum += read(reader, body);
+        }
+
+        // When
+        int frames = 10_000;
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < frames; i++) {
+            sum += read(reader, body);
+        }
+        long after = threadMXBean.getThreadAllocatedBytes(threadId);
+
+        // Then
+        assertThat(sum).isEqualTo(60_000L * (7 + 100 + 42));
+        assertThat(after - before).isLessThan(frames);
+    }
+
+    private static long read(FrameReader reader, ByteBuffer body) throws IOException {
+        body.rewind();
+        reader.wrap(body);
+        return reader.sequence() + reader.payloadSize() + reader.timestamp();
+    }
+
+    /**
+     * Receives a ping the way monitors do and returns its timestamp.
+     */
+    private static long receivePing(ReadableByteChannel channel,
+                                    ConnectionBuffers buffers,
+                                    FrameReader reader,
+                                    Consumer<List<InetSocketAddress>> meshConsumer) throws IOException {
+        reader.wrap(PacketSerializer.receiveFrame(channel, buffers));
+        PacketSerializer.readMembership(reader.membership(), buffers, meshConsumer);
+        return reader.timestamp();
+    }
+
+    /**
+     * Skips the length prefix of an encoded frame.
+     */
+    private static ByteBuffer body(ByteBuffer frame) {
+        frame.flip();
+        frame.position(Integer.BYTES);
+        return frame.slice();
+    }
+}
@@ -10,6 +10,7 @@ package org.voltdb.meshmonitor.serdes;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
@@ -21,7 +22,7 @@ import static org.junit.jupiter.api.Assertions.*;
 class IpPortSerializerTest {
 
     @Test
-    void shouldSerializeAndDeserializeSingleIpPort() {
+    void shouldSerializeAndDeserializeSingleIpPort() throws IOException {
         // Givens
         ByteBuffer buffer = ByteBuffer.allocate(1024);
         InetSocketAddress expected = new InetSocketAddress("127.0.0.1", 8080);
@@ -38,7 +39,7 @@ class IpPortSerializerTest {
     }
 
     @Test
-    void shouldSerializeAndDeserializeMultipleIpPorts() {
+    void shouldSerializeAndDeserializeMultipleIpPorts() throws IOException {
         // Given
         ByteBuffer buffer = ByteBuffer.allocate(1024);
         List<InetSocketAddress> expected = Arrays.asList(
@@ -71,7 +72,7 @@ class IpPortSerializerTest {
     }
 
     @Test
-    void shouldHandleInsufficientBufferSpaceWhenSerializingManyIps() {
+    void shouldHandleInsufficientBufferSpaceWhenSerializingManyIps() throws IOException {
         // Given
         ByteBuffer buffer = ByteBuffer.allocate(11);
         List<InetSocketAddress> addresses = Arrays.asList(
@@ -90,7 +91,24 @@ class IpPortSerializerTest {
     }
 
     @Test
-    void shouldSerializeAndDeserializeSingleIpv6() {
+    void shouldSerializeIntoBufferOfExactlySerializedSize() throws IOException {
+        // Given
+        InetSocketAddress ipv4 = new InetSocketAddress("127.0.0.1", 8080);
+        InetSocketAddress ipv6 = new InetSocketAddress("2001:db8::1", 8080);
+        ByteBuffer buffer = ByteBuffer.allocate(IpPortSerializer.serializedSize(ipv4) + IpPortSerializer.serializedSize(ipv6));
+
+        // When
+        boolean serializeResult = IpPortSerializer.serialize(buffer, Arrays.asList(ipv4, ipv6));
+        buffer.flip();
+        List<InetSocketAddress> actual = IpPortSerializer.deserialize(buffer);
+
+        // Then
+        assertThat(serializeResult).isTrue();
+        assertThat(actual).containsExactly(ipv4, ipv6);
+    }
+
+    @Test
+    void shouldSerializeAndDeserializeSingleIpv6() throws IOException {
         // Given
         ByteBuffer buffer = ByteBuffer.allocate(1024);
         InetSocketAddress expected = new InetSocketAddress("2001:db8::1", 8080);
@@ -106,7 +124,7 @@ class IpPortSerializerTest {
     }
 
     @Test
-    void shouldSerializeAndDeserializeMultipleIpv6() {
+    void shouldSerializeAndDeserializeMultipleIpv6() throws IOException {
         // Given
         ByteBuffer buffer = ByteBuffer.allocate(1024);
         List<InetSocketAddress> expected = Arrays.asList(
@@ -138,7 +156,7 @@ class IpPortSerializerTest {
     }
 
     @Test
-    void shouldSerializeAndDeserializeMixOfIPv4AndIPv6Addresses() {
+    void shouldSerializeAndDeserializeMixOfIPv4AndIPv6Addresses() throws IOException {
         // Given
         ByteBuffer buffer = ByteBuffer.allocate(1024);
         List<InetSocketAddress> expected = Arrays.asList(
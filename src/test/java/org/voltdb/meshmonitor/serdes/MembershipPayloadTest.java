@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.serdes;
+
+import org.junit.jupiter.api.Test;
+import org.voltdb.meshmonitor.testutils.LoopbackByteChannel;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.voltdb.meshmonitor.testutils.FileChannelUtils.newLoopbackChannel;
+
+class MembershipPayloadTest {
+
+    private static final List<InetSocketAddress> CONNECTIONS = List.of(
+            new InetSocketAddress("10.1.0.2", 8080),
+            new InetSocketAddress("2001:db8::1", 8081),
+            new InetSocketAddress("10.1.0.3", 8082));
+
+    @Test
+    void shouldEncodeSameBytesAsSerializer() {
+        // Given
+        ByteBuffer expected = ByteBuffer.allocate(64);
+        IpPortSerializer.serialize(expected, CONNECTIONS);
+        expected.flip();
+
+        // When
+        MembershipPayload payload = MembershipPayload.encode(CONNECTIONS);
+        ByteBuffer encoded = payload.select(payload.view(), 0, payload.size());
+
+        // Then
+        assertThat(encoded).isEqualTo(expected);
+        assertThat(payload.connections()).isEqualTo(CONNECTIONS);
+    }
+
+    @Test
+    void shouldFindChunksOfWholeAddresses() {
+        // Given
+        MembershipPayload payload = MembershipPayload.encode(CONNECTIONS);
+
+        // When / Then
+        assertThat(payload.chunkEnd(0, 6)).isEqualTo(0);
+        assertThat(payload.chunkEnd(0, 7)).isEqualTo(1);
+        assertThat(payload.chunkEnd(0, 7 + 19)).isEqualTo(2);
+        assertThat(payload.chunkEnd(0, 1024)).isEqualTo(3);
+        assertThat(payload.chunkEnd(1, 19 + 6)).isEqualTo(2);
+        assertThat(payload.chunkEnd(3, 1024)).isEqualTo(3);
+    }
+
+    @Test
+    void shouldSendSelectedRangeInPing() throws IOException {
+        // Given
+        MembershipPayload payload = MembershipPayload.encode(CONNECTIONS);
+        ByteBuffer view = payload.view();
+
+        LoopbackByteChannel channel = newLoopbackChannel();
+        ConnectionBuffers senderBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        ConnectionBuffers receiverBuffers = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+        List<List<InetSocketAddress>> received = new ArrayList<>();
+
+        // When
+        PacketSerializer.sendPing(channel, senderBuffers, 42L, payload.select(view, 1, 3));
+        FrameReader frame = new FrameReader().wrap(PacketSerializer.receiveFrame(channel, receiverBuffers));
+        PacketSerializer.readMembership(frame.membership(), receiverBuffers, received::add);
+        long timestamp = frame.timestamp();
+
+        // Then
+        assertThat(timestamp).isEqualTo(42L);
+        assertThat(received).containsExactly(CONNECTIONS.subList(1, 3));
+        assertThat(view.hasRemaining()).isFalse();
+    }
+}
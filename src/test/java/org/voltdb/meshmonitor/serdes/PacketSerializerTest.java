@@ -8,9 +8,6 @@
 package org.voltdb.meshmonitor.serdes;
 
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.params.ParameterizedTest;
-import org.junit.jupiter.params.provider.Arguments;
-import org.junit.jupiter.params.provider.MethodSource;
 import org.voltdb.meshmonitor.testutils.FakeWritableByteChannel;
 
 import java.io.IOException;
@@ -18,7 +15,6 @@ import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.voltdb.meshmonitor.testutils.FileChannelUtils.newReadableChannel;
@@ -26,39 +22,6 @@ import static org.voltdb.meshmonitor.testutils.FileChannelUtils.newWritableChann
 
 class PacketSerializerTest {
 
-    static Stream<Arguments> pingTestCases() {
-        return Stream.of(
-                Arguments.of("Ping message with empty IP list",
-                        false,
-                        List.of()
-                ),
-                Arguments.of("Ping message with empty IP list (slow connection)",
-                        true,
-                        List.of()
-                ),
-                Arguments.of("Ping message with single IP",
-                        false,
-                        List.of(new InetSocketAddress("127.0.0.1", 8080))
-                ),
-                Arguments.of("Ping message with single IP (slow connection)",
-                        true,
-                        List.of(new InetSocketAddress("127.0.0.1", 8080))
-                ),
-                Arguments.of("Ping message with many IPs",
-                        false,
-                        List.of(new InetSocketAddress("2001:db8::1", 8081),
-                                new InetSocketAddress("127.0.0.1", 8082),
-                                new InetSocketAddress("10.2.0.1", 8083))
-                ),
-                Arguments.of("Ping message with many IPs (slow connection)",
-                        true,
-                        List.of(new InetSocketAddress("2001:db8::1", 8081),
-                                new InetSocketAddress("127.0.0.1", 8082),
-                                new InetSocketAddress("10.2.0.1", 8083))
-                )
-        );
-    }
-
     @Test
     void shouldSerializeAndWriteHelloMessage() throws IOException {
         // Given
@@ -93,23 +56,115 @@ class PacketSerializerTest {
         assertThat(actual).isEqualTo(expected);
     }
 
-    @MethodSource("pingTestCases")
-    @ParameterizedTest(name = "{0}")
-    void shouldSerializeAndWritePingMessage_NoIps(String testName, boolean isSlowConnection, List<InetSocketAddress> ipList) throws IOException {
+    @Test
+    void shouldAdvertiseCapabilitiesAfterAddressInHelloMessage() throws IOException {
         // Given
-        FakeWritableByteChannel channel = newWritableChannel(isSlowConnection);
-        long timestamp = 42L;
+        FakeWritableByteChannel channel = newWritableChannel(false);
 
         // When
-        PacketSerializer.sendPing(channel, timestamp, ipList);
+        PacketSerializer.writeHelloMessage(channel, new InetSocketAddress("127.0.0.1", 8080));
 
         // Then
-        ByteBuffer dataWritten = channel.getDataWritten();
+        ByteBuffer byteBuffer = PacketSerializer.readPacketFully(newReadableChannel(channel.getDataWritten()));
+        IpPortSerializer.deserializeSingleIp(byteBuffer);
+
+        assertThat(PacketSerializer.readHelloCapabilities(byteBuffer))
+                .isEqualTo(PacketSerializer.CAPABILITY_ECHO | PacketSerializer.CAPABILITY_SEQUENCE | PacketSerializer.CAPABILITY_PADDING);
+    }
+
+    @Test
+    void shouldReadNoCapabilitiesFromLegacyHelloMessage() throws IOException {
+        // Given
+        ByteBuffer byteBuffer = ByteBuffer.allocate(32);
+        IpPortSerializer.serialize(byteBuffer, new InetSocketAddress("127.0.0.1", 8080));
+        byteBuffer.flip();
+
+        // When
+        IpPortSerializer.deserializeSingleIp(byteBuffer);
+
+        // Then
+        assertThat(PacketSerializer.readHelloCapabilities(byteBuffer)).isZero();
+    }
+
+    @Test
+    void shouldSendLaneAndProtocolVersionAfterCapabilitiesInHelloMessage() throws IOException {
+        // Given
+        FakeWritableByteChannel channel = newWritableChannel(false);
+        InetSocketAddress self = new InetSocketAddress("127.0.0.1", 8080);
+
+        // When
+        PacketSerializer.writeHelloMessage(channel, self, 2);
+
+        // Then
+        ByteBuffer hello = PacketSerializer.readPacketFully(newReadableChannel(channel.getDataWritten()));
+        assertThat(IpPortSerializer.deserializeSingleIp(hello)).isEqualTo(self);
+        PacketSerializer.readHelloCapabilities(hello);
+        assertThat(PacketSerializer.readHelloLane(hello)).isEqualTo(2);
+        assertThat(PacketSerializer.readHelloVersion(hello)).isEqualTo(PacketSerializer.PROTOCOL_VERSION);
+        assertThat(hello.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void shouldReadDefaultsFromHelloMessageOfOlderNode() throws IOException {
+        // Given
+        ByteBuffer hello = ByteBuffer.allocate(32);
+        IpPortSerializer.serialize(hello, new InetSocketAddress("127.0.0.1", 8080));
+        hello.put((byte) PacketSerializer.CAPABILITY_ECHO);
+        hello.flip();
+
+        // When
+        IpPortSerializer.deserializeSingleIp(hello);
+        int capabilities = PacketSerializer.readHelloCapabilities(hello);
+
+        // Then
+        assertThat(capabilities).isEqualTo(PacketSerializer.CAPABILITY_ECHO);
+        assertThat(PacketSerializer.readHelloLane(hello)).isZero();
+        assertThat(PacketSerializer.readHelloVersion(hello)).isZero();
+    }
 
-        ArrayList<InetSocketAddress> actualIps = new ArrayList<>();
-        long actualTimetamp = PacketSerializer.receiveTimestamp(newReadableChannel(dataWritten), actualIps::addAll);
+    @Test
+    void shouldUsePayloadSizesInTurn() {
+        // Given
+        ConnectionBuffers padded = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[]{1, 9000, 65536});
+        ConnectionBuffers notPadded = new ConnectionBuffers(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE, new int[0]);
+
+        // When
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            sizes.add(padded.nextPayload().remaining());
+        }
+
+        // Then
+        assertThat(sizes).containsExactly(1, 9000, 65536, 1);
+        assertThat(padded.sendBuffer().capacity()).isEqualTo(ConnectionBuffers.DEFAULT_MAX_FRAME_SIZE + 65536);
+        assertThat(notPadded.nextPayload().hasRemaining()).isFalse();
+    }
+
+    @Test
+    void shouldWriteAndReadUdpProbe() {
+        // Given
+        ByteBuffer datagram = ByteBuffer.allocate(PacketSerializer.UDP_PROBE_SIZE + 1);
+
+        // When
+        PacketSerializer.writeProbe(datagram, PacketSerializer.UDP_PROBE_REPLY, 17, 42L);
+        datagram.flip();
+
+        // Then
+        assertThat(datagram.remaining()).isEqualTo(PacketSerializer.UDP_PROBE_SIZE);
+        assertThat(PacketSerializer.probeType(datagram)).isEqualTo(PacketSerializer.UDP_PROBE_REPLY);
+        assertThat(PacketSerializer.probeSequence(datagram)).isEqualTo(17);
+        assertThat(PacketSerializer.probeTimestamp(datagram)).isEqualTo(42L);
+    }
+
+    @Test
+    void shouldRejectDatagramsThatAreNotProbes() {
+        // Given
+        ByteBuffer tooShort = ByteBuffer.allocate(PacketSerializer.UDP_PROBE_SIZE - 1);
+        ByteBuffer unknownType = ByteBuffer.allocate(PacketSerializer.UDP_PROBE_SIZE);
+        unknownType.put(0, (byte) 42);
 
-        assertThat(actualIps).containsExactlyElementsOf(ipList);
-        assertThat(actualTimetamp).isEqualTo(timestamp);
+        // When / Then
+        assertThat(PacketSerializer.probeType(tooShort)).isZero();
+        assertThat(PacketSerializer.probeType(unknownType)).isZero();
     }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.serdes;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PeerAddressTableTest {
+
+    private static final InetSocketAddress IPV4 = new InetSocketAddress("10.1.0.2", 8080);
+    private static final InetSocketAddress IPV6 = new InetSocketAddress("2001:db8::1", 8080);
+
+    @Test
+    void shouldReturnSameInstanceForSameAddress() throws IOException {
+        // Given
+        PeerAddressTable table = new PeerAddressTable(PeerAddressTable.MAX_ENTRIES);
+
+        // When
+        InetSocketAddress first = table.intern(serialized(IPV4));
+        InetSocketAddress second = table.intern(serialized(IPV4));
+        InetSocketAddress fromSocketAddress = table.intern(IPV4);
+        InetSocketAddress ipv6 = table.intern(serialized(IPV6));
+        InetSocketAddress otherPort = table.intern(serialized(new InetSocketAddress("10.1.0.2", 8081)));
+
+        // Then
+        assertThat(first).isEqualTo(IPV4);
+        assertThat(second).isSameAs(first);
+        assertThat(fromSocketAddress).isSameAs(first);
+        assertThat(ipv6).isEqualTo(IPV6);
+        assertThat(otherPort).isNotEqualTo(first);
+        assertThat(table.size()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldAdvanceBufferPastAddress() throws IOException {
+        // Given
+        PeerAddressTable table = new PeerAddressTable(PeerAddressTable.MAX_ENTRIES);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        IpPortSerializer.serialize(buffer, IPV6);
+        IpPortSerializer.serialize(buffer, IPV4);
+        buffer.flip();
+
+        // When
+        InetSocketAddress first = table.intern(buffer);
+        InetSocketAddress second = table.intern(buffer);
+
+        // Then
+        assertThat(first).isEqualTo(IPV6);
+        assertThat(second).isEqualTo(IPV4);
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void shouldKeepAllEntriesWhenGrowing() throws IOException {
+        // Given
+        PeerAddressTable table = new PeerAddressTable(PeerAddressTable.MAX_ENTRIES);
+        InetSocketAddress[] interned = new InetSocketAddress[2000];
+
+        // When
+        for (int i = 0; i < interned.length; i++) {
+            interned[i] = table.intern(serialized(new InetSocketAddress("10.0." + (i / 256) + "." + (i % 256), 12222)));
+        }
+
+        // Then
+        assertThat(table.size()).isEqualTo(interned.length);
+        for (int i = 0; i < interned.length; i++) {
+            assertThat(table.intern(serialized(interned[i]))).isSameAs(interned[i]);
+        }
+    }
+
+    @Test
+    void shouldStopInterningWhenFull() throws IOException {
+        // Given
+        PeerAddressTable table = new PeerAddressTable(1);
+        table.intern(IPV4);
+
+        // When
+        InetSocketAddress first = table.intern(serialized(IPV6));
+        InetSocketAddress second = table.intern(serialized(IPV6));
+
+        // Then
+        assertThat(first).isEqualTo(second).isNotSameAs(second);
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectInvalidAddressLength() {
+        // Given
+        PeerAddressTable table = new PeerAddressTable(PeerAddressTable.MAX_ENTRIES);
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.put((byte) 5).put(new byte[5]).putShort((short) 8080).flip();
+
+        // When / Then
+        assertThatThrownBy(() -> table.intern(buffer))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Invalid address length 5");
+    }
+
+    @Test
+    void shouldRejectTruncatedAddress() {
+        // Given
+        PeerAddressTable table = new PeerAddressTable(PeerAddressTable.MAX_ENTRIES);
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.put((byte) 4).put(new byte[4]).flip();
+
+        // When / Then
+        assertThatThrownBy(() -> table.intern(buffer))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Address truncated, expected 6 bytes but got 4");
+    }
+
+    @Test
+    void shouldNotAllocateWhenDecodingKnownPeer() throws IOException {
+        // Given
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        PeerAddressTable table = new PeerAddressTable(PeerAddressTable.MAX_ENTRIES);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        IpPortSerializer.serialize(buffer, IPV4);
+        IpPortSerializer.serialize(buffer, IPV6);
+        buffer.flip();
+
+        // Warm up, so that neither class loading nor JIT compilation is measured
+        for (int i = 0; i < 50_000; i++) {
+            table.intern(buffer);
+            table.intern(buffer);
+            buffer.rewind();
+        }
+
+        // When
+        int decodes = 10_000;
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < decodes; i++) {
+            table.intern(buffer);
+            table.intern(buffer);
+            buffer.rewind();
+        }
+        long after = threadMXBean.getThreadAllocatedBytes(threadId);
+
+        // Then
+        assertThat(after - before).isLessThan(decodes);
+    }
+
+    private static ByteBuffer serialized(InetSocketAddress address) {
+        ByteBuffer buffer = ByteBuffer.allocate(IpPortSerializer.serializedSize(address));
+        IpPortSerializer.serialize(buffer, address);
+        buffer.flip();
+        return buffer;
+    }
+}
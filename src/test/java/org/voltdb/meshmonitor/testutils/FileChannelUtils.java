@@ -19,6 +19,10 @@ public class FileChannelUtils {
         return new ByteBufferReadableByteChannel(data);
     }
 
+    public static LoopbackByteChannel newLoopbackChannel() {
+        return new LoopbackByteChannel();
+    }
+
     /**
      * It simulates put method that is available only since Java 16:
      * <p>
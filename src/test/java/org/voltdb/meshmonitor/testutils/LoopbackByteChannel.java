@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2024-2026 Volt Active Data Inc.
+ *
+ * Use of this source code is governed by an MIT
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package org.voltdb.meshmonitor.testutils;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+
+/**
+ * Channel that reads back whatever was written to it. Neither reading nor writing allocates, so it can be used
+ * to check allocation behaviour of code under test.
+ */
+public class LoopbackByteChannel implements ByteChannel {
+
+    private final ByteBuffer data = ByteBuffer.allocate(64 * 1024);
+
+    @Override
+    public int write(ByteBuffer src) {
+        int written = src.remaining();
+        data.put(src);
+
+        return written;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) {
+        data.flip();
+        int toBeRead = Math.min(dst.remaining(), data.remaining());
+
+        int limit = data.limit();
+        data.limit(data.position() + toBeRead);
+        dst.put(data);
+        data.limit(limit);
+        data.compact();
+
+        return toBeRead;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+    }
+}